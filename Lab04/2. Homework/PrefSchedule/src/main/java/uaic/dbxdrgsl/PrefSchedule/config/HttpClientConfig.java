@@ -1,8 +1,17 @@
 package uaic.dbxdrgsl.PrefSchedule.config;
 
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.function.Function;
 
 /**
  * Configuration for HTTP clients used in the application
@@ -10,11 +19,59 @@ import org.springframework.web.reactive.function.client.WebClient;
 @Configuration
 public class HttpClientConfig {
 
+    @Value("${stable-match.timeout:5000}")
+    private long responseTimeoutMs;
+
+    @Value("${stable-match.http.connect-timeout:2000}")
+    private int connectTimeoutMs;
+
+    @Value("${stable-match.http.max-connections:16}")
+    private int maxConnections;
+
+    @Value("${stable-match.http.pending-acquire-timeout:10000}")
+    private long pendingAcquireTimeoutMs;
+
+    @Value("${stable-match.http.max-idle-time:30000}")
+    private long maxIdleTimeMs;
+
+    @Value("${stable-match.http.max-life-time:300000}")
+    private long maxLifeTimeMs;
+
+    @Value("${stable-match.http.protocols:HTTP11}")
+    private HttpProtocol[] protocols;
+
+    /**
+     * Pooled, kept-alive connections. Idle connections are closed before the server would
+     * drop them, and pool usage and acquisition times are published as
+     * {@code reactor.netty.connection.provider.*} metrics.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider httpConnectionProvider() {
+        return ConnectionProvider.builder("stable-match")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleTimeMs))
+                .maxLifeTime(Duration.ofMillis(maxLifeTimeMs))
+                .evictInBackground(Duration.ofMillis(maxIdleTimeMs))
+                .metrics(true)
+                .build();
+    }
+
     /**
      * Create a WebClient bean for making HTTP requests to external services
      */
     @Bean
-    public WebClient webClient(WebClient.Builder builder) {
-        return builder.build();
+    public WebClient webClient(WebClient.Builder builder, ConnectionProvider httpConnectionProvider) {
+        HttpClient httpClient = HttpClient.create(httpConnectionProvider)
+                .protocol(protocols)
+                .keepAlive(true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs))
+                // Accept gzip-compressed responses; large matching results compress well
+                .compress(true)
+                .metrics(true, Function.identity());
+        return builder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
     }
 }
@@ -25,11 +25,15 @@ public class KafkaConsumerConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${grades.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+
     @Bean
     public ConsumerFactory<String, GradeEvent> consumerFactory() {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, "prefschedule-grades");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
         props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
@@ -39,13 +43,23 @@ public class KafkaConsumerConfig {
         return new DefaultKafkaConsumerFactory<>(props);
     }
 
+    /**
+     * Batch listeners by default, with one consumer per partition of the grades topic.
+     * A listener that throws {@link org.springframework.kafka.listener.BatchListenerFailedException}
+     * has the records before the failed one committed, the failed one sent to grades.DLT and
+     * the rest redelivered; invalid payloads go to the DLT without being retried.
+     */
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, GradeEvent> kafkaListenerContainerFactory(KafkaTemplate<Object, Object> template) {
         ConcurrentKafkaListenerContainerFactory<String, GradeEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        factory.setBatchListener(true);
+        factory.setConcurrency(KafkaDlqConfig.PARTITIONS);
         DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(template,
-                (r, e) -> new org.apache.kafka.common.TopicPartition("grades.DLT", r.partition()));
-        factory.setCommonErrorHandler(new DefaultErrorHandler(recoverer, new FixedBackOff(1000L, 3L)));
+                (r, e) -> new org.apache.kafka.common.TopicPartition(KafkaDlqConfig.DLT_TOPIC, r.partition()));
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, new FixedBackOff(1000L, 3L));
+        errorHandler.addNotRetryableExceptions(IllegalArgumentException.class);
+        factory.setCommonErrorHandler(errorHandler);
         return factory;
     }
 }
@@ -9,15 +9,16 @@ public class KafkaDlqConfig {
 
     public static final String GRADES_TOPIC = "grades";
     public static final String DLT_TOPIC = "grades.DLT";
+    public static final int PARTITIONS = 3;
 
     @Bean
     public NewTopic gradesTopic() {
-        return new NewTopic(GRADES_TOPIC, 3, (short) 1);
+        return new NewTopic(GRADES_TOPIC, PARTITIONS, (short) 1);
     }
 
     @Bean
     public NewTopic gradesDltTopic() {
-        return new NewTopic(DLT_TOPIC, 3, (short) 1);
+        return new NewTopic(DLT_TOPIC, PARTITIONS, (short) 1);
     }
 
 }
@@ -23,20 +23,20 @@ public class ResilienceConfig {
      * Configure retry registry with event logging
      */
     @Bean
-    public RegistryEventConsumer<Retry> retryRegistryEventConsumer() {
+    public RegistryEventConsumer<Retry> retryEventLogger() {
         return new RegistryEventConsumer<Retry>() {
             @Override
-            public void onEntryAdded(EntryAddedEvent<Retry> entryAddedEvent) {
+            public void onEntryAddedEvent(EntryAddedEvent<Retry> entryAddedEvent) {
                 log.info("Retry added: {}", entryAddedEvent.getAddedEntry().getName());
             }
 
             @Override
-            public void onEntryRemoved(EntryRemovedEvent<Retry> entryRemoveEvent) {
+            public void onEntryRemovedEvent(EntryRemovedEvent<Retry> entryRemoveEvent) {
                 log.info("Retry removed: {}", entryRemoveEvent.getRemovedEntry().getName());
             }
 
             @Override
-            public void onEntryReplaced(EntryReplacedEvent<Retry> entryReplacedEvent) {
+            public void onEntryReplacedEvent(EntryReplacedEvent<Retry> entryReplacedEvent) {
                 log.info("Retry replaced: {}", entryReplacedEvent.getNewEntry().getName());
             }
         };
@@ -46,20 +46,20 @@ public class ResilienceConfig {
      * Configure time limiter registry with event logging
      */
     @Bean
-    public RegistryEventConsumer<TimeLimiter> timeLimiterRegistryEventConsumer() {
+    public RegistryEventConsumer<TimeLimiter> timeLimiterEventLogger() {
         return new RegistryEventConsumer<TimeLimiter>() {
             @Override
-            public void onEntryAdded(EntryAddedEvent<TimeLimiter> entryAddedEvent) {
+            public void onEntryAddedEvent(EntryAddedEvent<TimeLimiter> entryAddedEvent) {
                 log.info("TimeLimiter added: {}", entryAddedEvent.getAddedEntry().getName());
             }
 
             @Override
-            public void onEntryRemoved(EntryRemovedEvent<TimeLimiter> entryRemoveEvent) {
+            public void onEntryRemovedEvent(EntryRemovedEvent<TimeLimiter> entryRemoveEvent) {
                 log.info("TimeLimiter removed: {}", entryRemoveEvent.getRemovedEntry().getName());
             }
 
             @Override
-            public void onEntryReplaced(EntryReplacedEvent<TimeLimiter> entryReplacedEvent) {
+            public void onEntryReplacedEvent(EntryReplacedEvent<TimeLimiter> entryReplacedEvent) {
                 log.info("TimeLimiter replaced: {}", entryReplacedEvent.getNewEntry().getName());
             }
         };
@@ -6,10 +6,12 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
-import com.stablematch.dto.StableMatchingResponseDTO;
-import uaic.dbxdrgsl.PrefSchedule.service.CourseAssignmentOrchestrationService;
+import uaic.dbxdrgsl.PrefSchedule.dto.AssignmentRunDTO;
+import uaic.dbxdrgsl.PrefSchedule.dto.ScoreRebuildResultDTO;
+import uaic.dbxdrgsl.PrefSchedule.service.AssignmentRunService;
+import uaic.dbxdrgsl.PrefSchedule.service.StudentScoreStore;
 
-import java.util.Map;
+import java.net.URI;
 
 /**
  * REST Controller for managing course assignments.
@@ -22,76 +24,112 @@ import java.util.Map;
 @CrossOrigin(origins = "*", maxAge = 3600)
 public class CourseAssignmentController {
 
-    private final CourseAssignmentOrchestrationService orchestrationService;
+    private final AssignmentRunService assignmentRunService;
+    private final StudentScoreStore studentScoreStore;
 
     /**
-     * Execute the complete assignment workflow.
-     * Processes all optional courses in batches and invokes StableMatch service.
+     * Start the complete assignment workflow as a background run.
+     * Processes all optional courses in batches and invokes StableMatch service;
+     * progress is available from {@code GET /api/assignments/runs/{runId}}.
      *
-     * @param batchSize number of courses per batch (default: 5)
-     * @return map of batch results
+     * @param batchSize number of courses per batch (default: 5), or 0 to solve all optional courses at once
+     * @return the queued run
      */
     @PostMapping("/execute-workflow")
     @PreAuthorize("hasAnyRole('ADMIN')")
-    public ResponseEntity<AssignmentWorkflowResponse> executeAssignmentWorkflow(
+    public ResponseEntity<AssignmentRunDTO> executeAssignmentWorkflow(
             @RequestParam(defaultValue = "5") int batchSize) {
 
         log.info("POST /api/assignments/execute-workflow - Starting assignment workflow with batch size: {}", batchSize);
 
-        if (batchSize <= 0) {
-            return ResponseEntity.badRequest().body(AssignmentWorkflowResponse.builder()
+        if (batchSize < 0) {
+            return ResponseEntity.badRequest().body(AssignmentRunDTO.builder()
                     .status("FAILED")
-                    .message("Batch size must be greater than 0")
-                    .totalBatches(0)
-                    .successfulBatches(0)
+                    .message("Batch size cannot be negative")
                     .build());
         }
 
         try {
-            long startTime = System.currentTimeMillis();
-            Map<Integer, StableMatchingResponseDTO> results =
-                    orchestrationService.executeAssignmentWorkflow(batchSize);
-
-            long executionTime = System.currentTimeMillis() - startTime;
-
-            int successfulBatches = (int) results.values().stream()
-                    .filter(r -> "SUCCESS".equals(r.getStatus()))
-                    .count();
-
-            return ResponseEntity.ok(AssignmentWorkflowResponse.builder()
-                    .status("COMPLETED")
-                    .message("Assignment workflow executed successfully")
-                    .totalBatches(results.size())
-                    .successfulBatches(successfulBatches)
-                    .executionTimeMs(executionTime)
-                    .results(results)
-                    .build());
-
+            AssignmentRunDTO run = assignmentRunService.startRun(batchSize);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/assignments/runs/" + run.getRunId()))
+                    .body(run);
+        } catch (IllegalStateException e) {
+            log.warn("Assignment workflow not started: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(AssignmentRunDTO.builder()
+                            .status("REJECTED")
+                            .message(e.getMessage())
+                            .build());
         } catch (Exception e) {
-            log.error("Error executing assignment workflow", e);
+            log.error("Error starting assignment workflow", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(AssignmentWorkflowResponse.builder()
+                    .body(AssignmentRunDTO.builder()
                             .status("FAILED")
                             .message("Error executing workflow: " + e.getMessage())
-                            .totalBatches(0)
-                            .successfulBatches(0)
                             .build());
         }
     }
 
     /**
-     * Data Transfer Object for assignment workflow response
+     * Get the progress of an assignment run and of each of its batches
+     */
+    @GetMapping("/runs/{runId}")
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    public ResponseEntity<AssignmentRunDTO> getRun(@PathVariable String runId) {
+        log.info("GET /api/assignments/runs/{} - Retrieving run progress", runId);
+        try {
+            return ResponseEntity.ok(assignmentRunService.getRun(runId));
+        } catch (IllegalArgumentException e) {
+            log.error("Error retrieving assignment run: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Cancel an active run; batches already being solved are still saved
+     */
+    @PostMapping("/runs/{runId}/cancel")
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    public ResponseEntity<AssignmentRunDTO> cancelRun(@PathVariable String runId) {
+        log.info("POST /api/assignments/runs/{}/cancel - Cancelling run", runId);
+        try {
+            return ResponseEntity.accepted().body(assignmentRunService.cancelRun(runId));
+        } catch (IllegalArgumentException e) {
+            log.error("Error cancelling assignment run: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            log.warn("Assignment run not cancelled: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    /**
+     * Resume a failed, cancelled or interrupted run from its first batch that did not complete
+     */
+    @PostMapping("/runs/{runId}/resume")
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    public ResponseEntity<AssignmentRunDTO> resumeRun(@PathVariable String runId) {
+        log.info("POST /api/assignments/runs/{}/resume - Resuming run", runId);
+        try {
+            return ResponseEntity.accepted().body(assignmentRunService.resumeRun(runId));
+        } catch (IllegalArgumentException e) {
+            log.error("Error resuming assignment run: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            log.warn("Assignment run not resumed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    /**
+     * Rebuild the materialized student scores from raw grades and report how many
+     * had drifted from the incrementally maintained values
      */
-    @lombok.Data
-    @lombok.NoArgsConstructor
-    @lombok.AllArgsConstructor
-    @lombok.Builder
-    public static class AssignmentWorkflowResponse {
-        private String status;
-        private String message;
-        private int totalBatches;
-        private int successfulBatches;
-        private Long executionTimeMs;
-        private Map<Integer, StableMatchingResponseDTO> results;
+    @PostMapping("/scores/rebuild")
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    public ResponseEntity<ScoreRebuildResultDTO> rebuildScores() {
+        log.info("POST /api/assignments/scores/rebuild - Rebuilding student scores");
+        return ResponseEntity.ok(studentScoreStore.rebuild());
     }
 }
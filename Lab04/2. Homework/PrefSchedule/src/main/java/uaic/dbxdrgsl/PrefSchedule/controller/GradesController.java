@@ -1,17 +1,18 @@
 package uaic.dbxdrgsl.PrefSchedule.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import uaic.dbxdrgsl.PrefSchedule.dto.GradeImportDTO;
 import uaic.dbxdrgsl.PrefSchedule.model.Grade;
+import uaic.dbxdrgsl.PrefSchedule.service.GradeImportService;
 import uaic.dbxdrgsl.PrefSchedule.service.GradeService;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
-import java.util.*;
+import java.net.URI;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/grades")
@@ -19,6 +20,7 @@ import java.util.*;
 public class GradesController {
 
     private final GradeService gradeService;
+    private final GradeImportService gradeImportService;
 
     @GetMapping
     public ResponseEntity<List<Grade>> getGrades(@RequestParam(required = false) String studentCode,
@@ -34,39 +36,32 @@ public class GradesController {
         }
     }
 
+    /**
+     * Import a CSV file of {@code studentCode,courseCode,grade} lines as a background job;
+     * progress is available from {@code GET /api/grades/imports/{importId}}.
+     */
     @PostMapping(path = "/load-csv")
-    public ResponseEntity<Map<String, Object>> loadCsv(@RequestParam("file") MultipartFile file) throws IOException {
-        int total = 0, stored = 0, ignored = 0, failed = 0;
-        List<String> failures = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                total++;
-                String[] parts = Arrays.stream(line.split(",")).map(String::trim).toArray(String[]::new);
-                if (parts.length != 3) { failed++; failures.add("Invalid columns at line " + total); continue; }
-                String student = parts[0];
-                String course = parts[1];
-                double gradeVal;
-                try { gradeVal = Double.parseDouble(parts[2]); } catch (Exception e) { failed++; failures.add("Invalid grade at line " + total); continue; }
-                if (student.isBlank() || course.isBlank()) { failed++; failures.add("Missing fields at line " + total); continue; }
-                if (gradeService.isCourseCompulsory(course)) {
-                    Grade g = new Grade();
-                    g.setStudentCode(student);
-                    g.setCourseCode(course);
-                    g.setGrade(gradeVal);
-                    gradeService.save(g);
-                    stored++;
-                } else {
-                    ignored++;
-                }
-            }
+    public ResponseEntity<GradeImportDTO> loadCsv(@RequestParam("file") MultipartFile file) {
+        try {
+            GradeImportDTO job = gradeImportService.startImport(file);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/grades/imports/" + job.getImportId()))
+                    .body(job);
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(GradeImportDTO.builder()
+                            .status("FAILED")
+                            .message("Could not save the uploaded file: " + e.getMessage())
+                            .build());
+        }
+    }
+
+    @GetMapping("/imports/{importId}")
+    public ResponseEntity<GradeImportDTO> getImport(@PathVariable String importId) {
+        try {
+            return ResponseEntity.ok(gradeImportService.getImport(importId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
         }
-        Map<String, Object> resp = new LinkedHashMap<>();
-        resp.put("totalRows", total);
-        resp.put("storedRows", stored);
-        resp.put("ignoredRows", ignored);
-        resp.put("failedRows", failed);
-        resp.put("failures", failures.size() > 10 ? failures.subList(0, 10) : failures);
-        return ResponseEntity.ok(resp);
     }
 }
@@ -0,0 +1,48 @@
+package uaic.dbxdrgsl.PrefSchedule.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Progress of a background assignment run and of each of its batches.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AssignmentRunDTO {
+
+    private String runId;
+    private String status;
+    private String message;
+    private int batchSize;
+    private int totalBatches;
+    private int completedBatches;
+    private int failedBatches;
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private List<BatchProgress> batches;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class BatchProgress {
+        private int batchIndex;
+        private String status;
+        private List<String> courseCodes;
+        private Integer assignments;
+        private Integer enrollmentsCreated;
+        private Long scoringMs;
+        private Long solveMs;
+        private Long persistMs;
+        private String message;
+        private Instant completedAt;
+    }
+}
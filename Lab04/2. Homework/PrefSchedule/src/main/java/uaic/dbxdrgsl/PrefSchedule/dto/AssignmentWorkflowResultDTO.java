@@ -0,0 +1,39 @@
+package uaic.dbxdrgsl.PrefSchedule.dto;
+
+import com.stablematch.dto.StableMatchingResponseDTO;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Outcome of an assignment workflow run: the matching result of every batch and the
+ * time each batch spent in the scoring, solving and persisting stages of the pipeline.
+ * Stage totals add up the per-batch times, so they exceed the wall-clock time when
+ * stages overlap.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AssignmentWorkflowResultDTO {
+
+    private Map<Integer, StableMatchingResponseDTO> results;
+    private Map<Integer, BatchTiming> batchTimings;
+    private long scoringTimeMs;
+    private long solveTimeMs;
+    private long persistTimeMs;
+    private long wallClockTimeMs;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class BatchTiming {
+        private long scoringMs;
+        private long solveMs;
+        private long persistMs;
+    }
+}
@@ -0,0 +1,34 @@
+package uaic.dbxdrgsl.PrefSchedule.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Progress of a background CSV grade import.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GradeImportDTO {
+
+    private String importId;
+    private String status;
+    private String message;
+    private String fileName;
+    private long totalBytes;
+    private long bytesRead;
+    private long totalRows;
+    private long storedRows;
+    private long ignoredRows;
+    private long failedRows;
+    private List<String> failures;
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+}
@@ -0,0 +1,26 @@
+package uaic.dbxdrgsl.PrefSchedule.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of rebuilding the materialized student scores from raw grades. Inserted,
+ * updated and removed rows are drift between the store and the grades; all zero means
+ * the incrementally maintained store was consistent.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScoreRebuildResultDTO {
+
+    private int optionalCourses;
+    private int students;
+    private long storedScores;
+    private long insertedScores;
+    private long updatedScores;
+    private long removedScores;
+    private long executionTimeMs;
+}
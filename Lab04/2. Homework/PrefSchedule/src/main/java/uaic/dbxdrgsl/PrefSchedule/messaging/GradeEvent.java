@@ -1,3 +1,7 @@
 package uaic.dbxdrgsl.PrefSchedule.messaging;
 
-public record GradeEvent(String studentCode, String courseCode, double grade) {}
+/**
+ * A grade published on the grades topic. The event ID, when the producer sets one, identifies
+ * the event across redeliveries and republishing; see {@link GradesListener}.
+ */
+public record GradeEvent(String eventId, String studentCode, String courseCode, double grade) {}
@@ -12,7 +12,7 @@ import org.springframework.stereotype.Component;
 @Component
 public class GradesDltListener {
 
-    @KafkaListener(topics = "grades.DLT", groupId = "prefschedule-grades-dlt")
+    @KafkaListener(topics = "grades.DLT", groupId = "prefschedule-grades-dlt", batch = "false")
     public void onDlt(ConsumerRecord<String, Object> record,
                       @Header(KafkaHeaders.DLT_EXCEPTION_FQCN) String exceptionClass,
                       @Header(KafkaHeaders.DLT_EXCEPTION_MESSAGE) String exceptionMessage,
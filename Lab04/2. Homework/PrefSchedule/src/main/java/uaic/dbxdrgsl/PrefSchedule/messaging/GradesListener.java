@@ -2,11 +2,28 @@ package uaic.dbxdrgsl.PrefSchedule.messaging;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.stereotype.Component;
 import uaic.dbxdrgsl.PrefSchedule.model.Grade;
 import uaic.dbxdrgsl.PrefSchedule.service.GradeService;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Consumes the grades topic a poll at a time. Grades for compulsory courses are stored
+ * together in one transaction; grades for other courses are ignored.
+ * <p>
+ * Each grade carries its event's ID and the time it was published, so that redelivered and
+ * out-of-order events do not replace a more recent grade (see {@link GradeService#upsertAll}).
+ * <p>
+ * At the first invalid record, the valid grades before it are stored and the record is
+ * reported with a {@link BatchListenerFailedException}, so that only it goes to grades.DLT
+ * and the records after it are delivered again.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
@@ -15,22 +32,57 @@ public class GradesListener {
     private final GradeService gradeService;
 
     @KafkaListener(topics = "grades", groupId = "prefschedule-grades")
-    public void onGrade(GradeEvent event) {
-        log.info("Received grade: studentCode={}, courseCode={}, grade={}", event.studentCode(), event.courseCode(), event.grade());
-        if (event.studentCode() == null || event.studentCode().isBlank() ||
-                event.courseCode() == null || event.courseCode().isBlank() ||
-                event.grade() < 1.0 || event.grade() > 10.0) {
-            throw new IllegalArgumentException("Invalid grade event payload");
+    public void onGrades(List<ConsumerRecord<String, GradeEvent>> records) {
+        List<Grade> grades = new ArrayList<>(records.size());
+        int ignored = 0;
+        for (ConsumerRecord<String, GradeEvent> record : records) {
+            GradeEvent event = record.value();
+            if (!isValid(event)) {
+                store(grades, ignored);
+                String reason = event == null ? "Unreadable grade event payload" : "Invalid grade event payload";
+                throw new BatchListenerFailedException(reason, new IllegalArgumentException(reason), record);
+            }
+            log.debug("Received grade: studentCode={}, courseCode={}, grade={}", event.studentCode(), event.courseCode(), event.grade());
+            if (gradeService.isCourseCompulsory(event.courseCode())) {
+                Grade g = new Grade();
+                g.setStudentCode(event.studentCode());
+                g.setCourseCode(event.courseCode());
+                g.setGrade(event.grade());
+                g.setEventId(eventId(record));
+                g.setReceivedAt(Instant.ofEpochMilli(record.timestamp()));
+                grades.add(g);
+            } else {
+                ignored++;
+            }
         }
-        if (gradeService.isCourseCompulsory(event.courseCode())) {
-            Grade g = new Grade();
-            g.setStudentCode(event.studentCode());
-            g.setCourseCode(event.courseCode());
-            g.setGrade(event.grade());
-            gradeService.save(g);
-            log.info("Stored grade for compulsory course {}", event.courseCode());
-        } else {
-            log.info("Ignored grade for non-compulsory course {}", event.courseCode());
+        store(grades, ignored);
+    }
+
+    private void store(List<Grade> grades, int ignored) {
+        if (!grades.isEmpty()) {
+            gradeService.upsertAll(grades);
         }
+        log.info("Received {} grades for compulsory courses, ignored {} for non-compulsory courses", grades.size(), ignored);
+    }
+
+    /**
+     * The event's own ID, or else its position in the topic, which is just as stable across
+     * redeliveries but not across republishing.
+     */
+    private static String eventId(ConsumerRecord<String, GradeEvent> record) {
+        String eventId = record.value().eventId();
+        return eventId != null && !eventId.isBlank()
+                ? eventId
+                : record.topic() + "-" + record.partition() + "@" + record.offset();
+    }
+
+    /**
+     * Events that failed to deserialize arrive as null.
+     */
+    private static boolean isValid(GradeEvent event) {
+        return event != null
+                && event.studentCode() != null && !event.studentCode().isBlank()
+                && event.courseCode() != null && !event.courseCode().isBlank()
+                && event.grade() >= 1.0 && event.grade() <= 10.0;
     }
 }
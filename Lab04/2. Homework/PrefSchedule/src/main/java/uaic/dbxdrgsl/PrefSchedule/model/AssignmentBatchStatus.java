@@ -0,0 +1,8 @@
+package uaic.dbxdrgsl.PrefSchedule.model;
+
+public enum AssignmentBatchStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
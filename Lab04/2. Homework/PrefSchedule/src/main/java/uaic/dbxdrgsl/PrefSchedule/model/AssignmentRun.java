@@ -0,0 +1,46 @@
+package uaic.dbxdrgsl.PrefSchedule.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * A background run of the optional-course assignment workflow.
+ * Its batches are planned up front and tracked in {@link AssignmentRunBatch}.
+ */
+@Entity
+@Table(name = "assignment_runs", indexes = {
+    @Index(name = "idx_assignment_runs_status", columnList = "status")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class AssignmentRun {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(nullable = false)
+    private int batchSize;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private AssignmentRunStatus status = AssignmentRunStatus.QUEUED;
+
+    @Column(nullable = false)
+    private int totalBatches;
+
+    @Column(length = 1000)
+    private String message;
+
+    @Column(nullable = false)
+    private Instant createdAt = Instant.now();
+
+    private Instant startedAt;
+
+    private Instant finishedAt;
+}
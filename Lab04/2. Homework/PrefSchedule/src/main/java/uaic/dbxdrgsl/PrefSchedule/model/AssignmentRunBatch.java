@@ -0,0 +1,59 @@
+package uaic.dbxdrgsl.PrefSchedule.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checkpoint of one batch of an {@link AssignmentRun}. The course codes are fixed when
+ * the run is planned, so a resumed run repeats exactly the batches that did not complete.
+ */
+@Entity
+@Table(name = "assignment_run_batches", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_assignment_run_batches_run_batch", columnNames = {"run_id", "batch_index"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class AssignmentRunBatch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false, length = 36)
+    private String runId;
+
+    @Column(name = "batch_index", nullable = false)
+    private int batchIndex;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "assignment_run_batch_courses", joinColumns = @JoinColumn(name = "batch_id"))
+    @OrderColumn(name = "position")
+    @Column(name = "course_code", nullable = false)
+    private List<String> courseCodes = new ArrayList<>();
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private AssignmentBatchStatus status = AssignmentBatchStatus.PENDING;
+
+    private Integer assignments;
+
+    private Integer enrollmentsCreated;
+
+    private Long scoringMs;
+
+    private Long solveMs;
+
+    private Long persistMs;
+
+    @Column(length = 1000)
+    private String message;
+
+    private Instant completedAt;
+}
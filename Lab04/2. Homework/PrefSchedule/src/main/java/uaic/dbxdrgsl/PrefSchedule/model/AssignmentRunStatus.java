@@ -0,0 +1,11 @@
+package uaic.dbxdrgsl.PrefSchedule.model;
+
+public enum AssignmentRunStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    CANCELLED,
+    // stopped by a shutdown; resumed on the next startup
+    INTERRUPTED
+}
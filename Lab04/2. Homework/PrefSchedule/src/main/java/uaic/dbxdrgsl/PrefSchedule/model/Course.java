@@ -40,6 +40,13 @@ public class Course {
     @Column
     private boolean compulsory = true;
 
+    /**
+     * Maximum number of students assigned to this optional course;
+     * null uses the assignment default capacity.
+     */
+    @Column
+    private Integer capacity;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @com.fasterxml.jackson.annotation.JsonBackReference("instr-courses")
     private Instructor instructor;
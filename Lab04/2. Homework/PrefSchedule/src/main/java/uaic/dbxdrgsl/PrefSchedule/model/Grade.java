@@ -7,26 +7,41 @@ import lombok.Setter;
 
 import java.time.Instant;
 
+/**
+ * Current grade of a student in a course; there is one row per student and course.
+ * Every grade received is also recorded in {@link GradeHistory} when history is enabled.
+ */
 @Entity
-@Table(name = "grades")
+@Table(name = "grades", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_grades_student_course", columnNames = {"student_code", "course_code"})
+}, indexes = {
+    @Index(name = "idx_grades_course", columnList = "course_code")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 public class Grade {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "grade_seq")
+    @SequenceGenerator(name = "grade_seq", sequenceName = "grades_seq", allocationSize = 50)
     private Long id;
 
-    @Column(nullable = false)
+    @Column(name = "student_code", nullable = false)
     private String studentCode;
 
-    @Column(nullable = false)
+    @Column(name = "course_code", nullable = false)
     private String courseCode;
 
     @Column(nullable = false)
     private double grade;
 
+    /**
+     * Idempotency key of the grade event that set this grade; null for grades not received as events
+     */
+    @Column(name = "event_id")
+    private String eventId;
+
     @Column(nullable = false)
     private Instant receivedAt = Instant.now();
 }
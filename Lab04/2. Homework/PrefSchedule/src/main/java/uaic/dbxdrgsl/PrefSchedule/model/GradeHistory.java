@@ -0,0 +1,45 @@
+package uaic.dbxdrgsl.PrefSchedule.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Append-only record of every grade received, including ones later superseded.
+ * A grade event is recorded once, however often it is delivered.
+ */
+@Entity
+@Table(name = "grade_history", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_grade_history_student_course_event",
+            columnNames = {"student_code", "course_code", "event_id"})
+}, indexes = {
+    @Index(name = "idx_grade_history_event", columnList = "event_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class GradeHistory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "grade_history_seq")
+    @SequenceGenerator(name = "grade_history_seq", sequenceName = "grade_history_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "student_code", nullable = false)
+    private String studentCode;
+
+    @Column(name = "course_code", nullable = false)
+    private String courseCode;
+
+    @Column(nullable = false)
+    private double grade;
+
+    @Column(name = "event_id")
+    private String eventId;
+
+    @Column(nullable = false)
+    private Instant receivedAt;
+}
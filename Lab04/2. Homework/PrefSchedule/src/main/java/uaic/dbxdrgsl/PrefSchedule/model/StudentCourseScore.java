@@ -0,0 +1,40 @@
+package uaic.dbxdrgsl.PrefSchedule.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Materialized weighted score of a student for an optional course.
+ * Only scores that differ from the neutral score are stored; a missing row reads as neutral.
+ */
+@Entity
+@Table(name = "student_course_scores", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_student_course_scores_course_student",
+            columnNames = {"optional_course_id", "student_code"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class StudentCourseScore {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "student_course_score_seq")
+    @SequenceGenerator(name = "student_course_score_seq", sequenceName = "student_course_scores_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "optional_course_id", nullable = false)
+    private Long optionalCourseId;
+
+    @Column(name = "student_code", nullable = false)
+    private String studentCode;
+
+    @Column(nullable = false)
+    private double score;
+
+    @Column(nullable = false)
+    private Instant updatedAt = Instant.now();
+}
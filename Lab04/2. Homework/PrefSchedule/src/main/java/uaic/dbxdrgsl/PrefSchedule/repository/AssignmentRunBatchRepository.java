@@ -0,0 +1,12 @@
+package uaic.dbxdrgsl.PrefSchedule.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import uaic.dbxdrgsl.PrefSchedule.model.AssignmentRunBatch;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface AssignmentRunBatchRepository extends JpaRepository<AssignmentRunBatch, Long> {
+    List<AssignmentRunBatch> findByRunIdOrderByBatchIndex(String runId);
+    Optional<AssignmentRunBatch> findByRunIdAndBatchIndex(String runId, int batchIndex);
+}
@@ -0,0 +1,13 @@
+package uaic.dbxdrgsl.PrefSchedule.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import uaic.dbxdrgsl.PrefSchedule.model.AssignmentRun;
+import uaic.dbxdrgsl.PrefSchedule.model.AssignmentRunStatus;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface AssignmentRunRepository extends JpaRepository<AssignmentRun, String> {
+    List<AssignmentRun> findByStatusInOrderByCreatedAt(Collection<AssignmentRunStatus> statuses);
+    boolean existsByStatusIn(Collection<AssignmentRunStatus> statuses);
+}
@@ -1,8 +1,24 @@
 package uaic.dbxdrgsl.PrefSchedule.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import uaic.dbxdrgsl.PrefSchedule.model.Enrollment;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
 
+    /**
+     * (student, course) ID pairs of every enrollment in the given courses, without loading the entities
+     */
+    @Query("SELECT e.student.id AS studentId, e.course.id AS courseId FROM Enrollment e " +
+            "WHERE e.course.id IN :courseIds")
+    List<EnrollmentKey> findKeysByCourseIds(@Param("courseIds") Collection<Long> courseIds);
+
+    interface EnrollmentKey {
+        Long getStudentId();
+        Long getCourseId();
+    }
 }
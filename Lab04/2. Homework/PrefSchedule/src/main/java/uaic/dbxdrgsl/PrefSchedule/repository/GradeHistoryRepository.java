@@ -0,0 +1,12 @@
+package uaic.dbxdrgsl.PrefSchedule.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import uaic.dbxdrgsl.PrefSchedule.model.GradeHistory;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface GradeHistoryRepository extends JpaRepository<GradeHistory, Long> {
+
+    List<GradeHistory> findByEventIdIn(Collection<String> eventIds);
+}
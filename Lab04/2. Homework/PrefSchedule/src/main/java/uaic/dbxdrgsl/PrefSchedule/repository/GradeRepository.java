@@ -1,12 +1,30 @@
 package uaic.dbxdrgsl.PrefSchedule.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import uaic.dbxdrgsl.PrefSchedule.model.Grade;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface GradeRepository extends JpaRepository<Grade, Long> {
     List<Grade> findByStudentCode(String studentCode);
     List<Grade> findByCourseCode(String courseCode);
     List<Grade> findByStudentCodeAndCourseCode(String studentCode, String courseCode);
+
+    List<Grade> findByStudentCodeInAndCourseCodeIn(Collection<String> studentCodes, Collection<String> courseCodes);
+
+    /**
+     * Current grade of every student in each of the given courses, as a projection.
+     */
+    @Query("SELECT g.studentCode AS studentCode, g.courseCode AS courseCode, g.grade AS grade " +
+            "FROM Grade g WHERE g.courseCode IN :courseCodes")
+    List<GradeCell> findCellsByCourseCodes(@Param("courseCodes") Collection<String> courseCodes);
+
+    interface GradeCell {
+        String getStudentCode();
+        String getCourseCode();
+        double getGrade();
+    }
 }
@@ -6,6 +6,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import uaic.dbxdrgsl.PrefSchedule.model.InstructorCoursePreference;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -16,6 +17,21 @@ public interface InstructorCoursePreferenceRepository extends JpaRepository<Inst
      */
     List<InstructorCoursePreference> findByOptionalCourseId(Long courseId);
 
+    /**
+     * Find all preferences for several optional courses in one query
+     */
+    List<InstructorCoursePreference> findByOptionalCourseIdIn(Collection<Long> courseIds);
+
+    /**
+     * Find all preferences that weight a compulsory course
+     */
+    List<InstructorCoursePreference> findByCompulsoryCourseCode(String compulsoryCourseCode);
+
+    /**
+     * Find all preferences that weight any of several compulsory courses in one query
+     */
+    List<InstructorCoursePreference> findByCompulsoryCourseCodeIn(Collection<String> compulsoryCourseCodes);
+
     /**
      * Find all preferences for a specific optional course code
      */
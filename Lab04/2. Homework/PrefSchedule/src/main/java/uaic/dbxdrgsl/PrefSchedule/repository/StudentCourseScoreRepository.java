@@ -0,0 +1,39 @@
+package uaic.dbxdrgsl.PrefSchedule.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import uaic.dbxdrgsl.PrefSchedule.model.StudentCourseScore;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface StudentCourseScoreRepository extends JpaRepository<StudentCourseScore, Long> {
+
+    List<StudentCourseScore> findByOptionalCourseIdIn(Collection<Long> optionalCourseIds);
+
+    List<StudentCourseScore> findByStudentCodeInAndOptionalCourseIdIn(Collection<String> studentCodes,
+                                                                      Collection<Long> optionalCourseIds);
+
+    /**
+     * Stored scores of the given courses, without loading the entities
+     */
+    @Query("SELECT s.optionalCourseId AS optionalCourseId, s.studentCode AS studentCode, s.score AS score " +
+            "FROM StudentCourseScore s WHERE s.optionalCourseId IN :optionalCourseIds")
+    List<ScoreCell> findCellsByOptionalCourseIds(@Param("optionalCourseIds") Collection<Long> optionalCourseIds);
+
+    @Modifying
+    @Query("DELETE FROM StudentCourseScore s WHERE s.optionalCourseId NOT IN :optionalCourseIds")
+    int deleteByOptionalCourseIdNotIn(@Param("optionalCourseIds") Collection<Long> optionalCourseIds);
+
+    @Modifying
+    @Query("DELETE FROM StudentCourseScore s WHERE s.studentCode = :studentCode")
+    int deleteByStudentCode(@Param("studentCode") String studentCode);
+
+    interface ScoreCell {
+        Long getOptionalCourseId();
+        String getStudentCode();
+        double getScore();
+    }
+}
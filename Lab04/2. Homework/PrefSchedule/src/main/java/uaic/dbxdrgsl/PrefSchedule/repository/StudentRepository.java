@@ -1,13 +1,32 @@
 package uaic.dbxdrgsl.PrefSchedule.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import uaic.dbxdrgsl.PrefSchedule.model.Student;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface StudentRepository extends JpaRepository<Student, Long> {
 
     // derived query - accessing user's lastName through the relationship
     List<Student> findByUserLastName(String lastName);
 
+    // current student number as stored, without flushing pending changes to the student first
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("select s.studentNumber from Student s where s.id = :id")
+    Optional<String> findStoredStudentNumberById(@Param("id") Long id);
+
+    // row locks held until the calling transaction ends, taken in student number order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from Student s where s.studentNumber in :studentNumbers order by s.studentNumber")
+    List<Student> lockByStudentNumbers(@Param("studentNumbers") Collection<String> studentNumbers);
+
 }
@@ -0,0 +1,146 @@
+package uaic.dbxdrgsl.PrefSchedule.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Bulkhead whose limit on concurrent calls adapts by additive increase and
+ * multiplicative decrease. Permits are taken with {@link #acquire()}, which never
+ * blocks, so calls can be admitted and completed on event-loop threads. Calls that
+ * find the bulkhead full wait in a queue and are admitted in arrival order as soon as
+ * a permit is released or the limit grows.
+ * <p>
+ * Every call that completes within the latency threshold while the bulkhead was fully
+ * used raises the limit by 1/limit, so a full window of fast calls adds one slot. A
+ * failed or slow call multiplies it by the backoff ratio, at most once per threshold
+ * interval so that the calls already in flight when the service slowed down do not
+ * collapse the limit all at once. Lowering the limit never revokes permits; new calls
+ * are held back until enough of the running ones complete.
+ */
+@Slf4j
+final class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+
+    private final Deque<CompletableFuture<Integer>> waiters = new ArrayDeque<>();
+
+    private double limit;
+    private int inFlight;
+    private long lastDecreaseNanos;
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit,
+                             long latencyThresholdMs, double backoffRatio) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.latencyThresholdNanos = latencyThresholdMs * 1_000_000L;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        lastDecreaseNanos = System.nanoTime() - latencyThresholdNanos;
+    }
+
+    /**
+     * Take a permit once fewer calls than the limit are in flight and every call that
+     * started waiting earlier has been admitted. A caller may complete the returned future
+     * itself, e.g. when it gives up waiting; it is then skipped and takes no permit.
+     *
+     * @return completes with the number of calls in flight before this one
+     */
+    CompletableFuture<Integer> acquire() {
+        CompletableFuture<Integer> permit = new CompletableFuture<>();
+        synchronized (this) {
+            while (!waiters.isEmpty() && waiters.peek().isDone()) {
+                waiters.poll();
+            }
+            if (waiters.isEmpty() && inFlight < (int) limit) {
+                permit.complete(inFlight++);
+            } else {
+                waiters.add(permit);
+            }
+        }
+        return permit;
+    }
+
+    void release() {
+        List<Admission> admitted;
+        synchronized (this) {
+            inFlight--;
+            admitted = admitWaiters();
+        }
+        complete(admitted);
+    }
+
+    void onSuccess(long latencyNanos, int inFlightAtStart) {
+        List<Admission> admitted;
+        synchronized (this) {
+            if (latencyNanos > latencyThresholdNanos) {
+                decrease("slow call of " + latencyNanos / 1_000_000 + " ms");
+            } else if (inFlightAtStart + 1 >= (int) limit && limit < maxLimit) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+            admitted = admitWaiters();
+        }
+        complete(admitted);
+    }
+
+    synchronized void onFailure(Throwable failure) {
+        decrease(failure.getClass().getSimpleName());
+    }
+
+    synchronized int currentLimit() {
+        return (int) limit;
+    }
+
+    synchronized int inFlight() {
+        return inFlight;
+    }
+
+    synchronized int waiting() {
+        return waiters.size();
+    }
+
+    /**
+     * Take permits for the longest-waiting calls while the limit allows. The calls are
+     * admitted by {@link #complete} once the lock is released, so that they do not start
+     * while it is held.
+     */
+    private List<Admission> admitWaiters() {
+        List<Admission> admitted = new ArrayList<>();
+        while (inFlight < (int) limit && !waiters.isEmpty()) {
+            CompletableFuture<Integer> permit = waiters.poll();
+            if (!permit.isDone()) {
+                admitted.add(new Admission(permit, inFlight++));
+            }
+        }
+        return admitted;
+    }
+
+    private void complete(List<Admission> admitted) {
+        for (Admission admission : admitted) {
+            // The caller gave up waiting after its permit was taken; hand the permit on
+            if (!admission.permit().complete(admission.inFlightBefore())) {
+                release();
+            }
+        }
+    }
+
+    private void decrease(String reason) {
+        long now = System.nanoTime();
+        if (now - lastDecreaseNanos < latencyThresholdNanos || limit <= minLimit) {
+            return;
+        }
+        lastDecreaseNanos = now;
+        limit = Math.max(minLimit, limit * backoffRatio);
+        log.info("Lowering StableMatch concurrency limit to {} after {}", (int) limit, reason);
+    }
+
+    private record Admission(CompletableFuture<Integer> permit, int inFlightBefore) {
+    }
+}
@@ -0,0 +1,399 @@
+package uaic.dbxdrgsl.PrefSchedule.service;
+
+import com.stablematch.dto.StableMatchingResponseDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import uaic.dbxdrgsl.PrefSchedule.dto.AssignmentRunDTO;
+import uaic.dbxdrgsl.PrefSchedule.dto.AssignmentWorkflowResultDTO;
+import uaic.dbxdrgsl.PrefSchedule.model.AssignmentBatchStatus;
+import uaic.dbxdrgsl.PrefSchedule.model.AssignmentRun;
+import uaic.dbxdrgsl.PrefSchedule.model.AssignmentRunBatch;
+import uaic.dbxdrgsl.PrefSchedule.model.AssignmentRunStatus;
+import uaic.dbxdrgsl.PrefSchedule.model.Course;
+import uaic.dbxdrgsl.PrefSchedule.repository.AssignmentRunBatchRepository;
+import uaic.dbxdrgsl.PrefSchedule.repository.AssignmentRunRepository;
+import uaic.dbxdrgsl.PrefSchedule.repository.CourseRepository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Runs the assignment workflow in the background and checkpoints every batch.
+ * <p>
+ * A run's batches are planned and stored when it starts; each batch row records whether
+ * it completed, so a cancelled, failed or interrupted run can be resumed and only repeats
+ * the batches that did not complete. Runs execute one at a time. Runs left active by a
+ * crash or shutdown are resumed on startup unless {@code assignment.runs.resume-on-startup}
+ * is disabled. Repeating a batch whose enrollments were written before the crash is
+ * harmless because existing enrollments are skipped.
+ */
+@Slf4j
+@Service
+public class AssignmentRunService {
+
+    private static final Set<AssignmentRunStatus> ACTIVE =
+            EnumSet.of(AssignmentRunStatus.QUEUED, AssignmentRunStatus.RUNNING);
+    private static final Set<AssignmentRunStatus> RESUMABLE =
+            EnumSet.of(AssignmentRunStatus.FAILED, AssignmentRunStatus.CANCELLED, AssignmentRunStatus.INTERRUPTED);
+
+    private final CourseAssignmentOrchestrationService orchestrationService;
+    private final AssignmentRunRepository runRepository;
+    private final AssignmentRunBatchRepository batchRepository;
+    private final CourseRepository courseRepository;
+    private final boolean resumeOnStartup;
+
+    private final ExecutorService runExecutor;
+    private final Set<String> cancelRequests = ConcurrentHashMap.newKeySet();
+
+    public AssignmentRunService(CourseAssignmentOrchestrationService orchestrationService,
+                                AssignmentRunRepository runRepository,
+                                AssignmentRunBatchRepository batchRepository,
+                                CourseRepository courseRepository,
+                                @Value("${assignment.runs.resume-on-startup:true}") boolean resumeOnStartup) {
+        this.orchestrationService = orchestrationService;
+        this.runRepository = runRepository;
+        this.batchRepository = batchRepository;
+        this.courseRepository = courseRepository;
+        this.resumeOnStartup = resumeOnStartup;
+        this.runExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "assignment-run");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Plan the batches of a new run and start it in the background.
+     *
+     * @param batchSize number of optional courses per batch, or 0 for a single batch
+     * @return the queued run
+     * @throws IllegalStateException if another run is still active
+     */
+    public synchronized AssignmentRunDTO startRun(int batchSize) {
+        if (runRepository.existsByStatusIn(ACTIVE)) {
+            throw new IllegalStateException("Another assignment run is still active");
+        }
+
+        List<List<Course>> plan = orchestrationService.planBatches(batchSize);
+
+        AssignmentRun run = new AssignmentRun();
+        run.setId(UUID.randomUUID().toString());
+        run.setBatchSize(batchSize);
+        run.setTotalBatches(plan.size());
+        runRepository.save(run);
+
+        List<AssignmentRunBatch> batches = new ArrayList<>(plan.size());
+        for (int i = 0; i < plan.size(); i++) {
+            AssignmentRunBatch batch = new AssignmentRunBatch();
+            batch.setRunId(run.getId());
+            batch.setBatchIndex(i);
+            for (Course course : plan.get(i)) {
+                batch.getCourseCodes().add(course.getCode());
+            }
+            batches.add(batch);
+        }
+        batchRepository.saveAll(batches);
+
+        log.info("Queued assignment run {} with {} batches", run.getId(), plan.size());
+        runExecutor.execute(() -> execute(run.getId()));
+        return toDto(run, batches);
+    }
+
+    /**
+     * Resume a stopped run from its first batch that did not complete.
+     *
+     * @param runId the run to resume
+     * @return the queued run
+     * @throws IllegalArgumentException if the run does not exist
+     * @throws IllegalStateException if the run is active or already completed
+     */
+    public synchronized AssignmentRunDTO resumeRun(String runId) {
+        AssignmentRun run = findRun(runId);
+        if (!RESUMABLE.contains(run.getStatus())) {
+            throw new IllegalStateException("Assignment run " + runId + " is " + run.getStatus() + " and cannot be resumed");
+        }
+        if (runRepository.existsByStatusIn(ACTIVE)) {
+            throw new IllegalStateException("Another assignment run is still active");
+        }
+
+        run.setStatus(AssignmentRunStatus.QUEUED);
+        run.setMessage(null);
+        run.setFinishedAt(null);
+        runRepository.save(run);
+        cancelRequests.remove(runId);
+
+        log.info("Resuming assignment run {}", runId);
+        runExecutor.execute(() -> execute(runId));
+        return getRun(runId);
+    }
+
+    /**
+     * Request cancellation of an active run. No further batch is started; batches already
+     * being solved finish and are saved.
+     *
+     * @param runId the run to cancel
+     * @return the run
+     * @throws IllegalArgumentException if the run does not exist
+     * @throws IllegalStateException if the run is not active
+     */
+    public AssignmentRunDTO cancelRun(String runId) {
+        AssignmentRun run = findRun(runId);
+        if (!ACTIVE.contains(run.getStatus())) {
+            throw new IllegalStateException("Assignment run " + runId + " is " + run.getStatus() + " and cannot be cancelled");
+        }
+        cancelRequests.add(runId);
+        log.info("Cancellation requested for assignment run {}", runId);
+        return getRun(runId);
+    }
+
+    /**
+     * @param runId the run to look up
+     * @return the run and the progress of each of its batches
+     * @throws IllegalArgumentException if the run does not exist
+     */
+    public AssignmentRunDTO getRun(String runId) {
+        return toDto(findRun(runId), batchRepository.findByRunIdOrderByBatchIndex(runId));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedRuns() {
+        if (!resumeOnStartup) {
+            return;
+        }
+        Set<AssignmentRunStatus> unfinished = EnumSet.of(AssignmentRunStatus.QUEUED,
+                AssignmentRunStatus.RUNNING, AssignmentRunStatus.INTERRUPTED);
+        for (AssignmentRun run : runRepository.findByStatusInOrderByCreatedAt(unfinished)) {
+            log.info("Resuming assignment run {} left {} by the previous instance", run.getId(), run.getStatus());
+            run.setStatus(AssignmentRunStatus.QUEUED);
+            runRepository.save(run);
+            runExecutor.execute(() -> execute(run.getId()));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Interrupts the active run, which records itself as INTERRUPTED
+        runExecutor.shutdownNow();
+    }
+
+    private void execute(String runId) {
+        AssignmentRun run = runRepository.findById(runId).orElse(null);
+        if (run == null) {
+            return;
+        }
+        if (cancelRequests.remove(runId)) {
+            finish(run, AssignmentRunStatus.CANCELLED, "Cancelled before start");
+            return;
+        }
+
+        run.setStatus(AssignmentRunStatus.RUNNING);
+        if (run.getStartedAt() == null) {
+            run.setStartedAt(Instant.now());
+        }
+        runRepository.save(run);
+
+        try {
+            Map<Integer, Long> batchIds = new HashMap<>();
+            Map<Integer, List<Course>> pending = pendingBatches(runId, batchIds);
+            log.info("Assignment run {}: {} of {} batches to process", runId, pending.size(), run.getTotalBatches());
+
+            if (!pending.isEmpty()) {
+                AssignmentWorkflowResultDTO result = orchestrationService.executeBatches(pending,
+                        new CheckpointListener(runId, batchIds));
+                log.info("Assignment run {} processed {} batches in {} ms (scoring {} ms, solving {} ms, persisting {} ms)",
+                        runId, result.getResults().size(), result.getWallClockTimeMs(),
+                        result.getScoringTimeMs(), result.getSolveTimeMs(), result.getPersistTimeMs());
+            }
+
+            List<AssignmentRunBatch> batches = batchRepository.findByRunIdOrderByBatchIndex(runId);
+            long completed = batches.stream().filter(b -> b.getStatus() == AssignmentBatchStatus.COMPLETED).count();
+            long failed = batches.stream().filter(b -> b.getStatus() == AssignmentBatchStatus.FAILED).count();
+            if (completed == batches.size()) {
+                finish(run, AssignmentRunStatus.COMPLETED, "All " + completed + " batches completed");
+            } else if (cancelRequests.contains(runId)) {
+                finish(run, AssignmentRunStatus.CANCELLED, completed + " of " + batches.size() + " batches completed");
+            } else {
+                finish(run, AssignmentRunStatus.FAILED, failed + " of " + batches.size() + " batches failed");
+            }
+        } catch (InterruptedException e) {
+            log.warn("Assignment run {} interrupted", runId);
+            finish(run, AssignmentRunStatus.INTERRUPTED, "Interrupted by shutdown");
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Assignment run {} failed", runId, e);
+            finish(run, AssignmentRunStatus.FAILED, e.getMessage());
+        } finally {
+            cancelRequests.remove(runId);
+        }
+    }
+
+    /**
+     * Courses of every batch of the run that has not completed, in batch order.
+     * Courses deleted since the run was planned are left out; a batch whose courses were
+     * all deleted has nothing to assign and is checkpointed as completed right away.
+     */
+    private Map<Integer, List<Course>> pendingBatches(String runId, Map<Integer, Long> batchIds) {
+        Map<String, Course> coursesByCode = new HashMap<>();
+        for (Course course : courseRepository.findAll()) {
+            coursesByCode.putIfAbsent(course.getCode(), course);
+        }
+
+        Map<Integer, List<Course>> pending = new TreeMap<>();
+        for (AssignmentRunBatch batch : batchRepository.findByRunIdOrderByBatchIndex(runId)) {
+            if (batch.getStatus() == AssignmentBatchStatus.COMPLETED) {
+                continue;
+            }
+            List<Course> courses = new ArrayList<>(batch.getCourseCodes().size());
+            for (String code : batch.getCourseCodes()) {
+                Course course = coursesByCode.get(code);
+                if (course == null) {
+                    log.warn("Assignment run {}: course {} of batch {} no longer exists", runId, code, batch.getBatchIndex());
+                } else {
+                    courses.add(course);
+                }
+            }
+            if (courses.isEmpty()) {
+                log.warn("Assignment run {}: every course of batch {} was deleted, nothing to assign",
+                        runId, batch.getBatchIndex());
+                batch.setStatus(AssignmentBatchStatus.COMPLETED);
+                batch.setAssignments(0);
+                batch.setEnrollmentsCreated(0);
+                batch.setMessage("All courses of the batch were deleted");
+                batch.setCompletedAt(Instant.now());
+                batchRepository.save(batch);
+                continue;
+            }
+            batchIds.put(batch.getBatchIndex(), batch.getId());
+            pending.put(batch.getBatchIndex(), courses);
+        }
+        return pending;
+    }
+
+    private void finish(AssignmentRun run, AssignmentRunStatus status, String message) {
+        run.setStatus(status);
+        run.setMessage(message);
+        run.setFinishedAt(Instant.now());
+        runRepository.save(run);
+        log.info("Assignment run {} {}: {}", run.getId(), status, message);
+    }
+
+    private AssignmentRun findRun(String runId) {
+        return runRepository.findById(runId)
+                .orElseThrow(() -> new IllegalArgumentException("Assignment run not found: " + runId));
+    }
+
+    private static AssignmentRunDTO toDto(AssignmentRun run, List<AssignmentRunBatch> batches) {
+        List<AssignmentRunDTO.BatchProgress> progress = new ArrayList<>(batches.size());
+        int completed = 0;
+        int failed = 0;
+        for (AssignmentRunBatch batch : batches) {
+            if (batch.getStatus() == AssignmentBatchStatus.COMPLETED) {
+                completed++;
+            } else if (batch.getStatus() == AssignmentBatchStatus.FAILED) {
+                failed++;
+            }
+            progress.add(AssignmentRunDTO.BatchProgress.builder()
+                    .batchIndex(batch.getBatchIndex())
+                    .status(batch.getStatus().name())
+                    .courseCodes(new ArrayList<>(batch.getCourseCodes()))
+                    .assignments(batch.getAssignments())
+                    .enrollmentsCreated(batch.getEnrollmentsCreated())
+                    .scoringMs(batch.getScoringMs())
+                    .solveMs(batch.getSolveMs())
+                    .persistMs(batch.getPersistMs())
+                    .message(batch.getMessage())
+                    .completedAt(batch.getCompletedAt())
+                    .build());
+        }
+        return AssignmentRunDTO.builder()
+                .runId(run.getId())
+                .status(run.getStatus().name())
+                .message(run.getMessage())
+                .batchSize(run.getBatchSize())
+                .totalBatches(run.getTotalBatches())
+                .completedBatches(completed)
+                .failedBatches(failed)
+                .createdAt(run.getCreatedAt())
+                .startedAt(run.getStartedAt())
+                .finishedAt(run.getFinishedAt())
+                .batches(progress)
+                .build();
+    }
+
+    /**
+     * Writes the outcome of each batch to its checkpoint row as soon as it is known.
+     */
+    private class CheckpointListener implements CourseAssignmentOrchestrationService.BatchListener {
+
+        private final String runId;
+        private final Map<Integer, Long> batchIds;
+
+        private CheckpointListener(String runId, Map<Integer, Long> batchIds) {
+            this.runId = runId;
+            this.batchIds = batchIds;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelRequests.contains(runId);
+        }
+
+        @Override
+        public void batchStarted(int batchId) {
+            update(batchId, batch -> {
+                batch.setStatus(AssignmentBatchStatus.RUNNING);
+                batch.setMessage(null);
+            });
+        }
+
+        @Override
+        public void batchCompleted(int batchId, StableMatchingResponseDTO result, int enrollmentsCreated,
+                                   AssignmentWorkflowResultDTO.BatchTiming timing) {
+            update(batchId, batch -> {
+                batch.setStatus(AssignmentBatchStatus.COMPLETED);
+                batch.setAssignments(result.getAssignments().size());
+                batch.setEnrollmentsCreated(enrollmentsCreated);
+                batch.setMessage(result.getMessage());
+                batch.setCompletedAt(Instant.now());
+                recordTiming(batch, timing);
+            });
+        }
+
+        @Override
+        public void batchFailed(int batchId, String message, AssignmentWorkflowResultDTO.BatchTiming timing) {
+            update(batchId, batch -> {
+                batch.setStatus(AssignmentBatchStatus.FAILED);
+                batch.setMessage(message);
+                recordTiming(batch, timing);
+            });
+        }
+
+        private void recordTiming(AssignmentRunBatch batch, AssignmentWorkflowResultDTO.BatchTiming timing) {
+            batch.setScoringMs(timing.getScoringMs());
+            batch.setSolveMs(timing.getSolveMs());
+            batch.setPersistMs(timing.getPersistMs());
+        }
+
+        private void update(int batchId, Consumer<AssignmentRunBatch> change) {
+            batchRepository.findById(batchIds.get(batchId)).ifPresent(batch -> {
+                change.accept(batch);
+                batchRepository.save(batch);
+            });
+        }
+    }
+}
@@ -30,6 +30,9 @@ public class AuthService {
     @Autowired
     private InstructorRepository instructorRepository;
 
+    @Autowired
+    private StudentScoreStore studentScoreStore;
+
     @Autowired
     private AuthenticationManager authenticationManager;
 
@@ -93,6 +96,7 @@ public class AuthService {
                 .studentNumber(registerRequest.getStudentNumber())
                 .group(registerRequest.getGroup())
                 .build());
+            studentScoreStore.studentRegistered(registerRequest.getStudentNumber(), null);
         } else if (registerRequest.getRole() == UserRole.INSTRUCTOR) {
             if (registerRequest.getDepartment() == null || registerRequest.getDepartment().isEmpty()) {
                 throw new RuntimeException("Department is required for INSTRUCTOR role");
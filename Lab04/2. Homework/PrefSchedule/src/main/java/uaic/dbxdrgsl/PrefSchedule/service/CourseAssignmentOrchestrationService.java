@@ -4,120 +4,281 @@ import com.stablematch.dto.StableMatchingRequestDTO;
 import com.stablematch.dto.StableMatchingResponseDTO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import uaic.dbxdrgsl.PrefSchedule.dto.AssignmentWorkflowResultDTO;
 import uaic.dbxdrgsl.PrefSchedule.model.*;
 import uaic.dbxdrgsl.PrefSchedule.repository.*;
 
-import java.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
  * Service for orchestrating the course assignment process.
  * Handles batching of optional courses, calculating student preferences based on grades,
  * and invoking the StableMatch service.
+ * <p>
+ * Batches are pipelined: while earlier batches are being solved by StableMatch, the next
+ * one is scored and finished ones are persisted. Solves do not hold a thread while they
+ * wait for StableMatch, so up to {@code assignment.pipeline.max-concurrent-solves} batches
+ * can be in flight at a time; {@link MatchingSolverService} decides which of them are solved
+ * in process and {@link StableMatchClient} limits how many of the others StableMatch
+ * actually receives. Scoring and persisting each run in their own short transactions.
+ * Long runs are driven in the background by {@link AssignmentRunService}.
+ * <p>
+ * A course only ever admits its best students, so it sends StableMatch just the top
+ * capacity + {@code assignment.ranking.safety-margin} of its ranking. Should a course
+ * still admit a student beyond its list, its list is doubled and the batch solved again.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
-@Transactional
 public class CourseAssignmentOrchestrationService {
 
-    private final StableMatchClient stableMatchClient;
+    private final MatchingSolverService matchingSolverService;
     private final CourseRepository courseRepository;
     private final StudentRepository studentRepository;
-    private final GradeRepository gradeRepository;
-    private final InstructorCoursePreferenceRepository instructorPreferenceRepository;
-    private final EnrollmentRepository enrollmentRepository;
+    private final StudentScoreStore studentScoreStore;
+    private final EnrollmentBulkWriter enrollmentBulkWriter;
+
+    @Value("${assignment.default-course-capacity:1}")
+    private int defaultCourseCapacity;
+
+    @Value("${assignment.pipeline.max-concurrent-solves:2}")
+    private int maxConcurrentSolves;
+
+    @Value("${assignment.ranking.safety-margin:10}")
+    private int rankingSafetyMargin;
+
+    /**
+     * Split the optional-course catalogue into batches.
+     *
+     * @param batchSize number of optional courses per batch, or 0 to match the whole
+     *                  optional-course catalogue in a single solve
+     * @return the batches, in processing order; empty if there are no optional courses
+     */
+    public List<List<Course>> planBatches(int batchSize) {
+        List<Course> optionalCourses = courseRepository.findAll().stream()
+                .filter(c -> !c.isCompulsory())
+                .collect(Collectors.toList());
+
+        if (optionalCourses.isEmpty()) {
+            log.warn("No optional courses found");
+            return List.of();
+        }
+
+        log.info("Found {} optional courses", optionalCourses.size());
+        List<List<Course>> batches = batchOptionalCourses(optionalCourses, batchSize);
+        log.info("Created {} batches of optional courses", batches.size());
+        return batches;
+    }
 
     /**
-     * Execute the complete assignment workflow for optional courses
-     * Batches optional courses and invokes StableMatch service for each batch
+     * Score, solve and persist the given batches, reporting the outcome of each batch
+     * to the listener as soon as it is known.
      *
-     * @param batchSize number of optional courses per batch
-     * @return map of batch ID to matching results
+     * @param batches courses of each batch, by batch ID
+     * @param listener receives per-batch progress and is polled for cancellation
+     * @return matching results and stage timings, by batch ID
+     * @throws InterruptedException if the calling thread is interrupted while batches are in flight
      */
-    public Map<Integer, StableMatchingResponseDTO> executeAssignmentWorkflow(int batchSize) {
-        log.info("Starting course assignment workflow with batch size: {}", batchSize);
+    public AssignmentWorkflowResultDTO executeBatches(
+            Map<Integer, List<Course>> batches,
+            BatchListener listener) throws InterruptedException {
+
+        log.info("Starting course assignment of {} batches", batches.size());
 
         long startTime = System.currentTimeMillis();
-        Map<Integer, StableMatchingResponseDTO> results = new HashMap<>();
+        Map<Integer, StableMatchingResponseDTO> results = new ConcurrentHashMap<>();
+        Map<Integer, AssignmentWorkflowResultDTO.BatchTiming> timings = new ConcurrentHashMap<>();
 
-        try {
-            // Get all optional courses
-            List<Course> optionalCourses = courseRepository.findAll().stream()
-                    .filter(c -> !c.isCompulsory())
-                    .collect(Collectors.toList());
-
-            if (optionalCourses.isEmpty()) {
-                log.warn("No optional courses found");
-                return results;
-            }
+        List<Student> students = studentRepository.findAll();
+        if (students.isEmpty()) {
+            throw new IllegalStateException("No students found");
+        }
 
-            log.info("Found {} optional courses", optionalCourses.size());
+        log.info("Found {} students", students.size());
+        Map<String, Student> studentsByNumber = students.stream()
+                .collect(Collectors.toMap(Student::getStudentNumber, s -> s, (a, b) -> a));
 
-            // Get all students
-            List<Student> students = studentRepository.findAll();
-            if (students.isEmpty()) {
-                log.warn("No students found");
-                return results;
-            }
+        runPipeline(batches, students, studentsByNumber, listener, results, timings);
 
-            log.info("Found {} students", students.size());
+        long totalTime = System.currentTimeMillis() - startTime;
+        log.info("Course assignment completed in {} ms with {} batches", totalTime, results.size());
 
-            // Batch optional courses
-            List<List<Course>> batches = batchOptionalCourses(optionalCourses, batchSize);
-            log.info("Created {} batches of optional courses", batches.size());
+        return workflowResult(results, timings, startTime);
+    }
 
-            // Process each batch
-            for (int i = 0; i < batches.size(); i++) {
-                List<Course> batch = batches.get(i);
-                log.info("Processing batch {} with {} courses", i + 1, batch.size());
+    /**
+     * Score, solve and persist the batches as a pipeline. Scoring runs on the calling
+     * thread, at most {@code maxConcurrentSolves} solves are in flight, and persisting runs
+     * on a single thread so enrollments are written one batch at a time. Once the listener
+     * reports cancellation no further batch is started; batches already in flight finish.
+     */
+    private void runPipeline(
+            Map<Integer, List<Course>> batches,
+            List<Student> students,
+            Map<String, Student> studentsByNumber,
+            BatchListener listener,
+            Map<Integer, StableMatchingResponseDTO> results,
+            Map<Integer, AssignmentWorkflowResultDTO.BatchTiming> timings) throws InterruptedException {
+
+        int solveSlots = Math.max(1, maxConcurrentSolves);
+        Semaphore solvePermits = new Semaphore(solveSlots);
+        // Only re-ranks courses between solves; StableMatch calls themselves hold no thread
+        ExecutorService solveExecutor = Executors.newFixedThreadPool(
+                Math.min(solveSlots, Runtime.getRuntime().availableProcessors()), daemonThreads("assignment-solve-"));
+        ExecutorService persistExecutor = Executors.newSingleThreadExecutor(daemonThreads("assignment-persist-"));
+        List<CompletableFuture<Void>> pipeline = new ArrayList<>(batches.size());
 
-                StableMatchingResponseDTO result = processBatch(batch, students);
-                results.put(i, result);
+        try {
+            for (Map.Entry<Integer, List<Course>> entry : batches.entrySet()) {
+                int batchId = entry.getKey();
+                List<Course> batch = entry.getValue();
+                if (listener.isCancelled()) {
+                    log.info("Assignment cancelled before batch {}", batchId + 1);
+                    break;
+                }
+                AssignmentWorkflowResultDTO.BatchTiming timing = new AssignmentWorkflowResultDTO.BatchTiming();
+                timings.put(batchId, timing);
+                log.info("Processing batch {} with {} courses", batchId + 1, batch.size());
+                listener.batchStarted(batchId);
+
+                StudentScoreMatrix scores;
+                StableMatchingRequestDTO request;
+                long scoringStart = System.currentTimeMillis();
+                try {
+                    // Read the materialized scores of student grades in compulsory courses
+                    scores = studentScoreStore.load(batch, students);
+                    request = buildBatchRequest(batch, students, scores);
+                } catch (RuntimeException e) {
+                    log.error("Error scoring batch {}", batchId + 1, e);
+                    listener.batchFailed(batchId, "Scoring failed: " + e.getMessage(), timing);
+                    continue;
+                } finally {
+                    timing.setScoringMs(System.currentTimeMillis() - scoringStart);
+                }
 
-                // Save assignments to database
-                if ("SUCCESS".equals(result.getStatus())) {
-                    saveAssignmentsToDatabase(result, batch);
-                    log.info("Batch {} completed with {} successful assignments",
-                            i + 1, result.getAssignments().size());
-                } else {
-                    log.warn("Batch {} failed: {}", i + 1, result.getMessage());
+                // Wait for a free slot so no more than maxConcurrentSolves batches are in flight
+                solvePermits.acquire();
+                CompletableFuture<StableMatchingResponseDTO> solve;
+                long solveStart = System.currentTimeMillis();
+                try {
+                    log.info("Invoking StableMatch service for batch {}", batchId + 1);
+                    solve = solveBatch(batchId, batch, scores, request, solveExecutor);
+                } catch (RuntimeException e) {
+                    solvePermits.release();
+                    throw e;
                 }
+                solve = solve.whenComplete((result, failure) -> {
+                    timing.setSolveMs(System.currentTimeMillis() - solveStart);
+                    solvePermits.release();
+                });
+
+                pipeline.add(solve
+                        .thenAcceptAsync(result -> {
+                            results.put(batchId, result);
+                            if (!"SUCCESS".equals(result.getStatus())) {
+                                log.warn("Batch {} failed: {}", batchId + 1, result.getMessage());
+                                listener.batchFailed(batchId, result.getMessage(), timing);
+                                return;
+                            }
+                            long persistStart = System.currentTimeMillis();
+                            int created = saveAssignmentsToDatabase(result, batch, studentsByNumber);
+                            timing.setPersistMs(System.currentTimeMillis() - persistStart);
+                            log.info("Batch {} completed with {} successful assignments",
+                                    batchId + 1, result.getAssignments().size());
+                            listener.batchCompleted(batchId, result, created, timing);
+                        }, persistExecutor)
+                        .exceptionally(e -> {
+                            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                            log.error("Error processing batch {}", batchId + 1, cause);
+                            listener.batchFailed(batchId, cause.getMessage(), timing);
+                            return null;
+                        }));
             }
 
-            long totalTime = System.currentTimeMillis() - startTime;
-            log.info("Course assignment workflow completed in {} ms with {} batches",
-                    totalTime, results.size());
-
-        } catch (Exception e) {
-            log.error("Error executing assignment workflow", e);
+            CompletableFuture.allOf(pipeline.toArray(new CompletableFuture[0])).get();
+        } catch (ExecutionException e) {
+            // Every stage handles its own failure, so the combined future always completes normally
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            solveExecutor.shutdown();
+            persistExecutor.shutdown();
         }
+    }
+
+    /**
+     * Solve a batch, lengthening the rankings of courses that ran out of listed students.
+     * <p>
+     * StableMatch ranks the students a course does not list after all listed ones, in the
+     * order of the student list, and reports admitting one with course preference rank 0.
+     * As long as no course does, the matching is also stable for the full rankings.
+     *
+     * @param executor runs the re-ranking between solves
+     */
+    private CompletableFuture<StableMatchingResponseDTO> solveBatch(
+            int batchId,
+            List<Course> optionalCourses,
+            StudentScoreMatrix studentScores,
+            StableMatchingRequestDTO request,
+            Executor executor) {
+
+        return matchingSolverService.solveAsync(request).thenComposeAsync(result -> {
+            if (!"SUCCESS".equals(result.getStatus()) || result.getAssignments() == null) {
+                return CompletableFuture.completedFuture(result);
+            }
+
+            Set<String> exhausted = result.getAssignments().stream()
+                    .filter(assignment -> assignment.getCoursePreferenceRank() != null
+                            && assignment.getCoursePreferenceRank() == 0)
+                    .map(StableMatchingResponseDTO.Assignment::getCourseId)
+                    .collect(Collectors.toSet());
+            if (exhausted.isEmpty()) {
+                return CompletableFuture.completedFuture(result);
+            }
 
-        return results;
+            log.info("Batch {}: {} courses admitted students beyond their ranking, solving again with longer rankings",
+                    batchId + 1, exhausted.size());
+            List<StableMatchingRequestDTO.CoursePreference> coursePreferences = request.getCourses();
+            for (int c = 0; c < optionalCourses.size(); c++) {
+                Course course = optionalCourses.get(c);
+                if (exhausted.contains(course.getCode())) {
+                    int listed = coursePreferences.get(c).getPreferences().size();
+                    coursePreferences.set(c, buildCoursePreference(course, c, studentScores, 2 * listed));
+                }
+            }
+            return solveBatch(batchId, optionalCourses, studentScores, request, executor);
+        }, executor);
     }
 
     /**
-     * Process a single batch of optional courses
+     * Build the StableMatch request for a single batch of optional courses
      * Builds student preferences and course preferences for the batch
      *
      * @param optionalCourses courses in this batch
      * @param students all students
-     * @return the matching result from StableMatch service
+     * @param studentScores scores of {@code students} for {@code optionalCourses}
+     * @return the matching problem for the batch
      */
-    private StableMatchingResponseDTO processBatch(
+    private StableMatchingRequestDTO buildBatchRequest(
             List<Course> optionalCourses,
-            List<Student> students) {
+            List<Student> students,
+            StudentScoreMatrix studentScores) {
 
         log.info("Processing batch with {} optional courses and {} students",
                 optionalCourses.size(), students.size());
 
-        // Build course preferences based on student grades in compulsory courses
-        Map<String, StudentScoreInfo> studentScores = calculateStudentScoresForBatch(
-                optionalCourses, students);
-
         // Build student preferences for this batch
         List<StableMatchingRequestDTO.StudentPreference> studentPreferences =
                 buildStudentPreferencesForBatch(optionalCourses, students);
@@ -126,80 +287,40 @@ public class CourseAssignmentOrchestrationService {
         List<StableMatchingRequestDTO.CoursePreference> coursePreferences =
                 buildCoursePreferencesForBatch(optionalCourses, studentScores);
 
-        // Create request for StableMatch service
-        StableMatchingRequestDTO request = StableMatchingRequestDTO.builder()
+        // Create request for StableMatch service; courses without their own capacity use the default
+        return StableMatchingRequestDTO.builder()
                 .students(studentPreferences)
                 .courses(coursePreferences)
-                .capacityPerCourse(1)
+                .capacityPerCourse(defaultCourseCapacity)
                 .build();
-
-        // Invoke StableMatch service
-        log.info("Invoking StableMatch service for batch");
-        return stableMatchClient.solveMatching(request);
     }
 
-    /**
-     * Calculate student scores for each optional course based on
-     * instructor preferences and student grades in compulsory courses
-     *
-     * @param optionalCourses courses in the batch
-     * @param students all students
-     * @return map of student ID to their scores for each course
-     */
-    private Map<String, StudentScoreInfo> calculateStudentScoresForBatch(
-            List<Course> optionalCourses,
-            List<Student> students) {
-
-        Map<String, StudentScoreInfo> scores = new HashMap<>();
-
-        for (Student student : students) {
-            StudentScoreInfo scoreInfo = new StudentScoreInfo();
-            String studentCode = student.getStudentNumber();
-
-            for (Course course : optionalCourses) {
-                // Get instructor preferences for this optional course
-                List<InstructorCoursePreference> preferences =
-                        instructorPreferenceRepository.findByOptionalCourseId(course.getId());
-
-                if (preferences.isEmpty()) {
-                    // No preferences specified, give neutral score
-                    scoreInfo.scores.put(course.getCode(), 50.0);
-                    continue;
-                }
-
-                // Calculate weighted average of grades
-                double weightedSum = 0.0;
-                double totalWeight = 0.0;
-
-                for (InstructorCoursePreference pref : preferences) {
-                    double weight = pref.getPercentage();
-                    // Get student's grade in this compulsory course
-                    List<Grade> grades = gradeRepository.findAll().stream()
-                            .filter(g -> g.getStudentCode().equals(studentCode)
-                                    && g.getCourseCode().equals(pref.getCompulsoryCourseCode()))
-                            .collect(Collectors.toList());
-
-                    if (!grades.isEmpty()) {
-                        // Use most recent grade
-                        double grade = grades.stream()
-                                .max(Comparator.comparing(Grade::getReceivedAt))
-                                .map(Grade::getGrade)
-                                .orElse(0.0);
-
-                        weightedSum += grade * weight;
-                        totalWeight += weight;
-                    }
-                }
-
-                double finalScore = totalWeight > 0 ? weightedSum / totalWeight : 50.0;
-                scoreInfo.scores.put(course.getCode(), finalScore);
-                log.debug("Student {} score for course {}: {}", studentCode, course.getCode(), finalScore);
-            }
-
-            scores.put(studentCode, scoreInfo);
-        }
+    private static AssignmentWorkflowResultDTO workflowResult(
+            Map<Integer, StableMatchingResponseDTO> results,
+            Map<Integer, AssignmentWorkflowResultDTO.BatchTiming> timings,
+            long startTime) {
+
+        Map<Integer, AssignmentWorkflowResultDTO.BatchTiming> batchTimings = new TreeMap<>(timings);
+        return AssignmentWorkflowResultDTO.builder()
+                .results(new TreeMap<>(results))
+                .batchTimings(batchTimings)
+                .scoringTimeMs(batchTimings.values().stream()
+                        .mapToLong(AssignmentWorkflowResultDTO.BatchTiming::getScoringMs).sum())
+                .solveTimeMs(batchTimings.values().stream()
+                        .mapToLong(AssignmentWorkflowResultDTO.BatchTiming::getSolveMs).sum())
+                .persistTimeMs(batchTimings.values().stream()
+                        .mapToLong(AssignmentWorkflowResultDTO.BatchTiming::getPersistMs).sum())
+                .wallClockTimeMs(System.currentTimeMillis() - startTime)
+                .build();
+    }
 
-        return scores;
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
     }
 
     /**
@@ -229,98 +350,149 @@ public class CourseAssignmentOrchestrationService {
 
     /**
      * Build course preferences for the batch based on student scores.
-     * Courses prefer students with higher weighted scores.
+     * Courses prefer students with higher weighted scores; students with equal
+     * scores keep the order of the student list. Each course lists only its best
+     * capacity + {@code rankingSafetyMargin} students, or everyone if the margin is negative.
      *
      * @param optionalCourses courses in the batch
-     * @param studentScores calculated scores for each student
+     * @param studentScores calculated scores, indexed like {@code optionalCourses}
      * @return list of course preferences
      */
     private List<StableMatchingRequestDTO.CoursePreference> buildCoursePreferencesForBatch(
             List<Course> optionalCourses,
-            Map<String, StudentScoreInfo> studentScores) {
-
-        List<StableMatchingRequestDTO.CoursePreference> preferences = new ArrayList<>();
-
-        for (Course course : optionalCourses) {
-            // Sort students by their score for this course (descending)
-            List<String> rankedStudents = studentScores.entrySet().stream()
-                    .sorted((e1, e2) -> Double.compare(
-                            e2.getValue().scores.getOrDefault(course.getCode(), 0.0),
-                            e1.getValue().scores.getOrDefault(course.getCode(), 0.0)))
-                    .map(Map.Entry::getKey)
-                    .collect(Collectors.toList());
-
-            preferences.add(StableMatchingRequestDTO.CoursePreference.builder()
-                    .courseId(course.getCode())
-                    .preferences(rankedStudents)
-                    .build());
+            StudentScoreMatrix studentScores) {
+
+        List<StableMatchingRequestDTO.CoursePreference> preferences = new ArrayList<>(optionalCourses.size());
+        for (int c = 0; c < optionalCourses.size(); c++) {
+            Course course = optionalCourses.get(c);
+            int capacity = course.getCapacity() != null ? course.getCapacity() : defaultCourseCapacity;
+            int listed = rankingSafetyMargin < 0
+                    ? studentScores.studentCount()
+                    : Math.max(1, capacity + rankingSafetyMargin);
+            preferences.add(buildCoursePreference(course, c, studentScores, listed));
         }
-
         return preferences;
     }
 
+    private StableMatchingRequestDTO.CoursePreference buildCoursePreference(
+            Course course,
+            int courseIndex,
+            StudentScoreMatrix studentScores,
+            int listed) {
+
+        int[] top = topStudents(studentScores, courseIndex, Math.min(listed, studentScores.studentCount()));
+        List<String> rankedStudents = new ArrayList<>(top.length);
+        for (int student : top) {
+            rankedStudents.add(studentScores.studentCode(student));
+        }
+        return StableMatchingRequestDTO.CoursePreference.builder()
+                .courseId(course.getCode())
+                .preferences(rankedStudents)
+                .capacity(course.getCapacity())
+                .build();
+    }
+
+    /**
+     * The {@code k} best students for a course, best first, in O(n log k): a bounded heap keeps
+     * the best students seen so far with the worst of them at the root.
+     */
+    private static int[] topStudents(StudentScoreMatrix studentScores, int course, int k) {
+        int[] heap = new int[k];
+        int size = 0;
+        for (int s = 0; s < studentScores.studentCount(); s++) {
+            if (size < k) {
+                heap[size] = s;
+                siftUp(heap, size++, studentScores, course);
+            } else if (k > 0 && ranksAbove(studentScores, course, s, heap[0])) {
+                heap[0] = s;
+                siftDown(heap, 0, size, studentScores, course);
+            }
+        }
+
+        // Repeatedly take the worst kept student, filling the result from the back
+        int[] top = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            top[i] = heap[0];
+            heap[0] = heap[i];
+            siftDown(heap, 0, i, studentScores, course);
+        }
+        return top;
+    }
+
+    /**
+     * Whether the course ranks student {@code a} above {@code b}: a higher score, or an equal
+     * score and an earlier place in the student list.
+     */
+    private static boolean ranksAbove(StudentScoreMatrix studentScores, int course, int a, int b) {
+        int byScore = Double.compare(studentScores.score(a, course), studentScores.score(b, course));
+        return byScore > 0 || (byScore == 0 && a < b);
+    }
+
+    private static void siftUp(int[] heap, int index, StudentScoreMatrix studentScores, int course) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!ranksAbove(studentScores, course, heap[parent], heap[index])) {
+                return;
+            }
+            swap(heap, index, parent);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int index, int size, StudentScoreMatrix studentScores, int course) {
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= size) {
+                return;
+            }
+            int right = left + 1;
+            int worst = right < size && ranksAbove(studentScores, course, heap[left], heap[right]) ? right : left;
+            if (!ranksAbove(studentScores, course, heap[index], heap[worst])) {
+                return;
+            }
+            swap(heap, index, worst);
+            index = worst;
+        }
+    }
+
+    private static void swap(int[] heap, int i, int j) {
+        int student = heap[i];
+        heap[i] = heap[j];
+        heap[j] = student;
+    }
+
     /**
      * Save the matching results to the database by creating enrollments
      *
      * @param result the matching result from StableMatch
      * @param courses the courses in this batch
+     * @param studentsByNumber all students, by student number
+     * @return number of enrollments created
      */
-    private void saveAssignmentsToDatabase(
+    private int saveAssignmentsToDatabase(
             StableMatchingResponseDTO result,
-            List<Course> courses) {
+            List<Course> courses,
+            Map<String, Student> studentsByNumber) {
 
         log.info("Saving {} assignments to database", result.getAssignments().size());
 
         Map<String, Course> courseMap = courses.stream()
                 .collect(Collectors.toMap(Course::getCode, c -> c));
 
-        Map<Long, Student> studentMap = studentRepository.findAll().stream()
-                .collect(Collectors.toMap(Student::getId, s -> s));
-
-        for (StableMatchingResponseDTO.Assignment assignment : result.getAssignments()) {
-            try {
-                Course course = courseMap.get(assignment.getCourseId());
-                if (course == null) {
-                    log.warn("Course not found: {}", assignment.getCourseId());
-                    continue;
-                }
-
-                Student student = studentRepository.findAll().stream()
-                        .filter(s -> s.getStudentNumber().equals(assignment.getStudentId()))
-                        .findFirst()
-                        .orElse(null);
-
-                if (student == null) {
-                    log.warn("Student not found: {}", assignment.getStudentId());
-                    continue;
-                }
-
-                // Check if enrollment already exists
-                if (enrollmentRepository.findAll().stream()
-                        .noneMatch(e -> e.getStudent().getId().equals(student.getId())
-                                && e.getCourse().getId().equals(course.getId()))) {
-
-                    Enrollment enrollment = new Enrollment();
-                    enrollment.setStudent(student);
-                    enrollment.setCourse(course);
-                    enrollmentRepository.save(enrollment);
-                    log.debug("Created enrollment for student {} in course {}",
-                            student.getStudentNumber(), course.getCode());
-                }
-            } catch (Exception e) {
-                log.error("Error saving assignment: {}", e.getMessage());
-            }
-        }
+        return enrollmentBulkWriter.write(result.getAssignments(), studentsByNumber, courseMap);
     }
 
     /**
      * Batch optional courses into groups of specified size
      *
      * @param courses the courses to batch
-     * @param batchSize the size of each batch
+     * @param batchSize the size of each batch, or 0 for a single batch with every course
      * @return list of batches
      */
     private List<List<Course>> batchOptionalCourses(List<Course> courses, int batchSize) {
+        if (batchSize <= 0 || batchSize >= courses.size()) {
+            return List.of(new ArrayList<>(courses));
+        }
         List<List<Course>> batches = new ArrayList<>();
         for (int i = 0; i < courses.size(); i += batchSize) {
             batches.add(new ArrayList<>(courses.subList(i,
@@ -330,9 +502,26 @@ public class CourseAssignmentOrchestrationService {
     }
 
     /**
-     * Helper class to store student scores for different courses
+     * Receives the outcome of each batch of an assignment run. Callbacks arrive from the
+     * pipeline threads, at most one at a time per batch.
      */
-    private static class StudentScoreInfo {
-        Map<String, Double> scores = new HashMap<>();
+    public interface BatchListener {
+
+        /**
+         * @return whether no further batch should be started
+         */
+        default boolean isCancelled() {
+            return false;
+        }
+
+        default void batchStarted(int batchId) {
+        }
+
+        default void batchCompleted(int batchId, StableMatchingResponseDTO result, int enrollmentsCreated,
+                                    AssignmentWorkflowResultDTO.BatchTiming timing) {
+        }
+
+        default void batchFailed(int batchId, String message, AssignmentWorkflowResultDTO.BatchTiming timing) {
+        }
     }
 }
@@ -0,0 +1,137 @@
+package uaic.dbxdrgsl.PrefSchedule.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import uaic.dbxdrgsl.PrefSchedule.model.Course;
+import uaic.dbxdrgsl.PrefSchedule.repository.CourseRepository;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory snapshot of course metadata by course code, so that looking up a course while
+ * ingesting grades does not query the course table.
+ * <p>
+ * Codes are matched ignoring case. The snapshot is immutable and replaced as a whole: it is
+ * reloaded whenever {@link CourseService} creates, updates or deletes a course, and every
+ * {@code course-cache.refresh-interval} milliseconds to pick up changes made elsewhere.
+ * Lookups are counted as {@code course.metadata.cache.requests}, tagged hit or miss.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CourseMetadataCache {
+
+    /**
+     * What is cached about a course
+     *
+     * @param compulsory whether the course is compulsory
+     */
+    public record CourseFlags(boolean compulsory) {
+    }
+
+    private final CourseRepository courseRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${course-cache.refresh-interval:60000}")
+    private long refreshIntervalMs;
+
+    private volatile Map<String, CourseFlags> snapshot = Map.of();
+    private ScheduledExecutorService scheduler;
+    private Counter hits;
+    private Counter misses;
+
+    @PostConstruct
+    void init() {
+        hits = lookupCounter("hit");
+        misses = lookupCounter("miss");
+        Gauge.builder("course.metadata.cache.size", this, cache -> cache.snapshot.size())
+                .description("Courses in the course metadata cache")
+                .register(meterRegistry);
+
+        refresh();
+        if (refreshIntervalMs > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "course-cache-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::refreshQuietly,
+                    refreshIntervalMs, refreshIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Look up a course by code, ignoring case.
+     *
+     * @param courseCode the course code
+     * @return the course's flags, or null if no course has that code
+     */
+    public CourseFlags find(String courseCode) {
+        CourseFlags flags = courseCode == null ? null : snapshot.get(normalize(courseCode));
+        (flags != null ? hits : misses).increment();
+        return flags;
+    }
+
+    /**
+     * Whether a course with this code exists and is compulsory.
+     */
+    public boolean isCompulsory(String courseCode) {
+        CourseFlags flags = find(courseCode);
+        return flags != null && flags.compulsory();
+    }
+
+    /**
+     * Reload the snapshot from the course table.
+     */
+    public synchronized void refresh() {
+        Map<String, CourseFlags> loaded = new HashMap<>();
+        for (Course course : courseRepository.findAll()) {
+            if (course.getCode() == null) {
+                continue;
+            }
+            // Codes differing only in case count as one course, compulsory if any of them is
+            loaded.merge(normalize(course.getCode()), new CourseFlags(course.isCompulsory()),
+                    (a, b) -> new CourseFlags(a.compulsory() || b.compulsory()));
+        }
+        snapshot = Map.copyOf(loaded);
+        log.debug("Course metadata cache refreshed with {} courses", loaded.size());
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh the course metadata cache, keeping the previous snapshot: {}", e.getMessage());
+        }
+    }
+
+    private static String normalize(String courseCode) {
+        return courseCode.toUpperCase(Locale.ROOT);
+    }
+
+    private Counter lookupCounter(String result) {
+        return Counter.builder("course.metadata.cache.requests")
+                .description("Course metadata lookups, by whether the course was cached")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -12,13 +12,17 @@ import java.util.Optional;
 public class CourseService {
 
     private final CourseRepository repo;
+    private final CourseMetadataCache courseMetadataCache;
 
-    public CourseService(CourseRepository repo) {
+    public CourseService(CourseRepository repo, CourseMetadataCache courseMetadataCache) {
         this.repo = repo;
+        this.courseMetadataCache = courseMetadataCache;
     }
 
     public Course save(Course c) {
-        return repo.save(c);
+        Course saved = repo.save(c);
+        courseMetadataCache.refresh();
+        return saved;
     }
 
     public List<Course> findAll() {
@@ -31,6 +35,7 @@ public class CourseService {
 
     public void deleteById(Long id) {
         repo.deleteById(id);
+        courseMetadataCache.refresh();
     }
 
     public List<Course> searchByTitle(String fragment) {
@@ -0,0 +1,234 @@
+package uaic.dbxdrgsl.PrefSchedule.service;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads comma-separated lines into a reusable char buffer and exposes each line's fields
+ * as offsets into it, so that fields are only copied into strings when they are used and
+ * numbers are parsed in place. Fields are trimmed; like {@link String#split}, empty fields
+ * at the end of a line are dropped. A field enclosed in double quotes may contain commas,
+ * and {@code ""} inside it stands for one quote; it is taken as is, without trimming, and
+ * cannot span lines.
+ */
+final class CsvLineTokenizer {
+
+    private static final int MAX_FIELDS = 16;
+
+    private final Reader reader;
+    private char[] buffer;
+    private int position;
+    private int limit;
+    private boolean eof;
+
+    private final int[] starts = new int[MAX_FIELDS];
+    private final int[] ends = new int[MAX_FIELDS];
+    private int fieldCount;
+
+    CsvLineTokenizer(Reader reader, int bufferSize) {
+        this.reader = reader;
+        this.buffer = new char[bufferSize];
+    }
+
+    /**
+     * Advance to the next line.
+     *
+     * @return false at the end of the input
+     */
+    boolean nextLine() throws IOException {
+        int lineEnd;
+        while ((lineEnd = indexOfNewline()) < 0) {
+            if (eof) {
+                if (position == limit) {
+                    return false;
+                }
+                lineEnd = limit;
+                break;
+            }
+            fill();
+        }
+        split(position, lineEnd);
+        position = lineEnd < limit ? lineEnd + 1 : lineEnd;
+        return true;
+    }
+
+    /**
+     * Number of fields of the current line; more than {@code MAX_FIELDS} counts as {@code MAX_FIELDS + 1}.
+     */
+    int fieldCount() {
+        return fieldCount;
+    }
+
+    boolean isBlank(int field) {
+        return starts[field] == ends[field];
+    }
+
+    String field(int field) {
+        return new String(buffer, starts[field], ends[field] - starts[field]);
+    }
+
+    /**
+     * Parse a field as a decimal number without copying it; falls back to
+     * {@link Double#parseDouble} for exponents and other less common forms.
+     *
+     * @throws NumberFormatException if the field is not a number
+     */
+    double parseDouble(int field) {
+        int i = starts[field];
+        int end = ends[field];
+        boolean negative = i < end && buffer[i] == '-';
+        if (negative || (i < end && buffer[i] == '+')) {
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean point = false;
+        for (; i < end; i++) {
+            char c = buffer[i];
+            // Up to 15 digits the mantissa and the power of ten are exact, so the division rounds correctly
+            if (c >= '0' && c <= '9' && digits < 15) {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (point) {
+                    scale++;
+                }
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                return Double.parseDouble(field(field));
+            }
+        }
+        if (digits == 0) {
+            throw new NumberFormatException("Not a number: \"" + field(field) + "\"");
+        }
+        double value = mantissa / Math.pow(10, scale);
+        return negative ? -value : value;
+    }
+
+    private int indexOfNewline() {
+        for (int i = position; i < limit; i++) {
+            if (buffer[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Move the unread part of the buffer to its start, growing it if a single line fills it,
+     * and read more input after it.
+     */
+    private void fill() throws IOException {
+        int remaining = limit - position;
+        if (remaining == buffer.length) {
+            char[] grown = new char[buffer.length * 2];
+            System.arraycopy(buffer, position, grown, 0, remaining);
+            buffer = grown;
+        } else {
+            System.arraycopy(buffer, position, buffer, 0, remaining);
+        }
+        position = 0;
+        limit = remaining;
+        int read = reader.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            eof = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    private void split(int from, int to) {
+        fieldCount = 0;
+        int lastNonEmpty = 0;
+        int i = from;
+        while (fieldCount <= MAX_FIELDS) {
+            int start = i;
+            while (start < to && buffer[start] <= ' ') {
+                start++;
+            }
+            int end;
+            boolean empty;
+            if (start < to && buffer[start] == '"') {
+                // Whatever follows the closing quote up to the next comma is ignored
+                i = quotedEnd(start, to);
+                end = unquote(start, to);
+                while (i < to && buffer[i] != ',') {
+                    i++;
+                }
+                empty = false;
+            } else {
+                int fieldStart = i;
+                while (i < to && buffer[i] != ',') {
+                    i++;
+                }
+                end = i;
+                while (end > start && buffer[end - 1] <= ' ') {
+                    end--;
+                }
+                // String.split only drops fields that are empty before trimming
+                empty = i == fieldStart || (i == to && onlyCarriageReturn(fieldStart, i));
+            }
+            if (fieldCount < MAX_FIELDS) {
+                starts[fieldCount] = start;
+                ends[fieldCount] = end;
+            }
+            fieldCount++;
+            if (!empty) {
+                lastNonEmpty = fieldCount;
+            }
+            if (i == to) {
+                break;
+            }
+            i++;
+        }
+        if (fieldCount <= MAX_FIELDS) {
+            fieldCount = lastNonEmpty == 0 ? 1 : lastNonEmpty;
+        }
+    }
+
+    /**
+     * Unescape the quoted field opening at {@code quote} in place, over its opening quote.
+     * An unterminated field runs to the end of the line.
+     *
+     * @return the end of the unescaped field
+     */
+    private int unquote(int quote, int to) {
+        int write = quote;
+        for (int read = quote + 1; read < to; read++) {
+            if (buffer[read] == '"') {
+                if (read + 1 < to && buffer[read + 1] == '"') {
+                    read++;
+                } else {
+                    return write;
+                }
+            }
+            buffer[write++] = buffer[read];
+        }
+        return write;
+    }
+
+    /**
+     * Position after the closing quote of the quoted field opening at {@code quote}, which
+     * {@link #unquote} leaves where it is.
+     */
+    private int quotedEnd(int quote, int to) {
+        for (int i = quote + 1; i < to; i++) {
+            if (buffer[i] == '"') {
+                if (i + 1 < to && buffer[i + 1] == '"') {
+                    i++;
+                } else {
+                    return i + 1;
+                }
+            }
+        }
+        return to;
+    }
+
+    /**
+     * A line ending in CRLF leaves the CR at the end of its last field.
+     */
+    private boolean onlyCarriageReturn(int from, int to) {
+        return to - from == 1 && buffer[from] == '\r';
+    }
+}
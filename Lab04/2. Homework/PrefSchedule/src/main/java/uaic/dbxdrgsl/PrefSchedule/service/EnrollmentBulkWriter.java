@@ -0,0 +1,103 @@
+package uaic.dbxdrgsl.PrefSchedule.service;
+
+import com.stablematch.dto.StableMatchingResponseDTO;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import uaic.dbxdrgsl.PrefSchedule.model.Course;
+import uaic.dbxdrgsl.PrefSchedule.model.Enrollment;
+import uaic.dbxdrgsl.PrefSchedule.model.Student;
+import uaic.dbxdrgsl.PrefSchedule.repository.EnrollmentRepository;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Persists matching assignments as enrollments in JDBC batches.
+ * <p>
+ * Existing enrollments of the affected courses are read with one query, and new rows
+ * are persisted in chunks of {@code hibernate.jdbc.batch_size}; each chunk is flushed
+ * as batched inserts and cleared from the persistence context so memory stays flat.
+ */
+@Slf4j
+@Component
+public class EnrollmentBulkWriter {
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final EntityManager entityManager;
+    private final int batchSize;
+
+    public EnrollmentBulkWriter(EnrollmentRepository enrollmentRepository, EntityManager entityManager,
+                                @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.entityManager = entityManager;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Create an enrollment for every assignment that does not already have one.
+     * Entities managed by the caller's transaction are detached once written.
+     *
+     * @param assignments the assignments to persist
+     * @param studentsByNumber students of the assignments, by student number
+     * @param coursesByCode courses of the assignments, by course code
+     * @return number of enrollments created
+     */
+    @Transactional
+    public int write(List<StableMatchingResponseDTO.Assignment> assignments,
+                     Map<String, Student> studentsByNumber,
+                     Map<String, Course> coursesByCode) {
+
+        Set<Long> courseIds = new HashSet<>();
+        for (Course course : coursesByCode.values()) {
+            courseIds.add(course.getId());
+        }
+        Map<Long, Set<Long>> enrolledByCourse = new HashMap<>();
+        if (!courseIds.isEmpty()) {
+            for (EnrollmentRepository.EnrollmentKey key : enrollmentRepository.findKeysByCourseIds(courseIds)) {
+                enrolledByCourse.computeIfAbsent(key.getCourseId(), id -> new HashSet<>()).add(key.getStudentId());
+            }
+        }
+
+        int created = 0;
+        int pending = 0;
+        for (StableMatchingResponseDTO.Assignment assignment : assignments) {
+            Course course = coursesByCode.get(assignment.getCourseId());
+            if (course == null) {
+                log.warn("Course not found: {}", assignment.getCourseId());
+                continue;
+            }
+            Student student = studentsByNumber.get(assignment.getStudentId());
+            if (student == null) {
+                log.warn("Student not found: {}", assignment.getStudentId());
+                continue;
+            }
+            if (!enrolledByCourse.computeIfAbsent(course.getId(), id -> new HashSet<>()).add(student.getId())) {
+                continue;
+            }
+
+            Enrollment enrollment = new Enrollment();
+            enrollment.setStudent(student);
+            enrollment.setCourse(course);
+            entityManager.persist(enrollment);
+            created++;
+            if (++pending == batchSize) {
+                entityManager.flush();
+                entityManager.clear();
+                pending = 0;
+            }
+        }
+        if (pending > 0) {
+            entityManager.flush();
+            entityManager.clear();
+        }
+
+        log.info("Created {} enrollments for {} assignments", created, assignments.size());
+        return created;
+    }
+}
@@ -0,0 +1,337 @@
+package uaic.dbxdrgsl.PrefSchedule.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import uaic.dbxdrgsl.PrefSchedule.dto.GradeImportDTO;
+import uaic.dbxdrgsl.PrefSchedule.model.Grade;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Imports CSV files of grades ({@code studentCode,courseCode,grade} per line) in the
+ * background, so that a file of millions of rows does not hold a request open.
+ * <p>
+ * The upload is saved to a temporary file and streamed from it: lines are tokenized in a
+ * reusable buffer, course codes are checked against {@link CourseMetadataCache}, and grades
+ * for compulsory courses are written through {@link GradeService#upsertAll} in chunks of
+ * {@code grades.import.chunk-size} rows, one transaction per chunk. A chunk that cannot be
+ * stored counts its rows as failed and the import goes on with the next one. A first line
+ * naming the columns is skipped. Imports run one at a time; their progress is kept in memory
+ * for the last {@code grades.import.retained-jobs} imports.
+ */
+@Slf4j
+@Service
+public class GradeImportService {
+
+    private static final int MAX_REPORTED_FAILURES = 10;
+    private static final List<String> HEADER = List.of("studentCode", "courseCode", "grade");
+
+    private final GradeService gradeService;
+    private final int chunkSize;
+    private final int retainedJobs;
+
+    private final ExecutorService importExecutor;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public GradeImportService(GradeService gradeService,
+                              @Value("${grades.import.chunk-size:1000}") int chunkSize,
+                              @Value("${grades.import.retained-jobs:100}") int retainedJobs) {
+        this.gradeService = gradeService;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.retainedJobs = Math.max(1, retainedJobs);
+        this.importExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "grade-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        importExecutor.shutdownNow();
+    }
+
+    /**
+     * Save an uploaded CSV file and import it in the background.
+     *
+     * @param file the uploaded file
+     * @return the queued import
+     * @throws IOException if the upload cannot be saved
+     */
+    public GradeImportDTO startImport(MultipartFile file) throws IOException {
+        Path upload = Files.createTempFile("grade-import-", ".csv");
+        try {
+            file.transferTo(upload);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(upload);
+            throw e;
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), file.getOriginalFilename(), Files.size(upload));
+        jobs.put(job.id, job);
+        evictFinishedJobs();
+        log.info("Queued grade import {} of {} ({} bytes)", job.id, job.fileName, job.totalBytes);
+        importExecutor.execute(() -> execute(job, upload));
+        return job.toDto();
+    }
+
+    /**
+     * Progress of an import.
+     *
+     * @throws IllegalArgumentException if no such import is known
+     */
+    public GradeImportDTO getImport(String importId) {
+        ImportJob job = jobs.get(importId);
+        if (job == null) {
+            throw new IllegalArgumentException("Grade import not found: " + importId);
+        }
+        return job.toDto();
+    }
+
+    private void execute(ImportJob job, Path upload) {
+        job.start();
+        try (InputStream in = new CountingInputStream(Files.newInputStream(upload), job.bytesRead);
+             Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            importRows(job, new CsvLineTokenizer(reader, 1 << 16));
+            job.finish("COMPLETED", null);
+            log.info("Grade import {} completed: {} rows, {} stored, {} ignored, {} failed",
+                    job.id, job.totalRows, job.storedRows, job.ignoredRows, job.failedRows);
+        } catch (Exception e) {
+            log.error("Grade import {} failed after {} rows: {}", job.id, job.totalRows, e.getMessage(), e);
+            job.finish("FAILED", e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(upload);
+            } catch (IOException e) {
+                log.warn("Could not delete uploaded grades file {}: {}", upload, e.getMessage());
+            }
+        }
+    }
+
+    private void importRows(ImportJob job, CsvLineTokenizer lines) throws IOException {
+        List<Grade> chunk = new ArrayList<>(chunkSize);
+        long line = 0;
+        while (lines.nextLine()) {
+            line++;
+            if (line == 1 && isHeader(lines)) {
+                continue;
+            }
+            job.totalRows++;
+            if (lines.fieldCount() != 3) {
+                job.fail("Invalid columns at line " + line);
+                continue;
+            }
+            double gradeValue;
+            try {
+                gradeValue = lines.parseDouble(2);
+            } catch (NumberFormatException e) {
+                job.fail("Invalid grade at line " + line);
+                continue;
+            }
+            if (lines.isBlank(0) || lines.isBlank(1)) {
+                job.fail("Missing fields at line " + line);
+                continue;
+            }
+            if (!(gradeValue >= 1.0 && gradeValue <= 10.0)) {
+                job.fail("Grade out of range at line " + line);
+                continue;
+            }
+
+            String courseCode = lines.field(1);
+            if (!gradeService.isCourseCompulsory(courseCode)) {
+                job.ignoredRows++;
+                continue;
+            }
+            Grade grade = new Grade();
+            grade.setStudentCode(lines.field(0));
+            grade.setCourseCode(courseCode);
+            grade.setGrade(gradeValue);
+            chunk.add(grade);
+            if (chunk.size() == chunkSize) {
+                writeChunk(job, chunk, line);
+            }
+        }
+        writeChunk(job, chunk, line);
+    }
+
+    private static boolean isHeader(CsvLineTokenizer lines) {
+        if (lines.fieldCount() != HEADER.size()) {
+            return false;
+        }
+        for (int i = 0; i < HEADER.size(); i++) {
+            if (!HEADER.get(i).equalsIgnoreCase(lines.field(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Store a chunk in its own transaction; if that fails, its rows count as failed and
+     * the import continues.
+     *
+     * @param lastLine line of the chunk's last row
+     */
+    private void writeChunk(ImportJob job, List<Grade> chunk, long lastLine) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            gradeService.upsertAll(chunk);
+            job.storedRows += chunk.size();
+        } catch (RuntimeException e) {
+            log.warn("Grade import {} could not store {} rows up to line {}: {}",
+                    job.id, chunk.size(), lastLine, e.getMessage());
+            job.fail(chunk.size(), "Could not store " + chunk.size() + " rows up to line " + lastLine
+                    + ": " + e.getMessage());
+        }
+        chunk.clear();
+    }
+
+    /**
+     * Forget the oldest finished imports beyond the retained number.
+     */
+    private void evictFinishedJobs() {
+        int excess = jobs.size() - retainedJobs;
+        if (excess <= 0) {
+            return;
+        }
+        List<ImportJob> finished = new ArrayList<>();
+        for (ImportJob job : jobs.values()) {
+            if (job.finishedAt != null) {
+                finished.add(job);
+            }
+        }
+        finished.sort((a, b) -> a.finishedAt.compareTo(b.finishedAt));
+        Iterator<ImportJob> oldest = finished.iterator();
+        for (int i = 0; i < excess && oldest.hasNext(); i++) {
+            jobs.remove(oldest.next().id);
+        }
+    }
+
+    /**
+     * Progress of one import; written by the import thread only.
+     */
+    private static final class ImportJob {
+
+        private final String id;
+        private final String fileName;
+        private final long totalBytes;
+        private final Instant createdAt = Instant.now();
+        private final AtomicLong bytesRead = new AtomicLong();
+        private final List<String> failures = new ArrayList<>();
+
+        private volatile String status = "QUEUED";
+        private volatile String message;
+        private volatile long totalRows;
+        private volatile long storedRows;
+        private volatile long ignoredRows;
+        private volatile long failedRows;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+
+        private ImportJob(String id, String fileName, long totalBytes) {
+            this.id = id;
+            this.fileName = fileName;
+            this.totalBytes = totalBytes;
+        }
+
+        private void start() {
+            startedAt = Instant.now();
+            status = "RUNNING";
+        }
+
+        private void fail(String failure) {
+            fail(1, failure);
+        }
+
+        private void fail(int rows, String failure) {
+            failedRows += rows;
+            synchronized (failures) {
+                if (failures.size() < MAX_REPORTED_FAILURES) {
+                    failures.add(failure);
+                }
+            }
+        }
+
+        private void finish(String finalStatus, String finalMessage) {
+            message = finalMessage;
+            finishedAt = Instant.now();
+            status = finalStatus;
+        }
+
+        private GradeImportDTO toDto() {
+            List<String> reported;
+            synchronized (failures) {
+                reported = List.copyOf(failures);
+            }
+            return GradeImportDTO.builder()
+                    .importId(id)
+                    .status(status)
+                    .message(message)
+                    .fileName(fileName)
+                    .totalBytes(totalBytes)
+                    .bytesRead(Math.min(bytesRead.get(), totalBytes))
+                    .totalRows(totalRows)
+                    .storedRows(storedRows)
+                    .ignoredRows(ignoredRows)
+                    .failedRows(failedRows)
+                    .failures(reported)
+                    .createdAt(createdAt)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+
+    /**
+     * Counts the bytes read from the upload, for progress reporting.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private final AtomicLong count;
+
+        private CountingInputStream(InputStream in, AtomicLong count) {
+            super(in);
+            this.count = count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count.incrementAndGet();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count.addAndGet(read);
+            }
+            return read;
+        }
+    }
+}
@@ -1,31 +1,181 @@
 package uaic.dbxdrgsl.PrefSchedule.service;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import uaic.dbxdrgsl.PrefSchedule.model.Course;
 import uaic.dbxdrgsl.PrefSchedule.model.Grade;
-import uaic.dbxdrgsl.PrefSchedule.repository.CourseRepository;
+import uaic.dbxdrgsl.PrefSchedule.model.GradeHistory;
+import uaic.dbxdrgsl.PrefSchedule.repository.GradeHistoryRepository;
 import uaic.dbxdrgsl.PrefSchedule.repository.GradeRepository;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class GradeService {
 
     private final GradeRepository gradeRepository;
-    private final CourseRepository courseRepository;
+    private final CourseMetadataCache courseMetadataCache;
+    private final StudentScoreStore studentScoreStore;
+    private final GradeHistoryRepository gradeHistoryRepository;
+
+    @Value("${grades.history.enabled:true}")
+    private boolean historyEnabled;
 
     public boolean isCourseCompulsory(String courseCode) {
         if (courseCode == null || courseCode.isBlank()) return false;
-        List<Course> courses = courseRepository.findAll();
-        return courses.stream().anyMatch(c -> courseCode.equalsIgnoreCase(c.getCode()) && c.isCompulsory());
+        return courseMetadataCache.isCompulsory(courseCode);
     }
 
+    /**
+     * Store a grade as the student's current grade in the course, unless it is older than it
+     * or was already received.
+     *
+     * @return the current grade, or empty if the grade was skipped and the student has no
+     *         current grade in the course, e.g. a redelivery of a grade since removed
+     */
     @Transactional
-    public Grade save(Grade g) {
-        return gradeRepository.save(g);
+    public Optional<Grade> save(Grade g) {
+        List<Grade> applied = upsertAll(List.of(g));
+        if (!applied.isEmpty()) {
+            return Optional.of(applied.get(0));
+        }
+        return gradeRepository.findByStudentCodeAndCourseCode(g.getStudentCode(), g.getCourseCode())
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Store several grades in one transaction, with JDBC-batched writes. Each becomes the
+     * current grade of its student in its course unless that is already as recent:
+     * <ul>
+     *   <li>a grade whose event ID was already received is a redelivery and is skipped;</li>
+     *   <li>a grade received before the current one is only recorded in the history;</li>
+     *   <li>otherwise the current grade row is inserted or updated in place.</li>
+     * </ul>
+     * Receiving the same grades again is therefore harmless.
+     *
+     * @param grades new grades; their event IDs may be null
+     * @return the current grades inserted or updated
+     */
+    @Transactional
+    public List<Grade> upsertAll(List<Grade> grades) {
+        List<Grade> received = historyEnabled ? recordHistory(grades) : withoutRepeatedEvents(grades);
+
+        // The most recent grade received per student and course; later ones win ties
+        Map<String, Grade> incoming = new LinkedHashMap<>();
+        for (Grade grade : received) {
+            incoming.merge(key(grade.getStudentCode(), grade.getCourseCode()), grade,
+                    (current, candidate) -> candidate.getReceivedAt().isBefore(current.getReceivedAt()) ? current : candidate);
+        }
+        if (incoming.isEmpty()) {
+            return List.of();
+        }
+
+        Set<String> studentCodes = new HashSet<>();
+        Set<String> courseCodes = new HashSet<>();
+        for (Grade grade : incoming.values()) {
+            studentCodes.add(grade.getStudentCode());
+            courseCodes.add(grade.getCourseCode());
+        }
+        Map<String, Grade> currentGrades = new HashMap<>();
+        for (Grade current : gradeRepository.findByStudentCodeInAndCourseCodeIn(studentCodes, courseCodes)) {
+            currentGrades.put(key(current.getStudentCode(), current.getCourseCode()), current);
+        }
+
+        List<Grade> applied = new ArrayList<>(incoming.size());
+        for (Map.Entry<String, Grade> entry : incoming.entrySet()) {
+            Grade grade = entry.getValue();
+            Grade current = currentGrades.get(entry.getKey());
+            if (current == null) {
+                applied.add(grade);
+            } else if (!(grade.getEventId() != null && grade.getEventId().equals(current.getEventId()))
+                    && !grade.getReceivedAt().isBefore(current.getReceivedAt())) {
+                current.setGrade(grade.getGrade());
+                current.setEventId(grade.getEventId());
+                current.setReceivedAt(grade.getReceivedAt());
+                applied.add(current);
+            }
+        }
+
+        List<Grade> saved = gradeRepository.saveAll(applied);
+        studentScoreStore.gradesStored(saved);
+        log.debug("Received {} grades, {} new, {} changed current grades",
+                grades.size(), received.size(), saved.size());
+        return saved;
+    }
+
+    /**
+     * Append grades to the history, leaving out events already recorded.
+     *
+     * @return the grades appended
+     */
+    private List<Grade> recordHistory(List<Grade> grades) {
+        Set<String> eventIds = new HashSet<>();
+        for (Grade grade : grades) {
+            if (grade.getEventId() != null) {
+                eventIds.add(grade.getEventId());
+            }
+        }
+        Set<String> recorded = new HashSet<>();
+        if (!eventIds.isEmpty()) {
+            for (GradeHistory entry : gradeHistoryRepository.findByEventIdIn(eventIds)) {
+                recorded.add(eventKey(entry.getStudentCode(), entry.getCourseCode(), entry.getEventId()));
+            }
+        }
+
+        List<Grade> appended = new ArrayList<>(grades.size());
+        List<GradeHistory> entries = new ArrayList<>(grades.size());
+        for (Grade grade : grades) {
+            if (grade.getEventId() != null
+                    && !recorded.add(eventKey(grade.getStudentCode(), grade.getCourseCode(), grade.getEventId()))) {
+                continue;
+            }
+            GradeHistory entry = new GradeHistory();
+            entry.setStudentCode(grade.getStudentCode());
+            entry.setCourseCode(grade.getCourseCode());
+            entry.setGrade(grade.getGrade());
+            entry.setEventId(grade.getEventId());
+            entry.setReceivedAt(grade.getReceivedAt());
+            entries.add(entry);
+            appended.add(grade);
+        }
+        gradeHistoryRepository.saveAll(entries);
+        return appended;
+    }
+
+    /**
+     * Without a history, redeliveries from earlier batches are recognised by the current
+     * grade's event ID; this removes those repeated within the batch.
+     */
+    private static List<Grade> withoutRepeatedEvents(List<Grade> grades) {
+        Set<String> seen = new HashSet<>();
+        List<Grade> distinct = new ArrayList<>(grades.size());
+        for (Grade grade : grades) {
+            if (grade.getEventId() == null
+                    || seen.add(eventKey(grade.getStudentCode(), grade.getCourseCode(), grade.getEventId()))) {
+                distinct.add(grade);
+            }
+        }
+        return distinct;
+    }
+
+    private static String key(String studentCode, String courseCode) {
+        return studentCode + "|" + courseCode;
+    }
+
+    private static String eventKey(String studentCode, String courseCode, String eventId) {
+        return studentCode + "|" + courseCode + "|" + eventId;
     }
 
     public List<Grade> findAll() {
@@ -22,6 +22,7 @@ public class InstructorCoursePreferenceService {
 
     private final InstructorCoursePreferenceRepository preferenceRepository;
     private final CourseRepository courseRepository;
+    private final StudentScoreStore studentScoreStore;
 
     /**
      * Create a new instructor course preference
@@ -51,6 +52,7 @@ public class InstructorCoursePreferenceService {
 
         preference.validate();
         InstructorCoursePreference saved = preferenceRepository.save(preference);
+        studentScoreStore.preferencesChanged(optionalCourse.getId());
 
         return mapToDTO(saved);
     }
@@ -97,6 +99,7 @@ public class InstructorCoursePreferenceService {
                 .collect(Collectors.toList());
 
         List<InstructorCoursePreference> saved = preferenceRepository.saveAll(preferences);
+        studentScoreStore.preferencesChanged(optionalCourse.getId());
         return saved.stream().map(this::mapToDTO).collect(Collectors.toList());
     }
 
@@ -132,6 +135,7 @@ public class InstructorCoursePreferenceService {
         preference.validate();
 
         InstructorCoursePreference updated = preferenceRepository.save(preference);
+        studentScoreStore.preferencesChanged(updated.getOptionalCourse().getId());
         return mapToDTO(updated);
     }
 
@@ -140,10 +144,10 @@ public class InstructorCoursePreferenceService {
      */
     public void deletePreference(Long preferenceId) {
         log.info("Deleting preference: {}", preferenceId);
-        if (!preferenceRepository.existsById(preferenceId)) {
-            throw new IllegalArgumentException("Preference not found: " + preferenceId);
-        }
-        preferenceRepository.deleteById(preferenceId);
+        InstructorCoursePreference preference = preferenceRepository.findById(preferenceId)
+                .orElseThrow(() -> new IllegalArgumentException("Preference not found: " + preferenceId));
+        preferenceRepository.delete(preference);
+        studentScoreStore.preferencesChanged(preference.getOptionalCourse().getId());
     }
 
     /**
@@ -153,6 +157,7 @@ public class InstructorCoursePreferenceService {
         log.info("Deleting all preferences for course: {}", courseId);
         List<InstructorCoursePreference> preferences = preferenceRepository.findByOptionalCourseId(courseId);
         preferenceRepository.deleteAll(preferences);
+        studentScoreStore.preferencesChanged(courseId);
     }
 
     private InstructorCoursePreferenceDTO mapToDTO(InstructorCoursePreference preference) {
@@ -0,0 +1,168 @@
+package uaic.dbxdrgsl.PrefSchedule.service;
+
+import com.stablematch.algorithm.StableMatchingService;
+import com.stablematch.dto.StableMatchingRequestDTO;
+import com.stablematch.dto.StableMatchingResponseDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Chooses, for every matching problem, whether it is solved by the StableMatch service or
+ * in process by StableMatch's own algorithm, which this application embeds as a library.
+ * Both produce the same stable matching for the same request.
+ * <p>
+ * In {@link SolverMode#AUTO} mode, problems with at most
+ * {@code stable-match.local.max-preference-entries} preference list entries are solved in
+ * process, where they take less time than the round trip, and so is every problem while
+ * StableMatch's circuit breaker is open. Larger problems go to StableMatch, and fall back
+ * to the local solver if it cannot be used, so a fallback result is still stable.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MatchingSolverService {
+
+    /**
+     * Where matching problems are solved
+     */
+    public enum SolverMode {
+        /** Always by StableMatch, falling back to random matching */
+        REMOTE,
+        /** By StableMatch, falling back to the local solver */
+        REMOTE_WITH_LOCAL_FALLBACK,
+        /** Always by the local solver */
+        LOCAL,
+        /** Locally for small problems or while StableMatch is unavailable, otherwise remotely with local fallback */
+        AUTO
+    }
+
+    private final StableMatchClient stableMatchClient;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${stable-match.mode:auto}")
+    private SolverMode mode;
+
+    @Value("${stable-match.local.max-preference-entries:200000}")
+    private long localMaxPreferenceEntries;
+
+    @Value("${stable-match.local.threads:0}")
+    private int localThreads;
+
+    private StableMatchingService localSolver;
+    private ExecutorService localExecutor;
+    private Counter remoteSolves;
+    private Counter localSolves;
+    private Counter localFallbacks;
+
+    @PostConstruct
+    void init() {
+        localSolver = new StableMatchingService(meterRegistry);
+
+        int threads = localThreads > 0 ? localThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        localExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "stablematch-local-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        remoteSolves = solveCounter("remote");
+        localSolves = solveCounter("local");
+        localFallbacks = solveCounter("local-fallback");
+        log.info("Matching problems are solved in {} mode (local up to {} preference entries)",
+                mode, localMaxPreferenceEntries);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        localExecutor.shutdownNow();
+    }
+
+    /**
+     * Solve a matching problem where the configured mode, its size and StableMatch's
+     * health say it is best solved, without blocking.
+     *
+     * @param request the matching request
+     * @return the matching response
+     */
+    public CompletableFuture<StableMatchingResponseDTO> solveAsync(StableMatchingRequestDTO request) {
+        switch (mode) {
+            case LOCAL:
+                return solveLocally(request);
+            case REMOTE:
+                remoteSolves.increment();
+                return stableMatchClient.solveMatchingAsync(request);
+            case REMOTE_WITH_LOCAL_FALLBACK:
+                return solveRemotely(request);
+            default:
+                long entries = preferenceEntries(request);
+                if (entries <= localMaxPreferenceEntries) {
+                    log.debug("Solving {} preference entries in process", entries);
+                    return solveLocally(request);
+                }
+                if (!stableMatchClient.isAvailable()) {
+                    log.info("StableMatch is unavailable, solving {} preference entries in process", entries);
+                    return solveLocally(request);
+                }
+                return solveRemotely(request);
+        }
+    }
+
+    private CompletableFuture<StableMatchingResponseDTO> solveRemotely(StableMatchingRequestDTO request) {
+        remoteSolves.increment();
+        return stableMatchClient.callStableMatch(request).exceptionallyCompose(failure -> {
+            log.warn("Falling back to the local solver due to: {}", failure.getMessage());
+            localFallbacks.increment();
+            return solveLocally(request).thenApply(result -> {
+                result.setMessage(result.getMessage() + " (StableMatch unavailable, solved locally)");
+                return result;
+            });
+        });
+    }
+
+    private CompletableFuture<StableMatchingResponseDTO> solveLocally(StableMatchingRequestDTO request) {
+        localSolves.increment();
+        return CompletableFuture.supplyAsync(() -> localSolver.solveStableMatching(request), localExecutor);
+    }
+
+    /**
+     * Size of a problem, as the total length of its preference lists.
+     */
+    private static long preferenceEntries(StableMatchingRequestDTO request) {
+        long entries = 0;
+        if (request.getStudents() != null) {
+            for (StableMatchingRequestDTO.StudentPreference student : request.getStudents()) {
+                entries += size(student.getPreferences());
+            }
+        }
+        if (request.getCourses() != null) {
+            for (StableMatchingRequestDTO.CoursePreference course : request.getCourses()) {
+                entries += size(course.getPreferences());
+            }
+        }
+        return entries;
+    }
+
+    private static int size(List<String> preferences) {
+        return preferences == null ? 0 : preferences.size();
+    }
+
+    private Counter solveCounter(String route) {
+        return Counter.builder("assignment.solver.solves")
+                .description("Matching problems solved, by where they were solved")
+                .tag("route", route)
+                .register(meterRegistry);
+    }
+}
@@ -35,8 +35,11 @@ public class RandomMatchingService {
 
             // Initialize course assignments
             Map<String, List<String>> courseAssignments = new HashMap<>();
+            Map<String, Integer> courseCapacities = new HashMap<>();
             for (StableMatchingRequestDTO.CoursePreference course : request.getCourses()) {
                 courseAssignments.put(course.getCourseId(), new ArrayList<>());
+                courseCapacities.put(course.getCourseId(),
+                        course.getCapacity() != null ? course.getCapacity() : capacity);
             }
 
             // Get all courses
@@ -61,7 +64,7 @@ public class RandomMatchingService {
                     String courseId = courseIds.get(randomIndex);
                     List<String> courseStudents = courseAssignments.get(courseId);
 
-                    if (courseStudents.size() < capacity) {
+                    if (courseStudents.size() < courseCapacities.get(courseId)) {
                         courseStudents.add(studentId);
                         assignedStudents.add(studentId);
                         assigned = true;
@@ -98,7 +101,7 @@ public class RandomMatchingService {
                     .assignments(assignments)
                     .unmatchedStudents(unmatchedStudents)
                     .fullCourses(courseAssignments.entrySet().stream()
-                            .filter(e -> e.getValue().size() >= capacity)
+                            .filter(e -> e.getValue().size() >= courseCapacities.get(e.getKey()))
                             .map(Map.Entry::getKey)
                             .collect(Collectors.toList()))
                     .executionTimeMs(executionTime)
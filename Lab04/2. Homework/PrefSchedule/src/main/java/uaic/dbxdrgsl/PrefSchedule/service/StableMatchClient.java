@@ -1,131 +1,293 @@
 package uaic.dbxdrgsl.PrefSchedule.service;
 
+import com.stablematch.dto.CompactMatchingCodec;
 import com.stablematch.dto.StableMatchingRequestDTO;
 import com.stablematch.dto.StableMatchingResponseDTO;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.retry.Retry;
-import io.github.resilience4j.retry.annotation.Retry;
-import io.github.resilience4j.timelimiter.annotation.TimeLimiter;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
-import reactor.core.publisher.Mono;
-import reactor.util.retry.Retry as ReactorRetry;
 
-import java.time.Duration;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Service for communicating with the StableMatch microservice.
- * Implements resilience patterns: Retry, Timeout, and Fallback.
+ * <p>
+ * Calls are non-blocking end to end: {@link #solveMatchingAsync} returns as soon as the
+ * request is queued, and no thread waits for the response, a retry backoff or a free
+ * call slot. Every call goes through one resilience stack, outermost first:
+ * <ul>
+ *   <li>a retry with exponential, jittered backoff for transport errors, timeouts and 502/503/504;</li>
+ *   <li>a circuit breaker that fails fast while StableMatch keeps failing or answering slowly;</li>
+ *   <li>a bulkhead bounding the solves in flight, an {@link AdaptiveConcurrencyLimit} that
+ *       backs off when calls fail or get slow and grows again while they are fast;</li>
+ *   <li>the response timeout of the WebClient's connector (see {@code HttpClientConfig}).</li>
+ * </ul>
+ * {@link #solveMatchingAsync} falls back to {@link RandomMatchingService} when calls still fail
+ * or are refused by the open circuit; {@link #callStableMatch} leaves the fallback to the caller.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class StableMatchClient {
 
+    private static final String INSTANCE = "stableMatch";
+
     private final WebClient webClient;
     private final RandomMatchingService randomMatchingService;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final RetryRegistry retryRegistry;
+    private final MeterRegistry meterRegistry;
 
     @Value("${stable-match.url:http://localhost:8080/api}")
     private String stableMatchUrl;
 
-    @Value("${stable-match.timeout:5000}")
-    private long timeoutMs;
+    @Value("${stable-match.wire-format:json}")
+    private String wireFormat;
+
+    @Value("${stable-match.compress-requests:true}")
+    private boolean compressRequests;
+
+    @Value("${stable-match.concurrency.initial-limit:2}")
+    private int initialConcurrency;
+
+    @Value("${stable-match.concurrency.min-limit:1}")
+    private int minConcurrency;
+
+    @Value("${stable-match.concurrency.max-limit:8}")
+    private int maxConcurrency;
+
+    @Value("${stable-match.concurrency.latency-threshold:3000}")
+    private long latencyThresholdMs;
+
+    @Value("${stable-match.concurrency.backoff-ratio:0.75}")
+    private double backoffRatio;
+
+    @Value("${stable-match.concurrency.max-wait:60000}")
+    private long maxWaitMs;
 
-    @Value("${stable-match.retry.max-attempts:3}")
-    private int maxRetryAttempts;
+    private CircuitBreaker circuitBreaker;
+    private Retry retry;
+    private AdaptiveConcurrencyLimit concurrencyLimit;
+    private ScheduledExecutorService scheduler;
 
-    @Value("${stable-match.retry.delay:500}")
-    private long retryDelayMs;
+    @PostConstruct
+    void initResilience() {
+        circuitBreaker = circuitBreakerRegistry.circuitBreaker(INSTANCE);
+        retry = retryRegistry.retry(INSTANCE);
+        concurrencyLimit = new AdaptiveConcurrencyLimit(
+                initialConcurrency, minConcurrency, maxConcurrency, latencyThresholdMs, backoffRatio);
+
+        // Retry backoffs, slot wait timeouts and fallbacks; none of them block
+        AtomicInteger counter = new AtomicInteger();
+        scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "stablematch-client-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        circuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.warn("StableMatch circuit breaker: {}", event.getStateTransition()));
+        retry.getEventPublisher().onRetry(event ->
+                log.warn("Retrying StableMatch invocation in {} ms, attempt {}: {}",
+                        event.getWaitInterval().toMillis(), event.getNumberOfRetryAttempts() + 1,
+                        event.getLastThrowable() != null ? event.getLastThrowable().getMessage() : ""));
+
+        Gauge.builder("stablematch.client.in.flight", concurrencyLimit, AdaptiveConcurrencyLimit::inFlight)
+                .description("StableMatch solves in flight")
+                .register(meterRegistry);
+        Gauge.builder("stablematch.client.concurrency.limit", concurrencyLimit, AdaptiveConcurrencyLimit::currentLimit)
+                .description("Adaptive limit on StableMatch solves in flight")
+                .register(meterRegistry);
+        Gauge.builder("stablematch.client.waiting", concurrencyLimit, AdaptiveConcurrencyLimit::waiting)
+                .description("StableMatch solves waiting for a free call slot")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
 
     /**
-     * Invoke the StableMatch service with resilience patterns.
-     * Implements: Retry, Timeout, and Fallback (random matching).
+     * Solve a matching problem with StableMatch, or with random matching if StableMatch
+     * is unavailable. Blocks the calling thread; prefer {@link #solveMatchingAsync}.
      *
      * @param request the matching request
      * @return the matching response
      */
-    @Retry(name = "stableMatchRetry", fallbackMethod = "fallbackMatching")
-    @TimeLimiter(name = "stableMatchTimeout", fallbackMethod = "fallbackMatching")
-    public CompletableFuture<StableMatchingResponseDTO> invokeStableMatching(
-            StableMatchingRequestDTO request) {
+    public StableMatchingResponseDTO solveMatching(StableMatchingRequestDTO request) {
+        return solveMatchingAsync(request).join();
+    }
+
+    /**
+     * Solve a matching problem with StableMatch, or with random matching if StableMatch
+     * is unavailable, without blocking.
+     *
+     * @param request the matching request
+     * @return the matching response; never completes exceptionally
+     */
+    public CompletableFuture<StableMatchingResponseDTO> solveMatchingAsync(StableMatchingRequestDTO request) {
+        return callStableMatch(request)
+                .exceptionallyAsync(failure -> fallbackMatching(request, unwrap(failure)), scheduler);
+    }
 
+    /**
+     * Solve a matching problem with StableMatch, without blocking and without a fallback.
+     *
+     * @param request the matching request
+     * @return the matching response; completes exceptionally if StableMatch could not be used
+     */
+    public CompletableFuture<StableMatchingResponseDTO> callStableMatch(StableMatchingRequestDTO request) {
         log.info("Invoking StableMatch service with {} students and {} courses",
                 request.getStudents().size(), request.getCourses().size());
 
-        return webClient.post()
-                .uri(stableMatchUrl + "/v1/matching/solve")
-                .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(request)
+        return Retry.decorateCompletionStage(retry, scheduler, () -> limitedCall(request))
+                .get()
+                .toCompletableFuture()
+                .whenComplete((result, failure) -> {
+                    Throwable cause = unwrap(failure);
+                    if (cause instanceof CallNotPermittedException) {
+                        log.warn("StableMatch circuit breaker is open, not calling the service");
+                    } else if (cause != null) {
+                        log.error("Error invoking StableMatch: {}", cause.getMessage());
+                    }
+                });
+    }
+
+    /**
+     * Whether StableMatch is currently accepting calls, i.e. its circuit breaker is not open.
+     */
+    public boolean isAvailable() {
+        CircuitBreaker.State state = circuitBreaker.getState();
+        return state != CircuitBreaker.State.OPEN && state != CircuitBreaker.State.FORCED_OPEN;
+    }
+
+    /**
+     * One attempt, made once a bulkhead slot is free so that waiting for the slot does not
+     * count as a slow call; its latency or failure adjusts the concurrency limit.
+     */
+    private CompletableFuture<StableMatchingResponseDTO> limitedCall(StableMatchingRequestDTO request) {
+        return acquireSlot().thenCompose(inFlight -> {
+            long start = System.nanoTime();
+            return CircuitBreaker.decorateCompletionStage(circuitBreaker, () -> post(request))
+                    .get()
+                    .toCompletableFuture()
+                    .whenComplete((result, failure) -> {
+                        concurrencyLimit.release();
+                        Throwable cause = unwrap(failure);
+                        if (cause == null) {
+                            concurrencyLimit.onSuccess(System.nanoTime() - start, inFlight);
+                        } else if (!(cause instanceof CallNotPermittedException)
+                                && (!(cause instanceof WebClientResponseException rejected)
+                                || rejected.getStatusCode().is5xxServerError())) {
+                            // StableMatch rejecting a request is not a sign of overload
+                            concurrencyLimit.onFailure(cause);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Wait, without holding a thread, for a bulkhead slot; slots are handed out in
+     * arrival order, and a call that waits longer than {@code maxWaitMs} is rejected.
+     *
+     * @return the number of calls that were in flight when the slot was taken
+     */
+    private CompletableFuture<Integer> acquireSlot() {
+        CompletableFuture<Integer> slot = concurrencyLimit.acquire();
+        if (!slot.isDone()) {
+            ScheduledFuture<?> timeout = scheduler.schedule(() -> slot.completeExceptionally(
+                    new RejectedExecutionException("No StableMatch call slot became free within " + maxWaitMs
+                            + " ms (limit " + concurrencyLimit.currentLimit() + ")")),
+                    maxWaitMs, TimeUnit.MILLISECONDS);
+            slot.whenComplete((inFlight, failure) -> timeout.cancel(false));
+        }
+        return slot;
+    }
+
+    private CompletableFuture<StableMatchingResponseDTO> post(StableMatchingRequestDTO request) {
+        WebClient.RequestBodySpec post = webClient.post()
+                .uri(stableMatchUrl + "/v1/matching/solve");
+        WebClient.RequestHeadersSpec<?> body;
+        if ("compact".equalsIgnoreCase(wireFormat)) {
+            post.contentType(MediaType.parseMediaType(CompactMatchingCodec.MEDIA_TYPE));
+            if (compressRequests) {
+                post.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            body = post.bodyValue(encodeCompact(request, compressRequests));
+        } else {
+            body = post.contentType(MediaType.APPLICATION_JSON).bodyValue(request);
+        }
+
+        return body
                 .retrieve()
                 .bodyToMono(StableMatchingResponseDTO.class)
-                .timeout(Duration.ofMillis(timeoutMs))
-                .retryWhen(ReactorRetry.backoff(maxRetryAttempts - 1, Duration.ofMillis(retryDelayMs))
-                        .maxBackoff(Duration.ofSeconds(2))
-                        .doBeforeRetry(signal -> log.warn("Retrying StableMatch invocation, attempt: {}",
-                                signal.totalRetries() + 1))
-                        .onRetryExhaustedThrow((spec, signal) -> {
-                            log.error("StableMatch invocation failed after {} attempts", maxRetryAttempts);
-                            return new RuntimeException("Max retry attempts exceeded for StableMatch service");
-                        }))
-                .doOnError(error -> log.error("Error invoking StableMatch service: {}", error.getMessage()))
                 .toFuture();
     }
 
     /**
-     * Synchronous wrapper for invoking StableMatch service
-     * Uses the async method internally
-     *
-     * @param request the matching request
-     * @return the matching response
+     * Encode a request in StableMatch's compact binary format, which writes each ID once
+     * and refers to it by index instead of repeating it in every preference list.
      */
-    public StableMatchingResponseDTO solveMatching(StableMatchingRequestDTO request) {
-        try {
-            return invokeStableMatching(request).get();
-        } catch (TimeoutException e) {
-            log.error("Timeout waiting for StableMatch response: {}", e.getMessage());
-            return fallbackMatching(request, new TimeoutException("StableMatch timeout"));
-        } catch (Exception e) {
-            log.error("Error invoking StableMatch: {}", e.getMessage());
-            return fallbackMatching(request, e);
+    private static byte[] encodeCompact(StableMatchingRequestDTO request, boolean gzip) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (OutputStream out = gzip ? new GZIPOutputStream(buffer, 1 << 16) : buffer) {
+            CompactMatchingCodec.encode(request, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+        log.debug("Encoded StableMatch request in {} bytes{}", buffer.size(), gzip ? " (gzip)" : "");
+        return buffer.toByteArray();
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause() : failure;
     }
 
     /**
-     * Fallback method when StableMatch service fails.
+     * Fallback when StableMatch cannot be used.
      * Uses random matching as a backup strategy.
      *
      * @param request the original matching request
-     * @param throwable the exception that occurred
+     * @param throwable the reason StableMatch could not be used
      * @return random matching result
      */
-    public CompletableFuture<StableMatchingResponseDTO> fallbackMatching(
+    public StableMatchingResponseDTO fallbackMatching(
             StableMatchingRequestDTO request,
             Throwable throwable) {
 
         log.warn("Falling back to random matching due to: {}", throwable.getMessage());
-        log.info("StableMatch service unavailable or timeout occurred, using random fallback algorithm");
 
         StableMatchingResponseDTO randomResult = randomMatchingService.generateRandomMatching(request);
         // Mark response as fallback
         randomResult.setMessage(randomResult.getMessage() + " (StableMatch unavailable, used random fallback)");
-
-        return CompletableFuture.completedFuture(randomResult);
-    }
-
-    /**
-     * Overloaded fallback for synchronous context
-     */
-    public StableMatchingResponseDTO fallbackMatching(
-            StableMatchingRequestDTO request,
-            Exception exception) {
-
-        log.warn("Synchronous fallback to random matching due to: {}", exception.getMessage());
-        return randomMatchingService.generateRandomMatching(request);
+        return randomResult;
     }
 }
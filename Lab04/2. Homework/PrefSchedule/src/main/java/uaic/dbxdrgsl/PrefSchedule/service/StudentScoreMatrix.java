@@ -0,0 +1,46 @@
+package uaic.dbxdrgsl.PrefSchedule.service;
+
+import java.util.List;
+
+/**
+ * Weighted scores of every student for every optional course of a batch, stored
+ * course-major in a single primitive array so ranking a course's students reads
+ * one contiguous row.
+ */
+public final class StudentScoreMatrix {
+
+    /**
+     * Score of a student for a course without instructor preferences or without grades
+     */
+    public static final double NEUTRAL_SCORE = 50.0;
+
+    private final List<String> studentCodes;
+    private final List<String> courseCodes;
+    private final double[] scores;
+
+    StudentScoreMatrix(List<String> studentCodes, List<String> courseCodes, double[] scores) {
+        this.studentCodes = studentCodes;
+        this.courseCodes = courseCodes;
+        this.scores = scores;
+    }
+
+    public int studentCount() {
+        return studentCodes.size();
+    }
+
+    public int courseCount() {
+        return courseCodes.size();
+    }
+
+    public String studentCode(int student) {
+        return studentCodes.get(student);
+    }
+
+    public String courseCode(int course) {
+        return courseCodes.get(course);
+    }
+
+    public double score(int student, int course) {
+        return scores[course * studentCodes.size() + student];
+    }
+}
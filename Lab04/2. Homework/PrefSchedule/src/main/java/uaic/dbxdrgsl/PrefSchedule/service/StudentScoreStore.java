@@ -0,0 +1,399 @@
+package uaic.dbxdrgsl.PrefSchedule.service;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import uaic.dbxdrgsl.PrefSchedule.dto.ScoreRebuildResultDTO;
+import uaic.dbxdrgsl.PrefSchedule.model.Course;
+import uaic.dbxdrgsl.PrefSchedule.model.Grade;
+import uaic.dbxdrgsl.PrefSchedule.model.InstructorCoursePreference;
+import uaic.dbxdrgsl.PrefSchedule.model.Student;
+import uaic.dbxdrgsl.PrefSchedule.model.StudentCourseScore;
+import uaic.dbxdrgsl.PrefSchedule.repository.CourseRepository;
+import uaic.dbxdrgsl.PrefSchedule.repository.GradeRepository;
+import uaic.dbxdrgsl.PrefSchedule.repository.InstructorCoursePreferenceRepository;
+import uaic.dbxdrgsl.PrefSchedule.repository.StudentCourseScoreRepository;
+import uaic.dbxdrgsl.PrefSchedule.repository.StudentRepository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Materialized student &times; optional course scores, so the assignment workflow reads
+ * ready-made scores instead of recomputing them from raw grades.
+ * <p>
+ * The store is kept up to date incrementally: a stored grade rescores its student for the
+ * optional courses that weight the graded course, registering a student scores them for
+ * every weighted optional course, and a change of instructor weights rescores every student
+ * for that optional course. {@link #rebuild()} recomputes the whole
+ * store from raw grades and reports how far it had drifted. Only non-neutral scores are
+ * stored; a missing row reads as {@link StudentScoreMatrix#NEUTRAL_SCORE}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class StudentScoreStore {
+
+    // optional courses scored per query while rebuilding, bounding the score matrix held in memory
+    private static final int REBUILD_COURSES_PER_CHUNK = 16;
+    // scores summed in a different order may differ in the last bits without having changed
+    private static final double SCORE_TOLERANCE = 1e-9;
+
+    private final StudentCourseScoreRepository scoreRepository;
+    private final StudentScoringService studentScoringService;
+    private final InstructorCoursePreferenceRepository preferenceRepository;
+    private final GradeRepository gradeRepository;
+    private final CourseRepository courseRepository;
+    private final StudentRepository studentRepository;
+    private final EntityManager entityManager;
+
+    /**
+     * Read the stored scores of every student for every course of a batch.
+     *
+     * @param optionalCourses courses in the batch
+     * @param students all students
+     * @return scores indexed by position in {@code students} and {@code optionalCourses}
+     */
+    @Transactional(readOnly = true)
+    public StudentScoreMatrix load(List<Course> optionalCourses, List<Student> students) {
+        int studentCount = students.size();
+        List<String> studentCodes = new ArrayList<>(studentCount);
+        Map<String, Integer> studentIndex = new HashMap<>(studentCount * 2);
+        for (Student student : students) {
+            studentIndex.putIfAbsent(student.getStudentNumber(), studentCodes.size());
+            studentCodes.add(student.getStudentNumber());
+        }
+
+        List<String> courseCodes = new ArrayList<>(optionalCourses.size());
+        Map<Long, Integer> courseIndex = new HashMap<>(optionalCourses.size() * 2);
+        for (Course course : optionalCourses) {
+            courseIndex.put(course.getId(), courseCodes.size());
+            courseCodes.add(course.getCode());
+        }
+
+        double[] scores = new double[optionalCourses.size() * studentCount];
+        Arrays.fill(scores, StudentScoreMatrix.NEUTRAL_SCORE);
+        if (!courseIndex.isEmpty()) {
+            for (StudentCourseScoreRepository.ScoreCell cell : scoreRepository.findCellsByOptionalCourseIds(courseIndex.keySet())) {
+                Integer student = studentIndex.get(cell.getStudentCode());
+                if (student != null) {
+                    scores[courseIndex.get(cell.getOptionalCourseId()) * studentCount + student] = cell.getScore();
+                }
+            }
+        }
+        return new StudentScoreMatrix(studentCodes, courseCodes, scores);
+    }
+
+    /**
+     * Rescore the grade's student for every optional course that weights the graded course.
+     * Grades of students that are not registered yet are scored by {@link #studentRegistered}.
+     *
+     * @param grade the grade just stored
+     */
+    public void gradeStored(Grade grade) {
+        gradesStored(List.of(grade));
+    }
+
+    /**
+     * Rescore the students of several grades stored together, each student once for every
+     * optional course that weights any of their graded courses.
+     * <p>
+     * The work is done per batch rather than per student: the students are locked with one
+     * query, and their grades and stored scores are read with one query each. The locks are
+     * held until the transaction ends, so concurrent rescorings of the same student run one
+     * after the other and the later one updates the score rows the earlier one inserted.
+     * Students are locked in student number order to avoid deadlocks.
+     *
+     * @param grades the grades just stored
+     */
+    public void gradesStored(Collection<Grade> grades) {
+        if (grades.isEmpty()) {
+            return;
+        }
+        Set<String> gradedCourses = new HashSet<>();
+        for (Grade grade : grades) {
+            gradedCourses.add(grade.getCourseCode());
+        }
+        Map<String, List<InstructorCoursePreference>> weightingByCourse = preferenceRepository
+                .findByCompulsoryCourseCodeIn(gradedCourses)
+                .stream()
+                .collect(Collectors.groupingBy(InstructorCoursePreference::getCompulsoryCourseCode));
+
+        Map<String, Set<Long>> coursesByStudent = new TreeMap<>();
+        for (Grade grade : grades) {
+            List<InstructorCoursePreference> weighting = weightingByCourse.get(grade.getCourseCode());
+            if (weighting != null) {
+                Set<Long> courseIds = coursesByStudent.computeIfAbsent(grade.getStudentCode(), s -> new HashSet<>());
+                for (InstructorCoursePreference preference : weighting) {
+                    courseIds.add(preference.getOptionalCourse().getId());
+                }
+            }
+        }
+        if (coursesByStudent.isEmpty()) {
+            return;
+        }
+
+        Set<Long> allCourseIds = new HashSet<>();
+        coursesByStudent.values().forEach(allCourseIds::addAll);
+        rescore(coursesByStudent, preferenceRepository.findByOptionalCourseIdIn(allCourseIds));
+    }
+
+    /**
+     * Score a student for every optional course that instructors weight, once the student
+     * is registered or their student number changes. Grades stored before that were skipped
+     * by {@link #gradesStored}, since they had no registered student to lock.
+     *
+     * @param studentCode the student's number
+     * @param previousStudentCode the number it replaces, whose scores are removed, or null
+     */
+    public void studentRegistered(String studentCode, String previousStudentCode) {
+        if (previousStudentCode != null) {
+            scoreRepository.deleteByStudentCode(previousStudentCode);
+        }
+        List<InstructorCoursePreference> preferences = preferenceRepository.findAll();
+        if (preferences.isEmpty()) {
+            return;
+        }
+        Set<Long> courseIds = new HashSet<>();
+        for (InstructorCoursePreference preference : preferences) {
+            courseIds.add(preference.getOptionalCourse().getId());
+        }
+        Map<String, Set<Long>> coursesByStudent = new TreeMap<>();
+        coursesByStudent.put(studentCode, courseIds);
+        rescore(coursesByStudent, preferences);
+    }
+
+    /**
+     * Rescore students for some optional courses each, reading and writing in bulk.
+     *
+     * @param coursesByStudent optional courses to rescore, by student number in ascending order
+     * @param preferences the weights of at least those courses
+     */
+    private void rescore(Map<String, Set<Long>> coursesByStudent, List<InstructorCoursePreference> preferences) {
+        Set<String> registered = new HashSet<>();
+        for (Student student : studentRepository.lockByStudentNumbers(coursesByStudent.keySet())) {
+            registered.add(student.getStudentNumber());
+        }
+        if (registered.isEmpty()) {
+            return;
+        }
+
+        Map<Long, List<InstructorCoursePreference>> preferencesByCourse = new HashMap<>();
+        Set<String> weightedCourses = new HashSet<>();
+        for (InstructorCoursePreference preference : preferences) {
+            preferencesByCourse.computeIfAbsent(preference.getOptionalCourse().getId(), id -> new ArrayList<>())
+                    .add(preference);
+            weightedCourses.add(preference.getCompulsoryCourseCode());
+        }
+        // The grades table holds one current grade per student and course
+        Map<String, Map<String, Grade>> gradesByStudent = new HashMap<>();
+        for (Grade grade : gradeRepository.findByStudentCodeInAndCourseCodeIn(registered, weightedCourses)) {
+            gradesByStudent.computeIfAbsent(grade.getStudentCode(), s -> new HashMap<>())
+                    .put(grade.getCourseCode(), grade);
+        }
+        Map<String, StudentCourseScore> existing = new HashMap<>();
+        for (StudentCourseScore row : scoreRepository.findByStudentCodeInAndOptionalCourseIdIn(
+                registered, preferencesByCourse.keySet())) {
+            existing.put(key(row.getOptionalCourseId(), row.getStudentCode()), row);
+        }
+
+        SyncCounts counts = new SyncCounts();
+        List<StudentCourseScore> changed = new ArrayList<>();
+        List<StudentCourseScore> removed = new ArrayList<>();
+        coursesByStudent.forEach((studentCode, courseIds) -> {
+            if (!registered.contains(studentCode)) {
+                return;
+            }
+            Map<String, Grade> currentGrades = gradesByStudent.getOrDefault(studentCode, Map.of());
+            for (Long courseId : courseIds) {
+                double score = weightedScore(preferencesByCourse.getOrDefault(courseId, List.of()), currentGrades);
+                sync(courseId, studentCode, score, existing.remove(key(courseId, studentCode)), changed, removed, counts);
+            }
+        });
+        scoreRepository.saveAll(changed);
+        scoreRepository.deleteAllInBatch(removed);
+        log.debug("Rescored {} students: {} inserted, {} updated, {} removed",
+                registered.size(), counts.inserted, counts.updated, counts.removed);
+    }
+
+    /**
+     * Rescore every student for an optional course whose instructor weights changed.
+     *
+     * @param optionalCourseId the optional course
+     */
+    public void preferencesChanged(Long optionalCourseId) {
+        Course course = courseRepository.findById(optionalCourseId).orElse(null);
+        if (course == null) {
+            return;
+        }
+        SyncCounts counts = new SyncCounts();
+        syncColumns(List.of(course), studentRepository.findAll(), counts);
+        log.info("Rescored optional course {}: {} inserted, {} updated, {} removed",
+                course.getCode(), counts.inserted, counts.updated, counts.removed);
+    }
+
+    /**
+     * Recompute every stored score from raw grades and instructor weights.
+     *
+     * @return how many scores are stored and how many had drifted from the grades
+     */
+    public ScoreRebuildResultDTO rebuild() {
+        long startTime = System.currentTimeMillis();
+        List<Student> students = studentRepository.findAll();
+        List<Course> optionalCourses = courseRepository.findAll().stream()
+                .filter(c -> !c.isCompulsory())
+                .collect(Collectors.toList());
+
+        SyncCounts counts = new SyncCounts();
+        if (optionalCourses.isEmpty()) {
+            counts.removed += scoreRepository.count();
+            scoreRepository.deleteAllInBatch();
+        } else {
+            counts.removed += scoreRepository.deleteByOptionalCourseIdNotIn(
+                    optionalCourses.stream().map(Course::getId).collect(Collectors.toList()));
+        }
+        for (int i = 0; i < optionalCourses.size(); i += REBUILD_COURSES_PER_CHUNK) {
+            syncColumns(optionalCourses.subList(i, Math.min(i + REBUILD_COURSES_PER_CHUNK, optionalCourses.size())),
+                    students, counts);
+            entityManager.flush();
+            entityManager.clear();
+        }
+
+        long executionTime = System.currentTimeMillis() - startTime;
+        if (counts.inserted + counts.updated + counts.removed > 0) {
+            log.warn("Rebuilt student scores with drift: {} inserted, {} updated, {} removed",
+                    counts.inserted, counts.updated, counts.removed);
+        } else {
+            log.info("Rebuilt student scores, store was consistent");
+        }
+        return ScoreRebuildResultDTO.builder()
+                .optionalCourses(optionalCourses.size())
+                .students(students.size())
+                .storedScores(counts.stored)
+                .insertedScores(counts.inserted)
+                .updatedScores(counts.updated)
+                .removedScores(counts.removed)
+                .executionTimeMs(executionTime)
+                .build();
+    }
+
+    /**
+     * Fill an empty store from existing grades, e.g. after upgrading a database that
+     * predates the store. Runs before interrupted assignment runs are resumed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    public void initialize() {
+        if (scoreRepository.count() == 0 && preferenceRepository.count() > 0) {
+            log.info("Student score store is empty, building it from existing grades");
+            rebuild();
+        }
+    }
+
+    /**
+     * Recompute the scores of every student for the given courses and bring their
+     * stored rows in line.
+     */
+    private void syncColumns(List<Course> optionalCourses, List<Student> students, SyncCounts counts) {
+        StudentScoreMatrix scores = studentScoringService.calculateScores(optionalCourses, students);
+
+        Set<Long> courseIds = new HashSet<>();
+        for (Course course : optionalCourses) {
+            courseIds.add(course.getId());
+        }
+        Map<String, StudentCourseScore> existing = new HashMap<>();
+        for (StudentCourseScore row : scoreRepository.findByOptionalCourseIdIn(courseIds)) {
+            existing.put(key(row.getOptionalCourseId(), row.getStudentCode()), row);
+        }
+
+        // A student number listed twice is scored once
+        List<Integer> distinctStudents = new ArrayList<>(scores.studentCount());
+        Set<String> seen = new HashSet<>();
+        for (int s = 0; s < scores.studentCount(); s++) {
+            if (seen.add(scores.studentCode(s))) {
+                distinctStudents.add(s);
+            }
+        }
+
+        List<StudentCourseScore> changed = new ArrayList<>();
+        List<StudentCourseScore> removed = new ArrayList<>();
+        for (int c = 0; c < scores.courseCount(); c++) {
+            Long courseId = optionalCourses.get(c).getId();
+            for (int s : distinctStudents) {
+                String studentCode = scores.studentCode(s);
+                sync(courseId, studentCode, scores.score(s, c), existing.remove(key(courseId, studentCode)),
+                        changed, removed, counts);
+            }
+        }
+        // Rows of students that no longer exist
+        removed.addAll(existing.values());
+        counts.removed += existing.size();
+
+        scoreRepository.saveAll(changed);
+        scoreRepository.deleteAllInBatch(removed);
+    }
+
+    private static void sync(Long courseId, String studentCode, double score, StudentCourseScore row,
+                             List<StudentCourseScore> changed, List<StudentCourseScore> removed, SyncCounts counts) {
+        if (score == StudentScoreMatrix.NEUTRAL_SCORE) {
+            if (row != null) {
+                removed.add(row);
+                counts.removed++;
+            }
+            return;
+        }
+        counts.stored++;
+        if (row == null) {
+            row = new StudentCourseScore();
+            row.setOptionalCourseId(courseId);
+            row.setStudentCode(studentCode);
+            counts.inserted++;
+        } else if (Math.abs(row.getScore() - score) < SCORE_TOLERANCE) {
+            return;
+        } else {
+            counts.updated++;
+        }
+        row.setScore(score);
+        row.setUpdatedAt(Instant.now());
+        changed.add(row);
+    }
+
+    private static double weightedScore(List<InstructorCoursePreference> preferences, Map<String, Grade> currentGrades) {
+        double weightedSum = 0.0;
+        double totalWeight = 0.0;
+        for (InstructorCoursePreference preference : preferences) {
+            Grade grade = currentGrades.get(preference.getCompulsoryCourseCode());
+            if (grade != null) {
+                weightedSum += grade.getGrade() * preference.getPercentage();
+                totalWeight += preference.getPercentage();
+            }
+        }
+        return totalWeight > 0 ? weightedSum / totalWeight : StudentScoreMatrix.NEUTRAL_SCORE;
+    }
+
+    private static String key(Long courseId, String studentCode) {
+        return courseId + "|" + studentCode;
+    }
+
+    private static final class SyncCounts {
+        private long stored;
+        private long inserted;
+        private long updated;
+        private long removed;
+    }
+}
@@ -0,0 +1,128 @@
+package uaic.dbxdrgsl.PrefSchedule.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import uaic.dbxdrgsl.PrefSchedule.model.Course;
+import uaic.dbxdrgsl.PrefSchedule.model.InstructorCoursePreference;
+import uaic.dbxdrgsl.PrefSchedule.model.Student;
+import uaic.dbxdrgsl.PrefSchedule.repository.GradeRepository;
+import uaic.dbxdrgsl.PrefSchedule.repository.InstructorCoursePreferenceRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes how much each optional course wants each student: the average of the
+ * student's current grades in the compulsory courses its instructor cares about,
+ * weighted by the instructor's percentages.
+ * <p>
+ * Preferences and current grades are loaded with one query each for the whole batch
+ * and laid out in primitive arrays, so scoring is a single pass over
+ * students &times; courses &times; preferences with no per-student queries. The assignment
+ * workflow reads these scores from {@link StudentScoreStore}, which uses this service to
+ * recompute them.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class StudentScoringService {
+
+    private final InstructorCoursePreferenceRepository instructorPreferenceRepository;
+    private final GradeRepository gradeRepository;
+
+    /**
+     * Score every student for every course of a batch.
+     *
+     * @param optionalCourses courses in the batch
+     * @param students all students
+     * @return scores indexed by position in {@code students} and {@code optionalCourses}
+     */
+    public StudentScoreMatrix calculateScores(List<Course> optionalCourses, List<Student> students) {
+        long startTime = System.currentTimeMillis();
+        int studentCount = students.size();
+        int courseCount = optionalCourses.size();
+
+        List<String> studentCodes = new ArrayList<>(studentCount);
+        Map<String, Integer> studentIndex = new HashMap<>(studentCount * 2);
+        for (Student student : students) {
+            studentIndex.putIfAbsent(student.getStudentNumber(), studentCodes.size());
+            studentCodes.add(student.getStudentNumber());
+        }
+
+        List<String> courseCodes = new ArrayList<>(courseCount);
+        Map<Long, Integer> courseIndex = new HashMap<>(courseCount * 2);
+        for (Course course : optionalCourses) {
+            courseIndex.put(course.getId(), courseCodes.size());
+            courseCodes.add(course.getCode());
+        }
+
+        // Instructor preferences of the batch, grouped by optional course, with compulsory courses interned
+        Map<String, Integer> compulsoryIndex = new LinkedHashMap<>();
+        List<List<InstructorCoursePreference>> preferencesByCourse = new ArrayList<>(courseCount);
+        for (int c = 0; c < courseCount; c++) {
+            preferencesByCourse.add(new ArrayList<>());
+        }
+        for (InstructorCoursePreference preference :
+                instructorPreferenceRepository.findByOptionalCourseIdIn(courseIndex.keySet())) {
+            preferencesByCourse.get(courseIndex.get(preference.getOptionalCourse().getId())).add(preference);
+            compulsoryIndex.putIfAbsent(preference.getCompulsoryCourseCode(), compulsoryIndex.size());
+        }
+        int[][] preferenceCourses = new int[courseCount][];
+        double[][] preferenceWeights = new double[courseCount][];
+        for (int c = 0; c < courseCount; c++) {
+            List<InstructorCoursePreference> preferences = preferencesByCourse.get(c);
+            preferenceCourses[c] = new int[preferences.size()];
+            preferenceWeights[c] = new double[preferences.size()];
+            for (int p = 0; p < preferences.size(); p++) {
+                preferenceCourses[c][p] = compulsoryIndex.get(preferences.get(p).getCompulsoryCourseCode());
+                preferenceWeights[c][p] = preferences.get(p).getPercentage();
+            }
+        }
+
+        // Current grade per (student, compulsory course); NaN where the student has none
+        int compulsoryCount = compulsoryIndex.size();
+        double[] grades = new double[studentCount * compulsoryCount];
+        Arrays.fill(grades, Double.NaN);
+        if (compulsoryCount > 0) {
+            for (GradeRepository.GradeCell grade :
+                    gradeRepository.findCellsByCourseCodes(compulsoryIndex.keySet())) {
+                Integer student = studentIndex.get(grade.getStudentCode());
+                Integer compulsory = compulsoryIndex.get(grade.getCourseCode());
+                if (student != null && compulsory != null) {
+                    grades[student * compulsoryCount + compulsory] = grade.getGrade();
+                }
+            }
+        }
+
+        double[] scores = new double[courseCount * studentCount];
+        for (int c = 0; c < courseCount; c++) {
+            int[] compulsory = preferenceCourses[c];
+            double[] weights = preferenceWeights[c];
+            int row = c * studentCount;
+            for (int s = 0; s < studentCount; s++) {
+                int gradeRow = s * compulsoryCount;
+                double weightedSum = 0.0;
+                double totalWeight = 0.0;
+                for (int p = 0; p < compulsory.length; p++) {
+                    double grade = grades[gradeRow + compulsory[p]];
+                    if (!Double.isNaN(grade)) {
+                        weightedSum += grade * weights[p];
+                        totalWeight += weights[p];
+                    }
+                }
+                scores[row + s] = totalWeight > 0 ? weightedSum / totalWeight : StudentScoreMatrix.NEUTRAL_SCORE;
+            }
+        }
+
+        log.info("Scored {} students for {} courses from {} compulsory courses in {} ms",
+                studentCount, courseCount, compulsoryCount, System.currentTimeMillis() - startTime);
+        return new StudentScoreMatrix(studentCodes, courseCodes, scores);
+    }
+}
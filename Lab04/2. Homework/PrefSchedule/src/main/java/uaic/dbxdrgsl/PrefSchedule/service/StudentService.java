@@ -1,6 +1,7 @@
 package uaic.dbxdrgsl.PrefSchedule.service;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import uaic.dbxdrgsl.PrefSchedule.model.Student;
 import uaic.dbxdrgsl.PrefSchedule.repository.StudentRepository;
 
@@ -11,13 +12,25 @@ import java.util.Optional;
 public class StudentService {
 
     private final StudentRepository repo;
+    private final StudentScoreStore studentScoreStore;
 
-    public StudentService(StudentRepository repo) {
+    public StudentService(StudentRepository repo, StudentScoreStore studentScoreStore) {
         this.repo = repo;
+        this.studentScoreStore = studentScoreStore;
     }
 
+    /**
+     * Save a student; a new student or a changed student number is scored from the grades
+     * already stored under that number.
+     */
+    @Transactional
     public Student save(Student s) {
-        return repo.save(s);
+        String previousNumber = s.getId() != null ? repo.findStoredStudentNumberById(s.getId()).orElse(null) : null;
+        Student saved = repo.save(s);
+        if (!saved.getStudentNumber().equals(previousNumber)) {
+            studentScoreStore.studentRegistered(saved.getStudentNumber(), previousNumber);
+        }
+        return saved;
     }
 
     public List<Student> findAll() { return repo.findAll(); }
@@ -0,0 +1,95 @@
+package uaic.dbxdrgsl.PrefSchedule.messaging;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import uaic.dbxdrgsl.PrefSchedule.model.Grade;
+import uaic.dbxdrgsl.PrefSchedule.service.GradeService;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class GradesListenerTest {
+
+    private GradeService gradeService;
+    private GradesListener listener;
+
+    @BeforeEach
+    void setUp() {
+        gradeService = mock(GradeService.class);
+        when(gradeService.isCourseCompulsory(anyString()))
+                .thenAnswer(invocation -> !"OPTIONAL".equals(invocation.getArgument(0)));
+        listener = new GradesListener(gradeService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStoresTheCompulsoryGradesOfAPollTogether() {
+        listener.onGrades(List.of(
+                record(0, new GradeEvent("e-1", "S1", "MATH", 9)),
+                record(1, new GradeEvent(null, "S2", "MATH", 7)),
+                record(2, new GradeEvent("e-3", "S1", "OPTIONAL", 10))));
+
+        ArgumentCaptor<List<Grade>> stored = ArgumentCaptor.forClass(List.class);
+        verify(gradeService, times(1)).upsertAll(stored.capture());
+        List<Grade> grades = stored.getValue();
+        assertEquals(2, grades.size());
+        assertEquals("e-1", grades.get(0).getEventId());
+        // Without an event ID the record's position identifies it across redeliveries
+        assertEquals("grades-0@1", grades.get(1).getEventId());
+        assertEquals(Instant.ofEpochMilli(1_001), grades.get(1).getReceivedAt());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testInvalidRecordFailsTheBatchAfterStoringTheGradesBeforeIt() {
+        ConsumerRecord<String, GradeEvent> invalid = record(1, new GradeEvent("e-2", "S2", "MATH", 11));
+
+        BatchListenerFailedException failure = assertThrows(BatchListenerFailedException.class,
+                () -> listener.onGrades(List.of(
+                        record(0, new GradeEvent("e-1", "S1", "MATH", 9)),
+                        invalid,
+                        record(2, new GradeEvent("e-3", "S3", "MATH", 8)))));
+
+        assertSame(invalid, failure.getRecord());
+        assertInstanceOf(IllegalArgumentException.class, failure.getCause());
+        ArgumentCaptor<List<Grade>> stored = ArgumentCaptor.forClass(List.class);
+        verify(gradeService).upsertAll(stored.capture());
+        assertEquals(List.of("S1"), stored.getValue().stream().map(Grade::getStudentCode).toList());
+    }
+
+    @Test
+    void testUnreadablePayloadAtTheStartStoresNothing() {
+        ConsumerRecord<String, GradeEvent> unreadable = record(0, null);
+
+        BatchListenerFailedException failure = assertThrows(BatchListenerFailedException.class,
+                () -> listener.onGrades(List.of(unreadable, record(1, new GradeEvent("e-2", "S2", "MATH", 8)))));
+
+        assertSame(unreadable, failure.getRecord());
+        assertEquals("Unreadable grade event payload", failure.getCause().getMessage());
+        verify(gradeService, never()).upsertAll(anyList());
+    }
+
+    @Test
+    void testPollWithoutCompulsoryGradesStoresNothing() {
+        listener.onGrades(List.of(record(0, new GradeEvent("e-1", "S1", "OPTIONAL", 9))));
+
+        verify(gradeService, never()).upsertAll(any());
+    }
+
+    private static ConsumerRecord<String, GradeEvent> record(long offset, GradeEvent event) {
+        return new ConsumerRecord<>("grades", 0, offset, 1_000 + offset, TimestampType.CREATE_TIME,
+                0, 0, null, event, new RecordHeaders(), Optional.empty());
+    }
+}
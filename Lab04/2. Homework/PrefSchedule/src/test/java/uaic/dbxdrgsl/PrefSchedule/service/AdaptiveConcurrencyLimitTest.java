@@ -0,0 +1,124 @@
+package uaic.dbxdrgsl.PrefSchedule.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long FAST = 1_000_000L;
+
+    @Test
+    void testFastCallsAtTheLimitRaiseItAndAdmitWaiters() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 4, 1000, 0.5);
+        assertEquals(0, limit.acquire().join());
+        assertEquals(1, limit.acquire().join());
+        CompletableFuture<Integer> waiting = limit.acquire();
+        assertFalse(waiting.isDone());
+
+        // Each fast call made while the bulkhead was full adds 1/limit: 2.5, 2.9, 3.24
+        limit.onSuccess(FAST, 1);
+        limit.onSuccess(FAST, 1);
+        assertEquals(2, limit.currentLimit());
+        assertFalse(waiting.isDone());
+        limit.onSuccess(FAST, 1);
+
+        assertEquals(3, limit.currentLimit());
+        assertEquals(2, waiting.join());
+        assertEquals(3, limit.inFlight());
+    }
+
+    @Test
+    void testCallsBelowTheLimitDoNotRaiseIt() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 4, 1000, 0.5);
+        for (int i = 0; i < 10; i++) {
+            limit.onSuccess(FAST, 0);
+        }
+        assertEquals(2, limit.currentLimit());
+    }
+
+    @Test
+    void testLimitNeverExceedsTheMaximum() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(3, 1, 3, 1000, 0.5);
+        limit.onSuccess(FAST, 2);
+        assertEquals(3, limit.currentLimit());
+    }
+
+    @Test
+    void testFailuresLowerTheLimitOncePerThresholdInterval() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 1, 8, 60_000, 0.5);
+        limit.onFailure(new TimeoutException());
+        assertEquals(4, limit.currentLimit());
+
+        // Calls that were already in flight when the service slowed down
+        limit.onFailure(new TimeoutException());
+        limit.onSuccess(120_000 * 1_000_000L, 0);
+        assertEquals(4, limit.currentLimit());
+    }
+
+    @Test
+    void testSlowCallsLowerTheLimitDownToTheMinimum() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 3, 8, 0, 0.5);
+        limit.onSuccess(FAST, 0);
+        assertEquals(4, limit.currentLimit());
+        limit.onSuccess(FAST, 0);
+        assertEquals(3, limit.currentLimit());
+    }
+
+    @Test
+    void testLoweringTheLimitHoldsBackNewCallsUntilEnoughComplete() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 4, 0, 0.5);
+        for (int i = 0; i < 4; i++) {
+            limit.acquire().join();
+        }
+        limit.onFailure(new IllegalStateException());
+        assertEquals(2, limit.currentLimit());
+
+        CompletableFuture<Integer> waiting = limit.acquire();
+        limit.release();
+        limit.release();
+        assertFalse(waiting.isDone());
+        limit.release();
+
+        assertEquals(1, waiting.join());
+        assertEquals(2, limit.inFlight());
+    }
+
+    @Test
+    void testWaitersAreAdmittedInArrivalOrder() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1, 1, 1000, 0.5);
+        limit.acquire().join();
+        CompletableFuture<Integer> first = limit.acquire();
+        CompletableFuture<Integer> second = limit.acquire();
+        assertEquals(2, limit.waiting());
+
+        limit.release();
+        assertTrue(first.isDone());
+        assertFalse(second.isDone());
+        // A new call does not overtake the one still waiting
+        CompletableFuture<Integer> third = limit.acquire();
+
+        limit.release();
+        assertTrue(second.isDone());
+        assertFalse(third.isDone());
+        assertEquals(1, limit.inFlight());
+    }
+
+    @Test
+    void testWaiterThatGaveUpIsSkipped() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1, 1, 1000, 0.5);
+        limit.acquire().join();
+        CompletableFuture<Integer> abandoned = limit.acquire();
+        CompletableFuture<Integer> next = limit.acquire();
+        abandoned.completeExceptionally(new TimeoutException());
+
+        limit.release();
+
+        assertEquals(0, next.join());
+        assertEquals(1, limit.inFlight());
+        assertEquals(0, limit.waiting());
+    }
+}
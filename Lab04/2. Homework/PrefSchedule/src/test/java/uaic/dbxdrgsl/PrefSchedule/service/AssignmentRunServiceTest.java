@@ -0,0 +1,128 @@
+package uaic.dbxdrgsl.PrefSchedule.service;
+
+import com.stablematch.dto.StableMatchingResponseDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uaic.dbxdrgsl.PrefSchedule.dto.AssignmentWorkflowResultDTO;
+import uaic.dbxdrgsl.PrefSchedule.model.AssignmentBatchStatus;
+import uaic.dbxdrgsl.PrefSchedule.model.AssignmentRun;
+import uaic.dbxdrgsl.PrefSchedule.model.AssignmentRunBatch;
+import uaic.dbxdrgsl.PrefSchedule.model.AssignmentRunStatus;
+import uaic.dbxdrgsl.PrefSchedule.model.Course;
+import uaic.dbxdrgsl.PrefSchedule.repository.AssignmentRunBatchRepository;
+import uaic.dbxdrgsl.PrefSchedule.repository.AssignmentRunRepository;
+import uaic.dbxdrgsl.PrefSchedule.repository.CourseRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+class AssignmentRunServiceTest {
+
+    private CourseAssignmentOrchestrationService orchestrationService;
+    private AssignmentRunRepository runRepository;
+    private AssignmentRunBatchRepository batchRepository;
+    private CourseRepository courseRepository;
+    private AssignmentRunService service;
+
+    private final AssignmentRun run = new AssignmentRun();
+
+    @BeforeEach
+    void setUp() {
+        orchestrationService = mock(CourseAssignmentOrchestrationService.class);
+        runRepository = mock(AssignmentRunRepository.class);
+        batchRepository = mock(AssignmentRunBatchRepository.class);
+        courseRepository = mock(CourseRepository.class);
+        service = new AssignmentRunService(orchestrationService, runRepository, batchRepository,
+                courseRepository, true);
+
+        run.setId("run-1");
+        run.setStatus(AssignmentRunStatus.INTERRUPTED);
+        run.setTotalBatches(2);
+        when(runRepository.findById("run-1")).thenReturn(Optional.of(run));
+        when(runRepository.findByStatusInOrderByCreatedAt(any())).thenReturn(List.of(run));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void testBatchWhoseCoursesWereAllDeletedCompletesWithoutSolving() throws Exception {
+        AssignmentRunBatch deleted = batch(1L, 0, "GONE1", "GONE2");
+        when(batchRepository.findByRunIdOrderByBatchIndex("run-1")).thenReturn(List.of(deleted));
+        when(courseRepository.findAll()).thenReturn(List.of(course("DS")));
+
+        service.resumeInterruptedRuns();
+        awaitFinished();
+
+        assertEquals(AssignmentBatchStatus.COMPLETED, deleted.getStatus());
+        assertEquals(0, deleted.getAssignments());
+        assertEquals(0, deleted.getEnrollmentsCreated());
+        assertNotNull(deleted.getCompletedAt());
+        assertEquals(AssignmentRunStatus.COMPLETED, run.getStatus());
+        verify(orchestrationService, never()).executeBatches(anyMap(), any());
+    }
+
+    @Test
+    void testOnlyBatchesWithRemainingCoursesAreSolved() throws Exception {
+        AssignmentRunBatch deleted = batch(1L, 0, "GONE");
+        AssignmentRunBatch live = batch(2L, 1, "GONE", "DS");
+        when(batchRepository.findByRunIdOrderByBatchIndex("run-1")).thenReturn(List.of(deleted, live));
+        when(batchRepository.findById(2L)).thenReturn(Optional.of(live));
+        when(courseRepository.findAll()).thenReturn(List.of(course("DS")));
+        when(orchestrationService.executeBatches(anyMap(), any())).thenAnswer(invocation -> {
+            Map<Integer, List<Course>> batches = invocation.getArgument(0);
+            assertEquals(List.of(1), List.copyOf(batches.keySet()));
+            assertEquals("DS", batches.get(1).get(0).getCode());
+            CourseAssignmentOrchestrationService.BatchListener listener = invocation.getArgument(1);
+            listener.batchCompleted(1, StableMatchingResponseDTO.builder()
+                            .status("SUCCESS")
+                            .assignments(List.of(StableMatchingResponseDTO.Assignment.builder()
+                                    .studentId("S1").courseId("DS").build()))
+                            .build(),
+                    1, new AssignmentWorkflowResultDTO.BatchTiming());
+            return AssignmentWorkflowResultDTO.builder().results(Map.of()).build();
+        });
+
+        service.resumeInterruptedRuns();
+        awaitFinished();
+
+        assertEquals(AssignmentBatchStatus.COMPLETED, deleted.getStatus());
+        assertEquals(AssignmentBatchStatus.COMPLETED, live.getStatus());
+        assertEquals(1, live.getAssignments());
+        assertEquals(AssignmentRunStatus.COMPLETED, run.getStatus());
+    }
+
+    private void awaitFinished() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (run.getFinishedAt() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNotNull(run.getFinishedAt(), "the run did not finish");
+    }
+
+    private static AssignmentRunBatch batch(Long id, int index, String... courseCodes) {
+        AssignmentRunBatch batch = new AssignmentRunBatch();
+        batch.setId(id);
+        batch.setRunId("run-1");
+        batch.setBatchIndex(index);
+        batch.getCourseCodes().addAll(List.of(courseCodes));
+        return batch;
+    }
+
+    private static Course course(String code) {
+        Course course = new Course();
+        course.setId((long) code.hashCode());
+        course.setCode(code);
+        course.setCompulsory(false);
+        return course;
+    }
+}
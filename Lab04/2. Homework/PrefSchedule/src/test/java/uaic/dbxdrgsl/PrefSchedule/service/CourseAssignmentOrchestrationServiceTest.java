@@ -0,0 +1,262 @@
+package uaic.dbxdrgsl.PrefSchedule.service;
+
+import com.stablematch.dto.StableMatchingRequestDTO;
+import com.stablematch.dto.StableMatchingResponseDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import uaic.dbxdrgsl.PrefSchedule.dto.AssignmentWorkflowResultDTO;
+import uaic.dbxdrgsl.PrefSchedule.model.Course;
+import uaic.dbxdrgsl.PrefSchedule.model.Student;
+import uaic.dbxdrgsl.PrefSchedule.repository.CourseRepository;
+import uaic.dbxdrgsl.PrefSchedule.repository.StudentRepository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+class CourseAssignmentOrchestrationServiceTest {
+
+    private MatchingSolverService matchingSolverService;
+    private StudentScoreStore studentScoreStore;
+    private EnrollmentBulkWriter enrollmentBulkWriter;
+    private CourseAssignmentOrchestrationService service;
+
+    private final List<Student> students = List.of(student("S1"), student("S2"), student("S3"), student("S4"));
+    // Score of each student for every course
+    private double[] studentScores = {0, 1, 2, 3};
+
+    @BeforeEach
+    void setUp() {
+        matchingSolverService = mock(MatchingSolverService.class);
+        CourseRepository courseRepository = mock(CourseRepository.class);
+        StudentRepository studentRepository = mock(StudentRepository.class);
+        studentScoreStore = mock(StudentScoreStore.class);
+        enrollmentBulkWriter = mock(EnrollmentBulkWriter.class);
+        service = new CourseAssignmentOrchestrationService(matchingSolverService, courseRepository,
+                studentRepository, studentScoreStore, enrollmentBulkWriter);
+        ReflectionTestUtils.setField(service, "defaultCourseCapacity", 1);
+        ReflectionTestUtils.setField(service, "maxConcurrentSolves", 2);
+        ReflectionTestUtils.setField(service, "rankingSafetyMargin", 0);
+
+        when(studentRepository.findAll()).thenReturn(students);
+        when(studentScoreStore.load(anyList(), anyList())).thenAnswer(invocation -> {
+            List<Course> courses = invocation.getArgument(0);
+            double[] scores = new double[courses.size() * students.size()];
+            for (int c = 0; c < courses.size(); c++) {
+                for (int s = 0; s < students.size(); s++) {
+                    scores[c * students.size() + s] = studentScores[s];
+                }
+            }
+            return new StudentScoreMatrix(students.stream().map(Student::getStudentNumber).toList(),
+                    courses.stream().map(Course::getCode).toList(), scores);
+        });
+    }
+
+    @Test
+    void testAtMostMaxConcurrentSolvesAreInFlight() throws Exception {
+        BlockingQueue<CompletableFuture<StableMatchingResponseDTO>> solves = new LinkedBlockingQueue<>();
+        when(matchingSolverService.solveAsync(any())).thenAnswer(invocation -> {
+            CompletableFuture<StableMatchingResponseDTO> solve = new CompletableFuture<>();
+            solves.add(solve);
+            return solve;
+        });
+
+        CompletableFuture<AssignmentWorkflowResultDTO> run = CompletableFuture.supplyAsync(() -> execute(
+                batches(4), new CourseAssignmentOrchestrationService.BatchListener() {
+                }));
+
+        CompletableFuture<StableMatchingResponseDTO> first = solves.poll(5, TimeUnit.SECONDS);
+        CompletableFuture<StableMatchingResponseDTO> second = solves.poll(5, TimeUnit.SECONDS);
+        assertNotNull(second);
+        assertNull(solves.poll(200, TimeUnit.MILLISECONDS), "a third solve started while two were in flight");
+
+        first.complete(success());
+        CompletableFuture<StableMatchingResponseDTO> third = solves.poll(5, TimeUnit.SECONDS);
+        assertNotNull(third, "finishing a solve frees its slot");
+        assertNull(solves.poll(200, TimeUnit.MILLISECONDS));
+
+        second.complete(success());
+        third.complete(success());
+        CompletableFuture<StableMatchingResponseDTO> fourth = solves.poll(5, TimeUnit.SECONDS);
+        assertNotNull(fourth);
+        fourth.complete(success());
+
+        AssignmentWorkflowResultDTO result = run.get(5, TimeUnit.SECONDS);
+        assertEquals(4, result.getResults().size());
+        verify(matchingSolverService, times(4)).solveAsync(any());
+    }
+
+    @Test
+    void testBatchesArePersistedOnOnePipelineThread() throws Exception {
+        when(matchingSolverService.solveAsync(any()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(success()));
+        when(enrollmentBulkWriter.write(anyList(), anyMap(), anyMap())).thenReturn(1);
+        List<String> persistThreads = new CopyOnWriteArrayList<>();
+        List<Integer> completed = new CopyOnWriteArrayList<>();
+
+        execute(batches(3), new CourseAssignmentOrchestrationService.BatchListener() {
+            @Override
+            public void batchCompleted(int batchId, StableMatchingResponseDTO result, int enrollmentsCreated,
+                                       AssignmentWorkflowResultDTO.BatchTiming timing) {
+                persistThreads.add(Thread.currentThread().getName());
+                completed.add(batchId);
+                assertEquals(1, enrollmentsCreated);
+            }
+        });
+
+        assertEquals(List.of(0, 1, 2), completed.stream().sorted().toList());
+        assertEquals(1, persistThreads.stream().distinct().count());
+        assertTrue(persistThreads.get(0).startsWith("assignment-persist-"));
+        assertNotEquals(Thread.currentThread().getName(), persistThreads.get(0));
+        verify(enrollmentBulkWriter, times(3)).write(anyList(), anyMap(), anyMap());
+    }
+
+    @Test
+    void testCourseAdmittingAStudentBeyondItsRankingIsSolvedAgainWithADoubledRanking() {
+        List<Integer> listedPerSolve = new ArrayList<>();
+        when(matchingSolverService.solveAsync(any())).thenAnswer(invocation -> {
+            StableMatchingRequestDTO request = invocation.getArgument(0);
+            List<String> ranking = request.getCourses().get(0).getPreferences();
+            listedPerSolve.add(ranking.size());
+            // Admit a listed student once the ranking holds two, otherwise one it does not list
+            return CompletableFuture.completedFuture(ranking.size() < 2
+                    ? success(assignment("S1", "C0", 0))
+                    : success(assignment(ranking.get(1), "C0", 2)));
+        });
+
+        AssignmentWorkflowResultDTO result = execute(batches(1),
+                new CourseAssignmentOrchestrationService.BatchListener() {
+                });
+
+        assertEquals(List.of(1, 2), listedPerSolve);
+        assertEquals("S3", result.getResults().get(0).getAssignments().get(0).getStudentId());
+        verify(enrollmentBulkWriter, times(1)).write(anyList(), anyMap(), anyMap());
+    }
+
+    @Test
+    void testCoursesListOnlyTheirBestStudentsBestFirst() {
+        studentScores = new double[]{5, 9, 5, 9};
+        ReflectionTestUtils.setField(service, "rankingSafetyMargin", 1);
+        Course large = course(1L, "C1");
+        large.setCapacity(2);
+        List<List<String>> rankings = captureRankings();
+
+        execute(Map.of(0, List.of(course(0L, "C0"), large)),
+                new CourseAssignmentOrchestrationService.BatchListener() {
+                });
+
+        // Equal scores keep the order of the student list
+        assertEquals(List.of(List.of("S2", "S4"), List.of("S2", "S4", "S1")), rankings);
+    }
+
+    @Test
+    void testNegativeSafetyMarginListsEveryStudent() {
+        studentScores = new double[]{2, 1, 4, 3};
+        ReflectionTestUtils.setField(service, "rankingSafetyMargin", -1);
+        List<List<String>> rankings = captureRankings();
+
+        execute(batches(1), new CourseAssignmentOrchestrationService.BatchListener() {
+        });
+
+        assertEquals(List.of(List.of("S3", "S4", "S1", "S2")), rankings);
+    }
+
+    @Test
+    void testFailedBatchIsReportedAndOthersContinue() {
+        when(matchingSolverService.solveAsync(any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("StableMatch down")))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(success()));
+        Map<Integer, String> failures = new LinkedHashMap<>();
+        List<Integer> completed = new CopyOnWriteArrayList<>();
+
+        execute(batches(2), new CourseAssignmentOrchestrationService.BatchListener() {
+            @Override
+            public void batchCompleted(int batchId, StableMatchingResponseDTO result, int enrollmentsCreated,
+                                       AssignmentWorkflowResultDTO.BatchTiming timing) {
+                completed.add(batchId);
+            }
+
+            @Override
+            public synchronized void batchFailed(int batchId, String message,
+                                                 AssignmentWorkflowResultDTO.BatchTiming timing) {
+                failures.put(batchId, message);
+            }
+        });
+
+        assertEquals(Map.of(0, "StableMatch down"), failures);
+        assertEquals(List.of(1), completed);
+    }
+
+    /**
+     * Record the ranking of every course sent to the solver, which admits nobody.
+     */
+    private List<List<String>> captureRankings() {
+        List<List<String>> rankings = new ArrayList<>();
+        when(matchingSolverService.solveAsync(any())).thenAnswer(invocation -> {
+            StableMatchingRequestDTO request = invocation.getArgument(0);
+            for (StableMatchingRequestDTO.CoursePreference course : request.getCourses()) {
+                rankings.add(List.copyOf(course.getPreferences()));
+            }
+            return CompletableFuture.completedFuture(success());
+        });
+        return rankings;
+    }
+
+    private AssignmentWorkflowResultDTO execute(Map<Integer, List<Course>> batches,
+                                                CourseAssignmentOrchestrationService.BatchListener listener) {
+        try {
+            return service.executeBatches(batches, listener);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Map<Integer, List<Course>> batches(int count) {
+        Map<Integer, List<Course>> batches = new LinkedHashMap<>();
+        for (int b = 0; b < count; b++) {
+            batches.put(b, List.of(course((long) b, "C" + b)));
+        }
+        return batches;
+    }
+
+    private static StableMatchingResponseDTO success(StableMatchingResponseDTO.Assignment... assignments) {
+        return StableMatchingResponseDTO.builder()
+                .status("SUCCESS")
+                .assignments(List.of(assignments))
+                .build();
+    }
+
+    private static StableMatchingResponseDTO.Assignment assignment(String student, String course, int courseRank) {
+        return StableMatchingResponseDTO.Assignment.builder()
+                .studentId(student)
+                .courseId(course)
+                .coursePreferenceRank(courseRank)
+                .build();
+    }
+
+    private static Student student(String number) {
+        return Student.builder().studentNumber(number).build();
+    }
+
+    private static Course course(Long id, String code) {
+        Course course = new Course();
+        course.setId(id);
+        course.setCode(code);
+        course.setCompulsory(false);
+        return course;
+    }
+}
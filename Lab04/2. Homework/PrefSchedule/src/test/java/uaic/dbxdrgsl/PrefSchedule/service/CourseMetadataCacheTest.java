@@ -0,0 +1,101 @@
+package uaic.dbxdrgsl.PrefSchedule.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import uaic.dbxdrgsl.PrefSchedule.model.Course;
+import uaic.dbxdrgsl.PrefSchedule.repository.CourseRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CourseMetadataCacheTest {
+
+    private CourseRepository courseRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private CourseMetadataCache cache;
+
+    @BeforeEach
+    void setUp() {
+        courseRepository = mock(CourseRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new CourseMetadataCache(courseRepository, meterRegistry);
+        ReflectionTestUtils.setField(cache, "refreshIntervalMs", 0L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    void testLookupsAreServedFromTheSnapshot() {
+        when(courseRepository.findAll()).thenReturn(List.of(course("MATH", true), course("DS", false)));
+        cache.init();
+
+        assertTrue(cache.isCompulsory("MATH"));
+        assertTrue(cache.isCompulsory("math"));
+        assertFalse(cache.isCompulsory("DS"));
+        assertFalse(cache.isCompulsory("UNKNOWN"));
+        assertNull(cache.find(null));
+
+        verify(courseRepository, times(1)).findAll();
+        assertEquals(3.0, lookups("hit"));
+        assertEquals(2.0, lookups("miss"));
+        assertEquals(2.0, meterRegistry.get("course.metadata.cache.size").gauge().value());
+    }
+
+    @Test
+    void testRefreshReplacesTheSnapshot() {
+        when(courseRepository.findAll())
+                .thenReturn(List.of(course("MATH", true)))
+                .thenReturn(List.of(course("MATH", false), course("OOP", true)));
+        cache.init();
+        assertTrue(cache.isCompulsory("MATH"));
+
+        cache.refresh();
+
+        assertFalse(cache.isCompulsory("MATH"));
+        assertTrue(cache.isCompulsory("OOP"));
+    }
+
+    @Test
+    void testCodesDifferingInCaseAreCompulsoryIfAnyIs() {
+        when(courseRepository.findAll()).thenReturn(List.of(course("Math", false), course("MATH", true),
+                course(null, true)));
+        cache.init();
+
+        assertTrue(cache.isCompulsory("math"));
+        assertEquals(1.0, meterRegistry.get("course.metadata.cache.size").gauge().value());
+    }
+
+    @Test
+    void testPeriodicRefreshPicksUpChangesMadeElsewhere() throws InterruptedException {
+        ReflectionTestUtils.setField(cache, "refreshIntervalMs", 20L);
+        when(courseRepository.findAll())
+                .thenReturn(List.of())
+                .thenReturn(List.of(course("MATH", true)));
+        cache.init();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cache.find("MATH") == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(cache.isCompulsory("MATH"));
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.get("course.metadata.cache.requests").tag("result", result).counter().count();
+    }
+
+    private static Course course(String code, boolean compulsory) {
+        Course course = new Course();
+        course.setCode(code);
+        course.setCompulsory(compulsory);
+        return course;
+    }
+}
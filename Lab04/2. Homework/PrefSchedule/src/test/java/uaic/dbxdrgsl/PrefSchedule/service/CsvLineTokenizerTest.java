@@ -0,0 +1,107 @@
+package uaic.dbxdrgsl.PrefSchedule.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvLineTokenizerTest {
+
+    @Test
+    void testSplitsAndTrimsFields() throws IOException {
+        assertEquals(List.of(List.of("S1", "MATH", "9.5"), List.of("S2", "", "7")),
+                lines(" S1 , MATH,9.5\nS2,,7\n", 64));
+    }
+
+    @Test
+    void testCarriageReturnsOfCrlfLinesAreDropped() throws IOException {
+        assertEquals(List.of(List.of("S1", "MATH", "9.5"), List.of("S2", "OOP", "7")),
+                lines("S1,MATH,9.5\r\nS2,OOP,7\r\n", 64));
+        // A CR alone in the last field does not count as a field
+        assertEquals(List.of(List.of("S1", "MATH")), lines("S1,MATH,\r\n", 64));
+    }
+
+    @Test
+    void testTrailingEmptyFieldsAreDroppedLikeStringSplit() throws IOException {
+        for (String line : List.of("a,b,,", "a,,b", "", " , ", "a, ,")) {
+            CsvLineTokenizer tokenizer = new CsvLineTokenizer(new StringReader(line + "\n"), 64);
+            assertTrue(tokenizer.nextLine());
+            assertEquals(line.split(",").length, tokenizer.fieldCount(), "fields of \"" + line + "\"");
+        }
+    }
+
+    @Test
+    void testLastLineWithoutNewlineIsRead() throws IOException {
+        assertEquals(List.of(List.of("S1", "MATH", "9"), List.of("S2", "OOP", "7")),
+                lines("S1,MATH,9\nS2,OOP,7", 64));
+    }
+
+    @Test
+    void testBufferGrowsForLinesLongerThanIt() throws IOException {
+        String longCode = "X".repeat(100);
+        assertEquals(List.of(List.of("S1", longCode, "9"), List.of("S2", "OOP", "7")),
+                lines("S1," + longCode + ",9\nS2,OOP,7\n", 4));
+    }
+
+    @Test
+    void testLinesSpanningBufferRefillsAreRead() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        List<List<String>> expected = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            csv.append("S").append(i).append(",MATH,").append(i % 10 + 1).append('\n');
+            expected.add(List.of("S" + i, "MATH", String.valueOf(i % 10 + 1)));
+        }
+        assertEquals(expected, lines(csv.toString(), 16));
+    }
+
+    @Test
+    void testQuotedFieldsMayContainCommasAndQuotes() throws IOException {
+        assertEquals(List.of(List.of("S1", "Math, advanced", "say \"hi\"", " padded ", "")),
+                lines("S1,\"Math, advanced\", \"say \"\"hi\"\"\" ,\" padded \",\"\"\r\n", 8));
+    }
+
+    @Test
+    void testQuotedNumbersAreParsed() throws IOException {
+        CsvLineTokenizer tokenizer = new CsvLineTokenizer(new StringReader("\"S1\",\"MATH\",\"9.5\"\n"), 64);
+        assertTrue(tokenizer.nextLine());
+        assertEquals(3, tokenizer.fieldCount());
+        assertEquals(9.5, tokenizer.parseDouble(2));
+    }
+
+    @Test
+    void testParsesDecimalsInPlace() throws IOException {
+        CsvLineTokenizer tokenizer = new CsvLineTokenizer(new StringReader("9.25,-3,+7.,1e1,.5,abc,\n"), 64);
+        assertTrue(tokenizer.nextLine());
+        assertEquals(9.25, tokenizer.parseDouble(0));
+        assertEquals(-3.0, tokenizer.parseDouble(1));
+        assertEquals(7.0, tokenizer.parseDouble(2));
+        assertEquals(10.0, tokenizer.parseDouble(3));
+        assertEquals(0.5, tokenizer.parseDouble(4));
+        assertThrows(NumberFormatException.class, () -> tokenizer.parseDouble(5));
+        assertEquals(6, tokenizer.fieldCount());
+    }
+
+    @Test
+    void testLinesWithTooManyFieldsAreFlagged() throws IOException {
+        CsvLineTokenizer tokenizer = new CsvLineTokenizer(new StringReader("a,".repeat(40) + "a\n"), 64);
+        assertTrue(tokenizer.nextLine());
+        assertEquals(17, tokenizer.fieldCount());
+    }
+
+    private static List<List<String>> lines(String csv, int bufferSize) throws IOException {
+        CsvLineTokenizer tokenizer = new CsvLineTokenizer(new StringReader(csv), bufferSize);
+        List<List<String>> lines = new ArrayList<>();
+        while (tokenizer.nextLine()) {
+            List<String> fields = new ArrayList<>();
+            for (int i = 0; i < tokenizer.fieldCount(); i++) {
+                fields.add(tokenizer.field(i));
+            }
+            lines.add(fields);
+        }
+        return lines;
+    }
+}
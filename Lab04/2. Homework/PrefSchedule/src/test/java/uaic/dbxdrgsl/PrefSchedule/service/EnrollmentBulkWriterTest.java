@@ -0,0 +1,108 @@
+package uaic.dbxdrgsl.PrefSchedule.service;
+
+import com.stablematch.dto.StableMatchingResponseDTO;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import uaic.dbxdrgsl.PrefSchedule.model.Course;
+import uaic.dbxdrgsl.PrefSchedule.model.Enrollment;
+import uaic.dbxdrgsl.PrefSchedule.model.Student;
+import uaic.dbxdrgsl.PrefSchedule.repository.EnrollmentRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class EnrollmentBulkWriterTest {
+
+    private EnrollmentRepository enrollmentRepository;
+    private EntityManager entityManager;
+    private EnrollmentBulkWriter writer;
+
+    private final Map<String, Student> students = Map.of(
+            "S1", student(1L, "S1"), "S2", student(2L, "S2"), "S3", student(3L, "S3"));
+    private final Map<String, Course> courses = Map.of("DS", course(10L, "DS"), "SEC", course(11L, "SEC"));
+
+    @BeforeEach
+    void setUp() {
+        enrollmentRepository = mock(EnrollmentRepository.class);
+        entityManager = mock(EntityManager.class);
+        writer = new EnrollmentBulkWriter(enrollmentRepository, entityManager, 2);
+    }
+
+    @Test
+    void testFlushesAndClearsEveryBatch() {
+        when(enrollmentRepository.findKeysByCourseIds(any())).thenReturn(List.of());
+
+        int created = writer.write(List.of(
+                assignment("S1", "DS"), assignment("S2", "DS"), assignment("S3", "SEC")), students, courses);
+
+        assertEquals(3, created);
+        verify(entityManager, times(3)).persist(any(Enrollment.class));
+        // One full batch of two and the remaining row
+        verify(entityManager, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+        verify(enrollmentRepository, times(1)).findKeysByCourseIds(any());
+    }
+
+    @Test
+    void testSkipsExistingAndRepeatedEnrollments() {
+        when(enrollmentRepository.findKeysByCourseIds(any())).thenReturn(List.of(key(1L, 10L)));
+
+        int created = writer.write(List.of(
+                assignment("S1", "DS"), assignment("S2", "DS"), assignment("S2", "DS")), students, courses);
+
+        assertEquals(1, created);
+        ArgumentCaptor<Enrollment> persisted = ArgumentCaptor.forClass(Enrollment.class);
+        verify(entityManager).persist(persisted.capture());
+        assertEquals("S2", persisted.getValue().getStudent().getStudentNumber());
+        assertEquals("DS", persisted.getValue().getCourse().getCode());
+    }
+
+    @Test
+    void testSkipsUnknownStudentsAndCourses() {
+        when(enrollmentRepository.findKeysByCourseIds(any())).thenReturn(new ArrayList<>());
+
+        int created = writer.write(List.of(
+                assignment("S9", "DS"), assignment("S1", "AI")), students, courses);
+
+        assertEquals(0, created);
+        verify(entityManager, never()).persist(any());
+        verify(entityManager, never()).flush();
+    }
+
+    private static StableMatchingResponseDTO.Assignment assignment(String student, String course) {
+        return StableMatchingResponseDTO.Assignment.builder().studentId(student).courseId(course).build();
+    }
+
+    private static EnrollmentRepository.EnrollmentKey key(Long studentId, Long courseId) {
+        return new EnrollmentRepository.EnrollmentKey() {
+            @Override
+            public Long getStudentId() {
+                return studentId;
+            }
+
+            @Override
+            public Long getCourseId() {
+                return courseId;
+            }
+        };
+    }
+
+    private static Student student(Long id, String number) {
+        return Student.builder().id(id).studentNumber(number).build();
+    }
+
+    private static Course course(Long id, String code) {
+        Course course = new Course();
+        course.setId(id);
+        course.setCode(code);
+        course.setCompulsory(false);
+        return course;
+    }
+}
@@ -0,0 +1,133 @@
+package uaic.dbxdrgsl.PrefSchedule.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import uaic.dbxdrgsl.PrefSchedule.dto.GradeImportDTO;
+import uaic.dbxdrgsl.PrefSchedule.model.Grade;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class GradeImportServiceTest {
+
+    private GradeService gradeService;
+    private GradeImportService service;
+    private final List<List<String>> storedChunks = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        gradeService = mock(GradeService.class);
+        when(gradeService.isCourseCompulsory(anyString()))
+                .thenAnswer(invocation -> !"ELECTIVE".equals(invocation.getArgument(0)));
+        when(gradeService.upsertAll(anyList())).thenAnswer(invocation -> {
+            List<Grade> chunk = invocation.getArgument(0);
+            storedChunks.add(chunk.stream().map(Grade::getStudentCode).toList());
+            return chunk;
+        });
+        service = new GradeImportService(gradeService, 2, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void testImportsRowsInChunksAndSkipsTheHeader() throws Exception {
+        GradeImportDTO result = importCsv("""
+                studentCode,courseCode,grade\r
+                S1,MATH,9.5\r
+                S2,ELECTIVE,8\r
+                S3,MATH,7\r
+                S4,OOP,10\r
+                """);
+
+        assertEquals("COMPLETED", result.getStatus());
+        assertEquals(4, result.getTotalRows());
+        assertEquals(3, result.getStoredRows());
+        assertEquals(1, result.getIgnoredRows());
+        assertEquals(0, result.getFailedRows());
+        assertEquals(List.of(List.of("S1", "S3"), List.of("S4")), storedChunks);
+        assertEquals(result.getTotalBytes(), result.getBytesRead());
+    }
+
+    @Test
+    void testInvalidRowsAreReportedWithTheirLineNumbers() throws Exception {
+        GradeImportDTO result = importCsv("""
+                S1,MATH
+                S2,MATH,ten
+                ,MATH,9
+                S4,MATH,11
+                S5,MATH,6
+                """);
+
+        assertEquals("COMPLETED", result.getStatus());
+        assertEquals(5, result.getTotalRows());
+        assertEquals(1, result.getStoredRows());
+        assertEquals(4, result.getFailedRows());
+        assertEquals(List.of("Invalid columns at line 1", "Invalid grade at line 2",
+                "Missing fields at line 3", "Grade out of range at line 4"), result.getFailures());
+    }
+
+    @Test
+    void testHeaderIsOnlyRecognisedOnTheFirstLine() throws Exception {
+        GradeImportDTO result = importCsv("""
+                S1,MATH,9
+                studentCode,courseCode,grade
+                """);
+
+        assertEquals(1, result.getStoredRows());
+        assertEquals(List.of("Invalid grade at line 2"), result.getFailures());
+    }
+
+    @Test
+    void testChunkThatCannotBeStoredFailsItsRowsAndTheImportContinues() throws Exception {
+        when(gradeService.upsertAll(anyList()))
+                .thenThrow(new IllegalStateException("deadlock detected"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        GradeImportDTO result = importCsv("""
+                S1,MATH,9
+                S2,MATH,8
+                S3,MATH,7
+                """);
+
+        assertEquals("COMPLETED", result.getStatus());
+        assertEquals(3, result.getTotalRows());
+        assertEquals(1, result.getStoredRows());
+        assertEquals(2, result.getFailedRows());
+        assertEquals(List.of("Could not store 2 rows up to line 2: deadlock detected"), result.getFailures());
+        verify(gradeService, times(2)).upsertAll(anyList());
+    }
+
+    @Test
+    void testUnknownImportIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> service.getImport("missing"));
+    }
+
+    private GradeImportDTO importCsv(String csv) throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "grades.csv", "text/csv",
+                csv.getBytes(StandardCharsets.UTF_8));
+        String importId = service.startImport(file).getImportId();
+        long deadline = System.currentTimeMillis() + 5000;
+        GradeImportDTO progress = service.getImport(importId);
+        while (!isFinished(progress) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            progress = service.getImport(importId);
+        }
+        assertTrue(isFinished(progress), "the import did not finish");
+        return progress;
+    }
+
+    private static boolean isFinished(GradeImportDTO progress) {
+        return "COMPLETED".equals(progress.getStatus()) || "FAILED".equals(progress.getStatus());
+    }
+}
@@ -0,0 +1,161 @@
+package uaic.dbxdrgsl.PrefSchedule.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import uaic.dbxdrgsl.PrefSchedule.model.Grade;
+import uaic.dbxdrgsl.PrefSchedule.model.GradeHistory;
+import uaic.dbxdrgsl.PrefSchedule.repository.GradeHistoryRepository;
+import uaic.dbxdrgsl.PrefSchedule.repository.GradeRepository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class GradeServiceTest {
+
+    private static final Instant T0 = Instant.parse("2026-01-10T10:00:00Z");
+
+    private GradeRepository gradeRepository;
+    private GradeHistoryRepository historyRepository;
+    private StudentScoreStore scoreStore;
+    private GradeService service;
+
+    @BeforeEach
+    void setUp() {
+        gradeRepository = mock(GradeRepository.class);
+        historyRepository = mock(GradeHistoryRepository.class);
+        scoreStore = mock(StudentScoreStore.class);
+        service = new GradeService(gradeRepository, mock(CourseMetadataCache.class), scoreStore, historyRepository);
+        ReflectionTestUtils.setField(service, "historyEnabled", true);
+        when(gradeRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(gradeRepository.findByStudentCodeInAndCourseCodeIn(anyCollection(), anyCollection())).thenReturn(List.of());
+        when(historyRepository.findByEventIdIn(anyCollection())).thenReturn(List.of());
+    }
+
+    @Test
+    void testNewGradeIsInsertedAndRecorded() {
+        List<Grade> applied = service.upsertAll(List.of(grade("S1", "MATH", 9, "e-1", T0)));
+
+        assertEquals(1, applied.size());
+        assertEquals(1, recordedHistory().size());
+        verify(scoreStore).gradesStored(applied);
+    }
+
+    @Test
+    void testRedeliveredEventIsSkipped() {
+        when(historyRepository.findByEventIdIn(anyCollection())).thenReturn(List.of(history("S1", "MATH", "e-1")));
+
+        List<Grade> applied = service.upsertAll(List.of(grade("S1", "MATH", 9, "e-1", T0)));
+
+        assertTrue(applied.isEmpty());
+        assertTrue(recordedHistory().isEmpty());
+        verify(gradeRepository, never()).saveAll(anyList());
+        verifyNoInteractions(scoreStore);
+    }
+
+    @Test
+    void testRedeliveryWithoutHistoryIsRecognisedByTheCurrentGrade() {
+        ReflectionTestUtils.setField(service, "historyEnabled", false);
+        Grade current = grade("S1", "MATH", 9, "e-1", T0);
+        when(gradeRepository.findByStudentCodeInAndCourseCodeIn(anyCollection(), anyCollection()))
+                .thenReturn(List.of(current));
+
+        List<Grade> applied = service.upsertAll(List.of(grade("S1", "MATH", 9, "e-1", T0)));
+
+        assertTrue(applied.isEmpty());
+        verifyNoInteractions(historyRepository);
+    }
+
+    @Test
+    void testOlderGradeIsOnlyRecordedInTheHistory() {
+        Grade current = grade("S1", "MATH", 9, "e-2", T0.plusSeconds(60));
+        when(gradeRepository.findByStudentCodeInAndCourseCodeIn(anyCollection(), anyCollection()))
+                .thenReturn(List.of(current));
+
+        List<Grade> applied = service.upsertAll(List.of(grade("S1", "MATH", 5, "e-1", T0)));
+
+        assertTrue(applied.isEmpty());
+        assertEquals(9, current.getGrade());
+        assertEquals(1, recordedHistory().size());
+    }
+
+    @Test
+    void testNewerGradeUpdatesTheCurrentRowInPlace() {
+        Grade current = grade("S1", "MATH", 5, "e-1", T0);
+        when(gradeRepository.findByStudentCodeInAndCourseCodeIn(anyCollection(), anyCollection()))
+                .thenReturn(List.of(current));
+
+        List<Grade> applied = service.upsertAll(List.of(grade("S1", "MATH", 8, "e-2", T0.plusSeconds(60))));
+
+        assertEquals(List.of(current), applied);
+        assertEquals(8, current.getGrade());
+        assertEquals("e-2", current.getEventId());
+        assertEquals(T0.plusSeconds(60), current.getReceivedAt());
+    }
+
+    @Test
+    void testDuplicatesWithinABatchKeepTheMostRecentGrade() {
+        List<Grade> applied = service.upsertAll(List.of(
+                grade("S1", "MATH", 6, "e-2", T0.plusSeconds(60)),
+                grade("S1", "MATH", 9, "e-1", T0),
+                grade("S1", "MATH", 6, "e-2", T0.plusSeconds(60)),
+                grade("S2", "MATH", 7, "e-3", T0)));
+
+        assertEquals(2, applied.size());
+        assertEquals(6, applied.get(0).getGrade());
+        assertEquals("e-2", applied.get(0).getEventId());
+        // The repeated event is recorded once
+        assertEquals(List.of("e-2", "e-1", "e-3"),
+                recordedHistory().stream().map(GradeHistory::getEventId).toList());
+    }
+
+    @Test
+    void testSavingASkippedGradeWithoutCurrentGradeReturnsEmpty() {
+        when(historyRepository.findByEventIdIn(anyCollection())).thenReturn(List.of(history("S1", "MATH", "e-1")));
+        when(gradeRepository.findByStudentCodeAndCourseCode("S1", "MATH")).thenReturn(List.of());
+
+        assertEquals(Optional.empty(), service.save(grade("S1", "MATH", 9, "e-1", T0)));
+    }
+
+    @Test
+    void testSavingASkippedGradeReturnsTheCurrentGrade() {
+        Grade current = grade("S1", "MATH", 9, "e-2", T0.plusSeconds(60));
+        when(gradeRepository.findByStudentCodeInAndCourseCodeIn(anyCollection(), anyCollection()))
+                .thenReturn(List.of(current));
+        when(gradeRepository.findByStudentCodeAndCourseCode("S1", "MATH")).thenReturn(List.of(current));
+
+        assertEquals(Optional.of(current), service.save(grade("S1", "MATH", 5, "e-1", T0)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<GradeHistory> recordedHistory() {
+        ArgumentCaptor<List<GradeHistory>> entries = ArgumentCaptor.forClass(List.class);
+        verify(historyRepository).saveAll(entries.capture());
+        return entries.getValue();
+    }
+
+    private static Grade grade(String student, String course, double value, String eventId, Instant receivedAt) {
+        Grade grade = new Grade();
+        grade.setStudentCode(student);
+        grade.setCourseCode(course);
+        grade.setGrade(value);
+        grade.setEventId(eventId);
+        grade.setReceivedAt(receivedAt);
+        return grade;
+    }
+
+    private static GradeHistory history(String student, String course, String eventId) {
+        GradeHistory entry = new GradeHistory();
+        entry.setStudentCode(student);
+        entry.setCourseCode(course);
+        entry.setEventId(eventId);
+        return entry;
+    }
+}
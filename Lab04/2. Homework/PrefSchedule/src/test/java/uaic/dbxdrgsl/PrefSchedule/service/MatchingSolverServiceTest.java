@@ -0,0 +1,123 @@
+package uaic.dbxdrgsl.PrefSchedule.service;
+
+import com.stablematch.dto.StableMatchingRequestDTO;
+import com.stablematch.dto.StableMatchingResponseDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MatchingSolverServiceTest {
+
+    private StableMatchClient stableMatchClient;
+    private SimpleMeterRegistry meterRegistry;
+    private MatchingSolverService service;
+
+    @BeforeEach
+    void setUp() {
+        stableMatchClient = mock(StableMatchClient.class);
+        meterRegistry = new SimpleMeterRegistry();
+        service = new MatchingSolverService(stableMatchClient, meterRegistry);
+        ReflectionTestUtils.setField(service, "localMaxPreferenceEntries", 4L);
+        ReflectionTestUtils.setField(service, "localThreads", 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void testSmallProblemsAreSolvedInProcess() {
+        start(MatchingSolverService.SolverMode.AUTO);
+
+        StableMatchingResponseDTO result = service.solveAsync(problem(1)).join();
+
+        assertEquals("SUCCESS", result.getStatus());
+        assertEquals("C1", result.getAssignments().get(0).getCourseId());
+        verifyNoInteractions(stableMatchClient);
+        assertEquals(1.0, solves("local"));
+    }
+
+    @Test
+    void testLargeProblemsGoToStableMatch() {
+        start(MatchingSolverService.SolverMode.AUTO);
+        StableMatchingResponseDTO remote = StableMatchingResponseDTO.builder().status("SUCCESS").build();
+        when(stableMatchClient.isAvailable()).thenReturn(true);
+        when(stableMatchClient.callStableMatch(any())).thenReturn(CompletableFuture.completedFuture(remote));
+
+        assertSame(remote, service.solveAsync(problem(3)).join());
+        assertEquals(1.0, solves("remote"));
+        assertEquals(0.0, solves("local"));
+    }
+
+    @Test
+    void testLargeProblemsAreSolvedInProcessWhileStableMatchIsUnavailable() {
+        start(MatchingSolverService.SolverMode.AUTO);
+        when(stableMatchClient.isAvailable()).thenReturn(false);
+
+        assertEquals("SUCCESS", service.solveAsync(problem(3)).join().getStatus());
+        verify(stableMatchClient, never()).callStableMatch(any());
+        assertEquals(1.0, solves("local"));
+    }
+
+    @Test
+    void testFailedRemoteSolveFallsBackToTheLocalSolver() {
+        start(MatchingSolverService.SolverMode.REMOTE_WITH_LOCAL_FALLBACK);
+        when(stableMatchClient.callStableMatch(any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("connection refused")));
+
+        StableMatchingResponseDTO result = service.solveAsync(problem(1)).join();
+
+        assertEquals("SUCCESS", result.getStatus());
+        assertTrue(result.getMessage().endsWith("(StableMatch unavailable, solved locally)"));
+        assertEquals(1.0, solves("remote"));
+        assertEquals(1.0, solves("local-fallback"));
+    }
+
+    @Test
+    void testRemoteModeKeepsTheClientsOwnFallback() {
+        start(MatchingSolverService.SolverMode.REMOTE);
+        StableMatchingResponseDTO random = StableMatchingResponseDTO.builder().status("FALLBACK").build();
+        when(stableMatchClient.solveMatchingAsync(any())).thenReturn(CompletableFuture.completedFuture(random));
+
+        assertSame(random, service.solveAsync(problem(1)).join());
+        verify(stableMatchClient, never()).callStableMatch(any());
+    }
+
+    private void start(MatchingSolverService.SolverMode mode) {
+        ReflectionTestUtils.setField(service, "mode", mode);
+        service.init();
+    }
+
+    private double solves(String route) {
+        return meterRegistry.get("assignment.solver.solves").tag("route", route).counter().count();
+    }
+
+    /**
+     * One course and {@code students} students who all want it; 2 &times; students preference entries.
+     */
+    private static StableMatchingRequestDTO problem(int students) {
+        List<String> studentIds = IntStream.rangeClosed(1, students)
+                .mapToObj(i -> "S" + i)
+                .toList();
+        return StableMatchingRequestDTO.builder()
+                .students(studentIds.stream()
+                        .map(id -> StableMatchingRequestDTO.StudentPreference.builder()
+                                .studentId(id).preferences(List.of("C1")).build())
+                        .toList())
+                .courses(List.of(StableMatchingRequestDTO.CoursePreference.builder()
+                        .courseId("C1").preferences(studentIds).build()))
+                .capacityPerCourse(1)
+                .build();
+    }
+}
@@ -0,0 +1,259 @@
+package uaic.dbxdrgsl.PrefSchedule.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import uaic.dbxdrgsl.PrefSchedule.dto.ScoreRebuildResultDTO;
+import uaic.dbxdrgsl.PrefSchedule.model.Course;
+import uaic.dbxdrgsl.PrefSchedule.model.Grade;
+import uaic.dbxdrgsl.PrefSchedule.model.InstructorCoursePreference;
+import uaic.dbxdrgsl.PrefSchedule.model.Student;
+import uaic.dbxdrgsl.PrefSchedule.model.User;
+import uaic.dbxdrgsl.PrefSchedule.model.UserRole;
+import uaic.dbxdrgsl.PrefSchedule.repository.CourseRepository;
+import uaic.dbxdrgsl.PrefSchedule.repository.GradeRepository;
+import uaic.dbxdrgsl.PrefSchedule.repository.InstructorCoursePreferenceRepository;
+import uaic.dbxdrgsl.PrefSchedule.repository.StudentCourseScoreRepository;
+import uaic.dbxdrgsl.PrefSchedule.repository.StudentRepository;
+import uaic.dbxdrgsl.PrefSchedule.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({StudentScoreStore.class, StudentScoringService.class, StudentService.class})
+class StudentScoreStoreTest {
+
+    @Autowired
+    private StudentScoreStore store;
+    @Autowired
+    private StudentService studentService;
+    @Autowired
+    private StudentCourseScoreRepository scoreRepository;
+    @Autowired
+    private GradeRepository gradeRepository;
+    @Autowired
+    private InstructorCoursePreferenceRepository preferenceRepository;
+    @Autowired
+    private CourseRepository courseRepository;
+    @Autowired
+    private StudentRepository studentRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void testIncrementalUpdatesMatchARebuild() {
+        List<Student> students = List.of(student("S1"), student("S2"), student("S3"));
+        Course dataScience = optionalCourse("DS");
+        Course security = optionalCourse("SEC");
+        preference(dataScience, "MATH", 70);
+        preference(dataScience, "OOP", 30);
+        preference(security, "OOP", 100);
+
+        store.gradeStored(grade("S1", "MATH", 10));
+        store.gradeStored(grade("S1", "OOP", 5));
+        store.gradesStored(List.of(grade("S2", "OOP", 8), grade("S3", "HISTORY", 4)));
+        Grade changed = gradeRepository.findByStudentCodeAndCourseCode("S1", "MATH").get(0);
+        changed.setGrade(6);
+        store.gradeStored(gradeRepository.save(changed));
+
+        StudentScoreMatrix scores = store.load(List.of(dataScience, security), students);
+        assertEquals(5.7, scores.score(0, 0), 1e-9);
+        assertEquals(5.0, scores.score(0, 1), 1e-9);
+        assertEquals(8.0, scores.score(1, 0), 1e-9);
+        // A student without weighted grades reads as neutral and has no stored row
+        assertEquals(StudentScoreMatrix.NEUTRAL_SCORE, scores.score(2, 0));
+        assertEquals(4, scoreRepository.count());
+
+        ScoreRebuildResultDTO rebuild = store.rebuild();
+        assertEquals(4, rebuild.getStoredScores());
+        assertEquals(0, rebuild.getInsertedScores());
+        assertEquals(0, rebuild.getUpdatedScores());
+        assertEquals(0, rebuild.getRemovedScores());
+    }
+
+    @Test
+    void testRebuildRepairsDrift() {
+        student("S1");
+        student("S2");
+        Course dataScience = optionalCourse("DS");
+        preference(dataScience, "MATH", 100);
+        // Grades written without notifying the store
+        grade("S1", "MATH", 9);
+        grade("S2", "MATH", 7);
+        store.gradeStored(grade("S2", "OOP", 3));
+
+        ScoreRebuildResultDTO first = store.rebuild();
+        assertEquals(2, first.getInsertedScores());
+
+        InstructorCoursePreference weighting = preferenceRepository.findByCompulsoryCourseCode("MATH").get(0);
+        preferenceRepository.delete(weighting);
+        store.preferencesChanged(dataScience.getId());
+        assertEquals(0, scoreRepository.count());
+        assertEquals(0, store.rebuild().getRemovedScores());
+    }
+
+    @Test
+    void testGradesStoredBeforeRegistrationAreScoredOnRegistration() {
+        Course dataScience = optionalCourse("DS");
+        preference(dataScience, "MATH", 70);
+        preference(dataScience, "OOP", 30);
+        store.gradesStored(List.of(grade("S1", "MATH", 10), grade("S1", "OOP", 5)));
+        assertEquals(0, scoreRepository.count());
+
+        Student registered = studentService.save(Student.builder()
+                .user(userRepository.save(user("S1")))
+                .studentNumber("S1")
+                .build());
+        assertEquals(8.5, store.load(List.of(dataScience), List.of(registered)).score(0, 0), 1e-9);
+
+        // A new number takes over the grades stored under it and drops the old scores
+        grade("S9", "MATH", 6);
+        registered.setStudentNumber("S9");
+        Student renumbered = studentService.save(registered);
+        assertEquals(6.0, store.load(List.of(dataScience), List.of(renumbered)).score(0, 0), 1e-9);
+        assertEquals(1, scoreRepository.count());
+    }
+
+    @Test
+    void testABatchIsRescoredWithAFixedNumberOfQueries() {
+        Course dataScience = optionalCourse("DS");
+        Course security = optionalCourse("SEC");
+        preference(dataScience, "MATH", 50);
+        preference(dataScience, "OOP", 50);
+        preference(security, "OOP", 100);
+        List<Grade> grades = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            student("S" + i);
+            grades.add(grade("S" + i, "MATH", 10));
+            grades.add(grade("S" + i, "OOP", 6));
+        }
+        // An unregistered student is skipped without a query of its own
+        grades.add(grade("UNKNOWN", "OOP", 9));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            store.gradesStored(grades);
+            // Weights by graded course, weights by optional course, locks, grades and stored scores
+            assertEquals(5, statistics.getQueryExecutionCount());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+        assertEquals(40, scoreRepository.count());
+        ScoreRebuildResultDTO rebuild = store.rebuild();
+        assertEquals(0, rebuild.getInsertedScores() + rebuild.getUpdatedScores() + rebuild.getRemovedScores());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testConcurrentRescoringOfAStudentIsSerialized() throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try {
+            Grade grade = transaction.execute(status -> {
+                student("S1");
+                preference(optionalCourse("DS"), "MATH", 100);
+                return grade("S1", "MATH", 9);
+            });
+
+            CountDownLatch firstRescored = new CountDownLatch(1);
+            CountDownLatch commitFirst = new CountDownLatch(1);
+            CompletableFuture<Void> first = CompletableFuture.runAsync(() -> transaction.executeWithoutResult(status -> {
+                store.gradeStored(grade);
+                firstRescored.countDown();
+                await(commitFirst);
+            }));
+            assertTrue(firstRescored.await(10, TimeUnit.SECONDS));
+
+            CompletableFuture<Void> second = CompletableFuture.runAsync(
+                    () -> transaction.executeWithoutResult(status -> store.gradeStored(grade)));
+            assertThrows(TimeoutException.class, () -> second.get(300, TimeUnit.MILLISECONDS),
+                    "the second rescoring did not wait for the first to commit");
+
+            commitFirst.countDown();
+            first.get(10, TimeUnit.SECONDS);
+            second.get(10, TimeUnit.SECONDS);
+            assertEquals(1, scoreRepository.count());
+        } finally {
+            transaction.executeWithoutResult(status -> {
+                scoreRepository.deleteAllInBatch();
+                gradeRepository.deleteAllInBatch();
+                preferenceRepository.deleteAllInBatch();
+                courseRepository.deleteAllInBatch();
+                studentRepository.deleteAllInBatch();
+                userRepository.deleteAllInBatch();
+            });
+        }
+    }
+
+    private Student student(String number) {
+        return studentRepository.save(Student.builder()
+                .user(userRepository.save(user(number)))
+                .studentNumber(number)
+                .build());
+    }
+
+    private static User user(String number) {
+        return User.builder()
+                .username(number.toLowerCase())
+                .password("secret")
+                .email(number.toLowerCase() + "@example.com")
+                .firstName("First")
+                .lastName(number)
+                .role(UserRole.STUDENT)
+                .enabled(true)
+                .build();
+    }
+
+    private Course optionalCourse(String code) {
+        Course course = new Course();
+        course.setCode(code);
+        course.setTitle(code);
+        course.setCompulsory(false);
+        return courseRepository.save(course);
+    }
+
+    private void preference(Course course, String compulsory, double percentage) {
+        preferenceRepository.save(InstructorCoursePreference.builder()
+                .optionalCourse(course)
+                .compulsoryCourseCode(compulsory)
+                .percentage(percentage)
+                .build());
+    }
+
+    private Grade grade(String student, String course, double value) {
+        Grade grade = new Grade();
+        grade.setStudentCode(student);
+        grade.setCourseCode(course);
+        grade.setGrade(value);
+        return gradeRepository.save(grade);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
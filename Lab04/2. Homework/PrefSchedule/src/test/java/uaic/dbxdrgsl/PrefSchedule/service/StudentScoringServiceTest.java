@@ -0,0 +1,122 @@
+package uaic.dbxdrgsl.PrefSchedule.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uaic.dbxdrgsl.PrefSchedule.model.Course;
+import uaic.dbxdrgsl.PrefSchedule.model.InstructorCoursePreference;
+import uaic.dbxdrgsl.PrefSchedule.model.Student;
+import uaic.dbxdrgsl.PrefSchedule.repository.GradeRepository;
+import uaic.dbxdrgsl.PrefSchedule.repository.InstructorCoursePreferenceRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class StudentScoringServiceTest {
+
+    private InstructorCoursePreferenceRepository preferenceRepository;
+    private GradeRepository gradeRepository;
+    private StudentScoringService service;
+
+    private final Course dataScience = course(10L, "DS");
+    private final Course security = course(11L, "SEC");
+    private final List<Student> students = List.of(student("S1"), student("S2"), student("S3"));
+
+    @BeforeEach
+    void setUp() {
+        preferenceRepository = mock(InstructorCoursePreferenceRepository.class);
+        gradeRepository = mock(GradeRepository.class);
+        service = new StudentScoringService(preferenceRepository, gradeRepository);
+    }
+
+    @Test
+    void testScoresAreWeightedAveragesOfCompulsoryGrades() {
+        when(preferenceRepository.findByOptionalCourseIdIn(any())).thenReturn(List.of(
+                preference(dataScience, "MATH", 70),
+                preference(dataScience, "OOP", 30),
+                preference(security, "OOP", 100)));
+        when(gradeRepository.findCellsByCourseCodes(any())).thenReturn(List.of(
+                cell("S1", "MATH", 10), cell("S1", "OOP", 5),
+                cell("S2", "OOP", 8)));
+
+        StudentScoreMatrix scores = service.calculateScores(List.of(dataScience, security), students);
+
+        assertEquals(3, scores.studentCount());
+        assertEquals(2, scores.courseCount());
+        assertEquals("S2", scores.studentCode(1));
+        assertEquals("SEC", scores.courseCode(1));
+        assertEquals(8.5, scores.score(0, 0), 1e-9);
+        assertEquals(5.0, scores.score(0, 1), 1e-9);
+        // A missing grade drops out of the average instead of counting as zero
+        assertEquals(8.0, scores.score(1, 0), 1e-9);
+        assertEquals(8.0, scores.score(1, 1), 1e-9);
+    }
+
+    @Test
+    void testStudentsWithoutGradesGetTheNeutralScore() {
+        when(preferenceRepository.findByOptionalCourseIdIn(any())).thenReturn(List.of(
+                preference(dataScience, "MATH", 100)));
+        when(gradeRepository.findCellsByCourseCodes(any())).thenReturn(List.of(cell("S1", "MATH", 9)));
+
+        StudentScoreMatrix scores = service.calculateScores(List.of(dataScience), students);
+
+        assertEquals(9.0, scores.score(0, 0), 1e-9);
+        assertEquals(StudentScoreMatrix.NEUTRAL_SCORE, scores.score(2, 0));
+    }
+
+    @Test
+    void testCoursesWithoutPreferencesSkipTheGradeQuery() {
+        when(preferenceRepository.findByOptionalCourseIdIn(any())).thenReturn(List.of());
+
+        StudentScoreMatrix scores = service.calculateScores(List.of(dataScience, security), students);
+
+        for (int c = 0; c < scores.courseCount(); c++) {
+            for (int s = 0; s < scores.studentCount(); s++) {
+                assertEquals(StudentScoreMatrix.NEUTRAL_SCORE, scores.score(s, c));
+            }
+        }
+        verify(preferenceRepository, times(1)).findByOptionalCourseIdIn(any());
+        verifyNoInteractions(gradeRepository);
+    }
+
+    private static Course course(Long id, String code) {
+        Course course = new Course();
+        course.setId(id);
+        course.setCode(code);
+        course.setCompulsory(false);
+        return course;
+    }
+
+    private static Student student(String number) {
+        return Student.builder().studentNumber(number).build();
+    }
+
+    private static InstructorCoursePreference preference(Course course, String compulsory, double percentage) {
+        return InstructorCoursePreference.builder()
+                .optionalCourse(course)
+                .compulsoryCourseCode(compulsory)
+                .percentage(percentage)
+                .build();
+    }
+
+    private static GradeRepository.GradeCell cell(String student, String course, double grade) {
+        return new GradeRepository.GradeCell() {
+            @Override
+            public String getStudentCode() {
+                return student;
+            }
+
+            @Override
+            public String getCourseCode() {
+                return course;
+            }
+
+            @Override
+            public double getGrade() {
+                return grade;
+            }
+        };
+    }
+}
@@ -1,18 +1,32 @@
 package ro.uaic.dbxdrgsl.QuickGrade.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ro.uaic.dbxdrgsl.QuickGrade.model.BulkPublishResult;
 import ro.uaic.dbxdrgsl.QuickGrade.model.GradeEvent;
 import ro.uaic.dbxdrgsl.QuickGrade.service.GradeEventPublisher;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
 @RestController
 @RequestMapping("/api/grades")
 @RequiredArgsConstructor
 public class GradeController {
 
     private final GradeEventPublisher publisher;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<Void> publish(@RequestBody GradeEvent event) {
@@ -20,10 +34,87 @@ public class GradeController {
         return ResponseEntity.status(HttpStatus.ACCEPTED).build();
     }
 
+    /**
+     * Publish a JSON array of grade events, e.g. a whole class's results.
+     */
+    @PostMapping(path = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkPublishResult> publishAll(@RequestBody List<GradeEvent> events) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(publisher.publishAll(events.iterator()));
+    }
+
+    /**
+     * Publish newline-delimited JSON grade events, one per line; events are sent while the
+     * body is still being read. Reading stops at a malformed line, with 400 Bad Request; the
+     * events before it have been sent and are counted in the response.
+     */
+    @PostMapping(path = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BulkPublishResult> publishNdjson(InputStream body) throws IOException {
+        try (MappingIterator<GradeEvent> events = objectMapper.readerFor(GradeEvent.class).readValues(body)) {
+            UntilMalformed untilMalformed = new UntilMalformed(events);
+            BulkPublishResult result = publisher.publishAll(untilMalformed);
+            if (untilMalformed.malformed == null) {
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(result);
+            }
+            List<String> failures = new ArrayList<>(result.failures().size() + 1);
+            failures.add("Malformed grade event after " + result.received() + " events: "
+                    + untilMalformed.malformed.getMessage());
+            failures.addAll(result.failures());
+            return ResponseEntity.badRequest().body(new BulkPublishResult(result.received() + 1,
+                    result.published(), result.failed() + 1, result.pending(), failures));
+        }
+    }
+
     @PostMapping("/demo")
     public ResponseEntity<Void> publishDemo() {
-        GradeEvent demo = new GradeEvent("S001", "CS101", 9.5);
+        GradeEvent demo = new GradeEvent(null, "S001", "CS101", 9.5);
         publisher.publish(demo);
         return ResponseEntity.status(HttpStatus.ACCEPTED).build();
     }
+
+    /**
+     * The events of a body up to its first malformed one, which ends the iteration and is
+     * kept for the response. Each event is read ahead in {@link #hasNext()}, so a malformed
+     * one is never handed out.
+     */
+    private static final class UntilMalformed implements Iterator<GradeEvent> {
+
+        private final MappingIterator<GradeEvent> events;
+        private RuntimeException malformed;
+        private GradeEvent nextEvent;
+        private boolean nextRead;
+
+        private UntilMalformed(MappingIterator<GradeEvent> events) {
+            this.events = events;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!nextRead && malformed == null) {
+                try {
+                    if (events.hasNext()) {
+                        nextEvent = events.next();
+                        nextRead = true;
+                    }
+                } catch (RuntimeJsonMappingException e) {
+                    malformed = e;
+                } catch (RuntimeException e) {
+                    // Syntax errors come wrapped in a plain RuntimeException
+                    if (!(e.getCause() instanceof JsonProcessingException)) {
+                        throw e;
+                    }
+                    malformed = e;
+                }
+            }
+            return nextRead;
+        }
+
+        @Override
+        public GradeEvent next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            nextRead = false;
+            return nextEvent;
+        }
+    }
 }
@@ -0,0 +1,14 @@
+package ro.uaic.dbxdrgsl.QuickGrade.model;
+
+import java.util.List;
+
+/**
+ * Outcome of publishing several grade events at once.
+ *
+ * @param received   events in the request
+ * @param published  events acknowledged by Kafka
+ * @param failed     events rejected as invalid or that Kafka failed to store
+ * @param pending    events still unacknowledged when the publisher stopped waiting
+ * @param failures   the first few failure reasons
+ */
+public record BulkPublishResult(int received, int published, int failed, int pending, List<String> failures) {}
@@ -1,3 +1,7 @@
 package ro.uaic.dbxdrgsl.QuickGrade.model;
 
-public record GradeEvent(String studentCode, String courseCode, double grade) {}
+/**
+ * A grade published on the grades topic. The event ID lets consumers recognise an event they
+ * have already received; it is assigned on publishing when the caller does not set one.
+ */
+public record GradeEvent(String eventId, String studentCode, String courseCode, double grade) {}
@@ -1,18 +1,149 @@
 package ro.uaic.dbxdrgsl.QuickGrade.service;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 import ro.uaic.dbxdrgsl.QuickGrade.config.KafkaConfig;
+import ro.uaic.dbxdrgsl.QuickGrade.model.BulkPublishResult;
 import ro.uaic.dbxdrgsl.QuickGrade.model.GradeEvent;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Publishes grade events to the grades topic, keyed by student so that a student's grades
+ * stay in order. Sends are asynchronous and batched by the producer; every acknowledgement
+ * or failure is timed in {@code quickgrade.grades.publish}, tagged by outcome, and the sends
+ * awaiting one are counted in {@code quickgrade.grades.publish.pending}.
+ */
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class GradeEventPublisher {
 
+    private static final int MAX_REPORTED_FAILURES = 10;
+
     private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final long ackTimeoutMs;
+    private final Timer acknowledged;
+    private final Timer failed;
+    private final AtomicInteger pending = new AtomicInteger();
+
+    public GradeEventPublisher(KafkaTemplate<String, Object> kafkaTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${quickgrade.publish.ack-timeout:30000}") long ackTimeoutMs) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.ackTimeoutMs = ackTimeoutMs;
+        this.acknowledged = publishTimer(meterRegistry, "acknowledged");
+        this.failed = publishTimer(meterRegistry, "failed");
+        Gauge.builder("quickgrade.grades.publish.pending", pending, AtomicInteger::get)
+                .description("Grade events sent and not yet acknowledged by Kafka")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Send a grade event without waiting for Kafka to acknowledge it.
+     *
+     * @return completes when Kafka acknowledges or fails the event
+     */
+    public CompletableFuture<SendResult<String, Object>> publish(GradeEvent event) {
+        GradeEvent stamped = event.eventId() == null || event.eventId().isBlank()
+                ? new GradeEvent(UUID.randomUUID().toString(), event.studentCode(), event.courseCode(), event.grade())
+                : event;
+        long start = System.nanoTime();
+        pending.incrementAndGet();
+        CompletableFuture<SendResult<String, Object>> send;
+        try {
+            send = kafkaTemplate.send(KafkaConfig.GRADES_TOPIC, stamped.studentCode(), stamped);
+        } catch (RuntimeException e) {
+            send = CompletableFuture.failedFuture(e);
+        }
+        return send.whenComplete((result, failure) -> {
+            pending.decrementAndGet();
+            if (failure == null) {
+                acknowledged.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            } else {
+                failed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                log.warn("Could not publish grade event {}: {}", stamped.eventId(), failure.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Send several grade events, all before waiting, so that the producer batches them, then
+     * wait up to {@code quickgrade.publish.ack-timeout} for Kafka to acknowledge them.
+     * Events without a student or course code are not sent.
+     *
+     * @param events the events, which may be read lazily
+     * @return how many events were acknowledged, failed or are still pending
+     */
+    public BulkPublishResult publishAll(Iterator<GradeEvent> events) {
+        List<CompletableFuture<SendResult<String, Object>>> sends = new ArrayList<>();
+        List<String> failures = new ArrayList<>();
+        int received = 0;
+        int rejected = 0;
+        while (events.hasNext()) {
+            GradeEvent event = events.next();
+            if (event == null || isBlank(event.studentCode()) || isBlank(event.courseCode())) {
+                rejected++;
+                report(failures, "Invalid grade event at position " + received);
+            } else {
+                sends.add(publish(event));
+            }
+            received++;
+        }
+
+        try {
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture<?>[0])).get(ackTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // Counted per event below
+        }
+
+        int published = 0;
+        int unacknowledged = 0;
+        int sendFailures = 0;
+        for (CompletableFuture<SendResult<String, Object>> send : sends) {
+            if (!send.isDone()) {
+                unacknowledged++;
+            } else if (send.isCompletedExceptionally()) {
+                sendFailures++;
+                report(failures, "Kafka failed to store an event: " + send.handle((result, failure) -> failure.getMessage()).join());
+            } else {
+                published++;
+            }
+        }
+        log.info("Published {} grade events: {} acknowledged, {} failed, {} pending",
+                received, published, rejected + sendFailures, unacknowledged);
+        return new BulkPublishResult(received, published, rejected + sendFailures, unacknowledged, failures);
+    }
+
+    private static void report(List<String> failures, String failure) {
+        if (failures.size() < MAX_REPORTED_FAILURES) {
+            failures.add(failure);
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
 
-    public void publish(GradeEvent event) {
-        kafkaTemplate.send(KafkaConfig.GRADES_TOPIC, event.studentCode(), event);
+    private static Timer publishTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("quickgrade.grades.publish")
+                .description("Time from sending a grade event to Kafka acknowledging or failing it")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
     }
 }
@@ -0,0 +1,85 @@
+package ro.uaic.dbxdrgsl.QuickGrade.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import ro.uaic.dbxdrgsl.QuickGrade.model.BulkPublishResult;
+import ro.uaic.dbxdrgsl.QuickGrade.service.GradeEventPublisher;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class GradeControllerTest {
+
+    private KafkaTemplate<String, Object> kafkaTemplate;
+    private GradeController controller;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        kafkaTemplate = mock(KafkaTemplate.class);
+        when(kafkaTemplate.send(anyString(), anyString(), any()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(mock(SendResult.class)));
+        controller = new GradeController(
+                new GradeEventPublisher(kafkaTemplate, new SimpleMeterRegistry(), 1000), new ObjectMapper());
+    }
+
+    @Test
+    void testNdjsonEventsAreAllPublished() throws IOException {
+        ResponseEntity<BulkPublishResult> response = publishNdjson("""
+                {"studentCode":"S1","courseCode":"MATH","grade":9}
+                {"studentCode":"S2","courseCode":"MATH","grade":8}
+                """);
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(2, response.getBody().received());
+        assertEquals(2, response.getBody().published());
+    }
+
+    @Test
+    void testMalformedLineReportsTheEventsSentBeforeIt() throws IOException {
+        ResponseEntity<BulkPublishResult> response = publishNdjson("""
+                {"studentCode":"S1","courseCode":"MATH","grade":9}
+                {"studentCode":"S2","courseCode":"MATH","grade":"ten"}
+                {"studentCode":"S3","courseCode":"MATH","grade":7}
+                """);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        BulkPublishResult result = response.getBody();
+        assertEquals(2, result.received());
+        assertEquals(1, result.published());
+        assertEquals(1, result.failed());
+        assertTrue(result.failures().get(0).startsWith("Malformed grade event after 1 events"));
+        // Reading stopped at the malformed line
+        verify(kafkaTemplate, times(1)).send(anyString(), anyString(), any());
+    }
+
+    @Test
+    void testUnparsableLineStopsReading() throws IOException {
+        ResponseEntity<BulkPublishResult> response = publishNdjson("""
+                {"studentCode":"S1","courseCode":"MATH","grade":9}
+                {"studentCode":"S2","courseCode":"MATH","grade":8}
+                {"studentCode":"S3",
+                """);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(3, response.getBody().received());
+        assertEquals(2, response.getBody().published());
+    }
+
+    private ResponseEntity<BulkPublishResult> publishNdjson(String body) throws IOException {
+        return controller.publishNdjson(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,107 @@
+package ro.uaic.dbxdrgsl.QuickGrade.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import ro.uaic.dbxdrgsl.QuickGrade.config.KafkaConfig;
+import ro.uaic.dbxdrgsl.QuickGrade.model.BulkPublishResult;
+import ro.uaic.dbxdrgsl.QuickGrade.model.GradeEvent;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class GradeEventPublisherTest {
+
+    private KafkaTemplate<String, Object> kafkaTemplate;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        kafkaTemplate = mock(KafkaTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        when(kafkaTemplate.send(anyString(), anyString(), any()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(mock(SendResult.class)));
+    }
+
+    @Test
+    void testPublishAllCountsAcknowledgedRejectedAndFailedEvents() {
+        when(kafkaTemplate.send(anyString(), eq("S3"), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        GradeEventPublisher publisher = new GradeEventPublisher(kafkaTemplate, meterRegistry, 1000);
+
+        BulkPublishResult result = publisher.publishAll(events(
+                new GradeEvent("e-1", "S1", "MATH", 9),
+                new GradeEvent(null, "S2", "MATH", 8),
+                new GradeEvent(null, " ", "MATH", 7),
+                null,
+                new GradeEvent(null, "S3", "MATH", 6)));
+
+        assertEquals(5, result.received());
+        assertEquals(2, result.published());
+        assertEquals(3, result.failed());
+        assertEquals(0, result.pending());
+        assertEquals(List.of("Invalid grade event at position 2", "Invalid grade event at position 3"),
+                result.failures().subList(0, 2));
+        assertTrue(result.failures().get(2).startsWith("Kafka failed to store an event"));
+        assertTrue(result.failures().get(2).contains("broker down"));
+        assertEquals(2, meterRegistry.get("quickgrade.grades.publish").tag("outcome", "acknowledged").timer().count());
+        assertEquals(1, meterRegistry.get("quickgrade.grades.publish").tag("outcome", "failed").timer().count());
+    }
+
+    @Test
+    void testEventsAreKeyedByStudentAndStampedWithAnId() {
+        GradeEventPublisher publisher = new GradeEventPublisher(kafkaTemplate, meterRegistry, 1000);
+
+        publisher.publishAll(events(new GradeEvent("e-1", "S1", "MATH", 9), new GradeEvent(null, "S2", "OOP", 8)));
+
+        ArgumentCaptor<Object> sent = ArgumentCaptor.forClass(Object.class);
+        verify(kafkaTemplate).send(eq(KafkaConfig.GRADES_TOPIC), eq("S1"), sent.capture());
+        verify(kafkaTemplate).send(eq(KafkaConfig.GRADES_TOPIC), eq("S2"), sent.capture());
+        assertEquals("e-1", ((GradeEvent) sent.getAllValues().get(0)).eventId());
+        assertNotNull(((GradeEvent) sent.getAllValues().get(1)).eventId());
+    }
+
+    @Test
+    void testEventsNotAcknowledgedInTimeArePending() {
+        CompletableFuture<SendResult<String, Object>> unacknowledged = new CompletableFuture<>();
+        when(kafkaTemplate.send(anyString(), eq("S2"), any())).thenReturn(unacknowledged);
+        GradeEventPublisher publisher = new GradeEventPublisher(kafkaTemplate, meterRegistry, 50);
+
+        BulkPublishResult result = publisher.publishAll(events(
+                new GradeEvent(null, "S1", "MATH", 9), new GradeEvent(null, "S2", "MATH", 8)));
+
+        assertEquals(1, result.published());
+        assertEquals(1, result.pending());
+        assertEquals(1.0, meterRegistry.get("quickgrade.grades.publish.pending").gauge().value());
+
+        unacknowledged.completeExceptionally(new IllegalStateException("late failure"));
+        assertEquals(0.0, meterRegistry.get("quickgrade.grades.publish.pending").gauge().value());
+    }
+
+    @Test
+    void testSendThatThrowsCountsAsFailed() {
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenThrow(new IllegalStateException("closed"));
+        GradeEventPublisher publisher = new GradeEventPublisher(kafkaTemplate, meterRegistry, 1000);
+
+        BulkPublishResult result = publisher.publishAll(events(new GradeEvent(null, "S1", "MATH", 9)));
+
+        assertEquals(1, result.failed());
+        assertEquals(0, result.pending());
+    }
+
+    private static Iterator<GradeEvent> events(GradeEvent... events) {
+        return Arrays.asList(events).iterator();
+    }
+}
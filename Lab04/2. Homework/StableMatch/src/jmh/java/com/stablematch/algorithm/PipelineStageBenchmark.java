@@ -0,0 +1,87 @@
+package com.stablematch.algorithm;
+
+import com.stablematch.benchmark.ProblemState;
+import com.stablematch.dto.StableMatchingRequestDTO;
+import com.stablematch.dto.StableMatchingResponseDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Individual stages of a solve, measured in isolation: request validation /
+ * interning, the proposal loop, and response assembly.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PipelineStageBenchmark {
+
+    private StableMatchingService service;
+
+    // Legacy stage inputs
+    private Map<String, List<String>> courseAssignments;
+    private Map<String, List<String>> studentPreferences;
+    private Map<String, List<String>> coursePreferences;
+
+    // Indexed stage inputs
+    private IndexedMatchingProblem indexedProblem;
+    private IndexedGaleShapley.IndexedMatching indexedMatching;
+
+    @Setup(Level.Trial)
+    public void setUp(ProblemState problem) {
+        service = new StableMatchingService(new SimpleMeterRegistry());
+        StableMatchingRequestDTO request = problem.request;
+
+        studentPreferences = service.buildStudentPreferenceMap(request);
+        coursePreferences = service.buildCoursePreferenceMap(request);
+        courseAssignments = new HashMap<>();
+        for (StableMatchingRequestDTO.CoursePreference course : request.getCourses()) {
+            courseAssignments.put(course.getCourseId(), new ArrayList<>());
+        }
+        StableMatchingResponseDTO solved = service.solveStableMatching(request, MatchingEngine.LEGACY);
+        for (StableMatchingResponseDTO.Assignment assignment : solved.getAssignments()) {
+            courseAssignments.get(assignment.getCourseId()).add(assignment.getStudentId());
+        }
+
+        indexedProblem = IndexedMatchingProblem.fromRequest(request, problem.capacity);
+        indexedMatching = IndexedGaleShapley.solve(indexedProblem);
+    }
+
+    @Benchmark
+    public StableMatchingRequestDTO validateLegacy(ProblemState problem) {
+        service.validateRequest(problem.request);
+        return problem.request;
+    }
+
+    @Benchmark
+    public IndexedMatchingProblem internIndexed(ProblemState problem) {
+        return IndexedMatchingProblem.fromRequest(problem.request, problem.capacity);
+    }
+
+    @Benchmark
+    public IndexedGaleShapley.IndexedMatching proposeIndexed() {
+        return IndexedGaleShapley.solve(indexedProblem);
+    }
+
+    @Benchmark
+    public List<StableMatchingResponseDTO.Assignment> buildAssignmentsLegacy() {
+        return service.buildAssignments(courseAssignments, studentPreferences, coursePreferences);
+    }
+
+    @Benchmark
+    public StableMatchingResponseDTO buildResponseIndexed() {
+        return service.buildResponse(indexedMatching, 0L);
+    }
+}
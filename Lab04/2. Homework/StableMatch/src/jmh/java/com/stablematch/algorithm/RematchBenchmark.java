@@ -0,0 +1,77 @@
+package com.stablematch.algorithm;
+
+import com.stablematch.benchmark.ProblemState;
+import com.stablematch.dto.MatchingDeltaDTO;
+import com.stablematch.dto.StableMatchingRequestDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Incremental re-matching after a few students reorder their preferences, against
+ * a full solve of the same changed problem.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RematchBenchmark {
+
+    @Param({"1", "100"})
+    public int changedStudents;
+
+    private StableMatchingService service;
+    private IndexedGaleShapley.IndexedMatching previous;
+    private MatchingDeltaDTO delta;
+    private StableMatchingRequestDTO changedRequest;
+
+    @Setup(Level.Trial)
+    public void setUp(ProblemState problem) {
+        service = new StableMatchingService(new SimpleMeterRegistry());
+        previous = service.solve(problem.request, MatchingEngine.INDEXED).matching();
+
+        Random random = new Random(problem.seed);
+        List<StableMatchingRequestDTO.StudentPreference> students = new ArrayList<>(problem.request.getStudents());
+        List<StableMatchingRequestDTO.StudentPreference> changed = new ArrayList<>();
+        for (int i = 0; i < changedStudents; i++) {
+            int index = random.nextInt(students.size());
+            List<String> preferences = new ArrayList<>(students.get(index).getPreferences());
+            Collections.shuffle(preferences, random);
+            StableMatchingRequestDTO.StudentPreference edited = StableMatchingRequestDTO.StudentPreference.builder()
+                    .studentId(students.get(index).getStudentId())
+                    .preferences(preferences)
+                    .build();
+            students.set(index, edited);
+            changed.removeIf(sp -> sp.getStudentId().equals(edited.getStudentId()));
+            changed.add(edited);
+        }
+        delta = MatchingDeltaDTO.builder().students(changed).build();
+        changedRequest = StableMatchingRequestDTO.builder()
+                .students(students)
+                .courses(problem.request.getCourses())
+                .capacityPerCourse(problem.request.getCapacityPerCourse())
+                .build();
+    }
+
+    @Benchmark
+    public MatchingOutcome rematch() {
+        return service.rematch(previous, delta);
+    }
+
+    @Benchmark
+    public MatchingOutcome fullSolve() {
+        return service.solve(changedRequest, MatchingEngine.INDEXED);
+    }
+}
@@ -0,0 +1,40 @@
+package com.stablematch.algorithm;
+
+import com.stablematch.benchmark.ProblemState;
+import com.stablematch.dto.StableMatchingResponseDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end {@link StableMatchingService#solveStableMatching} per engine,
+ * including validation and response assembly.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SolveBenchmark {
+
+    @Param({"LEGACY", "INDEXED"})
+    public MatchingEngine engine;
+
+    private StableMatchingService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        service = new StableMatchingService(new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public StableMatchingResponseDTO solveStableMatching(ProblemState problem) {
+        return service.solveStableMatching(problem.request, engine);
+    }
+}
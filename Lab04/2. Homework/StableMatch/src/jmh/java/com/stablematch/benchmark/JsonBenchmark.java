@@ -0,0 +1,74 @@
+package com.stablematch.benchmark;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stablematch.algorithm.IndexedMatchingProblem;
+import com.stablematch.algorithm.MatchingEngine;
+import com.stablematch.algorithm.StableMatchingService;
+import com.stablematch.algorithm.StreamingRequestReader;
+import com.stablematch.dto.StableMatchingRequestDTO;
+import com.stablematch.dto.StableMatchingResponseDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+
+/**
+ * Jackson (de)serialization of the request and response DTOs, i.e. the work done
+ * by Spring MVC around {@code /v1/matching/solve}, and the streaming ingestion
+ * path used by {@code /v1/matching/solve?ingest=stream}.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JsonBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private StableMatchingResponseDTO response;
+    private byte[] requestJson;
+    private byte[] responseJson;
+
+    @Setup(Level.Trial)
+    public void setUp(ProblemState problem) throws IOException {
+        response = new StableMatchingService(new SimpleMeterRegistry())
+                .solveStableMatching(problem.request, MatchingEngine.INDEXED);
+        requestJson = objectMapper.writeValueAsBytes(problem.request);
+        responseJson = objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public StableMatchingRequestDTO readRequest() throws IOException {
+        return objectMapper.readValue(requestJson, StableMatchingRequestDTO.class);
+    }
+
+    @Benchmark
+    public IndexedMatchingProblem readRequestStreaming(ProblemState problem) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(requestJson)) {
+            return StreamingRequestReader.read(parser, problem.students, problem.courses);
+        }
+    }
+
+    @Benchmark
+    public byte[] writeRequest(ProblemState problem) throws IOException {
+        return objectMapper.writeValueAsBytes(problem.request);
+    }
+
+    @Benchmark
+    public StableMatchingResponseDTO readResponse() throws IOException {
+        return objectMapper.readValue(responseJson, StableMatchingResponseDTO.class);
+    }
+
+    @Benchmark
+    public byte[] writeResponse() throws IOException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
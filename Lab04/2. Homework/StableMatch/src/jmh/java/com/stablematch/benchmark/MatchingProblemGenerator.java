@@ -0,0 +1,120 @@
+package com.stablematch.benchmark;
+
+import com.stablematch.dto.StableMatchingRequestDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates synthetic stable matching problems for benchmarks.
+ * <p>
+ * Every student ranks {@code preferenceLength} distinct courses; every course ranks
+ * exactly the students that applied to it, so the problem size stays linear in
+ * {@code students * preferenceLength}.
+ */
+public final class MatchingProblemGenerator {
+
+    /**
+     * How preference lists are drawn.
+     */
+    public enum Distribution {
+        /**
+         * Uniformly random course choices and course rankings.
+         */
+        RANDOM,
+
+        /**
+         * Students favour globally popular courses and courses favour globally
+         * strong students, which produces long displacement chains as in a real
+         * enrollment week.
+         */
+        CORRELATED
+    }
+
+    private MatchingProblemGenerator() {
+    }
+
+    public static StableMatchingRequestDTO generate(int students, int courses, int capacity,
+                                                    int preferenceLength, Distribution distribution,
+                                                    long seed) {
+        if (preferenceLength > courses) {
+            throw new IllegalArgumentException("Preference length cannot exceed the number of courses");
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+
+        String[] studentIds = new String[students];
+        for (int s = 0; s < students; s++) {
+            studentIds[s] = "S" + s;
+        }
+        String[] courseIds = new String[courses];
+        for (int c = 0; c < courses; c++) {
+            courseIds[c] = "C" + c;
+        }
+
+        double[] popularity = new double[courses];
+        double[] merit = new double[students];
+        for (int c = 0; c < courses; c++) {
+            popularity[c] = distribution == Distribution.CORRELATED ? random.nextDouble() : 0.0;
+        }
+        for (int s = 0; s < students; s++) {
+            merit[s] = distribution == Distribution.CORRELATED ? random.nextDouble() : 0.0;
+        }
+
+        List<StableMatchingRequestDTO.StudentPreference> studentPreferences = new ArrayList<>(students);
+        List<List<Integer>> applicants = new ArrayList<>(courses);
+        for (int c = 0; c < courses; c++) {
+            applicants.add(new ArrayList<>());
+        }
+
+        double[] courseKey = new double[courses];
+        Integer[] courseOrder = new Integer[courses];
+        for (int s = 0; s < students; s++) {
+            for (int c = 0; c < courses; c++) {
+                courseKey[c] = popularity[c] + random.nextDouble();
+                courseOrder[c] = c;
+            }
+            Arrays.sort(courseOrder, (a, b) -> Double.compare(courseKey[b], courseKey[a]));
+
+            List<String> preferences = new ArrayList<>(preferenceLength);
+            for (int k = 0; k < preferenceLength; k++) {
+                preferences.add(courseIds[courseOrder[k]]);
+                applicants.get(courseOrder[k]).add(s);
+            }
+            studentPreferences.add(StableMatchingRequestDTO.StudentPreference.builder()
+                    .studentId(studentIds[s])
+                    .preferences(preferences)
+                    .build());
+        }
+
+        List<StableMatchingRequestDTO.CoursePreference> coursePreferences = new ArrayList<>(courses);
+        double[] studentKey = new double[students];
+        for (int c = 0; c < courses; c++) {
+            List<Integer> applied = applicants.get(c);
+            for (int s : applied) {
+                studentKey[s] = merit[s] + random.nextDouble();
+            }
+            applied.sort((a, b) -> Double.compare(studentKey[b], studentKey[a]));
+
+            List<String> preferences = new ArrayList<>(Math.max(1, applied.size()));
+            for (int s : applied) {
+                preferences.add(studentIds[s]);
+            }
+            if (preferences.isEmpty()) {
+                // Courses must rank at least one student to pass validation
+                preferences.add(studentIds[random.nextInt(students)]);
+            }
+            coursePreferences.add(StableMatchingRequestDTO.CoursePreference.builder()
+                    .courseId(courseIds[c])
+                    .preferences(preferences)
+                    .build());
+        }
+
+        return StableMatchingRequestDTO.builder()
+                .students(studentPreferences)
+                .courses(coursePreferences)
+                .capacityPerCourse(capacity)
+                .build();
+    }
+}
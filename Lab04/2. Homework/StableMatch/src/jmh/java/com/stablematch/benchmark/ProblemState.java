@@ -0,0 +1,42 @@
+package com.stablematch.benchmark;
+
+import com.stablematch.dto.StableMatchingRequestDTO;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark state holding one generated problem. Override the shape from the
+ * command line, e.g. {@code -Djmh.args="-p students=50000 -p courses=500"}.
+ */
+@State(Scope.Benchmark)
+public class ProblemState {
+
+    @Param({"1000", "10000"})
+    public int students;
+
+    @Param({"50"})
+    public int courses;
+
+    @Param({"10"})
+    public int capacity;
+
+    @Param({"5"})
+    public int preferenceLength;
+
+    @Param({"RANDOM", "CORRELATED"})
+    public MatchingProblemGenerator.Distribution distribution;
+
+    @Param({"42"})
+    public long seed;
+
+    public StableMatchingRequestDTO request;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        request = MatchingProblemGenerator.generate(students, courses, capacity,
+                preferenceLength, distribution, seed);
+    }
+}
@@ -0,0 +1,124 @@
+package com.stablematch.algorithm;
+
+import com.stablematch.dto.MatchingDeltaDTO;
+import com.stablematch.dto.StableMatchingRequestDTO;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies a {@link MatchingDeltaDTO} to a previously solved problem and repairs the
+ * previous matching with {@link IndexedGaleShapley#repair}, falling back to a full
+ * solve if the repair does not settle.
+ * <p>
+ * The changed problem is derived from the previous one with
+ * {@link IndexedMatchingProblem#derive}, so indices of the previous matching stay valid
+ * and only the changed lists are interned and ranked again.
+ */
+public final class IncrementalRematcher {
+
+    /**
+     * Verification rounds after which the repair is abandoned for a full solve.
+     */
+    static final int MAX_REPAIR_ROUNDS = 16;
+
+    private IncrementalRematcher() {
+    }
+
+    /**
+     * @param previous the stable matching to start from
+     * @param delta the changes to apply
+     * @return the re-matched problem
+     * @throws IllegalArgumentException if the changed problem is invalid
+     */
+    public static Rematch rematch(IndexedGaleShapley.IndexedMatching previous, MatchingDeltaDTO delta) {
+        IndexedMatchingProblem before = previous.problem();
+
+        Map<String, List<String>> studentUpdates = new LinkedHashMap<>();
+        if (delta.getStudents() != null) {
+            for (StableMatchingRequestDTO.StudentPreference sp : delta.getStudents()) {
+                if (studentUpdates.put(sp.getStudentId(), sp.getPreferences()) != null) {
+                    throw new IllegalArgumentException("Duplicate student ID: " + sp.getStudentId());
+                }
+            }
+        }
+        Map<String, List<String>> courseUpdates = new LinkedHashMap<>();
+        Map<String, Integer> capacityUpdates = new HashMap<>();
+        if (delta.getCourses() != null) {
+            for (StableMatchingRequestDTO.CoursePreference cp : delta.getCourses()) {
+                if (courseUpdates.put(cp.getCourseId(), cp.getPreferences()) != null) {
+                    throw new IllegalArgumentException("Duplicate course ID: " + cp.getCourseId());
+                }
+                if (cp.getCapacity() != null) {
+                    capacityUpdates.put(cp.getCourseId(), cp.getCapacity());
+                }
+            }
+        }
+        Set<String> removedStudents = delta.getRemovedStudents() != null
+                ? new HashSet<>(delta.getRemovedStudents()) : Set.of();
+        Set<String> removedCourses = delta.getRemovedCourses() != null
+                ? new HashSet<>(delta.getRemovedCourses()) : Set.of();
+
+        for (String id : studentUpdates.keySet()) {
+            if (removedStudents.contains(id)) {
+                throw new IllegalArgumentException("Student " + id + " is both updated and removed");
+            }
+        }
+        for (String id : courseUpdates.keySet()) {
+            if (removedCourses.contains(id)) {
+                throw new IllegalArgumentException("Course " + id + " is both updated and removed");
+            }
+        }
+
+        IndexedMatchingProblem updated = before.derive(studentUpdates, removedStudents,
+                courseUpdates, capacityUpdates, removedCourses,
+                delta.getCapacityPerCourse() != null ? delta.getCapacityPerCourse() : before.defaultCapacity());
+        BitSet changedStudents = new BitSet(updated.studentCount());
+        for (String id : studentUpdates.keySet()) {
+            changedStudents.set(updated.studentIndex(id));
+        }
+
+        IndexedGaleShapley.IndexedMatching repaired =
+                IndexedGaleShapley.repair(previous, updated, changedStudents, MAX_REPAIR_ROUNDS);
+        if (repaired != null) {
+            return new Rematch(repaired, true, changedStudents.cardinality());
+        }
+        return new Rematch(IndexedGaleShapley.solve(updated), false, changedStudents.cardinality());
+    }
+
+    /**
+     * Outcome of a re-match: the new matching and whether it was repaired or fully re-solved.
+     */
+    public static final class Rematch {
+
+        private final IndexedGaleShapley.IndexedMatching matching;
+        private final boolean repaired;
+        private final int changedStudents;
+
+        private Rematch(IndexedGaleShapley.IndexedMatching matching, boolean repaired, int changedStudents) {
+            this.matching = matching;
+            this.repaired = repaired;
+            this.changedStudents = changedStudents;
+        }
+
+        public IndexedGaleShapley.IndexedMatching matching() {
+            return matching;
+        }
+
+        /**
+         * @return {@code false} if the repair did not settle and the problem was solved from scratch
+         */
+        public boolean repaired() {
+            return repaired;
+        }
+
+        public int changedStudents() {
+            return changedStudents;
+        }
+    }
+}
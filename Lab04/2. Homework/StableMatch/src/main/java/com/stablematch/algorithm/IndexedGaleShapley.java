@@ -0,0 +1,401 @@
+package com.stablematch.algorithm;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Student-proposing Gale-Shapley over an {@link IndexedMatchingProblem}.
+ * <p>
+ * Each course keeps its admitted students in a bounded max-heap ordered by the
+ * course's rank of the student, so the worst admit is found in O(1) and replaced
+ * in O(log capacity). A heap holds at most as many students as list its course, so
+ * a capacity beyond that costs no memory. Students a course does not rank come after every student it
+ * does, in the order they were declared (i.e. by student index), which makes each
+ * course's order strict and matches the string-keyed implementation.
+ */
+public final class IndexedGaleShapley {
+
+    private IndexedGaleShapley() {
+    }
+
+    public static IndexedMatching solve(IndexedMatchingProblem problem) {
+        return solve(problem, null);
+    }
+
+    /**
+     * Same as {@link #solve(IndexedMatchingProblem)}, publishing the proposals made so far
+     * to {@code progress} as the solve goes.
+     */
+    public static IndexedMatching solve(IndexedMatchingProblem problem, SolveProgress progress) {
+        State state = new State(problem);
+        state.progress = progress;
+        for (int student : problem.declaredStudents()) {
+            state.enqueue(student);
+        }
+        state.propose();
+        return state.toMatching();
+    }
+
+    /**
+     * Repairs a previous matching after the problem changed instead of solving from scratch.
+     * <p>
+     * {@code updated} must intern every student and course of the previous problem at the
+     * same index (see {@link IncrementalRematcher}). Students that are not marked as changed
+     * keep their previous course, subject to the updated course rankings and capacities;
+     * changed students, and students that no longer fit, propose again. Stability is then
+     * verified pair by pair: every student that would rather have a course which has room
+     * for it, or ranks it above its worst admit, proposes again from that course, and the
+     * check is repeated until no such student remains.
+     *
+     * @param previous the matching to repair
+     * @param updated the changed problem
+     * @param changedStudents students whose preference list was added or replaced
+     * @param maxRounds number of verification rounds after which the repair gives up
+     * @return a stable matching of {@code updated}, or {@code null} if it was not reached
+     *         within {@code maxRounds} rounds
+     */
+    public static IndexedMatching repair(IndexedMatching previous, IndexedMatchingProblem updated,
+                                         BitSet changedStudents, int maxRounds) {
+        State state = new State(updated);
+        int previousStudents = previous.problem().studentCount();
+
+        int[] declared = updated.declaredStudents();
+        for (int student : declared) {
+            if (changedStudents.get(student) || student >= previousStudents) {
+                continue;
+            }
+            int course = previous.assignedCourse(student);
+            if (course < 0) {
+                // Every course on the list turned the student down; the stability check reopens it if needed
+                state.nextProposal[student] = updated.studentPreferences(student).length;
+            } else {
+                state.reinstate(student, course, previous.studentPreferenceRank(student) - 1);
+            }
+        }
+        for (int student : declared) {
+            if (changedStudents.get(student) || student >= previousStudents) {
+                state.enqueue(student);
+            }
+        }
+
+        for (int round = 0; round < maxRounds; round++) {
+            state.propose();
+            if (state.reopenBlockingStudents() == 0) {
+                return state.toMatching();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Mutable solver state: per-course bounded heaps of admits, each student's
+     * assignment and next proposal, and the FIFO queue of free students.
+     */
+    private static final class State {
+
+        private final IndexedMatchingProblem problem;
+        private final int[] heapOffset;
+        private final int[] heapStudent;
+        private final int[] heapRank;
+        private final int[] heapSize;
+        private final int[] nextProposal;
+        private final int[] assignedCourse;
+        private final int[] assignedPosition;
+        private final int[] queue;
+        private int head;
+        private int queued;
+        private long proposals;
+        private long displacements;
+        private long rejections;
+        private SolveProgress progress;
+
+        private State(IndexedMatchingProblem problem) {
+            this.problem = problem;
+            int studentCount = problem.studentCount();
+            int courseCount = problem.courseCount();
+
+            // A course never admits more students than list it, whatever its capacity
+            int[] applicants = new int[courseCount];
+            for (int student : problem.declaredStudents()) {
+                for (int course : problem.studentPreferences(student)) {
+                    applicants[course]++;
+                }
+            }
+            heapOffset = new int[courseCount + 1];
+            long seats = 0;
+            for (int c = 0; c < courseCount; c++) {
+                seats += Math.min(problem.capacity(c), applicants[c]);
+                if (seats > Integer.MAX_VALUE - 8) {
+                    throw new IllegalArgumentException("Too many preference entries to solve: " + seats);
+                }
+                heapOffset[c + 1] = (int) seats;
+            }
+            heapStudent = new int[heapOffset[courseCount]];
+            heapRank = new int[heapStudent.length];
+            heapSize = new int[courseCount];
+
+            nextProposal = new int[studentCount];
+            assignedCourse = new int[studentCount];
+            assignedPosition = new int[studentCount];
+            Arrays.fill(assignedCourse, -1);
+            Arrays.fill(assignedPosition, -1);
+
+            // Every student is queued at most once at a time, so a ring buffer of studentCount suffices
+            queue = new int[Math.max(1, studentCount)];
+        }
+
+        private void enqueue(int student) {
+            queue[(head + queued) % queue.length] = student;
+            queued++;
+        }
+
+        private void propose() {
+            while (queued > 0) {
+                int student = queue[head];
+                head = head + 1 == queue.length ? 0 : head + 1;
+                queued--;
+
+                int[] preferences = problem.studentPreferences(student);
+                int[] ranks = problem.proposalRanks(student);
+
+                while (nextProposal[student] < preferences.length) {
+                    int position = nextProposal[student]++;
+                    proposals++;
+                    if ((proposals & SolveProgress.PUBLISH_MASK) == 0 && progress != null) {
+                        progress.proposals(proposals);
+                    }
+                    if (offer(student, preferences[position], position, ranks[position])) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Offers a seat to a student; the course's worst admit is displaced and queued if needed.
+         *
+         * @return whether the course accepted the student
+         */
+        private boolean offer(int student, int course, int position, int rank) {
+            int base = heapOffset[course];
+            int size = heapSize[course];
+
+            if (size < heapOffset[course + 1] - base) {
+                heapStudent[base + size] = student;
+                heapRank[base + size] = rank;
+                siftUp(heapStudent, heapRank, base, size);
+                heapSize[course] = size + 1;
+                assignedCourse[student] = course;
+                assignedPosition[student] = position;
+                return true;
+            }
+
+            if (prefers(rank, student, base)) {
+                int displaced = heapStudent[base];
+                heapStudent[base] = student;
+                heapRank[base] = rank;
+                siftDown(heapStudent, heapRank, base, 0, size);
+                assignedCourse[student] = course;
+                assignedPosition[student] = position;
+
+                assignedCourse[displaced] = -1;
+                assignedPosition[displaced] = -1;
+                enqueue(displaced);
+                displacements++;
+                return true;
+            }
+            rejections++;
+            return false;
+        }
+
+        /**
+         * Puts a student back on a previously held seat; if the course no longer has room
+         * for it, the student continues proposing below that course.
+         */
+        private void reinstate(int student, int course, int position) {
+            nextProposal[student] = position + 1;
+            if (!offer(student, course, position, problem.proposalRanks(student)[position])) {
+                enqueue(student);
+            }
+        }
+
+        /**
+         * Frees every student that forms a blocking pair with a course it prefers to its
+         * current assignment and queues it to propose again from the best such course.
+         *
+         * @return number of students reopened
+         */
+        private int reopenBlockingStudents() {
+            int reopened = 0;
+            for (int student : problem.declaredStudents()) {
+                int[] preferences = problem.studentPreferences(student);
+                int[] ranks = problem.proposalRanks(student);
+                int current = assignedCourse[student] >= 0 ? assignedPosition[student] : preferences.length;
+
+                for (int position = 0; position < current; position++) {
+                    int course = preferences[position];
+                    int base = heapOffset[course];
+                    boolean hasRoom = heapSize[course] < heapOffset[course + 1] - base;
+                    if (hasRoom || prefers(ranks[position], student, base)) {
+                        withdraw(student);
+                        nextProposal[student] = position;
+                        enqueue(student);
+                        reopened++;
+                        break;
+                    }
+                }
+            }
+            return reopened;
+        }
+
+        private void withdraw(int student) {
+            int course = assignedCourse[student];
+            if (course < 0) {
+                return;
+            }
+            int base = heapOffset[course];
+            int last = heapSize[course] - 1;
+            int index = 0;
+            while (heapStudent[base + index] != student) {
+                index++;
+            }
+            heapStudent[base + index] = heapStudent[base + last];
+            heapRank[base + index] = heapRank[base + last];
+            heapSize[course] = last;
+            if (index < last) {
+                siftUp(heapStudent, heapRank, base, index);
+                siftDown(heapStudent, heapRank, base, index, last);
+            }
+            assignedCourse[student] = -1;
+            assignedPosition[student] = -1;
+        }
+
+        /**
+         * Whether a course prefers {@code student}, at {@code rank}, to the worst admit of its heap at {@code base}.
+         */
+        private boolean prefers(int rank, int student, int base) {
+            return rank < heapRank[base] || (rank == heapRank[base] && student < heapStudent[base]);
+        }
+
+        private IndexedMatching toMatching() {
+            return new IndexedMatching(problem, assignedCourse, assignedPosition, heapSize,
+                    proposals, displacements, rejections);
+        }
+    }
+
+    /**
+     * Whether the admit at heap slot {@code a} is worse for the course than the one at {@code b}.
+     */
+    private static boolean worse(int[] student, int[] rank, int a, int b) {
+        return rank[a] > rank[b] || (rank[a] == rank[b] && student[a] > student[b]);
+    }
+
+    private static void siftUp(int[] student, int[] rank, int base, int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!worse(student, rank, base + index, base + parent)) {
+                return;
+            }
+            swap(student, rank, base + index, base + parent);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(int[] student, int[] rank, int base, int index, int size) {
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= size) {
+                return;
+            }
+            int right = left + 1;
+            int child = right < size && worse(student, rank, base + right, base + left) ? right : left;
+            if (!worse(student, rank, base + child, base + index)) {
+                return;
+            }
+            swap(student, rank, base + index, base + child);
+            index = child;
+        }
+    }
+
+    private static void swap(int[] student, int[] rank, int i, int j) {
+        int s = student[i];
+        student[i] = student[j];
+        student[j] = s;
+        int r = rank[i];
+        rank[i] = rank[j];
+        rank[j] = r;
+    }
+
+    /**
+     * Result of an indexed solve: the course (and position in the student's own
+     * list) each student ended up with, or -1 when unmatched.
+     */
+    public static final class IndexedMatching {
+
+        private final IndexedMatchingProblem problem;
+        private final int[] assignedCourse;
+        private final int[] assignedPosition;
+        private final int[] courseLoad;
+        private final long proposals;
+        private final long displacements;
+        private final long rejections;
+
+        private IndexedMatching(IndexedMatchingProblem problem, int[] assignedCourse,
+                                int[] assignedPosition, int[] courseLoad,
+                                long proposals, long displacements, long rejections) {
+            this.problem = problem;
+            this.assignedCourse = assignedCourse;
+            this.assignedPosition = assignedPosition;
+            this.courseLoad = courseLoad;
+            this.proposals = proposals;
+            this.displacements = displacements;
+            this.rejections = rejections;
+        }
+
+        public IndexedMatchingProblem problem() {
+            return problem;
+        }
+
+        public int assignedCourse(int student) {
+            return assignedCourse[student];
+        }
+
+        /**
+         * @return 1-based rank of the assigned course in the student's preferences, or 0 if unmatched
+         */
+        public int studentPreferenceRank(int student) {
+            return assignedPosition[student] + 1;
+        }
+
+        /**
+         * @return 1-based rank of the student in the assigned course's preferences, or 0 if unranked
+         */
+        public int coursePreferenceRank(int student) {
+            int position = assignedPosition[student];
+            if (position < 0) {
+                return 0;
+            }
+            int rank = problem.proposalRanks(student)[position];
+            return rank == IndexedMatchingProblem.UNRANKED ? 0 : rank;
+        }
+
+        public int courseLoad(int course) {
+            return courseLoad[course];
+        }
+
+        public long proposals() {
+            return proposals;
+        }
+
+        public long displacements() {
+            return displacements;
+        }
+
+        /**
+         * @return proposals turned down by a course that was full of students it ranks higher
+         */
+        public long rejections() {
+            return rejections;
+        }
+    }
+}
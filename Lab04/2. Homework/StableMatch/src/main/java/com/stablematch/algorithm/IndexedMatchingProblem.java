@@ -0,0 +1,741 @@
+package com.stablematch.algorithm;
+
+import com.stablematch.dto.StableMatchingRequestDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Stable matching problem with student and course IDs interned into dense
+ * integer indices and preferences stored in primitive arrays.
+ * <p>
+ * Besides the preference lists, the problem keeps an inverse rank table aligned
+ * with each student's preference list: {@code proposalRank[s][k]} is the
+ * (1-based) rank student {@code s} has in the list of the course at position
+ * {@code k} of its own preferences, or {@link #UNRANKED} if that course does not
+ * rank the student. This lets the solver compare two proposals to a course with
+ * two array reads and no hashing.
+ */
+public final class IndexedMatchingProblem {
+
+    /**
+     * Rank used for students that do not appear in a course's preference list; the course
+     * ranks them after every listed student, in the order they were declared.
+     */
+    public static final int UNRANKED = Integer.MAX_VALUE;
+
+    private final Map<String, Integer> studentIndex;
+    private final Map<String, Integer> courseIndex;
+    private final String[] studentIds;
+    private final String[] courseIds;
+    private final int[] declaredStudents;
+    private final int[] declaredCourses;
+    private final int[][] studentPreferences;
+    private final int[][] coursePreferences;
+    private final int[][] proposalRank;
+    private final int[] courseCapacities;
+    private final int defaultCapacity;
+
+    private static final int[] NO_PREFERENCES = new int[0];
+
+    private IndexedMatchingProblem(Map<String, Integer> studentIndex, Map<String, Integer> courseIndex,
+                                   String[] studentIds, String[] courseIds,
+                                   int[] declaredStudents, int[] declaredCourses,
+                                   int[][] studentPreferences, int[][] coursePreferences,
+                                   int[][] proposalRank, int[] courseCapacities, int defaultCapacity) {
+        this.studentIndex = studentIndex;
+        this.courseIndex = courseIndex;
+        this.studentIds = studentIds;
+        this.courseIds = courseIds;
+        this.declaredStudents = declaredStudents;
+        this.declaredCourses = declaredCourses;
+        this.studentPreferences = studentPreferences;
+        this.coursePreferences = coursePreferences;
+        this.proposalRank = proposalRank;
+        this.courseCapacities = courseCapacities;
+        this.defaultCapacity = defaultCapacity;
+    }
+
+    /**
+     * Interns a request DTO into an indexed problem.
+     *
+     * @param request the stable matching problem definition
+     * @param capacity the capacity of courses without a capacity of their own
+     * @return the indexed problem
+     * @throws IllegalArgumentException if the request is invalid
+     */
+    public static IndexedMatchingProblem fromRequest(StableMatchingRequestDTO request, int capacity) {
+        if (request.getStudents() == null || request.getStudents().isEmpty()) {
+            throw new IllegalArgumentException("Students list cannot be empty");
+        }
+        if (request.getCourses() == null || request.getCourses().isEmpty()) {
+            throw new IllegalArgumentException("Courses list cannot be empty");
+        }
+
+        Builder builder = builder(request.getStudents().size(), request.getCourses().size())
+                .capacity(capacity);
+        for (StableMatchingRequestDTO.StudentPreference sp : request.getStudents()) {
+            builder.addStudent(sp.getStudentId(), sp.getPreferences());
+        }
+        for (StableMatchingRequestDTO.CoursePreference cp : request.getCourses()) {
+            builder.addCourse(cp.getCourseId(), cp.getPreferences());
+            if (cp.getCapacity() != null) {
+                builder.courseCapacity(cp.getCourseId(), cp.getCapacity());
+            }
+        }
+        return builder.build();
+    }
+
+    public static Builder builder(int expectedStudents, int expectedCourses) {
+        return new Builder(expectedStudents, expectedCourses);
+    }
+
+    /**
+     * @return number of interned students, including students only referenced by courses
+     */
+    public int studentCount() {
+        return studentIds.length;
+    }
+
+    public int courseCount() {
+        return courseIds.length;
+    }
+
+    public String studentId(int student) {
+        return studentIds[student];
+    }
+
+    public String courseId(int course) {
+        return courseIds[course];
+    }
+
+    /**
+     * @return student indices in the order the students were declared in the problem
+     */
+    public int[] declaredStudents() {
+        return declaredStudents;
+    }
+
+    /**
+     * @return course indices in the order the courses were declared in the problem
+     */
+    public int[] declaredCourses() {
+        return declaredCourses;
+    }
+
+    public int[] studentPreferences(int student) {
+        return studentPreferences[student];
+    }
+
+    /**
+     * @return the students ranked by the course, best first (empty for undeclared courses)
+     */
+    public int[] coursePreferences(int course) {
+        return coursePreferences[course];
+    }
+
+    public int[] proposalRanks(int student) {
+        return proposalRank[student];
+    }
+
+    public int capacity(int course) {
+        int capacity = courseCapacities[course];
+        return capacity > 0 ? capacity : defaultCapacity;
+    }
+
+    /**
+     * @return the capacity declared for the course itself, or 0 if it uses the default
+     */
+    public int declaredCapacity(int course) {
+        return courseCapacities[course];
+    }
+
+    /**
+     * @return rough heap footprint of the problem and of a matching over it, in bytes
+     */
+    public long estimatedBytes() {
+        long entries = 0;
+        for (int s = 0; s < studentPreferences.length; s++) {
+            entries += 2L * studentPreferences[s].length;
+        }
+        for (int[] prefs : coursePreferences) {
+            entries += prefs.length;
+        }
+        // 4 bytes per int entry, plus per-ID string and array headers and the matching arrays
+        return entries * 4 + (studentIds.length + courseIds.length) * 96L + studentIds.length * 12L;
+    }
+
+    /**
+     * @return the capacity of courses without a capacity of their own
+     */
+    public int defaultCapacity() {
+        return defaultCapacity;
+    }
+
+    /**
+     * @return the index of a student ID, or -1 if it is not part of the problem
+     */
+    public int studentIndex(String studentId) {
+        return studentIndex.getOrDefault(studentId, -1);
+    }
+
+    /**
+     * Derives a changed problem without rebuilding it from scratch. Existing IDs keep
+     * their index and new IDs are appended, so a matching over this problem can be
+     * mapped onto the result index by index. Unchanged preference and rank arrays are
+     * shared; only the ranks of updated students, and of students an updated course
+     * ranked before or after the change, are recomputed.
+     *
+     * @param studentUpdates students to add, or whose preference list is replaced
+     * @param removedStudents IDs of students leaving the problem
+     * @param courseUpdates courses to add, or whose preference list is replaced
+     * @param capacityUpdates own capacity of updated courses; updated courses without an
+     *                        entry use the default capacity
+     * @param removedCourses IDs of courses leaving the problem
+     * @param capacity the capacity of courses without a capacity of their own
+     * @return the changed problem
+     * @throws IllegalArgumentException if the changed problem is invalid
+     */
+    public IndexedMatchingProblem derive(Map<String, List<String>> studentUpdates, Set<String> removedStudents,
+                                         Map<String, List<String>> courseUpdates,
+                                         Map<String, Integer> capacityUpdates, Set<String> removedCourses,
+                                         int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity per course must be at least 1");
+        }
+        IdTable students = new IdTable(studentIndex, studentIds);
+        IdTable courses = new IdTable(courseIndex, courseIds);
+
+        // Resolve the new lists first, which interns any new IDs
+        int[] updatedStudents = new int[studentUpdates.size()];
+        int[][] updatedStudentLists = new int[updatedStudents.length][];
+        int i = 0;
+        for (Map.Entry<String, List<String>> update : studentUpdates.entrySet()) {
+            updatedStudentLists[i] = courses.internAll(update.getKey(), "Student", update.getValue());
+            updatedStudents[i++] = students.intern(update.getKey());
+        }
+        int[] updatedCourses = new int[courseUpdates.size()];
+        int[][] updatedCourseLists = new int[updatedCourses.length][];
+        i = 0;
+        for (Map.Entry<String, List<String>> update : courseUpdates.entrySet()) {
+            updatedCourseLists[i] = students.internAll(update.getKey(), "Course", update.getValue());
+            updatedCourses[i++] = courses.intern(update.getKey());
+        }
+
+        int studentCount = students.size();
+        int courseCount = courses.size();
+        int[][] studentPrefs = withEmptyTail(studentPreferences, studentCount);
+        int[][] ranks = withEmptyTail(proposalRank, studentCount);
+        int[][] coursePrefs = withEmptyTail(coursePreferences, courseCount);
+
+        for (String id : removedStudents) {
+            int s = students.indexOf(id);
+            if (s >= 0) {
+                studentPrefs[s] = NO_PREFERENCES;
+                ranks[s] = NO_PREFERENCES;
+            }
+        }
+        boolean anyCourseRemoved = false;
+        for (String id : removedCourses) {
+            int c = courses.indexOf(id);
+            if (c >= 0 && coursePrefs[c].length > 0) {
+                coursePrefs[c] = NO_PREFERENCES;
+                anyCourseRemoved = true;
+            }
+        }
+
+        // Declared entities always have a non-empty list, so the list doubles as the declared flag
+        int[] newlyDeclaredStudents = new int[updatedStudents.length];
+        int newStudents = 0;
+        for (int u = 0; u < updatedStudents.length; u++) {
+            int s = updatedStudents[u];
+            if (studentPrefs[s].length == 0) {
+                newlyDeclaredStudents[newStudents++] = s;
+            }
+            studentPrefs[s] = updatedStudentLists[u];
+            ranks[s] = unrankedLike(updatedStudentLists[u]);
+        }
+        int[] newlyDeclaredCourses = new int[updatedCourses.length];
+        int newCourses = 0;
+        for (int u = 0; u < updatedCourses.length; u++) {
+            int c = updatedCourses[u];
+            if (coursePrefs[c].length == 0) {
+                newlyDeclaredCourses[newCourses++] = c;
+            }
+            coursePrefs[c] = updatedCourseLists[u];
+        }
+
+        int[] declared = declaredAfterChanges(declaredStudents, studentPrefs, newlyDeclaredStudents, newStudents);
+        int[] declaredCourseIndices = declaredAfterChanges(declaredCourses, coursePrefs, newlyDeclaredCourses, newCourses);
+        if (declared.length == 0) {
+            throw new IllegalArgumentException("Students list cannot be empty");
+        }
+        if (declaredCourseIndices.length == 0) {
+            throw new IllegalArgumentException("Courses list cannot be empty");
+        }
+        String[] courseIdTable = courses.ids();
+        if (anyCourseRemoved) {
+            for (int s : declared) {
+                requireDeclaredCourses(studentPrefs[s], coursePrefs, courseIdTable);
+            }
+        } else {
+            for (int s : updatedStudents) {
+                requireDeclaredCourses(studentPrefs[s], coursePrefs, courseIdTable);
+            }
+        }
+
+        // Updated courses: re-rank the unchanged students they listed before or list now
+        boolean[] updated = new boolean[studentCount];
+        for (int s : updatedStudents) {
+            updated[s] = true;
+        }
+        int[] position = new int[studentCount];
+        Arrays.fill(position, -1);
+        for (int course : updatedCourses) {
+            int[] before = course < coursePreferences.length ? coursePreferences[course] : NO_PREFERENCES;
+            int[] after = coursePrefs[course];
+            markForReranking(before, course, studentPrefs, ranks, updated, position);
+            markForReranking(after, course, studentPrefs, ranks, updated, position);
+            for (int r = 0; r < after.length; r++) {
+                int s = after[r];
+                int k = position[s];
+                if (k >= 0 && ranks[s][k] == UNRANKED) {
+                    ranks[s][k] = r + 1;
+                }
+            }
+            for (int s : before) {
+                position[s] = -1;
+            }
+            for (int s : after) {
+                position[s] = -1;
+            }
+        }
+        rankStudents(updatedStudents, studentPrefs, coursePrefs, ranks);
+
+        int[] capacities = Arrays.copyOf(courseCapacities, courseCount);
+        for (int u = 0; u < updatedCourses.length; u++) {
+            String id = courseIdTable[updatedCourses[u]];
+            Integer own = capacityUpdates.get(id);
+            capacities[updatedCourses[u]] = own != null ? requireCapacity(id, own) : 0;
+        }
+
+        return new IndexedMatchingProblem(students.index(), courses.index(), students.ids(), courseIdTable,
+                declared, declaredCourseIndices, studentPrefs, coursePrefs, ranks, capacities, capacity);
+    }
+
+    /**
+     * Resets the rank a course gives to each listed, unchanged student so it can be recomputed,
+     * recording the position of the course in the student's list. Rank arrays shared with the
+     * original problem are copied before they are modified.
+     */
+    private void markForReranking(int[] listed, int course, int[][] studentPrefs, int[][] ranks,
+                                  boolean[] updated, int[] position) {
+        for (int s : listed) {
+            if (updated[s] || position[s] >= 0) {
+                continue;
+            }
+            int[] prefs = studentPrefs[s];
+            for (int k = 0; k < prefs.length; k++) {
+                if (prefs[k] == course) {
+                    if (s < proposalRank.length && ranks[s] == proposalRank[s]) {
+                        ranks[s] = ranks[s].clone();
+                    }
+                    ranks[s][k] = UNRANKED;
+                    position[s] = k;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Fills the rank tables of the given students, which must hold {@link #UNRANKED} and be
+     * aligned with their preference lists: the proposals are inverted per course, then each
+     * course list is walked once, resolving ranks through a scratch student -> position table.
+     */
+    private static void rankStudents(int[] students, int[][] studentPrefs, int[][] coursePrefs, int[][] ranks) {
+        int courseCount = coursePrefs.length;
+        int[] proposalsPerCourse = new int[courseCount + 1];
+        for (int s : students) {
+            for (int course : studentPrefs[s]) {
+                proposalsPerCourse[course + 1]++;
+            }
+        }
+        for (int c = 0; c < courseCount; c++) {
+            proposalsPerCourse[c + 1] += proposalsPerCourse[c];
+        }
+        int[] fill = Arrays.copyOf(proposalsPerCourse, courseCount);
+        int[] proposer = new int[proposalsPerCourse[courseCount]];
+        int[] proposerPosition = new int[proposer.length];
+        for (int s : students) {
+            int[] prefs = studentPrefs[s];
+            for (int k = 0; k < prefs.length; k++) {
+                int slot = fill[prefs[k]]++;
+                proposer[slot] = s;
+                proposerPosition[slot] = k;
+            }
+        }
+
+        int[] position = new int[studentPrefs.length];
+        Arrays.fill(position, -1);
+        for (int c = 0; c < courseCount; c++) {
+            int from = proposalsPerCourse[c];
+            int to = proposalsPerCourse[c + 1];
+            if (from == to) {
+                continue;
+            }
+            for (int i = to - 1; i >= from; i--) {
+                position[proposer[i]] = proposerPosition[i];
+            }
+            int[] ranking = coursePrefs[c];
+            for (int r = 0; r < ranking.length; r++) {
+                int s = ranking[r];
+                int k = position[s];
+                if (k >= 0 && ranks[s][k] == UNRANKED) {
+                    ranks[s][k] = r + 1;
+                }
+            }
+            for (int i = from; i < to; i++) {
+                position[proposer[i]] = -1;
+            }
+        }
+    }
+
+    private static void requireDeclaredCourses(int[] prefs, int[][] coursePrefs, String[] courseIds) {
+        for (int course : prefs) {
+            if (coursePrefs[course].length == 0) {
+                throw new IllegalArgumentException("Unknown course referenced in student preferences: "
+                        + courseIds[course]);
+            }
+        }
+    }
+
+    private static int requireCapacity(String courseId, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity of course " + courseId + " must be at least 1");
+        }
+        return capacity;
+    }
+
+    private static int[] unrankedLike(int[] prefs) {
+        int[] ranks = new int[prefs.length];
+        Arrays.fill(ranks, UNRANKED);
+        return ranks;
+    }
+
+    private static int[][] withEmptyTail(int[][] arrays, int length) {
+        int[][] copy = Arrays.copyOf(arrays, length);
+        Arrays.fill(copy, arrays.length, length, NO_PREFERENCES);
+        return copy;
+    }
+
+    /**
+     * Keeps the previously declared entities that still have a list, in order, followed by
+     * the newly declared ones.
+     */
+    private static int[] declaredAfterChanges(int[] previous, int[][] lists, int[] added, int addedCount) {
+        int[] declared = new int[previous.length + addedCount];
+        int count = 0;
+        for (int index : previous) {
+            if (lists[index].length > 0) {
+                declared[count++] = index;
+            }
+        }
+        System.arraycopy(added, 0, declared, count, addedCount);
+        return Arrays.copyOf(declared, count + addedCount);
+    }
+
+    /**
+     * Interning table for {@link #derive}: looks IDs up in the original index and copies
+     * it only when a new ID has to be added.
+     */
+    private static final class IdTable {
+
+        private final Map<String, Integer> original;
+        private final String[] originalIds;
+        private final List<String> added = new ArrayList<>();
+        private Map<String, Integer> index;
+
+        private IdTable(Map<String, Integer> original, String[] originalIds) {
+            this.original = original;
+            this.originalIds = originalIds;
+            this.index = original;
+        }
+
+        private int indexOf(String id) {
+            return index.getOrDefault(id, -1);
+        }
+
+        private int intern(String id) {
+            Integer existing = index.get(id);
+            if (existing != null) {
+                return existing;
+            }
+            if (index == original) {
+                index = new HashMap<>(original);
+            }
+            int created = originalIds.length + added.size();
+            index.put(id, created);
+            added.add(id);
+            return created;
+        }
+
+        /**
+         * Interns the referenced IDs of a declared entity's preference list.
+         */
+        private int[] internAll(String ownerId, String kind, List<String> references) {
+            if (ownerId == null || ownerId.isEmpty()) {
+                throw new IllegalArgumentException(kind + " ID cannot be null or empty");
+            }
+            if (references == null || references.isEmpty()) {
+                throw new IllegalArgumentException(kind + " " + ownerId + " must have at least one preference");
+            }
+            int[] indices = new int[references.size()];
+            for (int k = 0; k < indices.length; k++) {
+                indices[k] = intern(references.get(k));
+            }
+            return indices;
+        }
+
+        private int size() {
+            return originalIds.length + added.size();
+        }
+
+        private Map<String, Integer> index() {
+            return index;
+        }
+
+        private String[] ids() {
+            if (added.isEmpty()) {
+                return originalIds;
+            }
+            String[] ids = Arrays.copyOf(originalIds, size());
+            for (int i = 0; i < added.size(); i++) {
+                ids[originalIds.length + i] = added.get(i);
+            }
+            return ids;
+        }
+    }
+
+    /**
+     * Incrementally builds an {@link IndexedMatchingProblem}. IDs are interned on
+     * first sight, so courses may reference students before they are declared and
+     * vice versa; only declared students take part in the matching.
+     */
+    public static final class Builder {
+
+        private final Map<String, Integer> studentIndex;
+        private final Map<String, Integer> courseIndex;
+        private final List<String> studentIds;
+        private final List<String> courseIds;
+        private final List<int[]> studentPreferences;
+        private final List<int[]> coursePreferences;
+        private int[] declaredStudents;
+        private int declaredStudentCount;
+        private int[] declaredCourses;
+        private int declaredCourseCount;
+        private final Map<Integer, Integer> courseCapacities = new HashMap<>();
+        private int capacity = 1;
+
+        private Builder(int expectedStudents, int expectedCourses) {
+            this.studentIndex = new HashMap<>(Math.max(16, expectedStudents * 2));
+            this.courseIndex = new HashMap<>(Math.max(16, expectedCourses * 2));
+            this.studentIds = new ArrayList<>(expectedStudents);
+            this.courseIds = new ArrayList<>(expectedCourses);
+            this.studentPreferences = new ArrayList<>(expectedStudents);
+            this.coursePreferences = new ArrayList<>(expectedCourses);
+            this.declaredStudents = new int[Math.max(16, expectedStudents)];
+            this.declaredCourses = new int[Math.max(16, expectedCourses)];
+        }
+
+        public Builder capacity(int capacity) {
+            if (capacity < 1) {
+                throw new IllegalArgumentException("Capacity per course must be at least 1");
+            }
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * Gives a course its own capacity instead of the default one.
+         */
+        public Builder courseCapacity(String courseId, int capacity) {
+            requireId(courseId, "Course");
+            courseCapacities.put(internCourse(courseId), requireCapacity(courseId, capacity));
+            return this;
+        }
+
+        /**
+         * Returns the index of a student ID, interning it if it was not seen before.
+         */
+        public int internStudent(String studentId) {
+            Integer index = studentIndex.get(studentId);
+            if (index != null) {
+                return index;
+            }
+            int created = studentIds.size();
+            studentIndex.put(studentId, created);
+            studentIds.add(studentId);
+            studentPreferences.add(null);
+            return created;
+        }
+
+        /**
+         * Returns the index of a course ID, interning it if it was not seen before.
+         */
+        public int internCourse(String courseId) {
+            Integer index = courseIndex.get(courseId);
+            if (index != null) {
+                return index;
+            }
+            int created = courseIds.size();
+            courseIndex.put(courseId, created);
+            courseIds.add(courseId);
+            coursePreferences.add(null);
+            return created;
+        }
+
+        public Builder addStudent(String studentId, List<String> preferences) {
+            requireId(studentId, "Student");
+            if (preferences == null || preferences.isEmpty()) {
+                throw new IllegalArgumentException("Student " + studentId +
+                        " must have at least one preference");
+            }
+            int[] courses = new int[preferences.size()];
+            for (int i = 0; i < courses.length; i++) {
+                courses[i] = internCourse(preferences.get(i));
+            }
+            return declareStudent(studentId, courses);
+        }
+
+        /**
+         * Declares a student whose preferences are already interned course indices.
+         * The first {@code length} entries of the array are copied.
+         */
+        public Builder addStudent(String studentId, int[] coursePreferences, int length) {
+            requireId(studentId, "Student");
+            if (length == 0) {
+                throw new IllegalArgumentException("Student " + studentId +
+                        " must have at least one preference");
+            }
+            return declareStudent(studentId, Arrays.copyOf(coursePreferences, length));
+        }
+
+        public Builder addCourse(String courseId, List<String> preferences) {
+            requireId(courseId, "Course");
+            if (preferences == null || preferences.isEmpty()) {
+                throw new IllegalArgumentException("Course " + courseId +
+                        " must have at least one preference");
+            }
+            int[] students = new int[preferences.size()];
+            for (int i = 0; i < students.length; i++) {
+                students[i] = internStudent(preferences.get(i));
+            }
+            return declareCourse(courseId, students);
+        }
+
+        /**
+         * Declares a course whose preferences are already interned student indices.
+         * The first {@code length} entries of the array are copied.
+         */
+        public Builder addCourse(String courseId, int[] studentPreferences, int length) {
+            requireId(courseId, "Course");
+            if (length == 0) {
+                throw new IllegalArgumentException("Course " + courseId +
+                        " must have at least one preference");
+            }
+            return declareCourse(courseId, Arrays.copyOf(studentPreferences, length));
+        }
+
+        /**
+         * Validates the declarations and computes the inverse rank tables.
+         *
+         * @throws IllegalArgumentException if the problem is empty or a student
+         *                                  references an undeclared course
+         */
+        public IndexedMatchingProblem build() {
+            if (declaredStudentCount == 0) {
+                throw new IllegalArgumentException("Students list cannot be empty");
+            }
+            if (declaredCourseCount == 0) {
+                throw new IllegalArgumentException("Courses list cannot be empty");
+            }
+
+            int studentCount = studentIds.size();
+            int courseCount = courseIds.size();
+            int[][] studentPrefs = new int[studentCount][];
+            for (int s = 0; s < studentCount; s++) {
+                int[] prefs = studentPreferences.get(s);
+                studentPrefs[s] = prefs != null ? prefs : NO_PREFERENCES;
+            }
+
+            int[][] coursePrefs = new int[courseCount][];
+            for (int c = 0; c < courseCount; c++) {
+                int[] prefs = coursePreferences.get(c);
+                coursePrefs[c] = prefs != null ? prefs : NO_PREFERENCES;
+            }
+
+            String[] courseIdTable = courseIds.toArray(new String[0]);
+            int[] allStudents = new int[studentCount];
+            int[][] proposalRank = new int[studentCount][];
+            for (int s = 0; s < studentCount; s++) {
+                requireDeclaredCourses(studentPrefs[s], coursePrefs, courseIdTable);
+                allStudents[s] = s;
+                proposalRank[s] = unrankedLike(studentPrefs[s]);
+            }
+            rankStudents(allStudents, studentPrefs, coursePrefs, proposalRank);
+
+            int[] capacities = new int[courseCount];
+            courseCapacities.forEach((course, own) -> capacities[course] = own);
+
+            return new IndexedMatchingProblem(
+                    studentIndex,
+                    courseIndex,
+                    studentIds.toArray(new String[0]),
+                    courseIdTable,
+                    Arrays.copyOf(declaredStudents, declaredStudentCount),
+                    Arrays.copyOf(declaredCourses, declaredCourseCount),
+                    studentPrefs,
+                    coursePrefs,
+                    proposalRank,
+                    capacities,
+                    capacity);
+        }
+
+        private Builder declareStudent(String studentId, int[] courses) {
+            int index = internStudent(studentId);
+            if (studentPreferences.get(index) != null) {
+                throw new IllegalArgumentException("Duplicate student ID: " + studentId);
+            }
+            studentPreferences.set(index, courses);
+            if (declaredStudentCount == declaredStudents.length) {
+                declaredStudents = Arrays.copyOf(declaredStudents, declaredStudentCount * 2);
+            }
+            declaredStudents[declaredStudentCount++] = index;
+            return this;
+        }
+
+        private Builder declareCourse(String courseId, int[] students) {
+            int index = internCourse(courseId);
+            if (coursePreferences.get(index) != null) {
+                throw new IllegalArgumentException("Duplicate course ID: " + courseId);
+            }
+            coursePreferences.set(index, students);
+            if (declaredCourseCount == declaredCourses.length) {
+                declaredCourses = Arrays.copyOf(declaredCourses, declaredCourseCount * 2);
+            }
+            declaredCourses[declaredCourseCount++] = index;
+            return this;
+        }
+
+        private static void requireId(String id, String kind) {
+            if (id == null || id.isEmpty()) {
+                throw new IllegalArgumentException(kind + " ID cannot be null or empty");
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.stablematch.algorithm;
+
+import java.util.Locale;
+
+/**
+ * Solver cores available behind the stable matching API.
+ */
+public enum MatchingEngine {
+
+    /**
+     * Original implementation working directly on string-keyed maps.
+     */
+    LEGACY,
+
+    /**
+     * Implementation working on interned integer indices and primitive arrays.
+     */
+    INDEXED;
+
+    /**
+     * Resolves an engine from its (case-insensitive) name.
+     *
+     * @param name the engine name, may be null or blank
+     * @param defaultEngine engine returned when no name is given
+     * @return the matching engine
+     * @throws IllegalArgumentException if the name does not denote a known engine
+     */
+    public static MatchingEngine from(String name, MatchingEngine defaultEngine) {
+        if (name == null || name.isBlank()) {
+            return defaultEngine;
+        }
+        try {
+            return MatchingEngine.valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown matching engine: " + name);
+        }
+    }
+}
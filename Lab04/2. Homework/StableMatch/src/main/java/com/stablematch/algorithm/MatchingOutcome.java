@@ -0,0 +1,36 @@
+package com.stablematch.algorithm;
+
+import com.stablematch.dto.StableMatchingResponseDTO;
+
+/**
+ * Response of a solve together with the indexed matching it was built from, which
+ * is kept so the matching can later be repaired incrementally.
+ */
+public final class MatchingOutcome {
+
+    private final StableMatchingResponseDTO response;
+    private final IndexedGaleShapley.IndexedMatching matching;
+
+    MatchingOutcome(StableMatchingResponseDTO response, IndexedGaleShapley.IndexedMatching matching) {
+        this.response = response;
+        this.matching = matching;
+    }
+
+    public StableMatchingResponseDTO response() {
+        return response;
+    }
+
+    /**
+     * @return the indexed matching, or {@code null} for failed or legacy-engine solves
+     */
+    public IndexedGaleShapley.IndexedMatching matching() {
+        return matching;
+    }
+
+    /**
+     * @return an outcome with the same indexed matching and a different rendering of it
+     */
+    public MatchingOutcome withResponse(StableMatchingResponseDTO response) {
+        return new MatchingOutcome(response, matching);
+    }
+}
@@ -0,0 +1,197 @@
+package com.stablematch.algorithm;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fine-grained solver metrics: time per phase, proposal/displacement/rejection
+ * counts, problem size and heap allocated per solve, each tagged by engine.
+ * <p>
+ * A {@link Trace} is filled in on the solving thread with a handful of
+ * {@code System.nanoTime()} reads and plain fields, and recorded once at the end,
+ * so the proposal loop itself carries no meter updates.
+ */
+final class SolveMetrics {
+
+    /**
+     * Solve phases. For the indexed engine validation happens while interning and
+     * is counted under {@link #INDEX}.
+     */
+    enum Phase {
+        VALIDATE, INDEX, PROPOSE, RESPOND
+    }
+
+    private final Map<MatchingEngine, EngineMeters> meters = new EnumMap<>(MatchingEngine.class);
+    private final com.sun.management.ThreadMXBean threadBean;
+
+    SolveMetrics(MeterRegistry registry) {
+        for (MatchingEngine engine : MatchingEngine.values()) {
+            meters.put(engine, new EngineMeters(registry, engine));
+        }
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        this.threadBean = bean instanceof com.sun.management.ThreadMXBean sunBean
+                && sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()
+                ? sunBean : null;
+    }
+
+    Trace start(MatchingEngine engine, SolveProgress progress) {
+        return new Trace(engine, allocatedBytes(), progress != null ? progress : new SolveProgress());
+    }
+
+    void record(Trace trace) {
+        trace.enter(null);
+        EngineMeters engineMeters = meters.get(trace.engine);
+        for (Phase phase : Phase.values()) {
+            if (trace.entered[phase.ordinal()]) {
+                engineMeters.phases.get(phase).record(trace.phaseNanos[phase.ordinal()], TimeUnit.NANOSECONDS);
+            }
+        }
+        if (trace.students > 0) {
+            engineMeters.students.record(trace.students);
+            engineMeters.courses.record(trace.courses);
+            engineMeters.preferenceLength.record((double) trace.preferenceEntries / trace.students);
+        }
+        if (trace.counted) {
+            engineMeters.proposals.record(trace.proposals);
+            engineMeters.displacements.record(trace.displacements);
+            engineMeters.rejections.record(trace.rejections);
+        }
+        long allocated = allocatedBytes();
+        if (allocated >= 0 && trace.allocatedAtStart >= 0) {
+            engineMeters.allocated.record(allocated - trace.allocatedAtStart);
+        }
+    }
+
+    private long allocatedBytes() {
+        return threadBean != null ? threadBean.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+
+    /**
+     * Per-solve measurements, confined to the solving thread.
+     */
+    static final class Trace {
+
+        private final MatchingEngine engine;
+        private final long allocatedAtStart;
+        private final SolveProgress progress;
+        private final long[] phaseNanos = new long[Phase.values().length];
+        private final boolean[] entered = new boolean[Phase.values().length];
+        private Phase current;
+        private long since;
+        private int students;
+        private int courses;
+        private long preferenceEntries;
+        private boolean counted;
+        private long proposals;
+        private long displacements;
+        private long rejections;
+
+        private Trace(MatchingEngine engine, long allocatedAtStart, SolveProgress progress) {
+            this.engine = engine;
+            this.allocatedAtStart = allocatedAtStart;
+            this.progress = progress;
+        }
+
+        SolveProgress progress() {
+            return progress;
+        }
+
+        /**
+         * Ends the current phase, if any, and starts the given one.
+         */
+        void enter(Phase phase) {
+            long now = System.nanoTime();
+            if (current != null) {
+                phaseNanos[current.ordinal()] += now - since;
+            }
+            current = phase;
+            since = now;
+            if (phase != null) {
+                entered[phase.ordinal()] = true;
+                progress.phase(phase);
+            }
+        }
+
+        void problemSize(int students, int courses, long preferenceEntries) {
+            this.students = students;
+            this.courses = courses;
+            this.preferenceEntries = preferenceEntries;
+            progress.preferenceEntries(preferenceEntries);
+        }
+
+        void problemSize(IndexedMatchingProblem problem) {
+            long entries = 0;
+            for (int student : problem.declaredStudents()) {
+                entries += problem.studentPreferences(student).length;
+            }
+            problemSize(problem.declaredStudents().length, problem.declaredCourses().length, entries);
+        }
+
+        void counts(long proposals, long displacements, long rejections) {
+            this.counted = true;
+            this.proposals = proposals;
+            this.displacements = displacements;
+            this.rejections = rejections;
+            progress.proposals(proposals);
+        }
+
+        void counts(IndexedGaleShapley.IndexedMatching matching) {
+            counts(matching.proposals(), matching.displacements(), matching.rejections());
+        }
+    }
+
+    private static final class EngineMeters {
+
+        private final Map<Phase, Timer> phases = new EnumMap<>(Phase.class);
+        private final DistributionSummary proposals;
+        private final DistributionSummary displacements;
+        private final DistributionSummary rejections;
+        private final DistributionSummary students;
+        private final DistributionSummary courses;
+        private final DistributionSummary preferenceLength;
+        private final DistributionSummary allocated;
+
+        private EngineMeters(MeterRegistry registry, MatchingEngine engine) {
+            String tag = engine.name().toLowerCase(Locale.ROOT);
+            for (Phase phase : Phase.values()) {
+                phases.put(phase, Timer.builder("stablematch.solve.phase.duration")
+                        .description("Time spent in one phase of a stable matching solve")
+                        .tag("engine", tag)
+                        .tag("phase", phase.name().toLowerCase(Locale.ROOT))
+                        .publishPercentileHistogram(true)
+                        .register(registry));
+            }
+            proposals = summary(registry, "stablematch.solve.proposals", tag,
+                    "Proposals made by students per solve", null);
+            displacements = summary(registry, "stablematch.solve.displacements", tag,
+                    "Admitted students displaced by a preferred proposer per solve", null);
+            rejections = summary(registry, "stablematch.solve.rejections", tag,
+                    "Proposals turned down by a full course per solve", null);
+            students = summary(registry, "stablematch.problem.students", tag,
+                    "Students per solved problem", null);
+            courses = summary(registry, "stablematch.problem.courses", tag,
+                    "Courses per solved problem", null);
+            preferenceLength = summary(registry, "stablematch.problem.preference.length", tag,
+                    "Mean student preference list length per solved problem", null);
+            allocated = summary(registry, "stablematch.solve.allocated", tag,
+                    "Heap allocated by the solving thread per solve", "bytes");
+        }
+
+        private static DistributionSummary summary(MeterRegistry registry, String name, String engine,
+                                                   String description, String baseUnit) {
+            return DistributionSummary.builder(name)
+                    .description(description)
+                    .baseUnit(baseUnit)
+                    .tag("engine", engine)
+                    .publishPercentileHistogram(true)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.stablematch.algorithm;
+
+import java.util.Locale;
+
+/**
+ * Progress of a running solve: its current phase and the proposals made so far.
+ * <p>
+ * Written by the solving thread and readable from any other. Proposals are published
+ * every few thousand proposals rather than on each one. Every student proposes to each
+ * course on its list at most once, so the number of preference entries is an upper
+ * bound on the proposals of a full solve.
+ */
+public final class SolveProgress {
+
+    /**
+     * Proposals between two updates of {@link #proposals()}; a power of two minus one.
+     */
+    static final long PUBLISH_MASK = (1 << 12) - 1;
+
+    private volatile String phase;
+    private volatile long preferenceEntries;
+    private volatile long proposals;
+
+    /**
+     * @return the current phase (validate, index, propose or respond), or null before the solve starts
+     */
+    public String phase() {
+        return phase;
+    }
+
+    /**
+     * @return preference entries of the problem, or 0 until it has been indexed
+     */
+    public long preferenceEntries() {
+        return preferenceEntries;
+    }
+
+    /**
+     * @return proposals made so far
+     */
+    public long proposals() {
+        return proposals;
+    }
+
+    void phase(SolveMetrics.Phase phase) {
+        this.phase = phase != null ? phase.name().toLowerCase(Locale.ROOT) : null;
+    }
+
+    void preferenceEntries(long preferenceEntries) {
+        this.preferenceEntries = preferenceEntries;
+    }
+
+    void proposals(long proposals) {
+        this.proposals = proposals;
+    }
+}
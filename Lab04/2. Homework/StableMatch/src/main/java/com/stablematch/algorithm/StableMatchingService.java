@@ -1,13 +1,20 @@
 package com.stablematch.algorithm;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.stablematch.dto.MatchingDeltaDTO;
 import com.stablematch.dto.StableMatchingRequestDTO;
 import com.stablematch.dto.StableMatchingResponseDTO;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.InputStream;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -22,9 +29,19 @@ public class StableMatchingService {
     private final MeterRegistry meterRegistry;
     private final Counter stableMatchInvocations;
     private final Timer stableMatchTimer;
+    private final SolveMetrics solveMetrics;
+    private final MatchingEngine defaultEngine;
+    private final JsonFactory jsonFactory = new JsonFactory();
 
     public StableMatchingService(MeterRegistry meterRegistry) {
+        this(meterRegistry, MatchingEngine.INDEXED.name());
+    }
+
+    @Autowired
+    public StableMatchingService(MeterRegistry meterRegistry,
+                                 @Value("${stablematch.engine:indexed}") String defaultEngine) {
         this.meterRegistry = meterRegistry;
+        this.defaultEngine = MatchingEngine.from(defaultEngine, MatchingEngine.INDEXED);
         this.stableMatchInvocations = Counter.builder("stablematch.solve.invocations")
                 .description("Number of times the stable matching algorithm is invoked")
                 .register(meterRegistry);
@@ -32,153 +49,390 @@ public class StableMatchingService {
                 .description("Duration of stable matching algorithm execution")
                 .publishPercentileHistogram(true)
                 .register(meterRegistry);
+        this.solveMetrics = new SolveMetrics(meterRegistry);
+    }
+
+    public MatchingEngine getDefaultEngine() {
+        return defaultEngine;
+    }
+
+    /**
+     * Solves the stable matching problem with the configured default engine.
+     *
+     * @param request the stable matching problem definition
+     * @return the solution with student-to-course assignments
+     */
+    public StableMatchingResponseDTO solveStableMatching(StableMatchingRequestDTO request) {
+        return solveStableMatching(request, defaultEngine);
     }
 
     /**
      * Solves the stable matching problem using a variant of the Gale-Shapley algorithm
      * optimized for many-to-one matching (courses can accept multiple students).
+     * Both engines produce the same student-optimal assignments.
      *
      * @param request the stable matching problem definition
+     * @param engine the solver core to use
      * @return the solution with student-to-course assignments
      */
-    public StableMatchingResponseDTO solveStableMatching(StableMatchingRequestDTO request) {
-        long startTime = System.currentTimeMillis();
-        Timer.Sample timerSample = Timer.start(meterRegistry);
-        stableMatchInvocations.increment();
+    public StableMatchingResponseDTO solveStableMatching(StableMatchingRequestDTO request,
+                                                         MatchingEngine engine) {
+        return solve(request, engine).response();
+    }
+
+    /**
+     * Same as {@link #solveStableMatching(StableMatchingRequestDTO, MatchingEngine)}, also
+     * returning the indexed matching so it can be repaired later with {@link #rematch}.
+     *
+     * @param request the stable matching problem definition
+     * @param engine the solver core to use
+     * @return the solution; the indexed matching is absent for the legacy engine
+     */
+    public MatchingOutcome solve(StableMatchingRequestDTO request, MatchingEngine engine) {
+        return solve(request, engine, null);
+    }
 
-        log.info("Starting stable matching: students={}, courses={}, capacityPerCourse={}",
+    /**
+     * Same as {@link #solve(StableMatchingRequestDTO, MatchingEngine)}, reporting the phase
+     * and the proposals made so far to {@code progress} while it runs.
+     *
+     * @param progress receives the progress of the solve; may be null
+     */
+    public MatchingOutcome solve(StableMatchingRequestDTO request, MatchingEngine engine,
+                                 SolveProgress progress) {
+        log.info("Starting stable matching: engine={}, students={}, courses={}, capacityPerCourse={}",
+                engine,
                 request.getStudents() != null ? request.getStudents().size() : 0,
                 request.getCourses() != null ? request.getCourses().size() : 0,
                 request.getCapacityPerCourse());
 
-        try {
-            // Validate input
-            validateRequest(request);
-
+        return timedSolve(engine, progress, (startTime, trace) -> {
             // Determine course capacity
             int capacity = request.getCapacityPerCourse() != null ? 
                     request.getCapacityPerCourse() : 1;
 
-            // Initialize data structures
-            Map<String, List<String>> studentPreferences = buildStudentPreferenceMap(request);
-            Map<String, List<String>> coursePreferences = buildCoursePreferenceMap(request);
-            Map<String, Integer> courseRankings = buildCourseRankings(coursePreferences);
-
-            // Run the matching algorithm
-            Map<String, List<String>> courseAssignments = new HashMap<>();
-            for (StableMatchingRequestDTO.CoursePreference course : request.getCourses()) {
-                courseAssignments.put(course.getCourseId(), new ArrayList<>());
-            }
-
-            Queue<String> freeStudents = new LinkedList<>(
-                    request.getStudents().stream()
-                            .map(StableMatchingRequestDTO.StudentPreference::getStudentId)
-                            .collect(Collectors.toList())
-            );
-
-            while (!freeStudents.isEmpty()) {
-                String student = freeStudents.poll();
-                List<String> preferences = studentPreferences.get(student);
+            return engine == MatchingEngine.LEGACY
+                    ? new MatchingOutcome(solveWithStringKeys(request, capacity, startTime, trace), null)
+                    : solveWithIndexedEngine(request, capacity, startTime, trace);
+        });
+    }
 
-                for (String course : preferences) {
-                    List<String> courseStudents = courseAssignments.get(course);
+    /**
+     * Solves a stable matching problem read directly from a JSON payload with the
+     * request shape. IDs are interned while the payload is tokenized, so no request
+     * DTO graph is ever built; the indexed engine is always used.
+     *
+     * @param json the request payload
+     * @param expectedStudents sizing hint for the intern tables (0 if unknown)
+     * @param expectedCourses sizing hint for the intern tables (0 if unknown)
+     * @return the solution with student-to-course assignments
+     */
+    public StableMatchingResponseDTO solveStableMatching(InputStream json, int expectedStudents,
+                                                         int expectedCourses) {
+        return solve(json, expectedStudents, expectedCourses).response();
+    }
 
-                    if (courseStudents.size() < capacity) {
-                        // Course has space, assign student
-                        courseStudents.add(student);
-                        break;
-                    } else {
-                        // Course is full, try to replace weakest match
-                        String worstStudentInCourse = findWorstMatchInCourse(
-                                courseStudents, course, courseRankings
-                        );
-
-                        String worst = courseStudents.get(courseStudents.size() - 1);
-                        int worstRank = courseRankings.getOrDefault(
-                                course + "_" + worst, 
-                                Integer.MAX_VALUE
-                        );
-                        int newRank = courseRankings.getOrDefault(
-                                course + "_" + student, 
-                                Integer.MAX_VALUE
-                        );
-
-                        if (newRank < worstRank) {
-                            courseStudents.remove(worst);
-                            courseStudents.add(student);
-                            freeStudents.offer(worst);
-                            break;
-                        }
-                    }
-                }
+    /**
+     * Same as {@link #solveStableMatching(InputStream, int, int)}, also returning the
+     * indexed matching so it can be repaired later with {@link #rematch}.
+     */
+    public MatchingOutcome solve(InputStream json, int expectedStudents, int expectedCourses) {
+        log.info("Starting streamed stable matching");
+
+        return timedSolve(MatchingEngine.INDEXED, null, (startTime, trace) -> {
+            trace.enter(SolveMetrics.Phase.INDEX);
+            IndexedMatchingProblem problem;
+            try (JsonParser parser = jsonFactory.createParser(json)) {
+                problem = StreamingRequestReader.read(parser, expectedStudents, expectedCourses);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Malformed request: " + e.getOriginalMessage(), e);
             }
+            log.info("Streamed stable matching problem: students={}, courses={}",
+                    problem.declaredStudents().length, problem.declaredCourses().length);
+            trace.problemSize(problem);
+            trace.enter(SolveMetrics.Phase.PROPOSE);
+            IndexedGaleShapley.IndexedMatching matching = IndexedGaleShapley.solve(problem);
+            trace.counts(matching);
+            trace.enter(SolveMetrics.Phase.RESPOND);
+            return new MatchingOutcome(buildResponse(matching, startTime), matching);
+        });
+    }
 
-            // Build response
-            List<StableMatchingResponseDTO.Assignment> assignments = buildAssignments(
-                    courseAssignments, studentPreferences, coursePreferences
-            );
-
-            Set<String> allStudents = request.getStudents().stream()
-                    .map(StableMatchingRequestDTO.StudentPreference::getStudentId)
-                    .collect(Collectors.toSet());
-
-            Set<String> assignedStudents = assignments.stream()
-                    .map(StableMatchingResponseDTO.Assignment::getStudentId)
-                    .collect(Collectors.toSet());
+    /**
+     * Applies changes to a previously solved problem and repairs its matching, re-proposing
+     * only from students whose preferences changed or whose seat was affected. The result is
+     * stable for the changed problem, but unlike a full solve it is not necessarily the
+     * student-optimal matching.
+     *
+     * @param previous the indexed matching of the earlier solve
+     * @param delta the changes to apply
+     * @return the repaired solution
+     */
+    public MatchingOutcome rematch(IndexedGaleShapley.IndexedMatching previous, MatchingDeltaDTO delta) {
+        log.info("Starting incremental re-matching: changedStudents={}, removedStudents={}, changedCourses={}, removedCourses={}",
+                delta.getStudents() != null ? delta.getStudents().size() : 0,
+                delta.getRemovedStudents() != null ? delta.getRemovedStudents().size() : 0,
+                delta.getCourses() != null ? delta.getCourses().size() : 0,
+                delta.getRemovedCourses() != null ? delta.getRemovedCourses().size() : 0);
+
+        return timedSolve(MatchingEngine.INDEXED, null, (startTime, trace) -> {
+            // Deriving the changed problem and repairing interleave, so both count as proposing
+            trace.enter(SolveMetrics.Phase.PROPOSE);
+            IncrementalRematcher.Rematch rematch = IncrementalRematcher.rematch(previous, delta);
+            IndexedGaleShapley.IndexedMatching matching = rematch.matching();
+            trace.problemSize(matching.problem());
+            trace.counts(matching);
+            rematchCounter(rematch.repaired() ? "repaired" : "resolved").increment();
+            log.info("Incremental re-matching {}: proposals={}, displacements={}",
+                    rematch.repaired() ? "repaired previous matching" : "fell back to a full solve",
+                    matching.proposals(), matching.displacements());
+
+            trace.enter(SolveMetrics.Phase.RESPOND);
+            StableMatchingResponseDTO response = buildResponse(matching, startTime);
+            response.setMessage(rematch.repaired()
+                    ? "Stable matching repaired incrementally"
+                    : "Stable matching re-solved (incremental repair did not settle)");
+            return new MatchingOutcome(response, matching);
+        });
+    }
 
-            List<String> unmatchedStudents = allStudents.stream()
-                    .filter(s -> !assignedStudents.contains(s))
-                    .collect(Collectors.toList());
+    private Counter rematchCounter(String outcome) {
+        return Counter.builder("stablematch.rematch")
+                .description("Incremental re-matches, by whether the previous matching was repaired")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
 
-            long executionTime = System.currentTimeMillis() - startTime;
+    /**
+     * Runs a solve with invocation/duration and per-phase metrics and maps failures to
+     * ERROR responses.
+     */
+    private MatchingOutcome timedSolve(MatchingEngine engine, SolveProgress progress, SolveStep step) {
+        long startTime = System.currentTimeMillis();
+        Timer.Sample timerSample = Timer.start(meterRegistry);
+        stableMatchInvocations.increment();
+        SolveMetrics.Trace trace = solveMetrics.start(engine, progress);
 
-                StableMatchingResponseDTO result = StableMatchingResponseDTO.builder()
-                    .status("SUCCESS")
-                    .message("Stable matching completed successfully")
-                    .assignments(assignments)
-                    .unmatchedStudents(unmatchedStudents)
-                    .fullCourses(courseAssignments.entrySet().stream()
-                            .filter(e -> e.getValue().size() >= capacity)
-                            .map(Map.Entry::getKey)
-                            .collect(Collectors.toList()))
-                    .executionTimeMs(executionTime)
-                    .build();
-                timerSample.stop(stableMatchTimer);
-                log.info("Stable matching success: assignments={}, unmatched={}, fullCourses={}, durationMs={}",
+        try {
+            MatchingOutcome outcome = step.solve(startTime, trace);
+            StableMatchingResponseDTO result = outcome.response();
+            timerSample.stop(stableMatchTimer);
+            log.info("Stable matching success: assignments={}, unmatched={}, fullCourses={}, durationMs={}",
                     result.getAssignments() != null ? result.getAssignments().size() : 0,
                     result.getUnmatchedStudents() != null ? result.getUnmatchedStudents().size() : 0,
                     result.getFullCourses() != null ? result.getFullCourses().size() : 0,
                     result.getExecutionTimeMs());
-                return result;
+            return outcome;
 
         } catch (IllegalArgumentException e) {
             long executionTime = System.currentTimeMillis() - startTime;
-                timerSample.stop(stableMatchTimer);
-                log.warn("Stable matching validation failed: {}", e.getMessage());
-                return StableMatchingResponseDTO.builder()
+            timerSample.stop(stableMatchTimer);
+            log.warn("Stable matching validation failed: {}", e.getMessage());
+            return new MatchingOutcome(StableMatchingResponseDTO.builder()
                     .status("ERROR")
                     .message("Invalid input: " + e.getMessage())
                     .assignments(new ArrayList<>())
                     .unmatchedStudents(new ArrayList<>())
                     .fullCourses(new ArrayList<>())
                     .executionTimeMs(executionTime)
-                    .build();
+                    .build(), null);
         } catch (Exception e) {
             long executionTime = System.currentTimeMillis() - startTime;
             timerSample.stop(stableMatchTimer);
             log.error("Stable matching unexpected error", e);
-            return StableMatchingResponseDTO.builder()
+            return new MatchingOutcome(StableMatchingResponseDTO.builder()
                     .status("ERROR")
                     .message("Internal error: " + e.getMessage())
                     .assignments(new ArrayList<>())
                     .unmatchedStudents(new ArrayList<>())
                     .fullCourses(new ArrayList<>())
                     .executionTimeMs(executionTime)
-                    .build();
+                    .build(), null);
+        } finally {
+            solveMetrics.record(trace);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SolveStep {
+        MatchingOutcome solve(long startTime, SolveMetrics.Trace trace) throws Exception;
+    }
+
+    /**
+     * Original solver core, keyed by student/course ID strings.
+     */
+    private StableMatchingResponseDTO solveWithStringKeys(StableMatchingRequestDTO request,
+                                                          int capacity, long startTime,
+                                                          SolveMetrics.Trace trace) {
+        // Validate input
+        trace.enter(SolveMetrics.Phase.VALIDATE);
+        validateRequest(request);
+
+        // Initialize data structures
+        trace.enter(SolveMetrics.Phase.INDEX);
+        Map<String, List<String>> studentPreferences = buildStudentPreferenceMap(request);
+        Map<String, List<String>> coursePreferences = buildCoursePreferenceMap(request);
+        Map<String, Integer> courseRankings = buildCourseRankings(coursePreferences);
+        Map<String, Integer> studentOrder = new HashMap<>();
+        for (StableMatchingRequestDTO.StudentPreference sp : request.getStudents()) {
+            studentOrder.putIfAbsent(sp.getStudentId(), studentOrder.size());
+        }
+
+        // Run the matching algorithm
+        Map<String, List<String>> courseAssignments = new HashMap<>();
+        Map<String, Integer> courseCapacities = new HashMap<>();
+        for (StableMatchingRequestDTO.CoursePreference course : request.getCourses()) {
+            courseAssignments.put(course.getCourseId(), new ArrayList<>());
+            courseCapacities.put(course.getCourseId(),
+                    course.getCapacity() != null ? course.getCapacity() : capacity);
+        }
+
+        Queue<String> freeStudents = new LinkedList<>(
+                request.getStudents().stream()
+                        .map(StableMatchingRequestDTO.StudentPreference::getStudentId)
+                        .collect(Collectors.toList())
+        );
+        long preferenceEntries = 0;
+        for (List<String> preferences : studentPreferences.values()) {
+            preferenceEntries += preferences.size();
+        }
+        trace.problemSize(studentPreferences.size(), coursePreferences.size(), preferenceEntries);
+
+        trace.enter(SolveMetrics.Phase.PROPOSE);
+        long proposals = 0;
+        long displacements = 0;
+        long rejections = 0;
+        while (!freeStudents.isEmpty()) {
+            String student = freeStudents.poll();
+            List<String> preferences = studentPreferences.get(student);
+
+            for (String course : preferences) {
+                List<String> courseStudents = courseAssignments.get(course);
+                proposals++;
+                if ((proposals & SolveProgress.PUBLISH_MASK) == 0) {
+                    trace.progress().proposals(proposals);
+                }
+
+                if (courseStudents.size() < courseCapacities.get(course)) {
+                    // Course has space, assign student
+                    courseStudents.add(student);
+                    break;
+                } else {
+                    // Course is full, try to replace weakest match
+                    String worst = findWorstMatchInCourse(
+                            courseStudents, course, courseRankings, studentOrder
+                    );
+                    long worstRank = courseRank(course, worst, courseRankings, studentOrder);
+                    long newRank = courseRank(course, student, courseRankings, studentOrder);
+
+                    if (newRank < worstRank) {
+                        courseStudents.remove(worst);
+                        courseStudents.add(student);
+                        freeStudents.offer(worst);
+                        displacements++;
+                        break;
+                    }
+                    rejections++;
+                }
+            }
         }
+        trace.counts(proposals, displacements, rejections);
+
+        // Build response
+        trace.enter(SolveMetrics.Phase.RESPOND);
+        List<StableMatchingResponseDTO.Assignment> assignments = buildAssignments(
+                courseAssignments, studentPreferences, coursePreferences
+        );
+
+        Set<String> allStudents = request.getStudents().stream()
+                .map(StableMatchingRequestDTO.StudentPreference::getStudentId)
+                .collect(Collectors.toSet());
+
+        Set<String> assignedStudents = assignments.stream()
+                .map(StableMatchingResponseDTO.Assignment::getStudentId)
+                .collect(Collectors.toSet());
+
+        List<String> unmatchedStudents = allStudents.stream()
+                .filter(s -> !assignedStudents.contains(s))
+                .collect(Collectors.toList());
+
+        long executionTime = System.currentTimeMillis() - startTime;
+
+        return StableMatchingResponseDTO.builder()
+                .status("SUCCESS")
+                .message("Stable matching completed successfully")
+                .assignments(assignments)
+                .unmatchedStudents(unmatchedStudents)
+                .fullCourses(courseAssignments.entrySet().stream()
+                        .filter(e -> e.getValue().size() >= courseCapacities.get(e.getKey()))
+                        .map(Map.Entry::getKey)
+                        .collect(Collectors.toList()))
+                .executionTimeMs(executionTime)
+                .build();
     }
 
-    private void validateRequest(StableMatchingRequestDTO request) {
+    /**
+     * Solver core working on interned indices; validation happens while interning.
+     */
+    private MatchingOutcome solveWithIndexedEngine(StableMatchingRequestDTO request,
+                                                   int capacity, long startTime,
+                                                   SolveMetrics.Trace trace) {
+        trace.enter(SolveMetrics.Phase.INDEX);
+        IndexedMatchingProblem problem = IndexedMatchingProblem.fromRequest(request, capacity);
+        trace.problemSize(problem);
+        trace.enter(SolveMetrics.Phase.PROPOSE);
+        IndexedGaleShapley.IndexedMatching matching = IndexedGaleShapley.solve(problem, trace.progress());
+        trace.counts(matching);
+        trace.enter(SolveMetrics.Phase.RESPOND);
+        return new MatchingOutcome(buildResponse(matching, startTime), matching);
+    }
+
+    /**
+     * Assembles the response of an indexed solve. Assignments are sorted by student ID;
+     * unmatched students and full courses follow the order of the request.
+     */
+    StableMatchingResponseDTO buildResponse(IndexedGaleShapley.IndexedMatching matching, long startTime) {
+        IndexedMatchingProblem problem = matching.problem();
+        int[] declaredStudents = problem.declaredStudents();
+
+        List<StableMatchingResponseDTO.Assignment> assignments = new ArrayList<>(declaredStudents.length);
+        List<String> unmatchedStudents = new ArrayList<>();
+        for (int student : declaredStudents) {
+            int course = matching.assignedCourse(student);
+            if (course < 0) {
+                unmatchedStudents.add(problem.studentId(student));
+                continue;
+            }
+            assignments.add(StableMatchingResponseDTO.Assignment.builder()
+                    .studentId(problem.studentId(student))
+                    .courseId(problem.courseId(course))
+                    .studentPreferenceRank(matching.studentPreferenceRank(student))
+                    .coursePreferenceRank(matching.coursePreferenceRank(student))
+                    .build());
+        }
+        assignments.sort(Comparator.comparing(StableMatchingResponseDTO.Assignment::getStudentId));
+
+        List<String> fullCourses = new ArrayList<>();
+        for (int course : problem.declaredCourses()) {
+            if (matching.courseLoad(course) >= problem.capacity(course)) {
+                fullCourses.add(problem.courseId(course));
+            }
+        }
+
+        return StableMatchingResponseDTO.builder()
+                .status("SUCCESS")
+                .message("Stable matching completed successfully")
+                .assignments(assignments)
+                .unmatchedStudents(unmatchedStudents)
+                .fullCourses(fullCourses)
+                .executionTimeMs(System.currentTimeMillis() - startTime)
+                .build();
+    }
+
+    void validateRequest(StableMatchingRequestDTO request) {
+        if (request.getCapacityPerCourse() != null && request.getCapacityPerCourse() < 1) {
+            throw new IllegalArgumentException("Capacity per course must be at least 1");
+        }
         if (request.getStudents() == null || request.getStudents().isEmpty()) {
             throw new IllegalArgumentException("Students list cannot be empty");
         }
@@ -212,10 +466,14 @@ public class StableMatchingService {
                 throw new IllegalArgumentException("Course " + cp.getCourseId() + 
                         " must have at least one preference");
             }
+            if (cp.getCapacity() != null && cp.getCapacity() < 1) {
+                throw new IllegalArgumentException("Capacity of course " + cp.getCourseId() +
+                        " must be at least 1");
+            }
         }
     }
 
-    private Map<String, List<String>> buildStudentPreferenceMap(StableMatchingRequestDTO request) {
+    Map<String, List<String>> buildStudentPreferenceMap(StableMatchingRequestDTO request) {
         Map<String, List<String>> preferences = new HashMap<>();
         for (StableMatchingRequestDTO.StudentPreference sp : request.getStudents()) {
             preferences.put(sp.getStudentId(), new ArrayList<>(sp.getPreferences()));
@@ -223,7 +481,7 @@ public class StableMatchingService {
         return preferences;
     }
 
-    private Map<String, List<String>> buildCoursePreferenceMap(StableMatchingRequestDTO request) {
+    Map<String, List<String>> buildCoursePreferenceMap(StableMatchingRequestDTO request) {
         Map<String, List<String>> preferences = new HashMap<>();
         for (StableMatchingRequestDTO.CoursePreference cp : request.getCourses()) {
             preferences.put(cp.getCourseId(), new ArrayList<>(cp.getPreferences()));
@@ -244,14 +502,24 @@ public class StableMatchingService {
     }
 
     private String findWorstMatchInCourse(List<String> students, String course, 
-                                         Map<String, Integer> courseRankings) {
+                                         Map<String, Integer> courseRankings,
+                                         Map<String, Integer> studentOrder) {
         return students.stream()
-                .max(Comparator.comparingInt(s -> 
-                        courseRankings.getOrDefault(course + "_" + s, Integer.MAX_VALUE)))
+                .max(Comparator.comparingLong(s -> courseRank(course, s, courseRankings, studentOrder)))
                 .orElse(students.get(students.size() - 1));
     }
 
-    private List<StableMatchingResponseDTO.Assignment> buildAssignments(
+    /**
+     * Position of a student in a course's order: its rank if the course lists it, otherwise
+     * after every listed student, in the order students were declared.
+     */
+    private long courseRank(String course, String student, Map<String, Integer> courseRankings,
+                            Map<String, Integer> studentOrder) {
+        Integer rank = courseRankings.get(course + "_" + student);
+        return rank != null ? rank : (long) Integer.MAX_VALUE + studentOrder.get(student);
+    }
+
+    List<StableMatchingResponseDTO.Assignment> buildAssignments(
             Map<String, List<String>> courseAssignments,
             Map<String, List<String>> studentPreferences,
             Map<String, List<String>> coursePreferences) {
@@ -0,0 +1,163 @@
+package com.stablematch.algorithm;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads a stable matching request (same JSON shape as
+ * {@link com.stablematch.dto.StableMatchingRequestDTO}) token by token and feeds the
+ * IDs straight into an {@link IndexedMatchingProblem.Builder}, without building
+ * the intermediate DTO graph. Fields may appear in any order; unknown fields are skipped.
+ * <p>
+ * Students are interned in the order they are declared, as in
+ * {@link IndexedMatchingProblem#fromRequest}, because that order breaks ties between
+ * students a course does not rank. Courses that come before the students are therefore
+ * held back and declared once the students have been read.
+ */
+public final class StreamingRequestReader {
+
+    private static final int INITIAL_BUFFER = 64;
+
+    private final JsonParser parser;
+    private int[] buffer = new int[INITIAL_BUFFER];
+    private boolean studentsRead;
+    private final List<PendingCourse> pendingCourses = new ArrayList<>();
+
+    private StreamingRequestReader(JsonParser parser) {
+        this.parser = parser;
+    }
+
+    /**
+     * Parses a request into an indexed problem.
+     *
+     * @param parser parser positioned before the root object
+     * @param expectedStudents sizing hint for the intern tables
+     * @param expectedCourses sizing hint for the intern tables
+     * @return the indexed problem
+     * @throws IOException if the payload is not valid JSON or does not have the request shape
+     * @throws IllegalArgumentException if the problem itself is invalid
+     */
+    public static IndexedMatchingProblem read(JsonParser parser, int expectedStudents, int expectedCourses)
+            throws IOException {
+        return new StreamingRequestReader(parser).readProblem(
+                IndexedMatchingProblem.builder(expectedStudents, expectedCourses));
+    }
+
+    private IndexedMatchingProblem readProblem(IndexedMatchingProblem.Builder builder) throws IOException {
+        expect(parser.nextToken(), JsonToken.START_OBJECT);
+        Integer capacity = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "students" -> {
+                    readEntries(builder, value, true);
+                    studentsRead = true;
+                    declarePendingCourses(builder);
+                }
+                case "courses" -> readEntries(builder, value, false);
+                case "capacity_per_course" -> {
+                    if (value != JsonToken.VALUE_NULL) {
+                        expect(value, JsonToken.VALUE_NUMBER_INT);
+                        capacity = parser.getIntValue();
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        declarePendingCourses(builder);
+        if (capacity != null) {
+            builder.capacity(capacity);
+        }
+        return builder.build();
+    }
+
+    private void declarePendingCourses(IndexedMatchingProblem.Builder builder) {
+        for (PendingCourse course : pendingCourses) {
+            builder.addCourse(course.id(), course.preferences());
+            if (course.capacity() != null) {
+                builder.courseCapacity(course.id(), course.capacity());
+            }
+        }
+        pendingCourses.clear();
+    }
+
+    private void readEntries(IndexedMatchingProblem.Builder builder, JsonToken value, boolean students)
+            throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return;
+        }
+        expect(value, JsonToken.START_ARRAY);
+        String idField = students ? "student_id" : "course_id";
+        boolean holdBack = !students && !studentsRead;
+
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            String id = null;
+            Integer capacity = null;
+            int length = 0;
+            boolean hasPreferences = false;
+            List<String> heldPreferences = holdBack ? new ArrayList<>() : null;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken token = parser.nextToken();
+                if (idField.equals(field)) {
+                    id = token == JsonToken.VALUE_NULL ? null : parser.getText();
+                } else if ("preferences".equals(field) && token != JsonToken.VALUE_NULL) {
+                    expect(token, JsonToken.START_ARRAY);
+                    hasPreferences = true;
+                    while (parser.nextToken() == JsonToken.VALUE_STRING) {
+                        if (holdBack) {
+                            heldPreferences.add(parser.getText());
+                            continue;
+                        }
+                        if (length == buffer.length) {
+                            buffer = Arrays.copyOf(buffer, length * 2);
+                        }
+                        buffer[length++] = students
+                                ? builder.internCourse(parser.getText())
+                                : builder.internStudent(parser.getText());
+                    }
+                    expect(parser.currentToken(), JsonToken.END_ARRAY);
+                } else if (!students && "capacity".equals(field) && token != JsonToken.VALUE_NULL) {
+                    expect(token, JsonToken.VALUE_NUMBER_INT);
+                    capacity = parser.getIntValue();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+
+            if (students) {
+                builder.addStudent(id, buffer, hasPreferences ? length : 0);
+            } else if (holdBack) {
+                pendingCourses.add(new PendingCourse(id, heldPreferences, capacity));
+            } else {
+                builder.addCourse(id, buffer, hasPreferences ? length : 0);
+                if (capacity != null) {
+                    builder.courseCapacity(id, capacity);
+                }
+            }
+        }
+        expect(parser.currentToken(), JsonToken.END_ARRAY);
+    }
+
+    /**
+     * A course read before the students, with its preferences still as IDs.
+     */
+    private record PendingCourse(String id, List<String> preferences, Integer capacity) {
+    }
+
+    private void expect(JsonToken actual, JsonToken expected) throws JsonParseException {
+        if (actual != expected) {
+            throw new JsonParseException(parser, "Expected " + expected + " but found " + actual);
+        }
+    }
+}
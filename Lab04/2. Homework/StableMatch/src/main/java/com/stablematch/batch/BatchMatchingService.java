@@ -0,0 +1,134 @@
+package com.stablematch.batch;
+
+import com.stablematch.algorithm.MatchingEngine;
+import com.stablematch.algorithm.StableMatchingService;
+import com.stablematch.dto.BatchMatchingRequestDTO;
+import com.stablematch.dto.BatchMatchingResponseDTO;
+import com.stablematch.dto.StableMatchingRequestDTO;
+import com.stablematch.dto.StableMatchingResponseDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Solves batches of independent stable matching problems in parallel on a
+ * dedicated pool of solver threads, so one request can use every core.
+ */
+@Slf4j
+@Service
+public class BatchMatchingService {
+
+    private final StableMatchingService stableMatchingService;
+    private final ExecutorService executor;
+    private final int maxProblems;
+
+    public BatchMatchingService(StableMatchingService stableMatchingService,
+                                @Value("${stablematch.batch.parallelism:0}") int parallelism,
+                                @Value("${stablematch.batch.max-problems:256}") int maxProblems) {
+        this.stableMatchingService = stableMatchingService;
+        this.maxProblems = maxProblems;
+        int poolSize = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.executor = Executors.newFixedThreadPool(poolSize, batchThreadFactory());
+        log.info("Batch matching executor started: parallelism={}, maxProblems={}", poolSize, maxProblems);
+    }
+
+    /**
+     * Solves every problem of the batch in parallel. A failing problem does not
+     * affect the others; its entry carries an ERROR result.
+     *
+     * @param batch the problems to solve
+     * @param engine the solver core to use for every problem
+     * @return per-problem results in submission order
+     * @throws IllegalArgumentException if the batch is empty or larger than the configured maximum
+     */
+    public BatchMatchingResponseDTO solveBatch(BatchMatchingRequestDTO batch, MatchingEngine engine) {
+        List<StableMatchingRequestDTO> problems = batch.getProblems();
+        if (problems == null || problems.isEmpty()) {
+            throw new IllegalArgumentException("Problems list cannot be empty");
+        }
+        if (problems.size() > maxProblems) {
+            throw new IllegalArgumentException("Batch contains " + problems.size()
+                    + " problems, maximum is " + maxProblems);
+        }
+
+        long startTime = System.currentTimeMillis();
+        log.info("Solving batch of {} problems", problems.size());
+
+        List<CompletableFuture<BatchMatchingResponseDTO.ProblemResult>> futures = new ArrayList<>(problems.size());
+        for (int i = 0; i < problems.size(); i++) {
+            int index = i;
+            StableMatchingRequestDTO problem = problems.get(i);
+            long submittedAt = System.nanoTime();
+            futures.add(CompletableFuture.supplyAsync(() -> solveOne(index, problem, engine, submittedAt), executor));
+        }
+
+        List<BatchMatchingResponseDTO.ProblemResult> results = new ArrayList<>(problems.size());
+        int failed = 0;
+        for (CompletableFuture<BatchMatchingResponseDTO.ProblemResult> future : futures) {
+            BatchMatchingResponseDTO.ProblemResult result = future.join();
+            if (!"SUCCESS".equals(result.getResult().getStatus())) {
+                failed++;
+            }
+            results.add(result);
+        }
+
+        long totalTime = System.currentTimeMillis() - startTime;
+        log.info("Batch of {} problems solved in {} ms ({} failed)", problems.size(), totalTime, failed);
+
+        return BatchMatchingResponseDTO.builder()
+                .status(failed == 0 ? "SUCCESS" : "PARTIAL")
+                .message(failed == 0
+                        ? "All " + problems.size() + " problems solved"
+                        : failed + " of " + problems.size() + " problems failed")
+                .results(results)
+                .totalTimeMs(totalTime)
+                .build();
+    }
+
+    private BatchMatchingResponseDTO.ProblemResult solveOne(int index, StableMatchingRequestDTO problem,
+                                                            MatchingEngine engine, long submittedAt) {
+        long startedAt = System.nanoTime();
+        StableMatchingResponseDTO result;
+        try {
+            result = stableMatchingService.solveStableMatching(problem, engine);
+        } catch (RuntimeException e) {
+            log.error("Batch problem {} failed", index, e);
+            result = StableMatchingResponseDTO.builder()
+                    .status("ERROR")
+                    .message("Internal error: " + e.getMessage())
+                    .executionTimeMs(0L)
+                    .build();
+        }
+        long finishedAt = System.nanoTime();
+
+        return BatchMatchingResponseDTO.ProblemResult.builder()
+                .index(index)
+                .queueTimeMs((startedAt - submittedAt) / 1_000_000)
+                .solveTimeMs((finishedAt - startedAt) / 1_000_000)
+                .result(result)
+                .build();
+    }
+
+    private static ThreadFactory batchThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "stablematch-batch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
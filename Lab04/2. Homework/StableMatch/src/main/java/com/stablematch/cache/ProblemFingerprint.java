@@ -0,0 +1,123 @@
+package com.stablematch.cache;
+
+import com.stablematch.algorithm.MatchingEngine;
+import com.stablematch.dto.StableMatchingRequestDTO;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Canonical SHA-256 content hash of a stable matching problem.
+ * <p>
+ * Only what can change the solution is hashed, with defaults resolved: a missing
+ * {@code capacity_per_course} and a course capacity equal to the default hash the same
+ * as the explicit values. Courses are hashed in course ID order, since their order only
+ * decides the order of {@code full_courses}. Students stay in request order, because
+ * it breaks ties between students a course does not rank; preference lists are ordered
+ * by definition.
+ */
+final class ProblemFingerprint {
+
+    private static final Comparator<StableMatchingRequestDTO.CoursePreference> BY_COURSE_ID =
+            Comparator.comparing(StableMatchingRequestDTO.CoursePreference::getCourseId,
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final MessageDigest digest;
+    private final byte[] buffer = new byte[8192];
+    private int position;
+
+    private ProblemFingerprint() {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * @param request the problem, which need not be valid
+     * @param engine the solver core, which decides the order of {@code unmatched_students}
+     * @return the hex-encoded hash
+     */
+    static String of(StableMatchingRequestDTO request, MatchingEngine engine) {
+        ProblemFingerprint fingerprint = new ProblemFingerprint();
+        int capacity = request.getCapacityPerCourse() != null ? request.getCapacityPerCourse() : 1;
+        fingerprint.putInt(engine.ordinal());
+        fingerprint.putInt(capacity);
+
+        List<StableMatchingRequestDTO.StudentPreference> students = request.getStudents();
+        fingerprint.putInt(students != null ? students.size() : -1);
+        if (students != null) {
+            for (StableMatchingRequestDTO.StudentPreference sp : students) {
+                fingerprint.putString(sp.getStudentId());
+                fingerprint.putList(sp.getPreferences());
+            }
+        }
+
+        List<StableMatchingRequestDTO.CoursePreference> courses = request.getCourses();
+        fingerprint.putInt(courses != null ? courses.size() : -1);
+        if (courses != null) {
+            List<StableMatchingRequestDTO.CoursePreference> sorted = new ArrayList<>(courses);
+            sorted.sort(BY_COURSE_ID);
+            for (StableMatchingRequestDTO.CoursePreference cp : sorted) {
+                fingerprint.putString(cp.getCourseId());
+                fingerprint.putInt(cp.getCapacity() != null ? cp.getCapacity() : capacity);
+                fingerprint.putList(cp.getPreferences());
+            }
+        }
+        return fingerprint.finish();
+    }
+
+    private void putList(List<String> values) {
+        putInt(values != null ? values.size() : -1);
+        if (values != null) {
+            for (String value : values) {
+                putString(value);
+            }
+        }
+    }
+
+    /**
+     * Length-prefixed, so concatenations of different IDs never hash alike.
+     */
+    private void putString(String value) {
+        if (value == null) {
+            putInt(-1);
+            return;
+        }
+        int length = value.length();
+        putInt(length);
+        for (int i = 0; i < length; i++) {
+            if (position + 2 > buffer.length) {
+                flush();
+            }
+            char c = value.charAt(i);
+            buffer[position++] = (byte) (c >>> 8);
+            buffer[position++] = (byte) c;
+        }
+    }
+
+    private void putInt(int value) {
+        if (position + 4 > buffer.length) {
+            flush();
+        }
+        buffer[position++] = (byte) (value >>> 24);
+        buffer[position++] = (byte) (value >>> 16);
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+    }
+
+    private void flush() {
+        digest.update(buffer, 0, position);
+        position = 0;
+    }
+
+    private String finish() {
+        flush();
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
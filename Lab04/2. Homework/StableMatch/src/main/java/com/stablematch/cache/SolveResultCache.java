@@ -0,0 +1,336 @@
+package com.stablematch.cache;
+
+import com.stablematch.algorithm.MatchingEngine;
+import com.stablematch.algorithm.MatchingOutcome;
+import com.stablematch.algorithm.StableMatchingService;
+import com.stablematch.dto.StableMatchingRequestDTO;
+import com.stablematch.dto.StableMatchingResponseDTO;
+import com.stablematch.result.StoredMatchingResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Memoizes successful solves by the {@link ProblemFingerprint} of the request, so retried
+ * and repeated problems are answered without solving again.
+ * <p>
+ * Entries are kept in least-recently-used order and evicted when the entry count or the
+ * estimated memory budget is exceeded, or once their time-to-live has passed. Identical
+ * problems submitted while the first one is still solving wait for that solve instead of
+ * starting their own.
+ * <p>
+ * Each memoized solve gets a result ID when it is solved, which hits and joined solves
+ * share, so that the same solution is stored in the {@link com.stablematch.result.MatchingResultStore}
+ * once rather than once per request.
+ */
+@Slf4j
+@Component
+public class SolveResultCache {
+
+    private final StableMatchingService stableMatchingService;
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long ttlNanos;
+    private final LongSupplier ticker;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<CachedOutcome>> inFlight = new ConcurrentHashMap<>();
+    private long cachedBytes;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+    private final Counter sizeEvictions;
+    private final Counter expirations;
+
+    @Autowired
+    public SolveResultCache(StableMatchingService stableMatchingService, MeterRegistry meterRegistry,
+                            @Value("${stablematch.cache.enabled:true}") boolean enabled,
+                            @Value("${stablematch.cache.max-entries:256}") int maxEntries,
+                            @Value("${stablematch.cache.max-memory:64MB}") DataSize maxMemory,
+                            @Value("${stablematch.cache.ttl:10m}") Duration ttl) {
+        this(stableMatchingService, meterRegistry, enabled, maxEntries, maxMemory, ttl, System::nanoTime);
+    }
+
+    SolveResultCache(StableMatchingService stableMatchingService, MeterRegistry meterRegistry,
+                     boolean enabled, int maxEntries, DataSize maxMemory, Duration ttl, LongSupplier ticker) {
+        this.stableMatchingService = stableMatchingService;
+        this.enabled = enabled && maxEntries > 0;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxMemory.toBytes();
+        this.ttlNanos = ttl.toNanos();
+        this.ticker = ticker;
+
+        this.hits = requests(meterRegistry, "hit");
+        this.misses = requests(meterRegistry, "miss");
+        this.coalesced = requests(meterRegistry, "coalesced");
+        this.sizeEvictions = evictions(meterRegistry, "size");
+        this.expirations = evictions(meterRegistry, "expired");
+        Gauge.builder("stablematch.cache.entries", this, SolveResultCache::size)
+                .description("Number of memoized stable matching solves")
+                .register(meterRegistry);
+        Gauge.builder("stablematch.cache.estimated.bytes", this, SolveResultCache::getCachedBytes)
+                .description("Estimated heap held by memoized stable matching solves")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("stablematch.cache.requests")
+                .description("Solve requests looked up in the result cache, by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Counter evictions(MeterRegistry meterRegistry, String cause) {
+        return Counter.builder("stablematch.cache.evictions")
+                .description("Memoized solves dropped from the result cache, by cause")
+                .tag("cause", cause)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the memoized solution of an identical problem, or solves it and memoizes
+     * the solution if it succeeded.
+     *
+     * @param request the stable matching problem definition
+     * @param engine the solver core to use
+     * @return the solution, its entity tag and result ID
+     */
+    public CachedOutcome solve(StableMatchingRequestDTO request, MatchingEngine engine) {
+        if (!enabled) {
+            return new CachedOutcome(stableMatchingService.solve(request, engine), null, false, null);
+        }
+        String key = ProblemFingerprint.of(request, engine);
+        String etag = "W/\"" + key + "\"";
+
+        Entry cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+            log.info("Serving memoized stable matching {}", key);
+            return new CachedOutcome(inRequestOrder(cached.outcome, request), etag, true, cached.resultId);
+        }
+
+        CompletableFuture<CachedOutcome> solving = new CompletableFuture<>();
+        CompletableFuture<CachedOutcome> running = inFlight.putIfAbsent(key, solving);
+        if (running != null) {
+            try {
+                CachedOutcome joined = running.join();
+                coalesced.increment();
+                log.info("Joined in-flight stable matching {}", key);
+                return new CachedOutcome(inRequestOrder(joined.outcome, request), joined.etag, true, joined.resultId);
+            } catch (CompletionException e) {
+                log.warn("In-flight stable matching {} failed, solving again", key);
+            }
+        }
+
+        misses.increment();
+        try {
+            MatchingOutcome outcome = stableMatchingService.solve(request, engine);
+            String resultId = null;
+            if (isSuccess(outcome)) {
+                resultId = UUID.randomUUID().toString();
+                store(key, outcome, resultId);
+            }
+            CachedOutcome solved = new CachedOutcome(outcome, etagFor(outcome, etag), false, resultId);
+            solving.complete(solved);
+            return solved;
+        } catch (RuntimeException e) {
+            solving.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, solving);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getCachedBytes() {
+        synchronized (entries) {
+            return cachedBytes;
+        }
+    }
+
+    private Entry lookup(String key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (ticker.getAsLong() - entry.expiresAt >= 0) {
+                entries.remove(key);
+                cachedBytes -= entry.bytes;
+                expirations.increment();
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    private void store(String key, MatchingOutcome outcome, String resultId) {
+        long bytes = StoredMatchingResult.estimateBytes(outcome.response(), outcome.matching());
+        if (bytes > maxBytes) {
+            log.debug("Not memoizing stable matching {}: {} bytes exceed the cache budget", key, bytes);
+            return;
+        }
+        synchronized (entries) {
+            Entry previous = entries.put(key, new Entry(outcome, resultId, bytes, ticker.getAsLong() + ttlNanos));
+            if (previous != null) {
+                cachedBytes -= previous.bytes;
+            }
+            cachedBytes += bytes;
+
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (entries.size() > maxEntries || cachedBytes > maxBytes) {
+                Entry evicted = eldest.next();
+                eldest.remove();
+                cachedBytes -= evicted.bytes;
+                sizeEvictions.increment();
+            }
+        }
+    }
+
+    private static boolean isSuccess(MatchingOutcome outcome) {
+        return "SUCCESS".equals(outcome.response().getStatus());
+    }
+
+    private static String etagFor(MatchingOutcome outcome, String etag) {
+        return isSuccess(outcome) ? etag : null;
+    }
+
+    /**
+     * Re-lists {@code full_courses} in the course order of the request, the only part of
+     * the response that depends on an order the fingerprint ignores.
+     */
+    private static MatchingOutcome inRequestOrder(MatchingOutcome outcome, StableMatchingRequestDTO request) {
+        StableMatchingResponseDTO response = outcome.response();
+        if (!isSuccess(outcome) || response.getFullCourses() == null || response.getFullCourses().size() < 2) {
+            return outcome;
+        }
+        Set<String> full = new HashSet<>(response.getFullCourses());
+        List<String> fullCourses = new ArrayList<>(full.size());
+        for (StableMatchingRequestDTO.CoursePreference cp : request.getCourses()) {
+            if (full.contains(cp.getCourseId())) {
+                fullCourses.add(cp.getCourseId());
+            }
+        }
+        if (fullCourses.equals(response.getFullCourses())) {
+            return outcome;
+        }
+        return outcome.withResponse(StableMatchingResponseDTO.builder()
+                .status(response.getStatus())
+                .message(response.getMessage())
+                .assignments(response.getAssignments())
+                .unmatchedStudents(response.getUnmatchedStudents())
+                .fullCourses(fullCourses)
+                .executionTimeMs(response.getExecutionTimeMs())
+                .build());
+    }
+
+    private static final class Entry {
+
+        private final MatchingOutcome outcome;
+        private final String resultId;
+        private final long bytes;
+        private final long expiresAt;
+
+        private Entry(MatchingOutcome outcome, String resultId, long bytes, long expiresAt) {
+            this.outcome = outcome;
+            this.resultId = resultId;
+            this.bytes = bytes;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * A solution together with its weak entity tag, its result ID and whether it was memoized.
+     */
+    public static final class CachedOutcome {
+
+        private final MatchingOutcome outcome;
+        private final String etag;
+        private final boolean hit;
+        private final String resultId;
+
+        private CachedOutcome(MatchingOutcome outcome, String etag, boolean hit, String resultId) {
+            this.outcome = outcome;
+            this.etag = etag;
+            this.hit = hit;
+            this.resultId = resultId;
+        }
+
+        public MatchingOutcome outcome() {
+            return outcome;
+        }
+
+        /**
+         * @return the weak entity tag of the solution, or {@code null} if it is not cacheable
+         */
+        public String etag() {
+            return etag;
+        }
+
+        /**
+         * @return whether the solution was served without solving
+         */
+        public boolean hit() {
+            return hit;
+        }
+
+        /**
+         * @return the ID the solution is stored under, the same for every request it was
+         *         served to; {@code null} if it was not memoized
+         */
+        public String resultId() {
+            return resultId;
+        }
+
+        /**
+         * Weak comparison against an {@code If-None-Match} header value.
+         *
+         * @param ifNoneMatch the header value, possibly a list or {@code *}
+         * @return whether the client already holds this solution
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (etag == null || ifNoneMatch == null) {
+                return false;
+            }
+            String opaque = stripWeak(etag);
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.equals("*") || stripWeak(tag).equals(opaque)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static String stripWeak(String tag) {
+            return tag.startsWith("W/") ? tag.substring(2) : tag;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.stablematch.controller;
+
+import com.stablematch.algorithm.MatchingEngine;
+import com.stablematch.algorithm.StableMatchingService;
+import com.stablematch.dto.MatchingJobStatusDTO;
+import com.stablematch.dto.StableMatchingRequestDTO;
+import com.stablematch.dto.StableMatchingResponseDTO;
+import com.stablematch.job.JobQueueFullException;
+import com.stablematch.job.MatchingJob;
+import com.stablematch.job.MatchingJobService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * REST Controller for asynchronous stable matching jobs.
+ * A problem is submitted once and solved in the background; clients poll
+ * (or long-poll with {@code wait_ms}) for its status and then fetch the result.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/v1/matching/jobs")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class MatchingJobController {
+
+    private final MatchingJobService matchingJobService;
+    private final StableMatchingService stableMatchingService;
+
+    @Value("${stablematch.jobs.max-wait:30s}")
+    private Duration maxWait;
+
+    /**
+     * Submits a stable matching problem for asynchronous solving.
+     *
+     * @param request the stable matching problem containing student and course preferences
+     * @param engine optional solver core ("indexed" or "legacy")
+     * @return 202 with the job status, or 429 when the solver queue is full
+     */
+    @PostMapping
+    public ResponseEntity<MatchingJobStatusDTO> submitJob(
+            @RequestBody StableMatchingRequestDTO request,
+            @RequestParam(value = "engine", required = false) String engine) {
+
+        log.info("POST /v1/matching/jobs - Submitting matching job");
+
+        MatchingEngine matchingEngine;
+        try {
+            matchingEngine = MatchingEngine.from(engine, stableMatchingService.getDefaultEngine());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(MatchingJobStatusDTO.builder().status("REJECTED").message(e.getMessage()).build());
+        }
+
+        try {
+            MatchingJob job = matchingJobService.submit(request, matchingEngine);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/v1/matching/jobs/" + job.getId()))
+                    .body(job.toStatus());
+        } catch (JobQueueFullException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(MatchingJobStatusDTO.builder().status("REJECTED").message(e.getMessage()).build());
+        }
+    }
+
+    /**
+     * Get the status of a job. With {@code wait_ms}, the request is held (without
+     * occupying a servlet thread) until the job finishes or the wait elapses.
+     *
+     * @param jobId the job ID
+     * @param waitMs optional long-poll duration in milliseconds, capped by stablematch.jobs.max-wait
+     * @return the job status
+     */
+    @GetMapping("/{jobId}")
+    public DeferredResult<ResponseEntity<MatchingJobStatusDTO>> getJobStatus(
+            @PathVariable String jobId,
+            @RequestParam(value = "wait_ms", defaultValue = "0") long waitMs) {
+
+        Optional<MatchingJob> found = matchingJobService.find(jobId);
+        if (found.isEmpty()) {
+            DeferredResult<ResponseEntity<MatchingJobStatusDTO>> notFound = new DeferredResult<>();
+            notFound.setResult(ResponseEntity.notFound().build());
+            return notFound;
+        }
+
+        MatchingJob job = found.get();
+        long timeout = Math.min(Math.max(waitMs, 0L), maxWait.toMillis());
+        if (timeout == 0 || job.isFinished()) {
+            DeferredResult<ResponseEntity<MatchingJobStatusDTO>> immediate = new DeferredResult<>();
+            immediate.setResult(ResponseEntity.ok(job.toStatus()));
+            return immediate;
+        }
+
+        DeferredResult<ResponseEntity<MatchingJobStatusDTO>> deferred = new DeferredResult<>(timeout);
+        deferred.onTimeout(() -> deferred.setResult(ResponseEntity.ok(job.toStatus())));
+        job.getCompletion().whenComplete((result, error) -> deferred.setResult(ResponseEntity.ok(job.toStatus())));
+        return deferred;
+    }
+
+    /**
+     * Get the result of a finished job.
+     *
+     * @param jobId the job ID
+     * @return 200 with the result, 202 with the status while the job is still running, 404 if unknown
+     */
+    @GetMapping("/{jobId}/result")
+    public ResponseEntity<?> getJobResult(@PathVariable String jobId) {
+        Optional<MatchingJob> found = matchingJobService.find(jobId);
+        if (found.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        MatchingJob job = found.get();
+        StableMatchingResponseDTO result = job.getResult();
+        if (result == null) {
+            return ResponseEntity.accepted().body(job.toStatus());
+        }
+        return ResponseEntity.ok(result);
+    }
+}
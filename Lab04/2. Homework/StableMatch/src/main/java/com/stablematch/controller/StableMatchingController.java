@@ -1,16 +1,32 @@
 package com.stablematch.controller;
 
+import com.stablematch.algorithm.IndexedGaleShapley;
+import com.stablematch.algorithm.MatchingEngine;
+import com.stablematch.algorithm.MatchingOutcome;
 import com.stablematch.algorithm.StableMatchingService;
+import com.stablematch.batch.BatchMatchingService;
+import com.stablematch.cache.SolveResultCache;
+import com.stablematch.dto.BatchMatchingRequestDTO;
+import com.stablematch.dto.BatchMatchingResponseDTO;
+import com.stablematch.dto.CompactMatchingCodec;
+import com.stablematch.dto.MatchingDeltaDTO;
 import com.stablematch.dto.StableMatchingRequestDTO;
 import com.stablematch.dto.StableMatchingResponseDTO;
+import com.stablematch.result.MatchingResultStore;
+import com.stablematch.result.StoredMatchingResult;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
 
 /**
  * REST Controller for the Stable Matching Algorithm API.
@@ -23,35 +39,138 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = "*", maxAge = 3600)
 public class StableMatchingController {
 
-    private final StableMatchingService stableMatchingService;
+    /**
+     * Response header carrying the ID under which a solve result was stored
+     */
+    public static final String RESULT_ID_HEADER = "X-Matching-Result-Id";
+
+    /**
+     * Response header telling whether a solve was served from the result cache (HIT or MISS)
+     */
+    public static final String CACHE_STATUS_HEADER = "X-Matching-Cache";
 
-    // Store last solved matching result for querying (in production, use a database)
-    private StableMatchingResponseDTO lastResult;
+    private final StableMatchingService stableMatchingService;
+    private final BatchMatchingService batchMatchingService;
+    private final MatchingResultStore resultStore;
+    private final SolveResultCache solveCache;
 
     /**
-     * Solves a stable matching problem for student-to-course assignment.
+     * Solves a stable matching problem for student-to-course assignment. Identical problems
+     * are served from the result cache; successful results carry a weak {@code ETag}, and a
+     * matching {@code If-None-Match} gets {@code 304 Not Modified} without a body.
      *
      * @param request the stable matching problem containing student and course preferences
+     * @param engine optional solver core ("indexed" or "legacy"), defaults to the configured engine
+     * @param ifNoneMatch optional entity tags of results the client already holds
      * @return ResponseEntity containing the assignment result
      */
     @PostMapping("/solve")
     public ResponseEntity<StableMatchingResponseDTO> solveMatching(
-            @RequestBody StableMatchingRequestDTO request) {
+            @RequestBody StableMatchingRequestDTO request,
+            @RequestParam(value = "engine", required = false) String engine,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 
         log.info("Received stable matching request with {} students and {} courses",
-                request.getStudents().size(), request.getCourses().size());
+                request.getStudents() != null ? request.getStudents().size() : 0,
+                request.getCourses() != null ? request.getCourses().size() : 0);
+
+        return solve(request, engine, ifNoneMatch);
+    }
 
+    /**
+     * Solves a stable matching problem sent in the compact binary encoding of
+     * {@link CompactMatchingCodec}, optionally gzip-compressed ({@code Content-Encoding: gzip}).
+     * Behaves exactly like {@link #solveMatching}, including the result cache and ETags.
+     *
+     * @param body the encoded request
+     * @param contentEncoding optional body compression ("gzip" or "identity")
+     * @param engine optional solver core ("indexed" or "legacy"), defaults to the configured engine
+     * @param ifNoneMatch optional entity tags of results the client already holds
+     * @return ResponseEntity containing the assignment result
+     */
+    @PostMapping(value = "/solve", consumes = CompactMatchingCodec.MEDIA_TYPE)
+    public ResponseEntity<StableMatchingResponseDTO> solveMatchingCompact(
+            InputStream body,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            @RequestParam(value = "engine", required = false) String engine,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        String encoding = contentEncoding != null ? contentEncoding.trim() : "";
+        StableMatchingRequestDTO request;
         try {
-            StableMatchingResponseDTO response = stableMatchingService.solveStableMatching(request);
-            this.lastResult = response; // Store result for querying
+            if (encoding.isEmpty() || "identity".equalsIgnoreCase(encoding)) {
+                request = CompactMatchingCodec.decode(body);
+            } else if ("gzip".equalsIgnoreCase(encoding)) {
+                request = CompactMatchingCodec.decode(new GZIPInputStream(body));
+            } else {
+                return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
+                        .body(StableMatchingResponseDTO.builder()
+                                .status("ERROR")
+                                .message("Unsupported content encoding: " + contentEncoding)
+                                .executionTimeMs(0L)
+                                .build());
+            }
+        } catch (IOException e) {
+            log.warn("Malformed compact stable matching request: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(StableMatchingResponseDTO.builder()
+                            .status("ERROR")
+                            .message("Malformed request: " + e.getMessage())
+                            .executionTimeMs(0L)
+                            .build());
+        }
+
+        log.info("Received compact stable matching request with {} students and {} courses",
+                request.getStudents() != null ? request.getStudents().size() : 0,
+                request.getCourses() != null ? request.getCourses().size() : 0);
+
+        return solve(request, engine, ifNoneMatch);
+    }
+
+    private ResponseEntity<StableMatchingResponseDTO> solve(StableMatchingRequestDTO request, String engine,
+                                                            String ifNoneMatch) {
+        MatchingEngine matchingEngine;
+        try {
+            matchingEngine = MatchingEngine.from(engine, stableMatchingService.getDefaultEngine());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(StableMatchingResponseDTO.builder()
+                            .status("ERROR")
+                            .message(e.getMessage())
+                            .executionTimeMs(0L)
+                            .build());
+        }
+
+        try {
+            SolveResultCache.CachedOutcome cached = solveCache.solve(request, matchingEngine);
+            StableMatchingResponseDTO response = cached.outcome().response();
+            String cacheStatus = cached.hit() ? "HIT" : "MISS";
             
             if ("SUCCESS".equals(response.getStatus())) {
-                log.info("Stable matching solved successfully in {} ms", 
-                        response.getExecutionTimeMs());
-                return ResponseEntity.ok(response);
+                if (cached.matches(ifNoneMatch)) {
+                    // The client already holds this solution: nothing new to store
+                    log.info("Stable matching unchanged for client ({})", cacheStatus);
+                    ResponseEntity.HeadersBuilder<?> notModified = ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                            .eTag(cached.etag())
+                            .header(CACHE_STATUS_HEADER, cacheStatus);
+                    if (cached.resultId() != null && resultStore.find(cached.resultId()).isPresent()) {
+                        notModified.header(RESULT_ID_HEADER, cached.resultId());
+                    }
+                    return notModified.build();
+                }
+                String resultId = publish(cached);
+                log.info("Stable matching solved successfully in {} ms ({})", 
+                        response.getExecutionTimeMs(), cacheStatus);
+                ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                        .header(RESULT_ID_HEADER, resultId)
+                        .header(CACHE_STATUS_HEADER, cacheStatus);
+                if (cached.etag() != null) {
+                    ok.eTag(cached.etag());
+                }
+                return ok.body(response);
             } else {
                 log.warn("Stable matching failed: {}", response.getMessage());
-                return ResponseEntity.badRequest().body(response);
+                return ResponseEntity.badRequest().header(RESULT_ID_HEADER, publish(cached)).body(response);
             }
         } catch (Exception e) {
             log.error("Unexpected error during stable matching", e);
@@ -65,38 +184,162 @@ public class StableMatchingController {
     }
 
     /**
-     * Get all assignments from the last solved matching
+     * Stores a solve result for the query endpoints. Memoized solutions are stored once under
+     * the result ID of their cache entry; a hit only stores it again if the result store has
+     * evicted it since.
+     *
+     * @return the ID the result is stored under
+     */
+    private String publish(SolveResultCache.CachedOutcome cached) {
+        String resultId = cached.resultId() != null ? cached.resultId() : UUID.randomUUID().toString();
+        if (!cached.hit() || resultStore.find(resultId).isEmpty()) {
+            resultStore.publish(resultId, cached.outcome());
+        }
+        return resultId;
+    }
+
+    /**
+     * Solves a stable matching problem by streaming the JSON payload straight into the
+     * indexed solver, without binding a request DTO. Selected with {@code ?ingest=stream};
+     * the payload has the same shape as for {@link #solveMatching}.
+     *
+     * @param body the raw request body
+     * @param expectedStudents optional sizing hint for the number of students
+     * @param expectedCourses optional sizing hint for the number of courses
+     * @return ResponseEntity containing the assignment result
+     */
+    @PostMapping(value = "/solve", params = "ingest=stream")
+    public ResponseEntity<StableMatchingResponseDTO> solveMatchingStreamed(
+            InputStream body,
+            @RequestParam(value = "expected_students", defaultValue = "0") int expectedStudents,
+            @RequestParam(value = "expected_courses", defaultValue = "0") int expectedCourses) {
+
+        log.info("Received streamed stable matching request");
+
+        MatchingOutcome outcome = stableMatchingService.solve(body, expectedStudents, expectedCourses);
+        StableMatchingResponseDTO response = outcome.response();
+        String resultId = resultStore.publish(UUID.randomUUID().toString(), outcome).getId();
+
+        if ("SUCCESS".equals(response.getStatus())) {
+            log.info("Streamed stable matching solved successfully in {} ms",
+                    response.getExecutionTimeMs());
+            return ResponseEntity.ok().header(RESULT_ID_HEADER, resultId).body(response);
+        }
+        log.warn("Streamed stable matching failed: {}", response.getMessage());
+        return ResponseEntity.badRequest().header(RESULT_ID_HEADER, resultId).body(response);
+    }
+
+    /**
+     * Re-matches a stored result after a few students or courses changed, repairing the
+     * previous matching instead of solving the whole problem again.
+     *
+     * @param delta students/courses added, replaced or removed, and an optional new capacity
+     * @param baseId solve/job ID of the result to start from, or "latest"
+     * @return ResponseEntity containing the repaired assignment result
+     */
+    @PostMapping("/rematch")
+    public ResponseEntity<StableMatchingResponseDTO> rematch(
+            @RequestBody MatchingDeltaDTO delta,
+            @RequestParam(value = "base", defaultValue = MatchingResultStore.LATEST) String baseId) {
+
+        log.info("Received incremental re-matching request based on {}", baseId);
+
+        Optional<StoredMatchingResult> base = resultStore.find(baseId);
+        if (base.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(StableMatchingResponseDTO.builder()
+                            .status("ERROR")
+                            .message("No stored result " + baseId)
+                            .executionTimeMs(0L)
+                            .build());
+        }
+        Optional<IndexedGaleShapley.IndexedMatching> previous = base.get().getMatching();
+        if (previous.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(StableMatchingResponseDTO.builder()
+                            .status("ERROR")
+                            .message("Result " + base.get().getId()
+                                    + " cannot be re-matched; solve it with the indexed engine first")
+                            .executionTimeMs(0L)
+                            .build());
+        }
+
+        MatchingOutcome outcome = stableMatchingService.rematch(previous.get(), delta);
+        StableMatchingResponseDTO response = outcome.response();
+        String resultId = resultStore.publish(UUID.randomUUID().toString(), outcome).getId();
+
+        if ("SUCCESS".equals(response.getStatus())) {
+            log.info("Incremental re-matching of {} finished in {} ms",
+                    base.get().getId(), response.getExecutionTimeMs());
+            return ResponseEntity.ok().header(RESULT_ID_HEADER, resultId).body(response);
+        }
+        log.warn("Incremental re-matching failed: {}", response.getMessage());
+        return ResponseEntity.badRequest().header(RESULT_ID_HEADER, resultId).body(response);
+    }
+
+    /**
+     * Solves several independent stable matching problems in parallel.
+     * Batch results are returned directly and are not kept for the query endpoints.
+     *
+     * @param batch the problems to solve
+     * @param engine optional solver core ("indexed" or "legacy"), defaults to the configured engine
+     * @return per-problem results and timings, in submission order
+     */
+    @PostMapping("/solve-batch")
+    public ResponseEntity<BatchMatchingResponseDTO> solveBatch(
+            @RequestBody BatchMatchingRequestDTO batch,
+            @RequestParam(value = "engine", required = false) String engine) {
+
+        log.info("Received batch matching request with {} problems",
+                batch.getProblems() != null ? batch.getProblems().size() : 0);
+
+        try {
+            MatchingEngine matchingEngine = MatchingEngine.from(engine, stableMatchingService.getDefaultEngine());
+            return ResponseEntity.ok(batchMatchingService.solveBatch(batch, matchingEngine));
+        } catch (IllegalArgumentException e) {
+            log.warn("Batch matching rejected: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(BatchMatchingResponseDTO.builder()
+                            .status("ERROR")
+                            .message(e.getMessage())
+                            .results(List.of())
+                            .totalTimeMs(0L)
+                            .build());
+        }
+    }
+
+    /**
+     * Get all assignments from a solved matching
      *
+     * @param resultId solve/job ID of the result, or "latest"
      * @return list of all assignments
      */
     @GetMapping("/assignments")
-    public ResponseEntity<List<StableMatchingResponseDTO.Assignment>> getAllAssignments() {
-        log.info("GET /v1/matching/assignments - Retrieving all assignments");
-        
-        if (lastResult == null || lastResult.getAssignments() == null) {
-            return ResponseEntity.ok(List.of());
-        }
-        return ResponseEntity.ok(lastResult.getAssignments());
+    public ResponseEntity<List<StableMatchingResponseDTO.Assignment>> getAllAssignments(
+            @RequestParam(value = "result", defaultValue = MatchingResultStore.LATEST) String resultId) {
+        log.info("GET /v1/matching/assignments - Retrieving all assignments of {}", resultId);
+
+        return ResponseEntity.ok(resultStore.find(resultId)
+                .map(StoredMatchingResult::getResponse)
+                .map(StableMatchingResponseDTO::getAssignments)
+                .orElse(List.of()));
     }
 
     /**
      * Get assignments for a specific student
      *
      * @param studentId the student ID
+     * @param resultId solve/job ID of the result, or "latest"
      * @return assignment for the student, if exists
      */
     @GetMapping("/assignments/student/{studentId}")
     public ResponseEntity<StableMatchingResponseDTO.Assignment> getStudentAssignment(
-            @PathVariable String studentId) {
-        log.info("GET /v1/matching/assignments/student/{} - Retrieving assignment", studentId);
-        
-        if (lastResult == null || lastResult.getAssignments() == null) {
-            return ResponseEntity.notFound().build();
-        }
+            @PathVariable String studentId,
+            @RequestParam(value = "result", defaultValue = MatchingResultStore.LATEST) String resultId) {
+        log.debug("GET /v1/matching/assignments/student/{} - Retrieving assignment", studentId);
 
-        return lastResult.getAssignments().stream()
-                .filter(a -> a.getStudentId().equals(studentId))
-                .findFirst()
+        return resultStore.find(resultId)
+                .map(result -> result.findByStudent(studentId))
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -105,64 +348,67 @@ public class StableMatchingController {
      * Get all assignments for a specific course
      *
      * @param courseId the course ID
+     * @param resultId solve/job ID of the result, or "latest"
      * @return list of assignments for the course
      */
     @GetMapping("/assignments/course/{courseId}")
     public ResponseEntity<List<StableMatchingResponseDTO.Assignment>> getCourseAssignments(
-            @PathVariable String courseId) {
-        log.info("GET /v1/matching/assignments/course/{} - Retrieving assignments", courseId);
-        
-        if (lastResult == null || lastResult.getAssignments() == null) {
-            return ResponseEntity.ok(List.of());
-        }
-
-        List<StableMatchingResponseDTO.Assignment> courseAssignments = lastResult.getAssignments().stream()
-                .filter(a -> a.getCourseId().equals(courseId))
-                .collect(Collectors.toList());
+            @PathVariable String courseId,
+            @RequestParam(value = "result", defaultValue = MatchingResultStore.LATEST) String resultId) {
+        log.debug("GET /v1/matching/assignments/course/{} - Retrieving assignments", courseId);
 
-        return ResponseEntity.ok(courseAssignments);
+        return ResponseEntity.ok(resultStore.find(resultId)
+                .map(result -> result.findByCourse(courseId))
+                .orElse(List.of()));
     }
 
     /**
-     * Get unmatched students from the last matching
+     * Get unmatched students from a solved matching
      *
+     * @param resultId solve/job ID of the result, or "latest"
      * @return list of student IDs that couldn't be matched
      */
     @GetMapping("/unmatched-students")
-    public ResponseEntity<List<String>> getUnmatchedStudents() {
-        log.info("GET /v1/matching/unmatched-students - Retrieving unmatched students");
-        
-        if (lastResult == null || lastResult.getUnmatchedStudents() == null) {
-            return ResponseEntity.ok(List.of());
-        }
-        return ResponseEntity.ok(lastResult.getUnmatchedStudents());
+    public ResponseEntity<List<String>> getUnmatchedStudents(
+            @RequestParam(value = "result", defaultValue = MatchingResultStore.LATEST) String resultId) {
+        log.info("GET /v1/matching/unmatched-students - Retrieving unmatched students of {}", resultId);
+
+        return ResponseEntity.ok(resultStore.find(resultId)
+                .map(StoredMatchingResult::getResponse)
+                .map(StableMatchingResponseDTO::getUnmatchedStudents)
+                .orElse(List.of()));
     }
 
     /**
-     * Get full courses from the last matching
+     * Get full courses from a solved matching
      *
+     * @param resultId solve/job ID of the result, or "latest"
      * @return list of course IDs at capacity
      */
     @GetMapping("/full-courses")
-    public ResponseEntity<List<String>> getFullCourses() {
-        log.info("GET /v1/matching/full-courses - Retrieving full courses");
-        
-        if (lastResult == null || lastResult.getFullCourses() == null) {
-            return ResponseEntity.ok(List.of());
-        }
-        return ResponseEntity.ok(lastResult.getFullCourses());
+    public ResponseEntity<List<String>> getFullCourses(
+            @RequestParam(value = "result", defaultValue = MatchingResultStore.LATEST) String resultId) {
+        log.info("GET /v1/matching/full-courses - Retrieving full courses of {}", resultId);
+
+        return ResponseEntity.ok(resultStore.find(resultId)
+                .map(StoredMatchingResult::getResponse)
+                .map(StableMatchingResponseDTO::getFullCourses)
+                .orElse(List.of()));
     }
 
     /**
      * Get matching result summary
      *
+     * @param resultId solve/job ID of the result, or "latest"
      * @return summary information
      */
     @GetMapping("/result-summary")
-    public ResponseEntity<MatchingSummaryDTO> getResultSummary() {
-        log.info("GET /v1/matching/result-summary - Retrieving result summary");
-        
-        if (lastResult == null) {
+    public ResponseEntity<MatchingSummaryDTO> getResultSummary(
+            @RequestParam(value = "result", defaultValue = MatchingResultStore.LATEST) String resultId) {
+        log.info("GET /v1/matching/result-summary - Retrieving result summary of {}", resultId);
+
+        Optional<StoredMatchingResult> stored = resultStore.find(resultId);
+        if (stored.isEmpty()) {
             return ResponseEntity.ok(MatchingSummaryDTO.builder()
                     .status("NO_RESULT")
                     .totalAssignments(0)
@@ -172,13 +418,15 @@ public class StableMatchingController {
                     .build());
         }
 
+        StableMatchingResponseDTO result = stored.get().getResponse();
         return ResponseEntity.ok(MatchingSummaryDTO.builder()
-                .status(lastResult.getStatus())
-                .message(lastResult.getMessage())
-                .totalAssignments(lastResult.getAssignments() != null ? lastResult.getAssignments().size() : 0)
-                .unmatchedCount(lastResult.getUnmatchedStudents() != null ? lastResult.getUnmatchedStudents().size() : 0)
-                .fullCoursesCount(lastResult.getFullCourses() != null ? lastResult.getFullCourses().size() : 0)
-                .executionTimeMs(lastResult.getExecutionTimeMs())
+                .resultId(stored.get().getId())
+                .status(result.getStatus())
+                .message(result.getMessage())
+                .totalAssignments(result.getAssignments() != null ? result.getAssignments().size() : 0)
+                .unmatchedCount(result.getUnmatchedStudents() != null ? result.getUnmatchedStudents().size() : 0)
+                .fullCoursesCount(result.getFullCourses() != null ? result.getFullCourses().size() : 0)
+                .executionTimeMs(result.getExecutionTimeMs())
                 .build());
     }
 
@@ -231,6 +479,7 @@ public class StableMatchingController {
     @lombok.AllArgsConstructor
     @lombok.Builder
     public static class MatchingSummaryDTO {
+        private String resultId;
         private String status;
         private String message;
         private int totalAssignments;
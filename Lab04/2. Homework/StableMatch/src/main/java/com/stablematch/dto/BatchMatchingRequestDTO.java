@@ -0,0 +1,26 @@
+package com.stablematch.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object carrying several independent stable matching problems
+ * to be solved in one call.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchMatchingRequestDTO {
+
+    /**
+     * Independent problems; results are returned in the same order
+     */
+    @JsonProperty("problems")
+    private List<StableMatchingRequestDTO> problems;
+}
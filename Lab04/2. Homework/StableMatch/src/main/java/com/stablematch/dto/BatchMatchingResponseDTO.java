@@ -0,0 +1,73 @@
+package com.stablematch.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object with the solutions of a batch of stable matching problems.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchMatchingResponseDTO {
+
+    /**
+     * SUCCESS if every problem was solved, PARTIAL if some failed, ERROR if the batch was rejected
+     */
+    @JsonProperty("status")
+    private String status;
+
+    /**
+     * Human-readable message about the batch
+     */
+    @JsonProperty("message")
+    private String message;
+
+    /**
+     * One entry per submitted problem, in submission order
+     */
+    @JsonProperty("results")
+    private List<ProblemResult> results;
+
+    /**
+     * Wall-clock time for the whole batch in milliseconds
+     */
+    @JsonProperty("total_time_ms")
+    private Long totalTimeMs;
+
+    /**
+     * Result of a single problem of the batch.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ProblemResult {
+        /**
+         * Position of the problem in the request
+         */
+        @JsonProperty("index")
+        private Integer index;
+
+        /**
+         * Time the problem waited for a solver thread in milliseconds
+         */
+        @JsonProperty("queue_time_ms")
+        private Long queueTimeMs;
+
+        /**
+         * Time spent solving the problem in milliseconds
+         */
+        @JsonProperty("solve_time_ms")
+        private Long solveTimeMs;
+
+        @JsonProperty("result")
+        private StableMatchingResponseDTO result;
+    }
+}
@@ -0,0 +1,315 @@
+package com.stablematch.dto;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of a {@link StableMatchingRequestDTO}, sent with the
+ * {@link #MEDIA_TYPE} content type.
+ * <p>
+ * Every student and course ID is written once, in a dictionary, and preference lists
+ * refer to IDs by their position in it, so a student ID repeated in every course's list
+ * costs one or two bytes per occurrence instead of the quoted string. Integers are
+ * unsigned LEB128 varints; nullable ones are zigzag-encoded and shifted up by one, with
+ * 0 for null, so a decoded request is identical to the encoded one, invalid parts
+ * included. Layout:
+ * <pre>
+ * magic "SMC1"
+ * capacity_per_course      nullable int
+ * student IDs, course IDs  count, then (UTF-8 length, bytes) per ID
+ * students                 nullable count, then (ID, nullable count, course IDs) per student
+ * courses                  nullable count, then (ID, nullable capacity, nullable count, student IDs) per course
+ * </pre>
+ */
+public final class CompactMatchingCodec {
+
+    /**
+     * Content type of an encoded request
+     */
+    public static final String MEDIA_TYPE = "application/x-stablematch-compact";
+
+    private static final byte[] MAGIC = {'S', 'M', 'C', '1'};
+
+    /**
+     * Upper bound on list sizes allocated up front, so a corrupt count cannot exhaust memory
+     */
+    private static final int MAX_PREALLOCATED = 1 << 16;
+
+    private CompactMatchingCodec() {
+    }
+
+    /**
+     * Writes a request; the stream is flushed but not closed.
+     */
+    public static void encode(StableMatchingRequestDTO request, OutputStream out) throws IOException {
+        Dictionary studentIds = new Dictionary();
+        Dictionary courseIds = new Dictionary();
+        List<StableMatchingRequestDTO.StudentPreference> students = request.getStudents();
+        List<StableMatchingRequestDTO.CoursePreference> courses = request.getCourses();
+
+        // Declared IDs first, so indices follow the request order
+        if (students != null) {
+            for (StableMatchingRequestDTO.StudentPreference student : students) {
+                studentIds.add(student.getStudentId());
+            }
+        }
+        if (courses != null) {
+            for (StableMatchingRequestDTO.CoursePreference course : courses) {
+                courseIds.add(course.getCourseId());
+                addAll(studentIds, course.getPreferences());
+            }
+        }
+        if (students != null) {
+            for (StableMatchingRequestDTO.StudentPreference student : students) {
+                addAll(courseIds, student.getPreferences());
+            }
+        }
+
+        Writer writer = new Writer(out instanceof BufferedOutputStream ? out : new BufferedOutputStream(out));
+        writer.out.write(MAGIC);
+        writer.writeNullable(request.getCapacityPerCourse());
+        writer.writeDictionary(studentIds);
+        writer.writeDictionary(courseIds);
+
+        writer.writeNullable(students == null ? null : students.size());
+        if (students != null) {
+            for (StableMatchingRequestDTO.StudentPreference student : students) {
+                writer.writeVarInt(studentIds.indexOf(student.getStudentId()));
+                writer.writeReferences(courseIds, student.getPreferences());
+            }
+        }
+        writer.writeNullable(courses == null ? null : courses.size());
+        if (courses != null) {
+            for (StableMatchingRequestDTO.CoursePreference course : courses) {
+                writer.writeVarInt(courseIds.indexOf(course.getCourseId()));
+                writer.writeNullable(course.getCapacity());
+                writer.writeReferences(studentIds, course.getPreferences());
+            }
+        }
+        writer.out.flush();
+    }
+
+    /**
+     * Reads a request written by {@link #encode}.
+     *
+     * @throws IOException if the payload is truncated or not a compact request
+     */
+    public static StableMatchingRequestDTO decode(InputStream in) throws IOException {
+        Reader reader = new Reader(in instanceof BufferedInputStream ? in : new BufferedInputStream(in));
+        for (byte expected : MAGIC) {
+            if (reader.readByte() != expected) {
+                throw new IOException("Not a compact stable matching request");
+            }
+        }
+
+        Integer capacityPerCourse = reader.readNullable();
+        String[] studentIds = reader.readDictionary();
+        String[] courseIds = reader.readDictionary();
+
+        List<StableMatchingRequestDTO.StudentPreference> students = null;
+        Integer studentCount = reader.readNullableCount();
+        if (studentCount != null) {
+            students = new ArrayList<>(Math.min(studentCount, MAX_PREALLOCATED));
+            for (int i = 0; i < studentCount; i++) {
+                students.add(StableMatchingRequestDTO.StudentPreference.builder()
+                        .studentId(reader.readReference(studentIds))
+                        .preferences(reader.readReferences(courseIds))
+                        .build());
+            }
+        }
+
+        List<StableMatchingRequestDTO.CoursePreference> courses = null;
+        Integer courseCount = reader.readNullableCount();
+        if (courseCount != null) {
+            courses = new ArrayList<>(Math.min(courseCount, MAX_PREALLOCATED));
+            for (int i = 0; i < courseCount; i++) {
+                courses.add(StableMatchingRequestDTO.CoursePreference.builder()
+                        .courseId(reader.readReference(courseIds))
+                        .capacity(reader.readNullable())
+                        .preferences(reader.readReferences(studentIds))
+                        .build());
+            }
+        }
+
+        return StableMatchingRequestDTO.builder()
+                .students(students)
+                .courses(courses)
+                .capacityPerCourse(capacityPerCourse)
+                .build();
+    }
+
+    private static void addAll(Dictionary dictionary, List<String> ids) {
+        if (ids != null) {
+            for (String id : ids) {
+                dictionary.add(id);
+            }
+        }
+    }
+
+    /**
+     * IDs in first-seen order; index 0 is reserved for null.
+     */
+    private static final class Dictionary {
+
+        private final Map<String, Integer> indices = new HashMap<>();
+        private final List<String> ids = new ArrayList<>();
+
+        private void add(String id) {
+            if (id != null && indices.putIfAbsent(id, ids.size() + 1) == null) {
+                ids.add(id);
+            }
+        }
+
+        private int indexOf(String id) {
+            return id == null ? 0 : indices.get(id);
+        }
+    }
+
+    private static final class Writer {
+
+        private final OutputStream out;
+
+        private Writer(OutputStream out) {
+            this.out = out;
+        }
+
+        private void writeDictionary(Dictionary dictionary) throws IOException {
+            writeVarInt(dictionary.ids.size());
+            for (String id : dictionary.ids) {
+                byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+                writeVarInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+
+        private void writeReferences(Dictionary dictionary, List<String> ids) throws IOException {
+            writeNullable(ids == null ? null : ids.size());
+            if (ids != null) {
+                for (String id : ids) {
+                    writeVarInt(dictionary.indexOf(id));
+                }
+            }
+        }
+
+        /**
+         * Writes null as 0 and any other value, zigzag-encoded so negatives stay short, plus one.
+         */
+        private void writeNullable(Integer value) throws IOException {
+            writeVarLong(value == null ? 0 : ((((long) value) << 1) ^ (value >> 31)) + 1);
+        }
+
+        private void writeVarInt(int value) throws IOException {
+            writeVarLong(value);
+        }
+
+        private void writeVarLong(long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+    }
+
+    private static final class Reader {
+
+        private final InputStream in;
+
+        private Reader(InputStream in) {
+            this.in = in;
+        }
+
+        private String[] readDictionary() throws IOException {
+            int size = readCount();
+            List<String> ids = new ArrayList<>(Math.min(size, MAX_PREALLOCATED) + 1);
+            ids.add(null);
+            for (int i = 0; i < size; i++) {
+                int length = readCount();
+                byte[] bytes = in.readNBytes(length);
+                if (bytes.length < length) {
+                    throw new EOFException("Unexpected end of compact request");
+                }
+                ids.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+            return ids.toArray(new String[0]);
+        }
+
+        private String readReference(String[] dictionary) throws IOException {
+            int index = readVarInt();
+            if (index >= dictionary.length) {
+                throw new IOException("ID reference " + index + " is outside the dictionary");
+            }
+            return dictionary[index];
+        }
+
+        private List<String> readReferences(String[] dictionary) throws IOException {
+            Integer count = readNullableCount();
+            if (count == null) {
+                return null;
+            }
+            List<String> ids = new ArrayList<>(Math.min(count, MAX_PREALLOCATED));
+            for (int i = 0; i < count; i++) {
+                ids.add(readReference(dictionary));
+            }
+            return ids;
+        }
+
+        private Integer readNullable() throws IOException {
+            long encoded = readVarLong();
+            if (encoded == 0) {
+                return null;
+            }
+            long zigzag = encoded - 1;
+            return (int) ((zigzag >>> 1) ^ -(zigzag & 1));
+        }
+
+        private Integer readNullableCount() throws IOException {
+            Integer count = readNullable();
+            if (count != null && count < 0) {
+                throw new IOException("Negative count in compact request");
+            }
+            return count;
+        }
+
+        private int readCount() throws IOException {
+            int count = readVarInt();
+            if (count < 0) {
+                throw new IOException("Negative count in compact request");
+            }
+            return count;
+        }
+
+        private int readVarInt() throws IOException {
+            return (int) readVarLong();
+        }
+
+        private long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint in compact request");
+        }
+
+        private int readByte() throws IOException {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Unexpected end of compact request");
+            }
+            return b;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.stablematch.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object describing changes to a previously solved stable matching problem.
+ * All fields are optional; anything not mentioned keeps its previous definition.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MatchingDeltaDTO {
+
+    /**
+     * Students to add, or whose preference list replaces the previous one
+     */
+    @JsonProperty("students")
+    private List<StableMatchingRequestDTO.StudentPreference> students;
+
+    /**
+     * IDs of students leaving the problem
+     */
+    @JsonProperty("removed_students")
+    private List<String> removedStudents;
+
+    /**
+     * Courses to add, or whose preference list replaces the previous one
+     */
+    @JsonProperty("courses")
+    private List<StableMatchingRequestDTO.CoursePreference> courses;
+
+    /**
+     * IDs of courses leaving the problem; students still listing them must be updated too
+     */
+    @JsonProperty("removed_courses")
+    private List<String> removedCourses;
+
+    /**
+     * New capacity of every course, if it changed
+     */
+    @JsonProperty("capacity_per_course")
+    private Integer capacityPerCourse;
+}
@@ -0,0 +1,84 @@
+package com.stablematch.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object describing the state of an asynchronous stable matching job.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MatchingJobStatusDTO {
+
+    /**
+     * Unique identifier of the job
+     */
+    @JsonProperty("job_id")
+    private String jobId;
+
+    /**
+     * QUEUED, RUNNING, SUCCEEDED or FAILED
+     */
+    @JsonProperty("status")
+    private String status;
+
+    /**
+     * Human-readable message about the job (e.g. the failure reason)
+     */
+    @JsonProperty("message")
+    private String message;
+
+    /**
+     * Number of students in the submitted problem
+     */
+    @JsonProperty("students")
+    private Integer students;
+
+    /**
+     * Number of courses in the submitted problem
+     */
+    @JsonProperty("courses")
+    private Integer courses;
+
+    @JsonProperty("submitted_at")
+    private Instant submittedAt;
+
+    @JsonProperty("started_at")
+    private Instant startedAt;
+
+    @JsonProperty("finished_at")
+    private Instant finishedAt;
+
+    /**
+     * Solver phase (validate, index, propose or respond), once the job has started
+     */
+    @JsonProperty("phase")
+    private String phase;
+
+    /**
+     * Proposals made so far, updated every few thousand proposals while the job runs
+     */
+    @JsonProperty("proposals")
+    private Long proposals;
+
+    /**
+     * Preference entries of the problem: an upper bound on the proposals of the solve
+     */
+    @JsonProperty("preference_entries")
+    private Long preferenceEntries;
+
+    /**
+     * Relative URL of the result, present once the job has finished
+     */
+    @JsonProperty("result_url")
+    private String resultUrl;
+}
@@ -34,7 +34,7 @@ public class StableMatchingRequestDTO {
 
     /**
      * Optional: Maximum number of students per course (default: 1).
-     * Represents the capacity of each course.
+     * Represents the capacity of each course that does not declare its own.
      */
     @JsonProperty("capacity_per_course")
     private Integer capacityPerCourse;
@@ -75,9 +75,19 @@ public class StableMatchingRequestDTO {
         private String courseId;
 
         /**
-         * Ordered list of student IDs ranked from most to least preferred
+         * Ordered list of student IDs ranked from most to least preferred.
+         * May hold only the top of the course's ranking: students it does not list rank
+         * after every listed student, in the order they appear in {@code students}, and are
+         * reported with course_preference_rank 0.
          */
         @JsonProperty("preferences")
         private List<String> preferences;
+
+        /**
+         * Optional: Maximum number of students for this course.
+         * Overrides capacity_per_course, so courses can have different capacities.
+         */
+        @JsonProperty("capacity")
+        private Integer capacity;
     }
 }
@@ -0,0 +1,11 @@
+package com.stablematch.job;
+
+/**
+ * Thrown when a job cannot be accepted because the solver queue is at capacity.
+ */
+public class JobQueueFullException extends RuntimeException {
+
+    public JobQueueFullException(int queueCapacity) {
+        super("Solver queue is full (capacity " + queueCapacity + "), retry later");
+    }
+}
@@ -0,0 +1,104 @@
+package com.stablematch.job;
+
+import com.stablematch.algorithm.SolveProgress;
+import com.stablematch.dto.MatchingJobStatusDTO;
+import com.stablematch.dto.StableMatchingResponseDTO;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A stable matching problem submitted for asynchronous solving.
+ * State transitions happen on the worker thread; readers see them through volatile fields.
+ */
+public class MatchingJob {
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+
+    private final String id;
+    private final int students;
+    private final int courses;
+    private final Instant submittedAt;
+    private final CompletableFuture<StableMatchingResponseDTO> completion = new CompletableFuture<>();
+    private final SolveProgress progress = new SolveProgress();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String message;
+
+    MatchingJob(String id, int students, int courses) {
+        this.id = id;
+        this.students = students;
+        this.courses = courses;
+        this.submittedAt = Instant.now();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isFinished() {
+        return completion.isDone();
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * @return the result, or null while the job has not finished
+     */
+    public StableMatchingResponseDTO getResult() {
+        return completion.getNow(null);
+    }
+
+    /**
+     * @return a future completed with the result when the job finishes
+     */
+    public CompletableFuture<StableMatchingResponseDTO> getCompletion() {
+        return completion;
+    }
+
+    SolveProgress getProgress() {
+        return progress;
+    }
+
+    void markRunning() {
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+    }
+
+    void complete(StableMatchingResponseDTO result) {
+        finishedAt = Instant.now();
+        message = result.getMessage();
+        status = "SUCCESS".equals(result.getStatus()) ? Status.SUCCEEDED : Status.FAILED;
+        completion.complete(result);
+    }
+
+    public MatchingJobStatusDTO toStatus() {
+        Status current = status;
+        boolean finished = current == Status.SUCCEEDED || current == Status.FAILED;
+        boolean started = current != Status.QUEUED;
+        return MatchingJobStatusDTO.builder()
+                .jobId(id)
+                .status(current.name())
+                .message(message)
+                .students(students)
+                .courses(courses)
+                .submittedAt(submittedAt)
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .phase(started ? progress.phase() : null)
+                .proposals(started ? progress.proposals() : null)
+                .preferenceEntries(started ? progress.preferenceEntries() : null)
+                .resultUrl(finished ? "/v1/matching/jobs/" + id + "/result" : null)
+                .build();
+    }
+}
@@ -0,0 +1,168 @@
+package com.stablematch.job;
+
+import com.stablematch.algorithm.MatchingEngine;
+import com.stablematch.algorithm.MatchingOutcome;
+import com.stablematch.algorithm.StableMatchingService;
+import com.stablematch.dto.StableMatchingRequestDTO;
+import com.stablematch.dto.StableMatchingResponseDTO;
+import com.stablematch.result.MatchingResultStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs stable matching solves asynchronously on a bounded pool of solver threads.
+ * <p>
+ * The pool is sized for CPU-bound work and fronted by a bounded queue; when the
+ * queue is full, submissions are rejected with {@link JobQueueFullException}
+ * instead of piling up. Finished jobs are kept for a retention period so their
+ * results can be fetched, and swept once it has passed; results are also published to
+ * the {@link MatchingResultStore} under the job ID. Running jobs report the solver's
+ * phase and proposals so far.
+ */
+@Slf4j
+@Service
+public class MatchingJobService {
+
+    private final StableMatchingService stableMatchingService;
+    private final MatchingResultStore resultStore;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService sweeper;
+    private final Map<String, MatchingJob> jobs = new ConcurrentHashMap<>();
+    private final int queueCapacity;
+    private final Duration retention;
+    private final Counter rejectedJobs;
+
+    public MatchingJobService(StableMatchingService stableMatchingService,
+                              MatchingResultStore resultStore,
+                              MeterRegistry meterRegistry,
+                              @Value("${stablematch.jobs.workers:0}") int workers,
+                              @Value("${stablematch.jobs.queue-capacity:64}") int queueCapacity,
+                              @Value("${stablematch.jobs.retention:30m}") Duration retention) {
+        this.stableMatchingService = stableMatchingService;
+        this.resultStore = resultStore;
+        this.queueCapacity = queueCapacity;
+        this.retention = retention;
+
+        int poolSize = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), solverThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        // Sweep at least once a minute, so that finished jobs go even when nothing is submitted
+        long sweepMillis = Math.max(1000, Math.min(retention.toMillis(), Duration.ofMinutes(1).toMillis()));
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stablematch-job-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::evictExpired, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+
+        this.rejectedJobs = Counter.builder("stablematch.jobs.rejected")
+                .description("Number of jobs rejected because the solver queue was full")
+                .register(meterRegistry);
+        Gauge.builder("stablematch.jobs.queued", executor, e -> e.getQueue().size())
+                .description("Number of jobs waiting for a solver thread")
+                .register(meterRegistry);
+        Gauge.builder("stablematch.jobs.running", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Number of jobs currently being solved")
+                .register(meterRegistry);
+
+        log.info("Matching job executor started: workers={}, queueCapacity={}, retention={}",
+                poolSize, queueCapacity, retention);
+    }
+
+    /**
+     * Queues a problem for solving.
+     *
+     * @param request the stable matching problem definition
+     * @param engine the solver core to use
+     * @return the queued job
+     * @throws JobQueueFullException if the solver queue is at capacity
+     */
+    public MatchingJob submit(StableMatchingRequestDTO request, MatchingEngine engine) {
+        evictExpired();
+
+        MatchingJob job = new MatchingJob(UUID.randomUUID().toString(),
+                request.getStudents() != null ? request.getStudents().size() : 0,
+                request.getCourses() != null ? request.getCourses().size() : 0);
+        jobs.put(job.getId(), job);
+
+        try {
+            executor.execute(() -> run(job, request, engine));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            rejectedJobs.increment();
+            log.warn("Rejected matching job: queue full (capacity {})", queueCapacity);
+            throw new JobQueueFullException(queueCapacity);
+        }
+
+        log.info("Queued matching job {} (queued={}, running={})",
+                job.getId(), executor.getQueue().size(), executor.getActiveCount());
+        return job;
+    }
+
+    public Optional<MatchingJob> find(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    private void run(MatchingJob job, StableMatchingRequestDTO request, MatchingEngine engine) {
+        job.markRunning();
+        StableMatchingResponseDTO result;
+        try {
+            MatchingOutcome outcome = stableMatchingService.solve(request, engine, job.getProgress());
+            result = outcome.response();
+            // Publish before completing so the result is queryable by job ID as soon as the job reports done
+            resultStore.publish(job.getId(), outcome);
+        } catch (RuntimeException e) {
+            log.error("Matching job {} failed", job.getId(), e);
+            result = StableMatchingResponseDTO.builder()
+                    .status("ERROR")
+                    .message("Internal error: " + e.getMessage())
+                    .executionTimeMs(0L)
+                    .build();
+            resultStore.publish(job.getId(), result);
+        }
+        job.complete(result);
+        log.info("Matching job {} finished with status {}", job.getId(), job.getStatus());
+    }
+
+    void evictExpired() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt().isBefore(cutoff));
+    }
+
+    private static ThreadFactory solverThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "stablematch-solver-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,124 @@
+package com.stablematch.result;
+
+import com.stablematch.algorithm.IndexedGaleShapley;
+import com.stablematch.algorithm.MatchingOutcome;
+import com.stablematch.dto.StableMatchingResponseDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps recently solved matchings, keyed by solve/job ID, with a {@value #LATEST}
+ * alias for the most recent one.
+ * <p>
+ * Results are indexed once when published and swapped in atomically, so readers
+ * never lock and never see a half-built result. Old results are evicted (oldest
+ * first, never the latest) when the count or estimated memory budget is exceeded.
+ */
+@Slf4j
+@Component
+public class MatchingResultStore {
+
+    public static final String LATEST = "latest";
+
+    private final Map<String, StoredMatchingResult> results = new ConcurrentHashMap<>();
+    private final AtomicReference<StoredMatchingResult> latest = new AtomicReference<>();
+    private final Deque<String> publicationOrder = new ArrayDeque<>();
+    private final int maxResults;
+    private final long maxBytes;
+    private long storedBytes;
+
+    public MatchingResultStore(MeterRegistry meterRegistry,
+                               @Value("${stablematch.results.max-count:16}") int maxResults,
+                               @Value("${stablematch.results.max-memory:256MB}") DataSize maxMemory) {
+        this.maxResults = Math.max(1, maxResults);
+        this.maxBytes = maxMemory.toBytes();
+        Gauge.builder("stablematch.results.stored", results, Map::size)
+                .description("Number of solved matchings kept for querying")
+                .register(meterRegistry);
+        Gauge.builder("stablematch.results.estimated.bytes", this, MatchingResultStore::getStoredBytes)
+                .description("Estimated heap held by stored matchings")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Indexes a result and makes it the latest one.
+     *
+     * @param id the solve or job ID
+     * @param response the solved matching
+     * @return the stored result
+     */
+    public StoredMatchingResult publish(String id, StableMatchingResponseDTO response) {
+        return publish(id, response, null);
+    }
+
+    /**
+     * Indexes a result and makes it the latest one, keeping its indexed matching
+     * so it can be re-matched incrementally.
+     *
+     * @param id the solve or job ID
+     * @param outcome the solved matching
+     * @return the stored result
+     */
+    public StoredMatchingResult publish(String id, MatchingOutcome outcome) {
+        return publish(id, outcome.response(), outcome.matching());
+    }
+
+    private StoredMatchingResult publish(String id, StableMatchingResponseDTO response,
+                                         IndexedGaleShapley.IndexedMatching matching) {
+        StoredMatchingResult stored = new StoredMatchingResult(id, response, matching);
+
+        synchronized (publicationOrder) {
+            StoredMatchingResult previous = results.put(id, stored);
+            if (previous != null) {
+                publicationOrder.remove(id);
+                storedBytes -= previous.getEstimatedBytes();
+            }
+            publicationOrder.addLast(id);
+            storedBytes += stored.getEstimatedBytes();
+            latest.set(stored);
+            evict();
+        }
+        return stored;
+    }
+
+    /**
+     * @param id a solve/job ID or {@value #LATEST}
+     * @return the stored result, if still present
+     */
+    public Optional<StoredMatchingResult> find(String id) {
+        if (id == null || LATEST.equals(id)) {
+            return Optional.ofNullable(latest.get());
+        }
+        return Optional.ofNullable(results.get(id));
+    }
+
+    public long getStoredBytes() {
+        synchronized (publicationOrder) {
+            return storedBytes;
+        }
+    }
+
+    private void evict() {
+        while (publicationOrder.size() > 1
+                && (publicationOrder.size() > maxResults || storedBytes > maxBytes)) {
+            String oldest = publicationOrder.pollFirst();
+            StoredMatchingResult removed = results.remove(oldest);
+            if (removed != null) {
+                storedBytes -= removed.getEstimatedBytes();
+                log.debug("Evicted matching result {}", oldest);
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.stablematch.result;
+
+import com.stablematch.algorithm.IndexedGaleShapley;
+import com.stablematch.dto.StableMatchingResponseDTO;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable snapshot of a solved matching, indexed by student and by course
+ * when it is published so lookups are O(1) hash reads.
+ */
+public final class StoredMatchingResult {
+
+    // Rough per-entry heap cost of the response plus both indexes, used for the memory budget
+    private static final long BYTES_PER_ASSIGNMENT = 200;
+    private static final long BYTES_PER_ID = 64;
+
+    private final String id;
+    private final Instant publishedAt;
+    private final StableMatchingResponseDTO response;
+    private final IndexedGaleShapley.IndexedMatching matching;
+    private final Map<String, StableMatchingResponseDTO.Assignment> byStudent;
+    private final Map<String, List<StableMatchingResponseDTO.Assignment>> byCourse;
+    private final long estimatedBytes;
+
+    StoredMatchingResult(String id, StableMatchingResponseDTO response,
+                         IndexedGaleShapley.IndexedMatching matching) {
+        this.id = id;
+        this.publishedAt = Instant.now();
+        this.response = response;
+        this.matching = matching;
+
+        List<StableMatchingResponseDTO.Assignment> assignments =
+                response.getAssignments() != null ? response.getAssignments() : List.of();
+        Map<String, StableMatchingResponseDTO.Assignment> students = new HashMap<>(assignments.size() * 2);
+        Map<String, List<StableMatchingResponseDTO.Assignment>> courses = new HashMap<>();
+        for (StableMatchingResponseDTO.Assignment assignment : assignments) {
+            students.putIfAbsent(assignment.getStudentId(), assignment);
+            courses.computeIfAbsent(assignment.getCourseId(), c -> new ArrayList<>()).add(assignment);
+        }
+        courses.replaceAll((course, list) -> Collections.unmodifiableList(list));
+        this.byStudent = Collections.unmodifiableMap(students);
+        this.byCourse = Collections.unmodifiableMap(courses);
+        this.estimatedBytes = estimateBytes(response, matching);
+    }
+
+    /**
+     * Rough heap cost of a solved matching, used for memory budgets.
+     *
+     * @param response the solved matching
+     * @param matching its indexed matching, or {@code null}
+     * @return estimated bytes held by the response, its indexes and the indexed problem
+     */
+    public static long estimateBytes(StableMatchingResponseDTO response,
+                                     IndexedGaleShapley.IndexedMatching matching) {
+        int assignments = response.getAssignments() != null ? response.getAssignments().size() : 0;
+        int ids = (response.getUnmatchedStudents() != null ? response.getUnmatchedStudents().size() : 0)
+                + (response.getFullCourses() != null ? response.getFullCourses().size() : 0);
+        return assignments * BYTES_PER_ASSIGNMENT + ids * BYTES_PER_ID
+                + (matching != null ? matching.problem().estimatedBytes() : 0);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Instant getPublishedAt() {
+        return publishedAt;
+    }
+
+    public StableMatchingResponseDTO getResponse() {
+        return response;
+    }
+
+    /**
+     * @return the indexed matching kept for incremental re-matching, if the solve produced one
+     */
+    public Optional<IndexedGaleShapley.IndexedMatching> getMatching() {
+        return Optional.ofNullable(matching);
+    }
+
+    public StableMatchingResponseDTO.Assignment findByStudent(String studentId) {
+        return byStudent.get(studentId);
+    }
+
+    public List<StableMatchingResponseDTO.Assignment> findByCourse(String courseId) {
+        return byCourse.getOrDefault(courseId, List.of());
+    }
+
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+}
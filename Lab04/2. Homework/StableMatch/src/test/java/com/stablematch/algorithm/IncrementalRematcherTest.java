@@ -0,0 +1,216 @@
+package com.stablematch.algorithm;
+
+import com.stablematch.dto.MatchingDeltaDTO;
+import com.stablematch.dto.StableMatchingRequestDTO;
+import com.stablematch.dto.StableMatchingResponseDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalRematcherTest {
+
+    private StableMatchingService stableMatchingService;
+
+    @BeforeEach
+    void setUp() {
+        stableMatchingService = new StableMatchingService(new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testEmptyDeltaKeepsMatching() {
+        StableMatchingRequestDTO request = randomRequest(new Random(7), 40, 6, 3);
+        MatchingOutcome solved = stableMatchingService.solve(request, MatchingEngine.INDEXED);
+
+        MatchingOutcome rematched = stableMatchingService.rematch(solved.matching(), new MatchingDeltaDTO());
+
+        assertEquals("SUCCESS", rematched.response().getStatus());
+        assertEquals("Stable matching repaired incrementally", rematched.response().getMessage());
+        assertEquals(solved.response().getAssignments(), rematched.response().getAssignments());
+        assertEquals(0, rematched.matching().proposals());
+    }
+
+    @Test
+    void testRandomDeltasYieldStableMatchings() {
+        Random random = new Random(42);
+        int repaired = 0;
+        for (int round = 0; round < 50; round++) {
+            int courses = 2 + random.nextInt(8);
+            StableMatchingRequestDTO request = randomRequest(random,
+                    10 + random.nextInt(60), courses, 1 + random.nextInt(4));
+            MatchingOutcome solved = stableMatchingService.solve(request, MatchingEngine.INDEXED);
+
+            Map<String, List<String>> students = new LinkedHashMap<>();
+            request.getStudents().forEach(sp -> students.put(sp.getStudentId(), sp.getPreferences()));
+            Map<String, List<String>> courseLists = new LinkedHashMap<>();
+            request.getCourses().forEach(cp -> courseLists.put(cp.getCourseId(), cp.getPreferences()));
+            List<String> courseIds = new ArrayList<>(courseLists.keySet());
+            List<String> studentIds = new ArrayList<>(students.keySet());
+
+            MatchingDeltaDTO delta = new MatchingDeltaDTO();
+            delta.setStudents(new ArrayList<>());
+            delta.setCourses(new ArrayList<>());
+            for (int i = 0; i < 1 + random.nextInt(3); i++) {
+                String id = studentIds.get(random.nextInt(studentIds.size()));
+                if (students.get(id) != null && delta.getStudents().stream().noneMatch(sp -> sp.getStudentId().equals(id))) {
+                    List<String> prefs = randomSubList(random, courseIds);
+                    delta.getStudents().add(student(id, prefs));
+                    students.put(id, prefs);
+                }
+            }
+            String added = "N" + round;
+            List<String> addedPrefs = randomSubList(random, courseIds);
+            delta.getStudents().add(student(added, addedPrefs));
+            students.put(added, addedPrefs);
+
+            String removed = studentIds.get(random.nextInt(studentIds.size()));
+            if (delta.getStudents().stream().noneMatch(sp -> sp.getStudentId().equals(removed))) {
+                delta.setRemovedStudents(List.of(removed));
+                students.remove(removed);
+            }
+
+            String changedCourse = courseIds.get(random.nextInt(courseIds.size()));
+            List<String> ranking = new ArrayList<>(students.keySet());
+            ranking = randomSubList(random, ranking);
+            Integer ownCapacity = random.nextBoolean() ? 1 + random.nextInt(4) : null;
+            delta.getCourses().add(StableMatchingRequestDTO.CoursePreference.builder()
+                    .courseId(changedCourse).preferences(ranking).capacity(ownCapacity).build());
+            courseLists.put(changedCourse, ranking);
+
+            int defaultCapacity = request.getCapacityPerCourse();
+            if (random.nextInt(4) == 0) {
+                defaultCapacity = 1 + random.nextInt(4);
+                delta.setCapacityPerCourse(defaultCapacity);
+            }
+            Map<String, Integer> capacities = new HashMap<>();
+            for (String courseId : courseIds) {
+                capacities.put(courseId, defaultCapacity);
+            }
+            if (ownCapacity != null) {
+                capacities.put(changedCourse, ownCapacity);
+            }
+
+            MatchingOutcome rematched = stableMatchingService.rematch(solved.matching(), delta);
+            StableMatchingResponseDTO response = rematched.response();
+
+            assertEquals("SUCCESS", response.getStatus(), response.getMessage());
+            assertEquals(students.size(), response.getAssignments().size() + response.getUnmatchedStudents().size());
+            assertStable(students, courseLists, capacities, response);
+
+            // The derived problem must be the one a full request with the same changes describes
+            StableMatchingRequestDTO changedRequest = StableMatchingRequestDTO.builder()
+                    .students(students.entrySet().stream().map(e -> student(e.getKey(), e.getValue())).toList())
+                    .courses(courseLists.entrySet().stream().map(e -> StableMatchingRequestDTO.CoursePreference.builder()
+                            .courseId(e.getKey()).preferences(e.getValue())
+                            .capacity(e.getKey().equals(changedCourse) ? ownCapacity : null).build()).toList())
+                    .capacityPerCourse(defaultCapacity)
+                    .build();
+            assertEquals(stableMatchingService.solveStableMatching(changedRequest, MatchingEngine.INDEXED).getAssignments(),
+                    stableMatchingService.buildResponse(IndexedGaleShapley.solve(rematched.matching().problem()), 0)
+                            .getAssignments());
+            if (response.getMessage().contains("repaired")) {
+                repaired++;
+            }
+        }
+        assertTrue(repaired > 40, "most deltas should be repaired without a full solve, was " + repaired);
+    }
+
+    @Test
+    void testRemovedCourseStillListedIsRejected() {
+        StableMatchingRequestDTO request = StableMatchingRequestDTO.builder()
+                .students(List.of(student("S1", List.of("C1", "C2"))))
+                .courses(List.of(
+                        StableMatchingRequestDTO.CoursePreference.builder().courseId("C1").preferences(List.of("S1")).build(),
+                        StableMatchingRequestDTO.CoursePreference.builder().courseId("C2").preferences(List.of("S1")).build()))
+                .build();
+        MatchingOutcome solved = stableMatchingService.solve(request, MatchingEngine.INDEXED);
+
+        MatchingOutcome rematched = stableMatchingService.rematch(solved.matching(),
+                MatchingDeltaDTO.builder().removedCourses(List.of("C2")).build());
+
+        assertEquals("ERROR", rematched.response().getStatus());
+        assertTrue(rematched.response().getMessage().contains("Unknown course"));
+        assertNull(rematched.matching());
+    }
+
+    /**
+     * Asserts that no student prefers a course that has room for it or ranks it above its worst admit.
+     */
+    private static void assertStable(Map<String, List<String>> students, Map<String, List<String>> courses,
+                                     Map<String, Integer> capacities, StableMatchingResponseDTO response) {
+        Map<String, String> assigned = new HashMap<>();
+        Map<String, List<String>> admitted = new HashMap<>();
+        for (StableMatchingResponseDTO.Assignment assignment : response.getAssignments()) {
+            assigned.put(assignment.getStudentId(), assignment.getCourseId());
+            admitted.computeIfAbsent(assignment.getCourseId(), c -> new ArrayList<>()).add(assignment.getStudentId());
+        }
+
+        for (Map.Entry<String, List<String>> entry : students.entrySet()) {
+            String student = entry.getKey();
+            List<String> prefs = entry.getValue();
+            int current = assigned.containsKey(student) ? prefs.indexOf(assigned.get(student)) : prefs.size();
+            for (String course : prefs.subList(0, current)) {
+                List<String> admits = admitted.getOrDefault(course, List.of());
+                assertEquals(capacities.get(course), admits.size(), student + " blocks with under-filled " + course);
+                int worst = admits.stream().mapToInt(s -> rank(courses.get(course), s)).max().orElseThrow();
+                assertTrue(rank(courses.get(course), student) >= worst, student + " blocks with " + course);
+            }
+        }
+    }
+
+    private static int rank(List<String> ranking, String student) {
+        int index = ranking.indexOf(student);
+        return index < 0 ? Integer.MAX_VALUE : index;
+    }
+
+    private static List<String> randomSubList(Random random, List<String> ids) {
+        List<String> shuffled = new ArrayList<>(ids);
+        Collections.shuffle(shuffled, random);
+        return new ArrayList<>(shuffled.subList(0, 1 + random.nextInt(shuffled.size())));
+    }
+
+    private static StableMatchingRequestDTO randomRequest(Random random, int students, int courses, int capacity) {
+        List<String> courseIds = new ArrayList<>();
+        for (int c = 0; c < courses; c++) {
+            courseIds.add("C" + c);
+        }
+        List<String> studentIds = new ArrayList<>();
+        for (int s = 0; s < students; s++) {
+            studentIds.add("S" + s);
+        }
+
+        List<StableMatchingRequestDTO.StudentPreference> studentPreferences = new ArrayList<>();
+        for (String studentId : studentIds) {
+            studentPreferences.add(student(studentId, randomSubList(random, courseIds)));
+        }
+        List<StableMatchingRequestDTO.CoursePreference> coursePreferences = new ArrayList<>();
+        for (String courseId : courseIds) {
+            coursePreferences.add(StableMatchingRequestDTO.CoursePreference.builder()
+                    .courseId(courseId)
+                    .preferences(randomSubList(random, studentIds))
+                    .build());
+        }
+
+        return StableMatchingRequestDTO.builder()
+                .students(studentPreferences)
+                .courses(coursePreferences)
+                .capacityPerCourse(capacity)
+                .build();
+    }
+
+    private static StableMatchingRequestDTO.StudentPreference student(String id, List<String> courses) {
+        return StableMatchingRequestDTO.StudentPreference.builder()
+                .studentId(id)
+                .preferences(courses)
+                .build();
+    }
+}
@@ -0,0 +1,258 @@
+package com.stablematch.algorithm;
+
+import com.stablematch.dto.StableMatchingRequestDTO;
+import com.stablematch.dto.StableMatchingResponseDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexedGaleShapleyTest {
+
+    private StableMatchingService stableMatchingService;
+
+    @BeforeEach
+    void setUp() {
+        stableMatchingService = new StableMatchingService(new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testWorstAdmitIsDisplaced() {
+        // C1 holds S1 and S2; S3 is preferred over S2 (the worst admit), not over S1
+        StableMatchingRequestDTO request = StableMatchingRequestDTO.builder()
+                .students(Arrays.asList(
+                        student("S1", "C1"),
+                        student("S2", "C1", "C2"),
+                        student("S3", "C1")
+                ))
+                .courses(Arrays.asList(
+                        course("C1", "S1", "S3", "S2"),
+                        course("C2", "S2")
+                ))
+                .capacityPerCourse(2)
+                .build();
+
+        StableMatchingResponseDTO response =
+                stableMatchingService.solveStableMatching(request, MatchingEngine.INDEXED);
+
+        assertEquals("SUCCESS", response.getStatus());
+        Map<String, String> assigned = toMap(response);
+        assertEquals("C1", assigned.get("S1"));
+        assertEquals("C1", assigned.get("S3"));
+        assertEquals("C2", assigned.get("S2"));
+        assertTrue(response.getUnmatchedStudents().isEmpty());
+    }
+
+    @Test
+    void testUnlistedStudentsRankInDeclarationOrder() {
+        // S2 reaches C1 first, but C1 does not list either; S1, displaced from C2, is declared earlier and wins
+        StableMatchingRequestDTO truncated = StableMatchingRequestDTO.builder()
+                .students(Arrays.asList(
+                        student("S1", "C2", "C1"),
+                        student("S2", "C1"),
+                        student("S3", "C2")
+                ))
+                .courses(Arrays.asList(
+                        course("C1", "S3"),
+                        course("C2", "S3", "S1")
+                ))
+                .capacityPerCourse(1)
+                .build();
+        StableMatchingRequestDTO full = StableMatchingRequestDTO.builder()
+                .students(truncated.getStudents())
+                .courses(Arrays.asList(
+                        course("C1", "S3", "S1", "S2"),
+                        course("C2", "S3", "S1")
+                ))
+                .capacityPerCourse(1)
+                .build();
+
+        for (MatchingEngine engine : MatchingEngine.values()) {
+            StableMatchingResponseDTO response = stableMatchingService.solveStableMatching(truncated, engine);
+
+            assertEquals("SUCCESS", response.getStatus());
+            Map<String, String> assigned = toMap(response);
+            assertEquals("C1", assigned.get("S1"), engine.name());
+            assertEquals("C2", assigned.get("S3"), engine.name());
+            assertEquals(List.of("S2"), response.getUnmatchedStudents(), engine.name());
+            assertEquals(assigned, toMap(stableMatchingService.solveStableMatching(full, engine)), engine.name());
+        }
+    }
+
+    @Test
+    void testUnknownCourseIsRejected() {
+        StableMatchingRequestDTO request = StableMatchingRequestDTO.builder()
+                .students(List.of(student("S1", "C9")))
+                .courses(List.of(course("C1", "S1")))
+                .build();
+
+        StableMatchingResponseDTO response =
+                stableMatchingService.solveStableMatching(request, MatchingEngine.INDEXED);
+
+        assertEquals("ERROR", response.getStatus());
+        assertTrue(response.getMessage().contains("Unknown course"));
+    }
+
+    @Test
+    void testEnginesProduceIdenticalAssignments() {
+        Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            StableMatchingRequestDTO request = randomRequest(random,
+                    5 + random.nextInt(60), 1 + random.nextInt(8), 1 + random.nextInt(4));
+
+            StableMatchingResponseDTO legacy =
+                    stableMatchingService.solveStableMatching(request, MatchingEngine.LEGACY);
+            StableMatchingResponseDTO indexed =
+                    stableMatchingService.solveStableMatching(request, MatchingEngine.INDEXED);
+
+            assertEquals("SUCCESS", legacy.getStatus());
+            assertEquals("SUCCESS", indexed.getStatus());
+            assertEquals(legacy.getAssignments(), indexed.getAssignments());
+            assertEquals(new HashSet<>(legacy.getUnmatchedStudents()),
+                    new HashSet<>(indexed.getUnmatchedStudents()));
+            assertEquals(new HashSet<>(legacy.getFullCourses()),
+                    new HashSet<>(indexed.getFullCourses()));
+        }
+    }
+
+    @Test
+    void testCourseCapacityOverridesDefault() {
+        StableMatchingRequestDTO request = StableMatchingRequestDTO.builder()
+                .students(Arrays.asList(
+                        student("S1", "C1", "C2"),
+                        student("S2", "C1", "C2"),
+                        student("S3", "C1", "C2")
+                ))
+                .courses(Arrays.asList(
+                        StableMatchingRequestDTO.CoursePreference.builder()
+                                .courseId("C1").preferences(Arrays.asList("S1", "S2", "S3")).capacity(2).build(),
+                        course("C2", "S3")
+                ))
+                .capacityPerCourse(1)
+                .build();
+
+        for (MatchingEngine engine : MatchingEngine.values()) {
+            StableMatchingResponseDTO response = stableMatchingService.solveStableMatching(request, engine);
+
+            assertEquals("SUCCESS", response.getStatus());
+            Map<String, String> assigned = toMap(response);
+            assertEquals("C1", assigned.get("S1"));
+            assertEquals("C1", assigned.get("S2"));
+            assertEquals("C2", assigned.get("S3"));
+            assertEquals(new HashSet<>(List.of("C1", "C2")), new HashSet<>(response.getFullCourses()));
+        }
+    }
+
+    @Test
+    void testHugeCapacitiesOnlyCostTheirApplicants() {
+        // Sizing heaps by capacity overflowed at MAX_VALUE and ran out of memory well below it
+        for (int capacity : new int[]{400_000_000, Integer.MAX_VALUE}) {
+            StableMatchingRequestDTO request = StableMatchingRequestDTO.builder()
+                    .students(List.of(student("S1", "C1", "C2")))
+                    .courses(Arrays.asList(course("C1", "S1"), course("C2", "S1")))
+                    .capacityPerCourse(capacity)
+                    .build();
+
+            for (MatchingEngine engine : MatchingEngine.values()) {
+                StableMatchingResponseDTO response = stableMatchingService.solveStableMatching(request, engine);
+
+                assertEquals("SUCCESS", response.getStatus(), engine.name());
+                assertEquals("C1", toMap(response).get("S1"), engine.name());
+                assertTrue(response.getFullCourses().isEmpty(), engine.name());
+            }
+        }
+    }
+
+    @Test
+    void testEnginesAgreeWithHeterogeneousCapacities() {
+        Random random = new Random(7);
+        for (int round = 0; round < 50; round++) {
+            StableMatchingRequestDTO request = randomRequest(random,
+                    5 + random.nextInt(60), 1 + random.nextInt(8), 1 + random.nextInt(4));
+            for (StableMatchingRequestDTO.CoursePreference course : request.getCourses()) {
+                if (random.nextBoolean()) {
+                    course.setCapacity(1 + random.nextInt(10));
+                }
+            }
+
+            StableMatchingResponseDTO legacy =
+                    stableMatchingService.solveStableMatching(request, MatchingEngine.LEGACY);
+            StableMatchingResponseDTO indexed =
+                    stableMatchingService.solveStableMatching(request, MatchingEngine.INDEXED);
+
+            assertEquals(legacy.getAssignments(), indexed.getAssignments());
+            assertEquals(new HashSet<>(legacy.getFullCourses()), new HashSet<>(indexed.getFullCourses()));
+        }
+    }
+
+    private static StableMatchingRequestDTO randomRequest(Random random, int students, int courses,
+                                                          int capacity) {
+        List<String> courseIds = new ArrayList<>();
+        for (int c = 0; c < courses; c++) {
+            courseIds.add("C" + c);
+        }
+        List<String> studentIds = new ArrayList<>();
+        for (int s = 0; s < students; s++) {
+            studentIds.add("S" + s);
+        }
+
+        List<StableMatchingRequestDTO.StudentPreference> studentPreferences = new ArrayList<>();
+        for (String studentId : studentIds) {
+            List<String> prefs = new ArrayList<>(courseIds);
+            Collections.shuffle(prefs, random);
+            studentPreferences.add(StableMatchingRequestDTO.StudentPreference.builder()
+                    .studentId(studentId)
+                    .preferences(prefs.subList(0, 1 + random.nextInt(prefs.size())))
+                    .build());
+        }
+
+        // Course lists deliberately omit some students to exercise unranked proposals
+        List<StableMatchingRequestDTO.CoursePreference> coursePreferences = new ArrayList<>();
+        for (String courseId : courseIds) {
+            List<String> prefs = new ArrayList<>(studentIds);
+            Collections.shuffle(prefs, random);
+            coursePreferences.add(StableMatchingRequestDTO.CoursePreference.builder()
+                    .courseId(courseId)
+                    .preferences(prefs.subList(0, 1 + random.nextInt(prefs.size())))
+                    .build());
+        }
+
+        return StableMatchingRequestDTO.builder()
+                .students(studentPreferences)
+                .courses(coursePreferences)
+                .capacityPerCourse(capacity)
+                .build();
+    }
+
+    private static Map<String, String> toMap(StableMatchingResponseDTO response) {
+        Map<String, String> assigned = new HashMap<>();
+        for (StableMatchingResponseDTO.Assignment assignment : response.getAssignments()) {
+            assigned.put(assignment.getStudentId(), assignment.getCourseId());
+        }
+        return assigned;
+    }
+
+    private static StableMatchingRequestDTO.StudentPreference student(String id, String... courses) {
+        return StableMatchingRequestDTO.StudentPreference.builder()
+                .studentId(id)
+                .preferences(Arrays.asList(courses))
+                .build();
+    }
+
+    private static StableMatchingRequestDTO.CoursePreference course(String id, String... students) {
+        return StableMatchingRequestDTO.CoursePreference.builder()
+                .courseId(id)
+                .preferences(Arrays.asList(students))
+                .build();
+    }
+}
@@ -2,6 +2,7 @@ package com.stablematch.algorithm;
 
 import com.stablematch.dto.StableMatchingRequestDTO;
 import com.stablematch.dto.StableMatchingResponseDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -12,11 +13,13 @@ import static org.junit.jupiter.api.Assertions.*;
 
 class StableMatchingServiceTest {
 
+    private SimpleMeterRegistry meterRegistry;
     private StableMatchingService stableMatchingService;
 
     @BeforeEach
     void setUp() {
-        stableMatchingService = new StableMatchingService();
+        meterRegistry = new SimpleMeterRegistry();
+        stableMatchingService = new StableMatchingService(meterRegistry);
     }
 
     @Test
@@ -123,4 +126,48 @@ class StableMatchingServiceTest {
         assertNotNull(response.getExecutionTimeMs());
         assertTrue(response.getExecutionTimeMs() >= 0);
     }
+
+    @Test
+    void testSolveMetricsAreRecordedPerEngine() {
+        // S2 displaces S1 from C1 and S3 is turned down by the full C1. The legacy engine
+        // restarts S1 from the top of its list, so it also proposes to C1 again.
+        StableMatchingRequestDTO request = StableMatchingRequestDTO.builder()
+                .students(List.of(
+                        StableMatchingRequestDTO.StudentPreference.builder()
+                                .studentId("S1").preferences(List.of("C1", "C2")).build(),
+                        StableMatchingRequestDTO.StudentPreference.builder()
+                                .studentId("S2").preferences(List.of("C1")).build(),
+                        StableMatchingRequestDTO.StudentPreference.builder()
+                                .studentId("S3").preferences(List.of("C1")).build()))
+                .courses(List.of(
+                        StableMatchingRequestDTO.CoursePreference.builder()
+                                .courseId("C1").preferences(List.of("S2", "S1", "S3")).build(),
+                        StableMatchingRequestDTO.CoursePreference.builder()
+                                .courseId("C2").preferences(List.of("S1")).build()))
+                .capacityPerCourse(1)
+                .build();
+
+        for (MatchingEngine engine : MatchingEngine.values()) {
+            stableMatchingService.solveStableMatching(request, engine);
+            String tag = engine.name().toLowerCase();
+            boolean legacy = engine == MatchingEngine.LEGACY;
+
+            assertEquals(legacy ? 5.0 : 4.0, meterRegistry.get("stablematch.solve.proposals").tag("engine", tag)
+                    .summary().totalAmount());
+            assertEquals(1.0, meterRegistry.get("stablematch.solve.displacements").tag("engine", tag)
+                    .summary().totalAmount());
+            assertEquals(legacy ? 2.0 : 1.0, meterRegistry.get("stablematch.solve.rejections").tag("engine", tag)
+                    .summary().totalAmount());
+            assertEquals(3.0, meterRegistry.get("stablematch.problem.students").tag("engine", tag)
+                    .summary().totalAmount());
+            assertEquals(2.0, meterRegistry.get("stablematch.problem.courses").tag("engine", tag)
+                    .summary().totalAmount());
+            for (String phase : List.of("index", "propose", "respond")) {
+                assertEquals(1, meterRegistry.get("stablematch.solve.phase.duration")
+                        .tags("engine", tag, "phase", phase).timer().count());
+            }
+        }
+        assertEquals(1, meterRegistry.get("stablematch.solve.phase.duration")
+                .tags("engine", "legacy", "phase", "validate").timer().count());
+    }
 }
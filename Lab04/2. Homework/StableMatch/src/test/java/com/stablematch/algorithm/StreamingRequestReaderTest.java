@@ -0,0 +1,132 @@
+package com.stablematch.algorithm;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stablematch.dto.StableMatchingRequestDTO;
+import com.stablematch.dto.StableMatchingResponseDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingRequestReaderTest {
+
+    private StableMatchingService stableMatchingService;
+
+    @BeforeEach
+    void setUp() {
+        stableMatchingService = new StableMatchingService(new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testStreamedRequestMatchesDtoRequest() throws Exception {
+        StableMatchingRequestDTO request = StableMatchingRequestDTO.builder()
+                .students(Arrays.asList(
+                        StableMatchingRequestDTO.StudentPreference.builder()
+                                .studentId("S1").preferences(Arrays.asList("C1", "C2")).build(),
+                        StableMatchingRequestDTO.StudentPreference.builder()
+                                .studentId("S2").preferences(Arrays.asList("C1", "C2")).build(),
+                        StableMatchingRequestDTO.StudentPreference.builder()
+                                .studentId("S3").preferences(Arrays.asList("C1")).build()
+                ))
+                .courses(Arrays.asList(
+                        StableMatchingRequestDTO.CoursePreference.builder()
+                                .courseId("C1").preferences(Arrays.asList("S3", "S2", "S1")).capacity(2).build(),
+                        StableMatchingRequestDTO.CoursePreference.builder()
+                                .courseId("C2").preferences(Arrays.asList("S1", "S2")).build()
+                ))
+                .capacityPerCourse(1)
+                .build();
+        byte[] json = new ObjectMapper().writeValueAsBytes(request);
+
+        StableMatchingResponseDTO expected = stableMatchingService.solveStableMatching(request);
+        StableMatchingResponseDTO streamed =
+                stableMatchingService.solveStableMatching(new ByteArrayInputStream(json), 0, 0);
+
+        assertEquals("SUCCESS", streamed.getStatus());
+        assertEquals(expected.getAssignments(), streamed.getAssignments());
+        assertEquals(expected.getUnmatchedStudents(), streamed.getUnmatchedStudents());
+        assertEquals(expected.getFullCourses(), streamed.getFullCourses());
+    }
+
+    @Test
+    void testFieldOrderAndUnknownFieldsAreTolerated() {
+        String json = """
+                {
+                  "capacity_per_course": 2,
+                  "courses": [{"preferences": ["S2", "S1"], "course_id": "C1", "note": {"x": [1]}}],
+                  "version": 3,
+                  "students": [
+                    {"preferences": ["C1"], "student_id": "S1"},
+                    {"student_id": "S2", "preferences": ["C1"]},
+                    {"student_id": "S3", "preferences": ["C1"]}
+                  ]
+                }
+                """;
+
+        StableMatchingResponseDTO response = stableMatchingService.solveStableMatching(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), 0, 0);
+
+        assertEquals("SUCCESS", response.getStatus());
+        assertEquals(2, response.getAssignments().size());
+        assertEquals(1, response.getUnmatchedStudents().size());
+    }
+
+    @Test
+    void testCoursesBeforeStudentsMatchesDtoRequest() {
+        // S1 and S2 are both unranked by C2, so C2 takes whichever was declared first;
+        // C1's list mentions S2 before any student is declared
+        String json = """
+                {
+                  "courses": [
+                    {"course_id": "C1", "preferences": ["S2"]},
+                    {"course_id": "C2", "preferences": ["S3"]}
+                  ],
+                  "students": [
+                    {"student_id": "S1", "preferences": ["C2"]},
+                    {"student_id": "S2", "preferences": ["C2"]}
+                  ],
+                  "capacity_per_course": 1
+                }
+                """;
+        StableMatchingRequestDTO request = StableMatchingRequestDTO.builder()
+                .students(Arrays.asList(
+                        StableMatchingRequestDTO.StudentPreference.builder()
+                                .studentId("S1").preferences(Arrays.asList("C2")).build(),
+                        StableMatchingRequestDTO.StudentPreference.builder()
+                                .studentId("S2").preferences(Arrays.asList("C2")).build()
+                ))
+                .courses(Arrays.asList(
+                        StableMatchingRequestDTO.CoursePreference.builder()
+                                .courseId("C1").preferences(Arrays.asList("S2")).build(),
+                        StableMatchingRequestDTO.CoursePreference.builder()
+                                .courseId("C2").preferences(Arrays.asList("S3")).build()
+                ))
+                .capacityPerCourse(1)
+                .build();
+
+        StableMatchingResponseDTO expected = stableMatchingService.solveStableMatching(request);
+        StableMatchingResponseDTO streamed = stableMatchingService.solveStableMatching(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), 0, 0);
+
+        assertEquals("SUCCESS", streamed.getStatus());
+        assertEquals(expected.getAssignments(), streamed.getAssignments());
+        assertEquals(expected.getUnmatchedStudents(), streamed.getUnmatchedStudents());
+        assertEquals("S1", streamed.getAssignments().get(0).getStudentId());
+    }
+
+    @Test
+    void testMalformedPayloadIsReportedAsInvalidInput() {
+        String json = "{\"students\": {\"student_id\": \"S1\"}}";
+
+        StableMatchingResponseDTO response = stableMatchingService.solveStableMatching(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), 0, 0);
+
+        assertEquals("ERROR", response.getStatus());
+        assertTrue(response.getMessage().startsWith("Invalid input"));
+    }
+}
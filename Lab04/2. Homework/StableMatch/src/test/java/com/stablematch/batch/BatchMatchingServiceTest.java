@@ -0,0 +1,87 @@
+package com.stablematch.batch;
+
+import com.stablematch.algorithm.MatchingEngine;
+import com.stablematch.algorithm.StableMatchingService;
+import com.stablematch.dto.BatchMatchingRequestDTO;
+import com.stablematch.dto.BatchMatchingResponseDTO;
+import com.stablematch.dto.StableMatchingRequestDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchMatchingServiceTest {
+
+    private BatchMatchingService batchMatchingService;
+
+    @BeforeEach
+    void setUp() {
+        batchMatchingService = new BatchMatchingService(
+                new StableMatchingService(new SimpleMeterRegistry()), 4, 8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchMatchingService.shutdown();
+    }
+
+    @Test
+    void testResultsKeepSubmissionOrder() {
+        List<StableMatchingRequestDTO> problems = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            problems.add(problem("S" + i, "C" + i));
+        }
+
+        BatchMatchingResponseDTO response = batchMatchingService.solveBatch(
+                BatchMatchingRequestDTO.builder().problems(problems).build(), MatchingEngine.INDEXED);
+
+        assertEquals("SUCCESS", response.getStatus());
+        assertEquals(6, response.getResults().size());
+        for (int i = 0; i < 6; i++) {
+            BatchMatchingResponseDTO.ProblemResult result = response.getResults().get(i);
+            assertEquals(i, result.getIndex());
+            assertEquals("C" + i, result.getResult().getAssignments().get(0).getCourseId());
+            assertNotNull(result.getSolveTimeMs());
+        }
+    }
+
+    @Test
+    void testInvalidProblemDoesNotFailOthers() {
+        List<StableMatchingRequestDTO> problems = List.of(
+                problem("S1", "C1"),
+                StableMatchingRequestDTO.builder().students(List.of()).courses(List.of()).build());
+
+        BatchMatchingResponseDTO response = batchMatchingService.solveBatch(
+                BatchMatchingRequestDTO.builder().problems(problems).build(), MatchingEngine.INDEXED);
+
+        assertEquals("PARTIAL", response.getStatus());
+        assertEquals("SUCCESS", response.getResults().get(0).getResult().getStatus());
+        assertEquals("ERROR", response.getResults().get(1).getResult().getStatus());
+    }
+
+    @Test
+    void testOversizedBatchIsRejected() {
+        List<StableMatchingRequestDTO> problems = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            problems.add(problem("S" + i, "C" + i));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> batchMatchingService.solveBatch(
+                BatchMatchingRequestDTO.builder().problems(problems).build(), MatchingEngine.INDEXED));
+    }
+
+    private static StableMatchingRequestDTO problem(String student, String course) {
+        return StableMatchingRequestDTO.builder()
+                .students(List.of(StableMatchingRequestDTO.StudentPreference.builder()
+                        .studentId(student).preferences(List.of(course)).build()))
+                .courses(List.of(StableMatchingRequestDTO.CoursePreference.builder()
+                        .courseId(course).preferences(List.of(student)).build()))
+                .capacityPerCourse(1)
+                .build();
+    }
+}
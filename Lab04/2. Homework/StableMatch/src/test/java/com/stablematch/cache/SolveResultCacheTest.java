@@ -0,0 +1,152 @@
+package com.stablematch.cache;
+
+import com.stablematch.algorithm.MatchingEngine;
+import com.stablematch.algorithm.StableMatchingService;
+import com.stablematch.dto.StableMatchingRequestDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolveResultCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicLong clock;
+    private SolveResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new AtomicLong();
+        cache = new SolveResultCache(new StableMatchingService(meterRegistry), meterRegistry,
+                true, 2, DataSize.ofMegabytes(1), Duration.ofMinutes(10), clock::get);
+    }
+
+    @Test
+    void testEquivalentProblemIsServedFromCache() {
+        SolveResultCache.CachedOutcome first = cache.solve(
+                problem(null, null, course("C1", "S1", "S2"), course("C2", "S2", "S1")), MatchingEngine.INDEXED);
+        // Same problem with defaults spelled out and courses listed in another order
+        SolveResultCache.CachedOutcome second = cache.solve(
+                problem(1, 1, course("C2", "S2", "S1"), course("C1", "S1", "S2")), MatchingEngine.INDEXED);
+
+        assertFalse(first.hit());
+        assertTrue(second.hit());
+        assertNotNull(first.etag());
+        assertEquals(first.etag(), second.etag());
+        assertEquals(first.outcome().response().getAssignments(), second.outcome().response().getAssignments());
+        assertEquals(List.of("C1", "C2"), first.outcome().response().getFullCourses());
+        assertEquals(List.of("C2", "C1"), second.outcome().response().getFullCourses());
+        assertEquals(1.0, meterRegistry.get("stablematch.solve.invocations").counter().count());
+        assertEquals(1.0, meterRegistry.get("stablematch.cache.requests").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void testDifferentProblemsAndEnginesMiss() {
+        cache.solve(problem(1, null, course("C1", "S1", "S2"), course("C2", "S2", "S1")), MatchingEngine.INDEXED);
+
+        assertFalse(cache.solve(problem(1, null, course("C1", "S2", "S1"), course("C2", "S2", "S1")),
+                MatchingEngine.INDEXED).hit());
+        assertFalse(cache.solve(problem(1, null, course("C1", "S1", "S2"), course("C2", "S2", "S1")),
+                MatchingEngine.LEGACY).hit());
+    }
+
+    @Test
+    void testHitsShareTheResultIdOfTheSolve() {
+        SolveResultCache.CachedOutcome first = cache.solve(
+                problem(1, null, course("C1", "S1", "S2"), course("C2", "S2", "S1")), MatchingEngine.INDEXED);
+        SolveResultCache.CachedOutcome second = cache.solve(
+                problem(1, null, course("C1", "S1", "S2"), course("C2", "S2", "S1")), MatchingEngine.INDEXED);
+
+        assertNotNull(first.resultId());
+        assertEquals(first.resultId(), second.resultId());
+    }
+
+    @Test
+    void testFailedSolvesAreNotCached() {
+        StableMatchingRequestDTO invalid = problem(0, null, course("C1", "S1", "S2"));
+
+        SolveResultCache.CachedOutcome first = cache.solve(invalid, MatchingEngine.INDEXED);
+        SolveResultCache.CachedOutcome second = cache.solve(invalid, MatchingEngine.INDEXED);
+
+        assertEquals("ERROR", second.outcome().response().getStatus());
+        assertFalse(second.hit());
+        assertNull(first.etag());
+        assertNull(first.resultId());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testEntriesExpireAndLeastRecentlyUsedIsEvicted() {
+        StableMatchingRequestDTO a = problem(1, null, course("A", "S1", "S2"));
+        StableMatchingRequestDTO b = problem(1, null, course("B", "S1", "S2"));
+        StableMatchingRequestDTO c = problem(1, null, course("C", "S1", "S2"));
+
+        cache.solve(a, MatchingEngine.INDEXED);
+        cache.solve(b, MatchingEngine.INDEXED);
+        assertTrue(cache.solve(a, MatchingEngine.INDEXED).hit());
+        cache.solve(c, MatchingEngine.INDEXED);
+
+        assertTrue(cache.solve(a, MatchingEngine.INDEXED).hit());
+        assertFalse(cache.solve(b, MatchingEngine.INDEXED).hit());
+        assertEquals(2.0, meterRegistry.get("stablematch.cache.evictions").tag("cause", "size").counter().count());
+
+        clock.addAndGet(Duration.ofMinutes(10).toNanos());
+        assertFalse(cache.solve(a, MatchingEngine.INDEXED).hit());
+        assertEquals(1.0, meterRegistry.get("stablematch.cache.evictions").tag("cause", "expired").counter().count());
+    }
+
+    @Test
+    void testIfNoneMatchUsesWeakComparison() {
+        SolveResultCache.CachedOutcome outcome = cache.solve(
+                problem(1, null, course("C1", "S1", "S2")), MatchingEngine.INDEXED);
+        String opaque = outcome.etag().substring(2);
+
+        assertTrue(outcome.matches(outcome.etag()));
+        assertTrue(outcome.matches("\"other\", " + opaque));
+        assertTrue(outcome.matches("*"));
+        assertFalse(outcome.matches("W/\"other\""));
+        assertFalse(outcome.matches(null));
+    }
+
+    private static StableMatchingRequestDTO problem(Integer capacity, Integer courseCapacity,
+                                                    StableMatchingRequestDTO.CoursePreference... courses) {
+        List<StableMatchingRequestDTO.CoursePreference> coursePreferences = List.of(courses).stream()
+                .map(cp -> StableMatchingRequestDTO.CoursePreference.builder()
+                        .courseId(cp.getCourseId())
+                        .preferences(cp.getPreferences())
+                        .capacity(courseCapacity)
+                        .build())
+                .toList();
+        List<String> courseIds = coursePreferences.stream()
+                .map(StableMatchingRequestDTO.CoursePreference::getCourseId)
+                .sorted()
+                .toList();
+        List<String> reversed = new ArrayList<>(courseIds);
+        Collections.reverse(reversed);
+        return StableMatchingRequestDTO.builder()
+                .students(List.of(
+                        StableMatchingRequestDTO.StudentPreference.builder()
+                                .studentId("S1").preferences(courseIds).build(),
+                        StableMatchingRequestDTO.StudentPreference.builder()
+                                .studentId("S2").preferences(reversed).build()))
+                .courses(coursePreferences)
+                .capacityPerCourse(capacity)
+                .build();
+    }
+
+    private static StableMatchingRequestDTO.CoursePreference course(String id, String... students) {
+        return StableMatchingRequestDTO.CoursePreference.builder()
+                .courseId(id)
+                .preferences(List.of(students))
+                .build();
+    }
+}
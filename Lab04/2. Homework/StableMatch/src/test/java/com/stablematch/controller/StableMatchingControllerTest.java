@@ -0,0 +1,93 @@
+package com.stablematch.controller;
+
+import com.stablematch.algorithm.StableMatchingService;
+import com.stablematch.batch.BatchMatchingService;
+import com.stablematch.cache.SolveResultCache;
+import com.stablematch.dto.StableMatchingRequestDTO;
+import com.stablematch.dto.StableMatchingResponseDTO;
+import com.stablematch.result.MatchingResultStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StableMatchingControllerTest {
+
+    private MatchingResultStore resultStore;
+    private StableMatchingController controller;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        StableMatchingService stableMatchingService = new StableMatchingService(registry);
+        resultStore = new MatchingResultStore(registry, 8, DataSize.ofMegabytes(16));
+        SolveResultCache solveCache = new SolveResultCache(stableMatchingService, registry,
+                true, 16, DataSize.ofMegabytes(16), Duration.ofMinutes(10));
+        controller = new StableMatchingController(stableMatchingService,
+                new BatchMatchingService(stableMatchingService, 1, 8), resultStore, solveCache);
+    }
+
+    @Test
+    void testCacheHitReusesTheStoredResult() {
+        String first = resultId(controller.solveMatching(problem("C1"), null, null));
+        String other = resultId(controller.solveMatching(problem("C2"), null, null));
+
+        ResponseEntity<StableMatchingResponseDTO> hit = controller.solveMatching(problem("C1"), null, null);
+
+        assertEquals("HIT", hit.getHeaders().getFirst(StableMatchingController.CACHE_STATUS_HEADER));
+        assertEquals(first, resultId(hit));
+        // Not stored again, so the latest result is still the other problem's
+        assertEquals(other, resultStore.find(MatchingResultStore.LATEST).orElseThrow().getId());
+    }
+
+    @Test
+    void testNotModifiedStoresNothing() {
+        ResponseEntity<StableMatchingResponseDTO> solved = controller.solveMatching(problem("C1"), null, null);
+        String other = resultId(controller.solveMatching(problem("C2"), null, null));
+
+        ResponseEntity<StableMatchingResponseDTO> notModified =
+                controller.solveMatching(problem("C1"), null, solved.getHeaders().getETag());
+
+        assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+        assertEquals(resultId(solved), resultId(notModified));
+        assertEquals(other, resultStore.find(MatchingResultStore.LATEST).orElseThrow().getId());
+    }
+
+    @Test
+    void testEachFailedSolveIsStoredUnderItsOwnId() {
+        StableMatchingRequestDTO invalid = StableMatchingRequestDTO.builder()
+                .students(List.of())
+                .courses(List.of())
+                .build();
+
+        ResponseEntity<StableMatchingResponseDTO> first = controller.solveMatching(invalid, null, null);
+        ResponseEntity<StableMatchingResponseDTO> second = controller.solveMatching(invalid, null, null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, first.getStatusCode());
+        assertNotEquals(resultId(first), resultId(second));
+        assertTrue(resultStore.find(resultId(second)).isPresent());
+    }
+
+    private static String resultId(ResponseEntity<?> response) {
+        HttpHeaders headers = response.getHeaders();
+        return headers.getFirst(StableMatchingController.RESULT_ID_HEADER);
+    }
+
+    private static StableMatchingRequestDTO problem(String courseId) {
+        return StableMatchingRequestDTO.builder()
+                .students(List.of(StableMatchingRequestDTO.StudentPreference.builder()
+                        .studentId("S1").preferences(List.of(courseId)).build()))
+                .courses(List.of(StableMatchingRequestDTO.CoursePreference.builder()
+                        .courseId(courseId).preferences(List.of("S1")).build()))
+                .capacityPerCourse(1)
+                .build();
+    }
+}
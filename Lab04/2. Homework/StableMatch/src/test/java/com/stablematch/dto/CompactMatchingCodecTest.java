@@ -0,0 +1,92 @@
+package com.stablematch.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactMatchingCodecTest {
+
+    @Test
+    void testRoundTripPreservesRequest() throws IOException {
+        StableMatchingRequestDTO request = StableMatchingRequestDTO.builder()
+                .students(Arrays.asList(
+                        StableMatchingRequestDTO.StudentPreference.builder()
+                                .studentId("S1").preferences(Arrays.asList("C1", "C2")).build(),
+                        StableMatchingRequestDTO.StudentPreference.builder()
+                                .studentId("Ștefan").preferences(Arrays.asList("C2", "C9")).build(),
+                        StableMatchingRequestDTO.StudentPreference.builder()
+                                .studentId("S3").build()
+                ))
+                .courses(Arrays.asList(
+                        StableMatchingRequestDTO.CoursePreference.builder()
+                                .courseId("C1").preferences(Arrays.asList("S3", "Ștefan", "S1")).capacity(2).build(),
+                        StableMatchingRequestDTO.CoursePreference.builder()
+                                .courseId("C2").preferences(Arrays.asList("S1", "S7")).capacity(-1).build()
+                ))
+                .capacityPerCourse(Integer.MIN_VALUE)
+                .build();
+
+        assertEquals(request, roundTrip(request));
+        assertEquals(new StableMatchingRequestDTO(), roundTrip(new StableMatchingRequestDTO()));
+    }
+
+    @Test
+    void testEncodingIsSmallerThanJson() throws IOException {
+        List<StableMatchingRequestDTO.StudentPreference> students = new ArrayList<>();
+        List<String> studentIds = new ArrayList<>();
+        for (int s = 0; s < 500; s++) {
+            studentIds.add("student-" + s);
+            students.add(StableMatchingRequestDTO.StudentPreference.builder()
+                    .studentId("student-" + s).preferences(Arrays.asList("C1", "C2", "C3")).build());
+        }
+        List<StableMatchingRequestDTO.CoursePreference> courses = new ArrayList<>();
+        for (int c = 1; c <= 3; c++) {
+            courses.add(StableMatchingRequestDTO.CoursePreference.builder()
+                    .courseId("C" + c).preferences(studentIds).build());
+        }
+        StableMatchingRequestDTO request = StableMatchingRequestDTO.builder()
+                .students(students).courses(courses).capacityPerCourse(100).build();
+
+        ByteArrayOutputStream compact = new ByteArrayOutputStream();
+        CompactMatchingCodec.encode(request, compact);
+        byte[] json = new ObjectMapper().writeValueAsBytes(request);
+
+        assertTrue(compact.size() * 4 < json.length,
+                "compact " + compact.size() + " bytes vs JSON " + json.length + " bytes");
+    }
+
+    @Test
+    void testMalformedPayloadIsRejected() {
+        assertThrows(IOException.class, () -> CompactMatchingCodec.decode(
+                new ByteArrayInputStream("{\"students\":[]}".getBytes(StandardCharsets.UTF_8))));
+
+        byte[] truncated = Arrays.copyOf(encode(StableMatchingRequestDTO.builder()
+                .students(List.of(StableMatchingRequestDTO.StudentPreference.builder()
+                        .studentId("S1").preferences(List.of("C1")).build()))
+                .build()), 8);
+        assertThrows(IOException.class, () -> CompactMatchingCodec.decode(new ByteArrayInputStream(truncated)));
+    }
+
+    private static StableMatchingRequestDTO roundTrip(StableMatchingRequestDTO request) throws IOException {
+        return CompactMatchingCodec.decode(new ByteArrayInputStream(encode(request)));
+    }
+
+    private static byte[] encode(StableMatchingRequestDTO request) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            CompactMatchingCodec.encode(request, out);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,139 @@
+package com.stablematch.job;
+
+import com.stablematch.algorithm.MatchingEngine;
+import com.stablematch.algorithm.MatchingOutcome;
+import com.stablematch.algorithm.SolveProgress;
+import com.stablematch.dto.MatchingJobStatusDTO;
+import com.stablematch.algorithm.StableMatchingService;
+import com.stablematch.dto.StableMatchingRequestDTO;
+import com.stablematch.dto.StableMatchingResponseDTO;
+import com.stablematch.result.MatchingResultStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchingJobServiceTest {
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private MatchingJobService matchingJobService;
+    private MatchingResultStore resultStore;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (matchingJobService != null) {
+            matchingJobService.shutdown();
+        }
+    }
+
+    @Test
+    void testJobCompletesWithResult() throws Exception {
+        release.countDown();
+        matchingJobService = newService(1, 4);
+
+        MatchingJob job = matchingJobService.submit(simpleRequest(), MatchingEngine.INDEXED);
+        StableMatchingResponseDTO result = job.getCompletion().get(5, TimeUnit.SECONDS);
+
+        assertEquals("SUCCESS", result.getStatus());
+        assertEquals(MatchingJob.Status.SUCCEEDED, job.getStatus());
+        assertTrue(matchingJobService.find(job.getId()).isPresent());
+        assertTrue(resultStore.find(job.getId()).isPresent());
+        assertNotNull(job.toStatus().getResultUrl());
+    }
+
+    @Test
+    void testFinishedJobReportsSolverProgress() throws Exception {
+        release.countDown();
+        matchingJobService = newService(1, 4);
+
+        MatchingJob job = matchingJobService.submit(simpleRequest(), MatchingEngine.INDEXED);
+        job.getCompletion().get(5, TimeUnit.SECONDS);
+        MatchingJobStatusDTO status = job.toStatus();
+
+        assertEquals("respond", status.getPhase());
+        assertEquals(1L, status.getProposals());
+        assertEquals(1L, status.getPreferenceEntries());
+    }
+
+    @Test
+    void testQueuedJobReportsNoProgress() throws Exception {
+        matchingJobService = newService(1, 4);
+
+        matchingJobService.submit(simpleRequest(), MatchingEngine.INDEXED); // running (blocked)
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        MatchingJobStatusDTO queued = matchingJobService.submit(simpleRequest(), MatchingEngine.INDEXED).toStatus();
+
+        assertEquals("QUEUED", queued.getStatus());
+        assertNull(queued.getPhase());
+        assertNull(queued.getProposals());
+    }
+
+    @Test
+    void testFinishedJobsAreEvictedWithoutFurtherSubmissions() throws Exception {
+        release.countDown();
+        matchingJobService = newService(1, 4, Duration.ofMillis(1));
+
+        MatchingJob job = matchingJobService.submit(simpleRequest(), MatchingEngine.INDEXED);
+        job.getCompletion().get(5, TimeUnit.SECONDS);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (matchingJobService.find(job.getId()).isPresent() && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(matchingJobService.find(job.getId()).isEmpty());
+    }
+
+    @Test
+    void testSubmissionIsRejectedWhenQueueIsFull() throws Exception {
+        matchingJobService = newService(1, 1);
+
+        matchingJobService.submit(simpleRequest(), MatchingEngine.INDEXED); // running (blocked)
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        matchingJobService.submit(simpleRequest(), MatchingEngine.INDEXED); // queued
+
+        assertThrows(JobQueueFullException.class,
+                () -> matchingJobService.submit(simpleRequest(), MatchingEngine.INDEXED));
+    }
+
+    private MatchingJobService newService(int workers, int queueCapacity) {
+        return newService(workers, queueCapacity, Duration.ofMinutes(1));
+    }
+
+    private MatchingJobService newService(int workers, int queueCapacity, Duration retention) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        StableMatchingService blockingService = new StableMatchingService(registry) {
+            @Override
+            public MatchingOutcome solve(StableMatchingRequestDTO request, MatchingEngine engine,
+                                         SolveProgress progress) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.solve(request, engine, progress);
+            }
+        };
+        resultStore = new MatchingResultStore(registry, 4, DataSize.ofMegabytes(16));
+        return new MatchingJobService(blockingService, resultStore, registry, workers, queueCapacity, retention);
+    }
+
+    private static StableMatchingRequestDTO simpleRequest() {
+        return StableMatchingRequestDTO.builder()
+                .students(List.of(StableMatchingRequestDTO.StudentPreference.builder()
+                        .studentId("S1").preferences(List.of("C1")).build()))
+                .courses(List.of(StableMatchingRequestDTO.CoursePreference.builder()
+                        .courseId("C1").preferences(List.of("S1")).build()))
+                .capacityPerCourse(1)
+                .build();
+    }
+}
@@ -0,0 +1,70 @@
+package com.stablematch.result;
+
+import com.stablematch.dto.StableMatchingResponseDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchingResultStoreTest {
+
+    @Test
+    void testLookupsUseIndexesOfPublishedResult() {
+        MatchingResultStore store = new MatchingResultStore(new SimpleMeterRegistry(), 4, DataSize.ofMegabytes(1));
+        store.publish("r1", response(
+                assignment("S1", "C1"), assignment("S2", "C1"), assignment("S3", "C2")));
+
+        StoredMatchingResult latest = store.find(MatchingResultStore.LATEST).orElseThrow();
+
+        assertEquals("r1", latest.getId());
+        assertEquals("C2", latest.findByStudent("S3").getCourseId());
+        assertNull(latest.findByStudent("S9"));
+        assertEquals(2, latest.findByCourse("C1").size());
+        assertTrue(latest.findByCourse("C9").isEmpty());
+    }
+
+    @Test
+    void testOldestResultsAreEvictedByCount() {
+        MatchingResultStore store = new MatchingResultStore(new SimpleMeterRegistry(), 2, DataSize.ofMegabytes(1));
+        store.publish("r1", response(assignment("S1", "C1")));
+        store.publish("r2", response(assignment("S1", "C2")));
+        store.publish("r3", response(assignment("S1", "C3")));
+
+        assertTrue(store.find("r1").isEmpty());
+        assertTrue(store.find("r2").isPresent());
+        assertEquals("r3", store.find(MatchingResultStore.LATEST).orElseThrow().getId());
+    }
+
+    @Test
+    void testMemoryBudgetNeverEvictsLatest() {
+        MatchingResultStore store = new MatchingResultStore(new SimpleMeterRegistry(), 10, DataSize.ofBytes(1));
+        store.publish("r1", response(assignment("S1", "C1")));
+        store.publish("r2", response(assignment("S2", "C1")));
+
+        assertTrue(store.find("r1").isEmpty());
+        assertEquals("S2", store.find("r2").orElseThrow().findByCourse("C1").get(0).getStudentId());
+    }
+
+    private static StableMatchingResponseDTO response(StableMatchingResponseDTO.Assignment... assignments) {
+        return StableMatchingResponseDTO.builder()
+                .status("SUCCESS")
+                .assignments(new ArrayList<>(List.of(assignments)))
+                .unmatchedStudents(List.of())
+                .fullCourses(List.of())
+                .executionTimeMs(1L)
+                .build();
+    }
+
+    private static StableMatchingResponseDTO.Assignment assignment(String student, String course) {
+        return StableMatchingResponseDTO.Assignment.builder()
+                .studentId(student)
+                .courseId(course)
+                .studentPreferenceRank(1)
+                .coursePreferenceRank(1)
+                .build();
+    }
+}